@@ -1,12 +1,13 @@
 package com.gamma.asn1.cli;
 
+import com.gamma.asn1.core.io.ByteSource;
+import com.gamma.asn1.core.io.ByteSources;
 import com.gamma.asn1.core.mapper.SemanticEventMapper;
 import com.gamma.asn1.core.tlv.TLVEventStreamer;
 import com.gamma.asn1.grammar.ASN1GrammarParser;
 import com.gamma.asn1.grammar.ASN1Schema;
 
-import java.io.FileInputStream;
-import java.io.InputStream;
+import java.nio.file.Paths;
 
 public class Main {
 
@@ -30,19 +31,21 @@ public class Main {
             // TreeFlattener flattener = new TreeFlattener(rulesPath);
 
             // The semantic mapper listens to the TLV streamer
-            SemanticEventMapper mapper = new SemanticEventMapper(schema);
-            // The mapper would be configured to send its output (DecodedNode) to the flattener
+            // The mapper would be configured to send its output to the flattener; for now it counts the fields.
+            long[] fieldCount = new long[1];
+            SemanticEventMapper mapper = new SemanticEventMapper(schema, (path, rawValue, type) -> fieldCount[0]++);
 
             // The TLV streamer reads the raw binary file
             TLVEventStreamer streamer = new TLVEventStreamer();
 
             // 3. Run the pipeline
             System.out.printf("Processing %s with mode %s%n", binaryDataPath, mode);
-            // try (InputStream dataStream = new FileInputStream(binaryDataPath)) {
-            //     streamer.process(dataStream, mapper);
-            // }
+            // Gzip input is inflated ahead of the parser, in parallel for blocked gzip files.
+            try (ByteSource source = ByteSources.open(Paths.get(binaryDataPath))) {
+                streamer.process(source, mapper);
+            }
 
-            System.out.println("Processing complete.");
+            System.out.printf("Processing complete: %d fields.%n", fieldCount[0]);
 
         } catch (Exception e) {
             e.printStackTrace();
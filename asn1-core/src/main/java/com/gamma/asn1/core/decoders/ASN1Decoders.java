@@ -2,8 +2,10 @@ package com.gamma.asn1.core;
 
 import com.gamma.asn1.core.exception.ASN1ProcessingException;
 import com.gamma.asn1.core.mapper.DecodedNode;
+import com.gamma.asn1.core.mapper.NodeArena;
 import com.gamma.asn1.core.tlv.TLVEventStreamer;
-import com.gamma.asn1.core.tlv.TLVListener;
+import com.gamma.asn1.core.tlv.TLVFlyweightListener;
+import com.gamma.asn1.core.tlv.ValueView;
 
 import java.io.InputStream;
 import java.util.ArrayDeque;
@@ -52,28 +54,47 @@ public final class ASN1Decoders {
     }
 
     /**
-     * A TLVListener implementation that constructs a DecodedNode tree from streamer events.
+     * Decodes an entire ASN.1 input stream into a {@link NodeArena}, the compact alternative to {@link #buildTree}.
+     * The arena is cleared first, so one arena can be reused for many streams without allocating.
+     *
+     * @param inputStream The ASN.1 data stream to parse. The stream will be fully consumed but not closed.
+     * @param arena       The arena to fill.
+     * @return The arena, holding every top-level element of the stream.
+     * @throws ASN1ProcessingException if the data is malformed, an I/O error occurs, or the stream is truncated.
+     */
+    public static NodeArena buildArena(InputStream inputStream, NodeArena arena) throws ASN1ProcessingException {
+        arena.clear();
+        try {
+            new TLVEventStreamer().process(inputStream, arena);
+        } catch (Exception e) {
+            if (e instanceof ASN1ProcessingException) {
+                throw (ASN1ProcessingException) e;
+            }
+            throw new ASN1ProcessingException("Failed to parse ASN.1 stream: " + e.getMessage(), -1, "unknown", e);
+        }
+        return arena;
+    }
+
+    /**
+     * A TLVFlyweightListener implementation that constructs a DecodedNode tree from streamer events.
      * It maintains a stack of nodes to correctly build the nested structure of constructed types.
-     * <p>
-     * <b>Note:</b> This implementation relies on a modified {@link TLVListener} interface
-     * that includes the byte offset in the {@code onStartTag} event.
-     * </p>
+     * Tags are kept in packed form; only primitive values are copied out of the streamer's buffer,
+     * since the tree must outlive it.
      */
-    private static class TreeBuildingListener implements TLVListener {
+    private static class TreeBuildingListener implements TLVFlyweightListener {
         private final Deque<DecodedNode> nodeStack = new ArrayDeque<>();
         private DecodedNode root = null;
 
         /**
          * Handles the start of a new TLV element.
          *
-         * @param tag           The tag identifying the data type.
-         * @param length        The length of the value part.
-         * @param isConstructed A flag indicating if the node is constructed.
-         * @param offset        The starting byte offset of this node in the original stream.
+         * @param tag    The packed tag identifying the data type, including the constructed bit.
+         * @param length The length of the value part.
+         * @param offset The starting byte offset of this node in the original stream.
          */
         @Override
-        public void onStartTag(byte[] tag, int length, boolean isConstructed, long offset) {
-            DecodedNode newNode = new DecodedNode(tag, length, isConstructed, offset);
+        public void onStartTag(int tag, int length, long offset) {
+            DecodedNode newNode = new DecodedNode(tag, length, offset);
 
             if (nodeStack.isEmpty()) {
                 // This is the first node encountered, so it becomes the root.
@@ -90,24 +111,24 @@ public final class ASN1Decoders {
         /**
          * Handles the value of a primitive TLV element.
          *
-         * @param value The raw byte value.
+         * @param value A view of the raw byte value.
          */
         @Override
-        public void onPrimitiveValue(byte[] value) {
+        public void onPrimitiveValue(ValueView value) {
             DecodedNode currentNode = nodeStack.peek();
             if (currentNode == null || currentNode.isConstructed()) {
                 throw new IllegalStateException("Received primitive value, but the current node is constructed or null.");
             }
-            currentNode.setValue(value);
+            currentNode.setValue(value.toByteArray());
         }
 
         /**
          * Handles the end of a TLV element. The element is popped from the context stack.
          *
-         * @param tag The tag of the element that is ending.
+         * @param tag The packed tag of the element that is ending.
          */
         @Override
-        public void onEndTag(byte[] tag) {
+        public void onEndTag(int tag) {
             if (nodeStack.isEmpty()) {
                 throw new IllegalStateException("Received onEndTag event with an empty node stack. Mismatched tags.");
             }
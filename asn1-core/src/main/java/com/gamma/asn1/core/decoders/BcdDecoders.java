@@ -0,0 +1,280 @@
+package com.gamma.asn1.core.decoders;
+
+import com.gamma.asn1.core.exception.DecoderException;
+import com.gamma.asn1.core.tlv.ValueView;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decoders for digit strings packed two per byte, as used for subscriber identities in 3GPP CDRs.
+ * <p>
+ * TBCD (3GPP TS 29.002), used for IMSI, MSISDN and IMEI, stores the first digit of each pair in the low nibble;
+ * plain BCD stores it in the high nibble. Both use {@code 0xF} as a filler for odd digit counts, and every
+ * decoder stops at the first filler, which may only be followed by more fillers. Besides the digits 0-9, TBCD
+ * nibbles {@code 0xA}-{@code 0xE} decode to {@code *}, {@code #}, {@code a}, {@code b} and {@code c}.
+ * <p>
+ * Text is produced from a 256-entry table of nibble pairs. For hot fields, the packed form avoids text
+ * altogether: up to {@value #MAX_PACKED_DIGITS} decimal digits and their count are held in a {@code long}, so
+ * identities can be compared, hashed, grouped and joined as primitives. Two packed values are equal exactly when
+ * their digit strings are; {@link #appendPacked} converts to text when the value is written out.
+ */
+public final class BcdDecoders {
+
+    /** The maximum number of digits in the packed form. */
+    public static final int MAX_PACKED_DIGITS = 16;
+
+    private static final int FILLER = 0xF;
+    private static final int COUNT_SHIFT = 56;
+    private static final long DIGITS_MASK = (1L << COUNT_SHIFT) - 1;
+    private static final char[] TBCD_CHARS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', '*', '#', 'a', 'b', 'c', 0};
+    private static final long[] POWERS_OF_TEN = new long[MAX_PACKED_DIGITS];
+
+    // For every byte value: the first and second character of the pair, 0 for a filler.
+    private static final char[] TBCD_PAIRS = new char[512];
+    private static final char[] BCD_PAIRS = new char[512];
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            TBCD_PAIRS[2 * b] = TBCD_CHARS[b & 0xF];
+            TBCD_PAIRS[2 * b + 1] = TBCD_CHARS[b >>> 4];
+            BCD_PAIRS[2 * b] = TBCD_CHARS[b >>> 4];
+            BCD_PAIRS[2 * b + 1] = TBCD_CHARS[b & 0xF];
+        }
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private BcdDecoders() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    // ---- Text ----
+
+    /**
+     * Decodes a TBCD string, e.g. an IMSI.
+     * @param bytes The raw bytes of the value.
+     * @return The digits.
+     * @throws DecoderException If a filler is followed by a digit.
+     */
+    public static String decodeTbcd(byte[] bytes) throws DecoderException {
+        return decodeTbcd(ByteBuffer.wrap(bytes), 0, bytes.length, new StringBuilder(bytes.length * 2)).toString();
+    }
+
+    /**
+     * Decodes a TBCD string in place.
+     * @param value A view of the raw bytes of the value.
+     * @return The digits.
+     * @throws DecoderException If a filler is followed by a digit.
+     */
+    public static String decodeTbcd(ValueView value) throws DecoderException {
+        return decodeTbcd(value, new StringBuilder(value.length() * 2)).toString();
+    }
+
+    /**
+     * Decodes a TBCD string in place and appends it to a caller-supplied builder.
+     * @param value A view of the raw bytes of the value.
+     * @param out   The builder to append to.
+     * @return {@code out}.
+     * @throws DecoderException If a filler is followed by a digit.
+     */
+    public static StringBuilder decodeTbcd(ValueView value, StringBuilder out) throws DecoderException {
+        return decodeTbcd(value.buffer(), value.offset(), value.length(), out);
+    }
+
+    /**
+     * Decodes a TBCD string held in a buffer and appends it to a caller-supplied builder.
+     * @param buffer The buffer holding the value.
+     * @param index  The absolute index of the first byte of the value.
+     * @param len    The number of bytes of the value.
+     * @param out    The builder to append to.
+     * @return {@code out}.
+     * @throws DecoderException If a filler is followed by a digit.
+     */
+    public static StringBuilder decodeTbcd(ByteBuffer buffer, int index, int len, StringBuilder out) throws DecoderException {
+        return decodePairs(TBCD_PAIRS, buffer, index, len, out);
+    }
+
+    /**
+     * Decodes a BCD string, which stores the first digit of each pair in the high nibble.
+     * @param bytes The raw bytes of the value.
+     * @return The digits.
+     * @throws DecoderException If a filler is followed by a digit.
+     */
+    public static String decodeBcd(byte[] bytes) throws DecoderException {
+        return decodeBcd(ByteBuffer.wrap(bytes), 0, bytes.length, new StringBuilder(bytes.length * 2)).toString();
+    }
+
+    /**
+     * Decodes a BCD string in place.
+     * @param value A view of the raw bytes of the value.
+     * @return The digits.
+     * @throws DecoderException If a filler is followed by a digit.
+     */
+    public static String decodeBcd(ValueView value) throws DecoderException {
+        return decodeBcd(value, new StringBuilder(value.length() * 2)).toString();
+    }
+
+    /**
+     * Decodes a BCD string in place and appends it to a caller-supplied builder.
+     * @param value A view of the raw bytes of the value.
+     * @param out   The builder to append to.
+     * @return {@code out}.
+     * @throws DecoderException If a filler is followed by a digit.
+     */
+    public static StringBuilder decodeBcd(ValueView value, StringBuilder out) throws DecoderException {
+        return decodeBcd(value.buffer(), value.offset(), value.length(), out);
+    }
+
+    /**
+     * Decodes a BCD string held in a buffer and appends it to a caller-supplied builder.
+     * @param buffer The buffer holding the value.
+     * @param index  The absolute index of the first byte of the value.
+     * @param len    The number of bytes of the value.
+     * @param out    The builder to append to.
+     * @return {@code out}.
+     * @throws DecoderException If a filler is followed by a digit.
+     */
+    public static StringBuilder decodeBcd(ByteBuffer buffer, int index, int len, StringBuilder out) throws DecoderException {
+        return decodePairs(BCD_PAIRS, buffer, index, len, out);
+    }
+
+    private static StringBuilder decodePairs(char[] pairs, ByteBuffer buffer, int index, int len, StringBuilder out) throws DecoderException {
+        int end = index + len;
+        for (int i = index; i < end; i++) {
+            int pair = 2 * (buffer.get(i) & 0xFF);
+            char first = pairs[pair];
+            char second = pairs[pair + 1];
+            if (second == 0) {
+                if (first != 0) {
+                    out.append(first);
+                }
+                checkFillers(buffer, i + 1, end, first == 0 ? i - index : i - index + 1);
+                break;
+            }
+            if (first == 0) {
+                throw fillerFollowedByDigit(i - index);
+            }
+            out.append(first).append(second);
+        }
+        return out;
+    }
+
+    private static void checkFillers(ByteBuffer buffer, int from, int end, int position) throws DecoderException {
+        for (int i = from; i < end; i++) {
+            if ((buffer.get(i) & 0xFF) != 0xFF) {
+                throw fillerFollowedByDigit(position);
+            }
+        }
+    }
+
+    private static DecoderException fillerFollowedByDigit(int position) {
+        return new DecoderException("BCD filler followed by a digit in byte " + position + ".");
+    }
+
+    // ---- Packed ----
+
+    /**
+     * Decodes a TBCD string of decimal digits into the packed form.
+     * @param bytes The raw bytes of the value.
+     * @return The packed digits.
+     * @throws DecoderException If the value holds a non-decimal digit, a misplaced filler or more than
+     *                          {@value #MAX_PACKED_DIGITS} digits.
+     */
+    public static long decodeTbcdPacked(byte[] bytes) throws DecoderException {
+        return decodeTbcdPacked(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    /**
+     * Decodes a TBCD string of decimal digits into the packed form, in place and without allocating.
+     * @param value A view of the raw bytes of the value.
+     * @return The packed digits.
+     * @throws DecoderException If the value holds a non-decimal digit, a misplaced filler or more than
+     *                          {@value #MAX_PACKED_DIGITS} digits.
+     */
+    public static long decodeTbcdPacked(ValueView value) throws DecoderException {
+        return decodeTbcdPacked(value.buffer(), value.offset(), value.length());
+    }
+
+    /**
+     * Decodes a TBCD string of decimal digits held in a buffer into the packed form, without allocating.
+     * @param buffer The buffer holding the value.
+     * @param index  The absolute index of the first byte of the value.
+     * @param len    The number of bytes of the value.
+     * @return The packed digits.
+     * @throws DecoderException If the value holds a non-decimal digit, a misplaced filler or more than
+     *                          {@value #MAX_PACKED_DIGITS} digits.
+     */
+    public static long decodeTbcdPacked(ByteBuffer buffer, int index, int len) throws DecoderException {
+        long digits = 0;
+        int count = 0;
+        int end = index + len;
+        for (int i = index; i < end; i++) {
+            int b = buffer.get(i) & 0xFF;
+            int low = b & 0xF;
+            int high = b >>> 4;
+            if (low == FILLER) {
+                if (high != FILLER) {
+                    throw fillerFollowedByDigit(i - index);
+                }
+                checkFillers(buffer, i + 1, end, i - index);
+                break;
+            }
+            digits = digits * 10 + checkDecimal(low);
+            count++;
+            if (high == FILLER) {
+                checkFillers(buffer, i + 1, end, i - index + 1);
+                break;
+            }
+            digits = digits * 10 + checkDecimal(high);
+            count++;
+            if (count > MAX_PACKED_DIGITS) {
+                break;
+            }
+        }
+        if (count > MAX_PACKED_DIGITS) {
+            throw new DecoderException("TBCD value has more than " + MAX_PACKED_DIGITS + " digits.");
+        }
+        return ((long) count << COUNT_SHIFT) | digits;
+    }
+
+    private static int checkDecimal(int nibble) throws DecoderException {
+        if (nibble > 9) {
+            throw new DecoderException("TBCD value holds the non-decimal digit '" + TBCD_CHARS[nibble] + "'.");
+        }
+        return nibble;
+    }
+
+    /**
+     * @param packed A value in the packed form.
+     * @return The number of digits, including leading zeros.
+     */
+    public static int packedLength(long packed) {
+        return (int) (packed >>> COUNT_SHIFT);
+    }
+
+    /**
+     * Appends the digits of a packed value, including leading zeros.
+     * @param packed A value in the packed form.
+     * @param out    The builder to append to.
+     * @return {@code out}.
+     */
+    public static StringBuilder appendPacked(long packed, StringBuilder out) {
+        long digits = packed & DIGITS_MASK;
+        for (int i = packedLength(packed) - 1; i >= 0; i--) {
+            long power = POWERS_OF_TEN[i];
+            out.append((char) ('0' + digits / power));
+            digits %= power;
+        }
+        return out;
+    }
+
+    /**
+     * @param packed A value in the packed form.
+     * @return The digits as text.
+     */
+    public static String packedToString(long packed) {
+        return appendPacked(packed, new StringBuilder(packedLength(packed))).toString();
+    }
+}
@@ -0,0 +1,135 @@
+package com.gamma.asn1.core.decoders;
+
+import com.gamma.asn1.core.schema.CompiledSchema;
+import com.gamma.asn1.core.tlv.ValueView;
+import com.gamma.asn1.model.ASN1BaseType;
+import com.gamma.asn1.model.ASN1TypeDefinition;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Chooses the {@link ValueLoader} that decodes each field of a schema. Decoders are registered by field path, by
+ * schema type name and by base type, and the most specific registration wins: a path before a type name, a type
+ * name before a base type. Fields without a decoder are returned as raw bytes.
+ * <p>
+ * {@link #bind} resolves the decoder of every field of a {@link CompiledSchema} once, so there is no lookup per
+ * value. {@link com.gamma.asn1.core.mapper.SemanticEventMapper#withDecoders} turns the bound decoders into one
+ * handler per field that passes {@link ValueLoader.OfLong}, {@link ValueLoader.OfInt} and
+ * {@link ValueLoader.OfBoolean} results to the primitive methods of a sink, without boxing. Decoders are registered
+ * as suppliers and every binding creates its own instances, so stateful decoders such as {@link TimeStampDecoder}
+ * are never shared: bind once per thread.
+ * <p>
+ * {@link #defaults()} covers the built-in types plus the 3GPP {@code TimeStamp}, {@code TBCD-STRING}, {@code IMSI}
+ * and {@code IMEI} types; operator-specific types such as IP addresses or vendor extensions are added with
+ * {@link #registerType}.
+ */
+public final class DecoderRegistry {
+
+    static final ValueLoader<byte[]> RAW_BYTES = ValueView::toByteArray;
+
+    private final Map<ASN1BaseType, Supplier<? extends ValueLoader<?>>> byBaseType = new EnumMap<>(ASN1BaseType.class);
+    private final Map<String, Supplier<? extends ValueLoader<?>>> byTypeName = new HashMap<>();
+    private final Map<String, Supplier<? extends ValueLoader<?>>> byPath = new HashMap<>();
+
+    /**
+     * Creates an empty registry, which decodes every field to raw bytes.
+     */
+    public DecoderRegistry() {
+    }
+
+    /**
+     * Creates a registry with decoders for the built-in types and the common 3GPP types: INTEGER to
+     * {@code long}, ENUMERATED to {@code int}, BOOLEAN to {@code boolean}, NULL to {@code null}, the ASCII
+     * string types to {@code String}, {@code TimeStamp} to epoch millis as a {@code long} and the TBCD types to
+     * their digits.
+     *
+     * @return A new registry, which may be extended.
+     */
+    public static DecoderRegistry defaults() {
+        DecoderRegistry registry = new DecoderRegistry();
+        registry.registerBaseType(ASN1BaseType.INTEGER, () -> (ValueLoader.OfLong) PrimitiveDecoders::decodeInteger);
+        registry.registerBaseType(ASN1BaseType.ENUMERATED, () -> (ValueLoader.OfInt) PrimitiveDecoders::decodeEnumerated);
+        registry.registerBaseType(ASN1BaseType.BOOLEAN, () -> (ValueLoader.OfBoolean) PrimitiveDecoders::decodeBoolean);
+        registry.registerBaseType(ASN1BaseType.NULL, () -> value -> {
+            PrimitiveDecoders.decodeNull(value);
+            return null;
+        });
+        registry.registerBaseType(ASN1BaseType.IA5_STRING, () -> PrimitiveDecoders::decodeIA5String);
+        registry.registerBaseType(ASN1BaseType.VISIBLE_STRING, () -> PrimitiveDecoders::decodeIA5String);
+        registry.registerBaseType(ASN1BaseType.PRINTABLE_STRING, () -> PrimitiveDecoders::decodeIA5String);
+        registry.registerBaseType(ASN1BaseType.NUMERIC_STRING, () -> PrimitiveDecoders::decodeIA5String);
+        registry.registerType("TimeStamp", () -> (ValueLoader.OfLong) new TimeStampDecoder()::toEpochMillis);
+        registry.registerType("TBCD-STRING", () -> BcdDecoders::decodeTbcd);
+        registry.registerType("IMSI", () -> BcdDecoders::decodeTbcd);
+        registry.registerType("IMEI", () -> BcdDecoders::decodeTbcd);
+        return registry;
+    }
+
+    /**
+     * Registers the decoder for every field of a base type that has no more specific registration.
+     *
+     * @param baseType The base type.
+     * @param decoders Creates the decoder, once per binding.
+     * @return This registry.
+     */
+    public DecoderRegistry registerBaseType(ASN1BaseType baseType, Supplier<? extends ValueLoader<?>> decoders) {
+        byBaseType.put(Objects.requireNonNull(baseType, "Base type cannot be null"), Objects.requireNonNull(decoders));
+        return this;
+    }
+
+    /**
+     * Registers the decoder for every field whose type is the named schema type, e.g. {@code "IPAddress"}.
+     *
+     * @param typeName The name of a type defined in the schema.
+     * @param decoders Creates the decoder, once per binding.
+     * @return This registry.
+     */
+    public DecoderRegistry registerType(String typeName, Supplier<? extends ValueLoader<?>> decoders) {
+        byTypeName.put(Objects.requireNonNull(typeName, "Type name cannot be null"), Objects.requireNonNull(decoders));
+        return this;
+    }
+
+    /**
+     * Registers the decoder for one field.
+     *
+     * @param path     The dotted path of the field, as reported by {@link CompiledSchema#fieldPath}.
+     * @param decoders Creates the decoder, once per binding.
+     * @return This registry.
+     */
+    public DecoderRegistry registerPath(String path, Supplier<? extends ValueLoader<?>> decoders) {
+        byPath.put(Objects.requireNonNull(path, "Path cannot be null"), Objects.requireNonNull(decoders));
+        return this;
+    }
+
+    /**
+     * Resolves the decoder of every field of a compiled schema. Each registered supplier is called at most once.
+     *
+     * @param schema The compiled schema.
+     * @return The decoders, indexed by field ID; for use by one thread.
+     */
+    public FieldDecoders bind(CompiledSchema schema) {
+        ValueLoader<?>[] decoders = new ValueLoader<?>[schema.fieldCount()];
+        Map<Supplier<? extends ValueLoader<?>>, ValueLoader<?>> created = new IdentityHashMap<>();
+        for (int state = 0; state < schema.stateCount(); state++) {
+            int fieldId = schema.fieldId(state);
+            if (fieldId == CompiledSchema.NO_FIELD || decoders[fieldId] != null) {
+                continue;
+            }
+            Supplier<? extends ValueLoader<?>> supplier = byPath.get(schema.fieldPath(fieldId));
+            ASN1TypeDefinition definition = schema.definition(state);
+            if (supplier == null && definition != null) {
+                supplier = byTypeName.get(definition.getName());
+            }
+            if (supplier == null && schema.fieldType(fieldId) != null) {
+                supplier = byBaseType.get(schema.fieldType(fieldId));
+            }
+            decoders[fieldId] = supplier == null ? RAW_BYTES : created.computeIfAbsent(supplier, Supplier::get);
+        }
+        return new FieldDecoders(schema, decoders);
+    }
+}
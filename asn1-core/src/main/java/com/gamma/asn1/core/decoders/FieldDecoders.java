@@ -0,0 +1,61 @@
+package com.gamma.asn1.core.decoders;
+
+import com.gamma.asn1.core.exception.DecoderException;
+import com.gamma.asn1.core.schema.CompiledSchema;
+import com.gamma.asn1.core.tlv.ValueView;
+
+/**
+ * The decoder of every field of a {@link CompiledSchema}, as bound by a {@link DecoderRegistry}.
+ * <p>
+ * {@link #decode} is a convenience for consumers that want objects: it goes through the generic
+ * {@link ValueLoader#load}, so primitive results are boxed. Hot paths should not use it; instead,
+ * {@link com.gamma.asn1.core.mapper.SemanticEventMapper#withDecoders} takes each field's {@link #decoder} once and
+ * binds it to the matching primitive method of a sink.
+ * <p>
+ * Instances may hold stateful decoders and must not be shared between threads.
+ */
+public final class FieldDecoders {
+
+    private final CompiledSchema schema;
+    private final ValueLoader<?>[] decoders;
+
+    FieldDecoders(CompiledSchema schema, ValueLoader<?>[] decoders) {
+        this.schema = schema;
+        this.decoders = decoders;
+    }
+
+    /**
+     * Decodes the value of a field, boxing primitive results.
+     *
+     * @param fieldId The field ID.
+     * @param value   A view of the raw bytes of the value.
+     * @return The decoded value.
+     * @throws DecoderException If the value cannot be decoded.
+     */
+    public Object decode(int fieldId, ValueView value) throws DecoderException {
+        return decoders[fieldId].load(value);
+    }
+
+    /**
+     * @param fieldId The field ID.
+     * @return The decoder bound to the field.
+     */
+    public ValueLoader<?> decoder(int fieldId) {
+        return decoders[fieldId];
+    }
+
+    /**
+     * @param fieldId The field ID.
+     * @return {@code true} if no decoder is registered for the field, so its value is passed on as raw bytes.
+     */
+    public boolean isRaw(int fieldId) {
+        return decoders[fieldId] == DecoderRegistry.RAW_BYTES;
+    }
+
+    /**
+     * @return The compiled schema whose field IDs the decoders are indexed by.
+     */
+    public CompiledSchema schema() {
+        return schema;
+    }
+}
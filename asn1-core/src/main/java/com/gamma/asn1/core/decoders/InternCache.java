@@ -0,0 +1,195 @@
+package com.gamma.asn1.core.decoders;
+
+import com.gamma.asn1.core.exception.DecoderException;
+import com.gamma.asn1.core.tlv.ValueView;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A bounded cache of decoded values keyed on their raw bytes, for fields whose values repeat across records, such
+ * as PLMN IDs, APNs and node addresses. A hit returns the previously decoded object without decoding, so each
+ * distinct value is decoded and stored once.
+ * <p>
+ * The cache is a two-way set-associative table: a value can live in one of two slots chosen by the hash of its
+ * bytes. When both are taken, the slot that has not been hit since the last eviction is replaced, which keeps
+ * frequent values and lets one-off values pass through. Values longer than the configured maximum are decoded
+ * without being cached. Hit, miss and eviction counts show whether a field benefits.
+ * <p>
+ * Instances are not thread-safe; use one cache per thread.
+ *
+ * @param <T> The type of the decoded values.
+ */
+public final class InternCache<T> {
+
+    private final ValueLoader<T> loader;
+    private final int maxValueLength;
+    private final int mask;
+    private final byte[][] keys;
+    private final int[] hashes;
+    private final Object[] values;
+    private final boolean[] referenced;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private int size;
+
+    /**
+     * @param maxEntries     The maximum number of cached values; rounded up to a power of two, at least 2.
+     * @param maxValueLength The length in bytes above which values are not cached.
+     * @param loader         Decodes values on a miss.
+     */
+    public InternCache(int maxEntries, int maxValueLength, ValueLoader<T> loader) {
+        if (maxEntries <= 0 || maxEntries > 1 << 30) {
+            throw new IllegalArgumentException("Invalid maximum number of entries: " + maxEntries);
+        }
+        if (loader == null) {
+            throw new IllegalArgumentException("ValueLoader cannot be null");
+        }
+        int capacity = Math.max(2, Integer.highestOneBit(maxEntries - 1) << 1);
+        this.loader = loader;
+        this.maxValueLength = maxValueLength;
+        this.mask = capacity - 1;
+        this.keys = new byte[capacity][];
+        this.hashes = new int[capacity];
+        this.values = new Object[capacity];
+        this.referenced = new boolean[capacity];
+    }
+
+    /**
+     * Creates a cache of IA5String values.
+     *
+     * @param maxEntries     The maximum number of cached values.
+     * @param maxValueLength The length in bytes above which values are not cached.
+     * @return The cache.
+     */
+    public static InternCache<String> ia5Strings(int maxEntries, int maxValueLength) {
+        return new InternCache<>(maxEntries, maxValueLength, PrimitiveDecoders::decodeIA5String);
+    }
+
+    /**
+     * Returns the decoded value for some raw bytes, decoding them only if they are not cached.
+     *
+     * @param value A view of the raw bytes of the value.
+     * @return The decoded value; the same instance for equal bytes while they stay cached.
+     * @throws DecoderException If the loader fails to decode the bytes.
+     */
+    @SuppressWarnings("unchecked")
+    public T intern(ValueView value) throws DecoderException {
+        int length = value.length();
+        if (length > maxValueLength) {
+            misses++;
+            return loader.load(value);
+        }
+        ByteBuffer buffer = value.buffer();
+        int offset = value.offset();
+        int hash = hash(buffer, offset, length);
+        int first = hash & mask & ~1;
+        int second = first | 1;
+        if (matches(first, hash, buffer, offset, length)) {
+            hits++;
+            referenced[first] = true;
+            return (T) values[first];
+        }
+        if (matches(second, hash, buffer, offset, length)) {
+            hits++;
+            referenced[second] = true;
+            return (T) values[second];
+        }
+
+        misses++;
+        T decoded = loader.load(value);
+        int slot;
+        if (keys[first] == null) {
+            slot = first;
+        } else if (keys[second] == null) {
+            slot = second;
+        } else {
+            // Evict a slot that has not been hit since the last eviction in this set.
+            slot = !referenced[first] ? first : !referenced[second] ? second : first;
+            referenced[first] = false;
+            referenced[second] = false;
+            evictions++;
+            size--;
+        }
+        byte[] key = new byte[length];
+        value.copyTo(key, 0);
+        keys[slot] = key;
+        hashes[slot] = hash;
+        values[slot] = decoded;
+        referenced[slot] = false;
+        size++;
+        return decoded;
+    }
+
+    private boolean matches(int slot, int hash, ByteBuffer buffer, int offset, int length) {
+        byte[] key = keys[slot];
+        if (key == null || hashes[slot] != hash || key.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key[i] != buffer.get(offset + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(ByteBuffer buffer, int offset, int length) {
+        int h = length;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + buffer.get(offset + i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return The number of lookups answered from the cache.
+     */
+    public long hits() {
+        return hits;
+    }
+
+    /**
+     * @return The number of lookups that had to decode, including values too long to cache.
+     */
+    public long misses() {
+        return misses;
+    }
+
+    /**
+     * @return The number of cached values replaced by newer ones.
+     */
+    public long evictions() {
+        return evictions;
+    }
+
+    /**
+     * @return The number of cached values.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all cached values and resets the counters.
+     */
+    public void clear() {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = null;
+            values[i] = null;
+            referenced[i] = false;
+        }
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        long lookups = hits + misses;
+        return "InternCache{size=" + size + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions
+                + ", hitRate=" + (lookups == 0 ? 0 : Math.round(hits * 1000.0 / lookups) / 10.0) + "%}";
+    }
+}
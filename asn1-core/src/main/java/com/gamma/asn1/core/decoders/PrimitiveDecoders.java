@@ -1,15 +1,22 @@
 package com.gamma.asn1.core.decoders;
 
 import com.gamma.asn1.core.exception.DecoderException; // New exception class needed
+import com.gamma.asn1.core.tlv.ValueView;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.math.BigInteger;
+import java.util.Arrays;
 
 /**
  * A stateless utility library for converting raw byte arrays from ASN.1 TLV values
  * into standard Java types, based on the ASN.1 type definition.
  * This class provides highly optimized, easily testable functions.
  * (Corresponds to the "Decoder Library" in the README).
+ * <p>
+ * Every decoder accepts a whole array, a slice of an array ({@code buf, off, len}), an absolute slice of a
+ * {@link ByteBuffer} ({@code buffer, index, len}, leaving the buffer's position untouched) and a {@link ValueView}.
+ * The INTEGER, ENUMERATED, BOOLEAN and NULL decoders do not allocate on success; string decoders can append to a
+ * caller-supplied {@link StringBuilder} or {@code char[]} instead of creating a {@link String}.
  */
 public final class PrimitiveDecoders {
 
@@ -17,6 +24,8 @@ public final class PrimitiveDecoders {
         throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
     }
 
+    // ---- INTEGER ----
+
     /**
      * Decodes an ASN.1 INTEGER value.
      * @param bytes The raw byte array representing the integer value.
@@ -24,16 +33,250 @@ public final class PrimitiveDecoders {
      * @throws DecoderException If the bytes cannot be decoded as an integer or are out of range for long.
      */
     public static long decodeInteger(byte[] bytes) throws DecoderException {
-        if (bytes == null || bytes.length == 0) {
+        if (bytes == null) {
+            throw new DecoderException("Input bytes for INTEGER cannot be null or empty.");
+        }
+        return decodeInteger(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Decodes an ASN.1 INTEGER value held in a slice of an array, without allocating.
+     * @param buf The array holding the value.
+     * @param off The index of the first byte of the value.
+     * @param len The number of bytes of the value.
+     * @return The decoded long value.
+     * @throws DecoderException If the slice is empty or the value is out of range for long.
+     */
+    public static long decodeInteger(byte[] buf, int off, int len) throws DecoderException {
+        if (len == 0) {
+            throw new DecoderException("Input bytes for INTEGER cannot be null or empty.");
+        }
+        int end = off + len;
+        // BER allows redundant leading sign octets; they do not count towards the range.
+        while (end - off > 8 && isRedundantSignOctet(buf[off], buf[off + 1])) {
+            off++;
+        }
+        if (end - off > 8) {
+            throw integerOutOfRange(len);
+        }
+        long result = buf[off]; // Sign-extends the most significant byte.
+        for (int i = off + 1; i < end; i++) {
+            result = (result << 8) | (buf[i] & 0xFF);
+        }
+        return result;
+    }
+
+    /**
+     * Decodes an ASN.1 INTEGER value held in a buffer, without allocating.
+     * @param buffer The buffer holding the value.
+     * @param index  The absolute index of the first byte of the value.
+     * @param len    The number of bytes of the value.
+     * @return The decoded long value.
+     * @throws DecoderException If the slice is empty or the value is out of range for long.
+     */
+    public static long decodeInteger(ByteBuffer buffer, int index, int len) throws DecoderException {
+        if (len == 0) {
             throw new DecoderException("Input bytes for INTEGER cannot be null or empty.");
         }
-        try {
-            return new BigInteger(bytes).longValueExact();
-        } catch (ArithmeticException e) {
-            throw new DecoderException("INTEGER value " + new BigInteger(bytes).toString() + " out of range for Java long.", e);
+        int end = index + len;
+        while (end - index > 8 && isRedundantSignOctet(buffer.get(index), buffer.get(index + 1))) {
+            index++;
+        }
+        if (end - index > 8) {
+            throw integerOutOfRange(len);
+        }
+        long result = buffer.get(index);
+        for (int i = index + 1; i < end; i++) {
+            result = (result << 8) | (buffer.get(i) & 0xFF);
+        }
+        return result;
+    }
+
+    /**
+     * Decodes an ASN.1 INTEGER value in place, without allocating.
+     * @param value A view of the raw bytes of the integer value.
+     * @return The decoded long value.
+     * @throws DecoderException If the view is empty or the value is out of range for long.
+     */
+    public static long decodeInteger(ValueView value) throws DecoderException {
+        return decodeInteger(value.buffer(), value.offset(), value.length());
+    }
+
+    private static boolean isRedundantSignOctet(byte b, byte next) {
+        return (b == 0 && next >= 0) || (b == -1 && next < 0);
+    }
+
+    private static DecoderException integerOutOfRange(int len) {
+        return new DecoderException("INTEGER value of " + len + " bytes out of range for Java long.");
+    }
+
+    // ---- ENUMERATED ----
+
+    /**
+     * Decodes an ASN.1 ENUMERATED value.
+     * @param bytes The raw byte array representing the enumerated value.
+     * @return The decoded value.
+     * @throws DecoderException If the bytes are empty or the value is out of range for int.
+     */
+    public static int decodeEnumerated(byte[] bytes) throws DecoderException {
+        return toEnumerated(decodeInteger(bytes));
+    }
+
+    /**
+     * Decodes an ASN.1 ENUMERATED value held in a slice of an array, without allocating.
+     * @param buf The array holding the value.
+     * @param off The index of the first byte of the value.
+     * @param len The number of bytes of the value.
+     * @return The decoded value.
+     * @throws DecoderException If the slice is empty or the value is out of range for int.
+     */
+    public static int decodeEnumerated(byte[] buf, int off, int len) throws DecoderException {
+        return toEnumerated(decodeInteger(buf, off, len));
+    }
+
+    /**
+     * Decodes an ASN.1 ENUMERATED value held in a buffer, without allocating.
+     * @param buffer The buffer holding the value.
+     * @param index  The absolute index of the first byte of the value.
+     * @param len    The number of bytes of the value.
+     * @return The decoded value.
+     * @throws DecoderException If the slice is empty or the value is out of range for int.
+     */
+    public static int decodeEnumerated(ByteBuffer buffer, int index, int len) throws DecoderException {
+        return toEnumerated(decodeInteger(buffer, index, len));
+    }
+
+    /**
+     * Decodes an ASN.1 ENUMERATED value in place, without allocating.
+     * @param value A view of the raw bytes of the enumerated value.
+     * @return The decoded value.
+     * @throws DecoderException If the view is empty or the value is out of range for int.
+     */
+    public static int decodeEnumerated(ValueView value) throws DecoderException {
+        return toEnumerated(decodeInteger(value));
+    }
+
+    private static int toEnumerated(long result) throws DecoderException {
+        if (result != (int) result) {
+            throw new DecoderException("ENUMERATED value " + result + " out of range for Java int.");
+        }
+        return (int) result;
+    }
+
+    // ---- BOOLEAN ----
+
+    /**
+     * Decodes an ASN.1 BOOLEAN value.
+     * @param bytes The raw byte array representing the boolean value (should be 1 byte).
+     * @return The decoded boolean.
+     * @throws DecoderException If the bytes are not a valid boolean encoding.
+     */
+    public static boolean decodeBoolean(byte[] bytes) throws DecoderException {
+        if (bytes == null) {
+            throw new DecoderException("BOOLEAN value must be a single byte and not null.");
+        }
+        return decodeBoolean(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Decodes an ASN.1 BOOLEAN value held in a slice of an array.
+     * @param buf The array holding the value.
+     * @param off The index of the value byte.
+     * @param len The number of bytes of the value (should be 1).
+     * @return The decoded boolean.
+     * @throws DecoderException If the bytes are not a valid boolean encoding.
+     */
+    public static boolean decodeBoolean(byte[] buf, int off, int len) throws DecoderException {
+        if (len != 1) {
+            throw new DecoderException("BOOLEAN value must be a single byte and not null.");
+        }
+        // DER encoding: 0x00 for FALSE, any other value for TRUE (typically 0xFF for TRUE).
+        return buf[off] != 0x00;
+    }
+
+    /**
+     * Decodes an ASN.1 BOOLEAN value held in a buffer.
+     * @param buffer The buffer holding the value.
+     * @param index  The absolute index of the value byte.
+     * @param len    The number of bytes of the value (should be 1).
+     * @return The decoded boolean.
+     * @throws DecoderException If the bytes are not a valid boolean encoding.
+     */
+    public static boolean decodeBoolean(ByteBuffer buffer, int index, int len) throws DecoderException {
+        if (len != 1) {
+            throw new DecoderException("BOOLEAN value must be a single byte and not null.");
+        }
+        return buffer.get(index) != 0x00;
+    }
+
+    /**
+     * Decodes an ASN.1 BOOLEAN value in place.
+     * @param value A view of the raw bytes of the boolean value (should be 1 byte).
+     * @return The decoded boolean.
+     * @throws DecoderException If the bytes are not a valid boolean encoding.
+     */
+    public static boolean decodeBoolean(ValueView value) throws DecoderException {
+        return decodeBoolean(value.buffer(), value.offset(), value.length());
+    }
+
+    // ---- NULL ----
+
+    /**
+     * Checks an ASN.1 NULL value, which has no content octets.
+     * @param len The number of bytes of the value.
+     * @throws DecoderException If the value is not empty.
+     */
+    public static void decodeNull(int len) throws DecoderException {
+        if (len != 0) {
+            throw new DecoderException("NULL value must be empty, but has " + len + " bytes.");
         }
     }
 
+    /**
+     * Checks an ASN.1 NULL value, which has no content octets.
+     * @param bytes The raw byte array representing the value.
+     * @throws DecoderException If the value is null or not empty.
+     */
+    public static void decodeNull(byte[] bytes) throws DecoderException {
+        if (bytes == null) {
+            throw new DecoderException("Input bytes for NULL cannot be null.");
+        }
+        decodeNull(bytes.length);
+    }
+
+    /**
+     * Checks an ASN.1 NULL value held in a slice of an array.
+     * @param buf The array holding the value.
+     * @param off The index of the first byte of the value.
+     * @param len The number of bytes of the value.
+     * @throws DecoderException If the value is not empty.
+     */
+    public static void decodeNull(byte[] buf, int off, int len) throws DecoderException {
+        decodeNull(len);
+    }
+
+    /**
+     * Checks an ASN.1 NULL value held in a buffer.
+     * @param buffer The buffer holding the value.
+     * @param index  The absolute index of the first byte of the value.
+     * @param len    The number of bytes of the value.
+     * @throws DecoderException If the value is not empty.
+     */
+    public static void decodeNull(ByteBuffer buffer, int index, int len) throws DecoderException {
+        decodeNull(len);
+    }
+
+    /**
+     * Checks an ASN.1 NULL value, which has no content octets.
+     * @param value A view of the raw bytes of the value.
+     * @throws DecoderException If the value is not empty.
+     */
+    public static void decodeNull(ValueView value) throws DecoderException {
+        decodeNull(value.length());
+    }
+
+    // ---- IA5String ----
+
     /**
      * Decodes an ASN.1 IA5String value. IA5String is typically ASCII.
      * @param bytes The raw byte array representing the IA5String value.
@@ -46,14 +289,206 @@ public final class PrimitiveDecoders {
             // For now, let's be strict as per previous design.
             throw new DecoderException("Input bytes for IA5String cannot be null.");
         }
-        for (byte b : bytes) {
-            if ((b & 0x80) != 0) { // Check if MSB is set (ASCII chars are 0-127)
-                throw new DecoderException("Invalid character in IA5String: value " + (b & 0xFF) + " is outside 7-bit ASCII range.");
+        return decodeIA5String(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Decodes an ASN.1 IA5String value into a caller-supplied array.
+     * @param bytes  The raw byte array representing the IA5String value.
+     * @param dst    The destination array; it must have room for {@code bytes.length} characters.
+     * @param dstOff The index in {@code dst} of the first character written.
+     * @return The number of characters written, equal to {@code bytes.length}.
+     * @throws DecoderException If a byte is outside the 7-bit ASCII range.
+     */
+    public static int decodeIA5String(byte[] bytes, char[] dst, int dstOff) throws DecoderException {
+        return decodeIA5String(bytes, 0, bytes.length, dst, dstOff);
+    }
+
+    /**
+     * Decodes an ASN.1 IA5String value and appends it to a caller-supplied builder.
+     * @param bytes The raw byte array representing the IA5String value.
+     * @param out   The builder to append to.
+     * @return {@code out}.
+     * @throws DecoderException If a byte is outside the 7-bit ASCII range; nothing is appended in that case.
+     */
+    public static StringBuilder decodeIA5String(byte[] bytes, StringBuilder out) throws DecoderException {
+        return decodeIA5String(bytes, 0, bytes.length, out);
+    }
+
+    /**
+     * Decodes an ASN.1 IA5String value held in a slice of an array.
+     * @param buf The array holding the value.
+     * @param off The index of the first byte of the value.
+     * @param len The number of bytes of the value.
+     * @return The decoded String.
+     * @throws DecoderException If a byte is outside the 7-bit ASCII range.
+     */
+    public static String decodeIA5String(byte[] buf, int off, int len) throws DecoderException {
+        checkAscii(buf, off, len);
+        return new String(buf, off, len, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Decodes an ASN.1 IA5String value held in a slice of an array into a caller-supplied array.
+     * @param buf    The array holding the value.
+     * @param off    The index of the first byte of the value.
+     * @param len    The number of bytes of the value.
+     * @param dst    The destination array; it must have room for {@code len} characters.
+     * @param dstOff The index in {@code dst} of the first character written.
+     * @return The number of characters written, equal to {@code len}.
+     * @throws DecoderException If a byte is outside the 7-bit ASCII range.
+     */
+    public static int decodeIA5String(byte[] buf, int off, int len, char[] dst, int dstOff) throws DecoderException {
+        checkAscii(buf, off, len);
+        for (int i = 0; i < len; i++) {
+            dst[dstOff + i] = (char) buf[off + i];
+        }
+        return len;
+    }
+
+    /**
+     * Decodes an ASN.1 IA5String value held in a slice of an array and appends it to a caller-supplied builder.
+     * @param buf The array holding the value.
+     * @param off The index of the first byte of the value.
+     * @param len The number of bytes of the value.
+     * @param out The builder to append to.
+     * @return {@code out}.
+     * @throws DecoderException If a byte is outside the 7-bit ASCII range; nothing is appended in that case.
+     */
+    public static StringBuilder decodeIA5String(byte[] buf, int off, int len, StringBuilder out) throws DecoderException {
+        checkAscii(buf, off, len);
+        for (int i = off; i < off + len; i++) {
+            out.append((char) buf[i]);
+        }
+        return out;
+    }
+
+    /**
+     * Decodes an ASN.1 IA5String value held in a buffer into a caller-supplied array.
+     * @param buffer The buffer holding the value.
+     * @param index  The absolute index of the first byte of the value.
+     * @param len    The number of bytes of the value.
+     * @param dst    The destination array; it must have room for {@code len} characters.
+     * @param dstOff The index in {@code dst} of the first character written.
+     * @return The number of characters written, equal to {@code len}.
+     * @throws DecoderException If a byte is outside the 7-bit ASCII range.
+     */
+    public static int decodeIA5String(ByteBuffer buffer, int index, int len, char[] dst, int dstOff) throws DecoderException {
+        checkAscii(buffer, index, len);
+        for (int i = 0; i < len; i++) {
+            dst[dstOff + i] = (char) buffer.get(index + i);
+        }
+        return len;
+    }
+
+    /**
+     * Decodes an ASN.1 IA5String value held in a buffer and appends it to a caller-supplied builder.
+     * @param buffer The buffer holding the value.
+     * @param index  The absolute index of the first byte of the value.
+     * @param len    The number of bytes of the value.
+     * @param out    The builder to append to.
+     * @return {@code out}.
+     * @throws DecoderException If a byte is outside the 7-bit ASCII range; nothing is appended in that case.
+     */
+    public static StringBuilder decodeIA5String(ByteBuffer buffer, int index, int len, StringBuilder out) throws DecoderException {
+        checkAscii(buffer, index, len);
+        for (int i = index; i < index + len; i++) {
+            out.append((char) buffer.get(i));
+        }
+        return out;
+    }
+
+    /**
+     * Decodes an ASN.1 IA5String value held in a buffer.
+     * @param buffer The buffer holding the value.
+     * @param index  The absolute index of the first byte of the value.
+     * @param len    The number of bytes of the value.
+     * @return The decoded String.
+     * @throws DecoderException If a byte is outside the 7-bit ASCII range.
+     */
+    public static String decodeIA5String(ByteBuffer buffer, int index, int len) throws DecoderException {
+        return decodeIA5String(buffer, index, len, new StringBuilder(len)).toString();
+    }
+
+    /**
+     * Decodes an ASN.1 IA5String value in place.
+     * @param value A view of the raw bytes of the string value.
+     * @return The decoded String.
+     * @throws DecoderException If a byte is outside the 7-bit ASCII range.
+     */
+    public static String decodeIA5String(ValueView value) throws DecoderException {
+        return decodeIA5String(value.buffer(), value.offset(), value.length());
+    }
+
+    /**
+     * Decodes an ASN.1 IA5String value in place into a caller-supplied array.
+     * @param value  A view of the raw bytes of the string value.
+     * @param dst    The destination array; it must have room for {@code value.length()} characters.
+     * @param dstOff The index in {@code dst} of the first character written.
+     * @return The number of characters written, equal to {@code value.length()}.
+     * @throws DecoderException If a byte is outside the 7-bit ASCII range.
+     */
+    public static int decodeIA5String(ValueView value, char[] dst, int dstOff) throws DecoderException {
+        return decodeIA5String(value.buffer(), value.offset(), value.length(), dst, dstOff);
+    }
+
+    /**
+     * Decodes an ASN.1 IA5String value in place and appends it to a caller-supplied builder.
+     * @param value A view of the raw bytes of the string value.
+     * @param out   The builder to append to.
+     * @return {@code out}.
+     * @throws DecoderException If a byte is outside the 7-bit ASCII range; nothing is appended in that case.
+     */
+    public static StringBuilder decodeIA5String(ValueView value, StringBuilder out) throws DecoderException {
+        return decodeIA5String(value.buffer(), value.offset(), value.length(), out);
+    }
+
+    /**
+     * Checks that a slice of an array holds only 7-bit ASCII characters, as required for IA5String and its subsets.
+     * @param buf The array holding the value.
+     * @param off The index of the first byte of the value.
+     * @param len The number of bytes of the value.
+     * @throws DecoderException If a byte is outside the 7-bit ASCII range.
+     */
+    public static void checkAscii(byte[] buf, int off, int len) throws DecoderException {
+        for (int i = off; i < off + len; i++) {
+            if (buf[i] < 0) { // Check if MSB is set (ASCII chars are 0-127)
+                throw invalidAscii(buf[i]);
             }
         }
-        return new String(bytes, StandardCharsets.US_ASCII);
     }
 
+    /**
+     * Checks that a slice of a buffer holds only 7-bit ASCII characters, as required for IA5String and its subsets.
+     * @param buffer The buffer holding the value.
+     * @param index  The absolute index of the first byte of the value.
+     * @param len    The number of bytes of the value.
+     * @throws DecoderException If a byte is outside the 7-bit ASCII range.
+     */
+    public static void checkAscii(ByteBuffer buffer, int index, int len) throws DecoderException {
+        for (int i = index; i < index + len; i++) {
+            byte b = buffer.get(i);
+            if (b < 0) {
+                throw invalidAscii(b);
+            }
+        }
+    }
+
+    /**
+     * Checks that a value holds only 7-bit ASCII characters, as required for IA5String and its subsets.
+     * @param value A view of the raw bytes of the string value.
+     * @throws DecoderException If a byte is outside the 7-bit ASCII range.
+     */
+    public static void checkAscii(ValueView value) throws DecoderException {
+        checkAscii(value.buffer(), value.offset(), value.length());
+    }
+
+    private static DecoderException invalidAscii(byte b) {
+        return new DecoderException("Invalid character in IA5String: value " + (b & 0xFF) + " is outside 7-bit ASCII range.");
+    }
+
+    // ---- OCTET STRING ----
+
     /**
      * Decodes an ASN.1 OCTET STRING value.
      * @param bytes The raw byte array representing the OCTET STRING value.
@@ -68,17 +503,29 @@ public final class PrimitiveDecoders {
     }
 
     /**
-     * Decodes an ASN.1 BOOLEAN value.
-     * @param bytes The raw byte array representing the boolean value (should be 1 byte).
-     * @return The decoded boolean.
-     * @throws DecoderException If the bytes are not a valid boolean encoding.
+     * Decodes an ASN.1 OCTET STRING value held in a slice of an array.
+     * @param buf The array holding the value.
+     * @param off The index of the first byte of the value.
+     * @param len The number of bytes of the value.
+     * @return A copy of the slice.
      */
-    public static boolean decodeBoolean(byte[] bytes) throws DecoderException {
-        if (bytes == null || bytes.length != 1) {
-            throw new DecoderException("BOOLEAN value must be a single byte and not null.");
+    public static byte[] decodeOctetString(byte[] buf, int off, int len) {
+        return Arrays.copyOfRange(buf, off, off + len);
+    }
+
+    /**
+     * Decodes an ASN.1 OCTET STRING value held in a buffer.
+     * @param buffer The buffer holding the value.
+     * @param index  The absolute index of the first byte of the value.
+     * @param len    The number of bytes of the value.
+     * @return A copy of the slice.
+     */
+    public static byte[] decodeOctetString(ByteBuffer buffer, int index, int len) {
+        byte[] copy = new byte[len];
+        for (int i = 0; i < len; i++) {
+            copy[i] = buffer.get(index + i);
         }
-        // DER encoding: 0x00 for FALSE, any other value for TRUE (typically 0xFF for TRUE).
-        return bytes[0] != 0x00;
+        return copy;
     }
 
     // TODO: Add other decoders as needed, e.g.:
@@ -87,5 +534,5 @@ public final class PrimitiveDecoders {
     // decodeObjectIdentifier(byte[] bytes)
     // decodeReal(byte[] bytes)
     // decodeDate(byte[] bytes), decodeTimeOfDay(byte[] bytes), decodeDateTime(byte[] bytes)
-    // decodeBCD(byte[] bytes) - as mentioned in README for specific application
+    // (BCD / TBCD digit strings are decoded by BcdDecoders.)
 }
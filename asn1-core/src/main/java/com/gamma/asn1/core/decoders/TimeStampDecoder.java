@@ -0,0 +1,111 @@
+package com.gamma.asn1.core.decoders;
+
+import com.gamma.asn1.core.exception.DecoderException;
+import com.gamma.asn1.core.tlv.ValueView;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Decodes the 3GPP {@code TimeStamp} (TS 32.298) to milliseconds since the epoch, without going through text.
+ * <p>
+ * A TimeStamp is a 9-octet {@code OCTET STRING} holding local time and its offset from UTC as
+ * {@code YYMMDDhhmmssShhmm}: BCD digits, high nibble first, except for the sign {@code S}, which is the ASCII
+ * character {@code '+'} or {@code '-'}. Years are taken to be in 2000-2099. The time of day and the offset are
+ * computed from the nibbles directly. The date is converted once per distinct {@code YYMMDD} prefix: the decoder
+ * remembers the last prefix it has seen, which consecutive records nearly always share.
+ * <p>
+ * Because of that cache, instances are not thread-safe; use one decoder per thread.
+ */
+public final class TimeStampDecoder {
+
+    /** The length of an encoded TimeStamp. */
+    public static final int LENGTH = 9;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private int lastDate = -1;
+    private long lastDayMillis;
+
+    /**
+     * Decodes a TimeStamp.
+     * @param bytes The raw bytes of the value.
+     * @return The instant in milliseconds since 1970-01-01T00:00:00Z.
+     * @throws DecoderException If the value is not a valid TimeStamp.
+     */
+    public long toEpochMillis(byte[] bytes) throws DecoderException {
+        return toEpochMillis(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    /**
+     * Decodes a TimeStamp in place, without allocating unless the date differs from the previous value.
+     * @param value A view of the raw bytes of the value.
+     * @return The instant in milliseconds since 1970-01-01T00:00:00Z.
+     * @throws DecoderException If the value is not a valid TimeStamp.
+     */
+    public long toEpochMillis(ValueView value) throws DecoderException {
+        return toEpochMillis(value.buffer(), value.offset(), value.length());
+    }
+
+    /**
+     * Decodes a TimeStamp held in a buffer, without allocating unless the date differs from the previous value.
+     * @param buffer The buffer holding the value.
+     * @param index  The absolute index of the first byte of the value.
+     * @param len    The number of bytes of the value.
+     * @return The instant in milliseconds since 1970-01-01T00:00:00Z.
+     * @throws DecoderException If the value is not a valid TimeStamp.
+     */
+    public long toEpochMillis(ByteBuffer buffer, int index, int len) throws DecoderException {
+        if (len != LENGTH) {
+            throw new DecoderException("TimeStamp must be " + LENGTH + " bytes, but has " + len + ".");
+        }
+        int date = ((buffer.get(index) & 0xFF) << 16) | ((buffer.get(index + 1) & 0xFF) << 8) | (buffer.get(index + 2) & 0xFF);
+        if (date != lastDate) {
+            lastDayMillis = dayMillis(date);
+            lastDate = date;
+        }
+
+        int hour = bcd(buffer.get(index + 3), 23, "hour");
+        int minute = bcd(buffer.get(index + 4), 59, "minute");
+        int second = bcd(buffer.get(index + 5), 59, "second");
+        byte sign = buffer.get(index + 6);
+        if (sign != '+' && sign != '-') {
+            throw new DecoderException("TimeStamp offset sign must be '+' or '-', but is 0x" + Integer.toHexString(sign & 0xFF) + ".");
+        }
+        int offsetMinutes = bcd(buffer.get(index + 7), 23, "offset hour") * 60 + bcd(buffer.get(index + 8), 59, "offset minute");
+        if (sign == '-') {
+            offsetMinutes = -offsetMinutes;
+        }
+
+        long localMillisOfDay = ((hour * 60L + minute) * 60L + second) * 1000L;
+        return lastDayMillis + localMillisOfDay - offsetMinutes * 60_000L;
+    }
+
+    /**
+     * Converts a {@code YYMMDD} prefix, one BCD byte per field, to the epoch millis of the start of that day.
+     */
+    private static long dayMillis(int date) throws DecoderException {
+        int year = 2000 + bcd((byte) (date >>> 16), 99, "year");
+        int month = bcd((byte) (date >>> 8), 12, "month");
+        int day = bcd((byte) date, 31, "day");
+        try {
+            return LocalDate.of(year, month, day).toEpochDay() * MILLIS_PER_DAY;
+        } catch (DateTimeException e) {
+            throw new DecoderException("Invalid TimeStamp date: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Decodes one byte holding two BCD digits, high nibble first.
+     */
+    private static int bcd(byte b, int max, String field) throws DecoderException {
+        int high = (b >>> 4) & 0xF;
+        int low = b & 0xF;
+        int value = high * 10 + low;
+        if (high > 9 || low > 9 || value > max) {
+            throw new DecoderException("Invalid TimeStamp " + field + ": 0x" + String.format("%02X", b) + ".");
+        }
+        return value;
+    }
+}
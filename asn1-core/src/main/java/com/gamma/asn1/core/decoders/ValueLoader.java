@@ -0,0 +1,81 @@
+package com.gamma.asn1.core.decoders;
+
+import com.gamma.asn1.core.exception.DecoderException;
+import com.gamma.asn1.core.tlv.ValueView;
+
+/**
+ * Decodes a raw value into an object. This is the decoder SPI: an {@link InternCache} loads missing values with
+ * it, and a {@link DecoderRegistry} binds one to every field of a schema.
+ * <p>
+ * Decoders of numbers and flags implement {@link OfLong}, {@link OfInt} or {@link OfBoolean}, so that a
+ * {@link com.gamma.asn1.core.mapper.TypedFieldDispatcher} can pass their results to a sink without boxing.
+ *
+ * @param <T> The type of the decoded value.
+ */
+@FunctionalInterface
+public interface ValueLoader<T> {
+
+    /**
+     * @param value A view of the raw bytes of the value. Must not be retained after the call returns.
+     * @return The decoded value.
+     * @throws DecoderException If the bytes cannot be decoded.
+     */
+    T load(ValueView value) throws DecoderException;
+
+    /**
+     * A decoder of {@code long} values, e.g. INTEGER or a {@code TimeStamp} in epoch millis.
+     */
+    @FunctionalInterface
+    interface OfLong extends ValueLoader<Long> {
+
+        /**
+         * @param value A view of the raw bytes of the value. Must not be retained after the call returns.
+         * @return The decoded value.
+         * @throws DecoderException If the bytes cannot be decoded.
+         */
+        long loadLong(ValueView value) throws DecoderException;
+
+        @Override
+        default Long load(ValueView value) throws DecoderException {
+            return loadLong(value);
+        }
+    }
+
+    /**
+     * A decoder of {@code int} values, e.g. ENUMERATED.
+     */
+    @FunctionalInterface
+    interface OfInt extends ValueLoader<Integer> {
+
+        /**
+         * @param value A view of the raw bytes of the value. Must not be retained after the call returns.
+         * @return The decoded value.
+         * @throws DecoderException If the bytes cannot be decoded.
+         */
+        int loadInt(ValueView value) throws DecoderException;
+
+        @Override
+        default Integer load(ValueView value) throws DecoderException {
+            return loadInt(value);
+        }
+    }
+
+    /**
+     * A decoder of {@code boolean} values, e.g. BOOLEAN.
+     */
+    @FunctionalInterface
+    interface OfBoolean extends ValueLoader<Boolean> {
+
+        /**
+         * @param value A view of the raw bytes of the value. Must not be retained after the call returns.
+         * @return The decoded value.
+         * @throws DecoderException If the bytes cannot be decoded.
+         */
+        boolean loadBoolean(ValueView value) throws DecoderException;
+
+        @Override
+        default Boolean load(ValueView value) throws DecoderException {
+            return loadBoolean(value);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.gamma.asn1.core.exception;
+
+/**
+ * Thrown when the framing around the encoded records is malformed, for example a CDR file header or a
+ * CDR header that declares lengths beyond the end of the file.
+ */
+public class CorruptFrameException extends ASN1ProcessingException {
+
+    public CorruptFrameException(String message, long byteOffset, String tagPath, Throwable cause) {
+        super(message, byteOffset, tagPath, cause);
+    }
+}
@@ -0,0 +1,149 @@
+package com.gamma.asn1.core.framing;
+
+import com.gamma.asn1.core.exception.CorruptFrameException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The file header of a CDR file laid out according to 3GPP TS 32.297.
+ * <p>
+ * Timestamps are kept in their 4-octet encoding: month (4 bits), day (5 bits), hour (5 bits), minute (6 bits),
+ * sign of the UTC offset (1 bit), hour offset (5 bits) and minute offset (6 bits). Release and version
+ * identifiers are split into their 3-bit release and 5-bit version parts.
+ */
+public final class CdrFileHeader {
+
+    /** Length of the mandatory part of the header, up to and including the lost CDR indicator. */
+    static final int FIXED_LENGTH = 48;
+
+    private final long fileLength;
+    private final int headerLength;
+    private final int highReleaseIdentifier;
+    private final int highVersionIdentifier;
+    private final int lowReleaseIdentifier;
+    private final int lowVersionIdentifier;
+    private final int openingTimestamp;
+    private final int lastAppendTimestamp;
+    private final long numberOfCdrs;
+    private final long fileSequenceNumber;
+    private final int closureTriggerReason;
+    private final byte[] nodeAddress;
+    private final int lostCdrIndicator;
+    private final byte[] cdrRoutingFilter;
+    private final byte[] privateExtension;
+    private final int highReleaseIdentifierExtension;
+    private final int lowReleaseIdentifierExtension;
+
+    private CdrFileHeader(ByteBuffer buf, int headerLength) throws CorruptFrameException {
+        this.headerLength = headerLength;
+        this.fileLength = buf.getInt(0) & 0xFFFFFFFFL;
+        int high = buf.get(8) & 0xFF;
+        int low = buf.get(9) & 0xFF;
+        this.highReleaseIdentifier = high >>> 5;
+        this.highVersionIdentifier = high & 0x1F;
+        this.lowReleaseIdentifier = low >>> 5;
+        this.lowVersionIdentifier = low & 0x1F;
+        this.openingTimestamp = buf.getInt(10);
+        this.lastAppendTimestamp = buf.getInt(14);
+        this.numberOfCdrs = buf.getInt(18) & 0xFFFFFFFFL;
+        this.fileSequenceNumber = buf.getInt(22) & 0xFFFFFFFFL;
+        this.closureTriggerReason = buf.get(26) & 0xFF;
+        this.nodeAddress = new byte[20];
+        for (int i = 0; i < 20; i++) {
+            nodeAddress[i] = buf.get(27 + i);
+        }
+        this.lostCdrIndicator = buf.get(47) & 0xFF;
+
+        // The remaining fields are variable or were added in later releases; they are read only if present.
+        int pos = FIXED_LENGTH;
+        this.cdrRoutingFilter = readBlock(buf, pos, headerLength, "CDR routing filter");
+        pos += cdrRoutingFilter == null ? 0 : 2 + cdrRoutingFilter.length;
+        this.privateExtension = cdrRoutingFilter == null ? null : readBlock(buf, pos, headerLength, "private extension");
+        pos += privateExtension == null ? 0 : 2 + privateExtension.length;
+        boolean extensions = privateExtension != null && pos + 2 <= headerLength;
+        this.highReleaseIdentifierExtension = extensions ? buf.get(pos) & 0xFF : -1;
+        this.lowReleaseIdentifierExtension = extensions ? buf.get(pos + 1) & 0xFF : -1;
+    }
+
+    /**
+     * Reads a block prefixed with a 2-octet length, or returns {@code null} if the header ends before it.
+     */
+    private static byte[] readBlock(ByteBuffer buf, int pos, int headerLength, String name) throws CorruptFrameException {
+        if (pos + 2 > headerLength) {
+            return null;
+        }
+        int length = buf.getShort(pos) & 0xFFFF;
+        if (pos + 2 + length > headerLength) {
+            throw new CorruptFrameException("The " + name + " of " + length + " bytes exceeds the file header.", pos, "fileHeader", null);
+        }
+        byte[] block = new byte[length];
+        for (int i = 0; i < length; i++) {
+            block[i] = buf.get(pos + 2 + i);
+        }
+        return block;
+    }
+
+    /**
+     * Parses a file header.
+     *
+     * @param buf The buffer holding the header at index 0, with at least {@code headerLength} bytes.
+     * @param headerLength The header length declared in the header itself.
+     * @return The header.
+     * @throws CorruptFrameException If the header is shorter than its mandatory part or its blocks exceed it.
+     */
+    static CdrFileHeader parse(ByteBuffer buf, int headerLength) throws CorruptFrameException {
+        if (headerLength < FIXED_LENGTH) {
+            throw new CorruptFrameException("File header length " + headerLength + " is shorter than the mandatory "
+                    + FIXED_LENGTH + " bytes.", 4, "fileHeader", null);
+        }
+        return new CdrFileHeader(buf, headerLength);
+    }
+
+    /** @return The length of the whole file, as declared by the header. */
+    public long getFileLength() { return fileLength; }
+    /** @return The length of the file header; the first CDR starts at this offset. */
+    public int getHeaderLength() { return headerLength; }
+    /** @return The release identifier of the highest release of any CDR in the file. */
+    public int getHighReleaseIdentifier() { return highReleaseIdentifier; }
+    /** @return The version identifier of the highest release of any CDR in the file. */
+    public int getHighVersionIdentifier() { return highVersionIdentifier; }
+    /** @return The release identifier of the lowest release of any CDR in the file. */
+    public int getLowReleaseIdentifier() { return lowReleaseIdentifier; }
+    /** @return The version identifier of the lowest release of any CDR in the file. */
+    public int getLowVersionIdentifier() { return lowVersionIdentifier; }
+    /** @return The encoded timestamp at which the file was opened. */
+    public int getOpeningTimestamp() { return openingTimestamp; }
+    /** @return The encoded timestamp at which the last CDR was appended. */
+    public int getLastAppendTimestamp() { return lastAppendTimestamp; }
+    /** @return The number of CDRs in the file, as declared by the header. */
+    public long getNumberOfCdrs() { return numberOfCdrs; }
+    /** @return The file sequence number. */
+    public long getFileSequenceNumber() { return fileSequenceNumber; }
+    /** @return The reason the file was closed. */
+    public int getClosureTriggerReason() { return closureTriggerReason; }
+    /** @return A copy of the 20-octet address of the node that generated the file. */
+    public byte[] getNodeAddress() { return nodeAddress.clone(); }
+    /** @return The lost CDR indicator. */
+    public int getLostCdrIndicator() { return lostCdrIndicator; }
+    /** @return A copy of the CDR routing filter, or {@code null} if the header does not contain one. */
+    public byte[] getCdrRoutingFilter() { return cdrRoutingFilter == null ? null : cdrRoutingFilter.clone(); }
+    /** @return A copy of the private extension, or {@code null} if the header does not contain one. */
+    public byte[] getPrivateExtension() { return privateExtension == null ? null : privateExtension.clone(); }
+    /** @return The high release identifier extension, or -1 if the header does not contain one. */
+    public int getHighReleaseIdentifierExtension() { return highReleaseIdentifierExtension; }
+    /** @return The low release identifier extension, or -1 if the header does not contain one. */
+    public int getLowReleaseIdentifierExtension() { return lowReleaseIdentifierExtension; }
+
+    @Override
+    public String toString() {
+        return "CdrFileHeader{" +
+               "fileLength=" + fileLength +
+               ", headerLength=" + headerLength +
+               ", numberOfCdrs=" + numberOfCdrs +
+               ", fileSequenceNumber=" + fileSequenceNumber +
+               ", closureTriggerReason=" + closureTriggerReason +
+               ", nodeAddress=" + Arrays.toString(nodeAddress) +
+               '}';
+    }
+}
@@ -0,0 +1,244 @@
+package com.gamma.asn1.core.framing;
+
+import com.gamma.asn1.core.exception.ASN1ProcessingException;
+import com.gamma.asn1.core.exception.CorruptFrameException;
+import com.gamma.asn1.core.index.RecordIndex;
+import com.gamma.asn1.core.io.ByteSource;
+import com.gamma.asn1.core.io.MappedFileByteSource;
+import com.gamma.asn1.core.tlv.TLVEventStreamer;
+import com.gamma.asn1.core.tlv.TLVFlyweightListener;
+import com.gamma.asn1.core.tlv.Tags;
+import com.gamma.asn1.core.tlv.ValueView;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Reads CDR files laid out according to 3GPP TS 32.297: a file header followed by CDRs, each preceded by a
+ * CDR header that declares its length and encoding.
+ * <p>
+ * CDRs are located from the declared lengths alone, without parsing their TLV structure, and are handed out
+ * as views of the memory-mapped file. This gives record boundaries for free: {@link #index(Path)} builds a
+ * {@link RecordIndex} of the encoded CDRs that the {@link com.gamma.asn1.core.parallel.ParallelTLVDecoder}
+ * can split into chunks, and listeners can skip records by looking at their headers only.
+ */
+public class CdrFileReader {
+
+    private static final int MAX_CDR_HEADER_LENGTH = 5;
+    private static final int RELEASE_IDENTIFIER_EXTENDED = 7;
+
+    private final int mappingWindowSize;
+    private final CdrRecord record = new CdrRecord();
+
+    /**
+     * Creates a reader that maps files with the {@link MappedFileByteSource#DEFAULT_WINDOW_SIZE}.
+     */
+    public CdrFileReader() {
+        this(MappedFileByteSource.DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param mappingWindowSize The maximum number of bytes mapped at once.
+     */
+    public CdrFileReader(int mappingWindowSize) {
+        if (mappingWindowSize <= 0) {
+            throw new IllegalArgumentException("Mapping window size must be positive: " + mappingWindowSize);
+        }
+        this.mappingWindowSize = mappingWindowSize;
+    }
+
+    /**
+     * Reads only the file header.
+     *
+     * @param file The CDR file.
+     * @return The parsed file header.
+     * @throws IOException           If the file cannot be read.
+     * @throws CorruptFrameException If the file header is malformed.
+     */
+    public CdrFileHeader readHeader(Path file) throws IOException, ASN1ProcessingException {
+        try (ByteSource source = new MappedFileByteSource(file, mappingWindowSize)) {
+            return readHeader(source);
+        }
+    }
+
+    /**
+     * Locates every CDR of a file and hands it to a listener.
+     *
+     * @param file     The CDR file.
+     * @param listener The listener that receives every CDR.
+     * @return The parsed file header.
+     * @throws IOException             If the file cannot be read.
+     * @throws CorruptFrameException   If the file header or a CDR header is malformed.
+     * @throws ASN1ProcessingException If the listener fails.
+     */
+    public CdrFileHeader process(Path file, CdrRecordListener listener) throws IOException, ASN1ProcessingException {
+        try (ByteSource source = new MappedFileByteSource(file, mappingWindowSize)) {
+            CdrFileHeader header = readHeader(source);
+            long fileSize = Files.size(file);
+            // A file that is still open may not have its final length recorded yet.
+            long end = header.getFileLength() == 0 ? fileSize : header.getFileLength();
+            if (end > fileSize) {
+                throw new CorruptFrameException("File header declares " + end + " bytes, but the file has only " + fileSize + ".",
+                        0, "fileHeader", null);
+            }
+            if (end < header.getHeaderLength()) {
+                throw new CorruptFrameException("File header declares " + end + " bytes, fewer than its own "
+                        + header.getHeaderLength() + ".", 0, "fileHeader", null);
+            }
+            int pos = header.getHeaderLength();
+            ByteBuffer buf = source.buffer();
+            int index = 0;
+
+            while (source.blockOffset() + pos < end) {
+                long offset = source.blockOffset() + pos;
+                if (buf.limit() - pos < MAX_CDR_HEADER_LENGTH) {
+                    pos = source.fill(pos, MAX_CDR_HEADER_LENGTH);
+                    buf = source.buffer();
+                }
+                if (offset + 4 > end) {
+                    throw new CorruptFrameException("Truncated CDR header.", offset, "cdr[" + index + "]", null);
+                }
+                int length = buf.getShort(pos) & 0xFFFF;
+                int releaseVersion = buf.get(pos + 2) & 0xFF;
+                int formatTs = buf.get(pos + 3) & 0xFF;
+                int releaseIdentifier = releaseVersion >>> 5;
+                int headerLength = 4;
+                int releaseExtension = -1;
+                if (releaseIdentifier == RELEASE_IDENTIFIER_EXTENDED) {
+                    if (offset + 5 > end) {
+                        throw new CorruptFrameException("Truncated CDR header.", offset, "cdr[" + index + "]", null);
+                    }
+                    releaseExtension = buf.get(pos + 4) & 0xFF;
+                    headerLength = 5;
+                }
+                if (offset + headerLength + length > end) {
+                    throw new CorruptFrameException(
+                            String.format("CDR with declared length %d extends %d bytes beyond the end of the file.",
+                                    length, offset + headerLength + length - end),
+                            offset, "cdr[" + index + "]", null);
+                }
+                if (buf.limit() - pos < headerLength + length) {
+                    pos = source.fill(pos, headerLength + length);
+                    buf = source.buffer();
+                }
+
+                record.set(index, offset, headerLength, releaseIdentifier, releaseVersion & 0x1F, releaseExtension,
+                        formatTs >>> 5, formatTs & 0x1F);
+                record.data().set(buf, pos + headerLength, length);
+                try {
+                    listener.onRecord(record);
+                } catch (ASN1ProcessingException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new ASN1ProcessingException("Listener failed onRecord for CDR " + index, offset, "cdr[" + index + "]", e);
+                }
+                pos += headerLength + length;
+                index++;
+            }
+            return header;
+        }
+    }
+
+    /**
+     * Decodes the TLV structure of every BER encoded CDR of a file, sending events to one listener.
+     * Reported offsets are global to the file.
+     *
+     * @param file     The CDR file.
+     * @param listener The listener that will receive TLV events.
+     * @return The parsed file header.
+     * @throws IOException             If the file cannot be read.
+     * @throws ASN1ProcessingException If the framing or a CDR is malformed, or a CDR is not BER encoded.
+     */
+    public CdrFileHeader process(Path file, TLVFlyweightListener listener) throws IOException, ASN1ProcessingException {
+        TLVEventStreamer streamer = new TLVEventStreamer();
+        return process(file, cdr -> {
+            if (cdr.dataRecordFormat() != CdrRecord.FORMAT_BER) {
+                throw new CorruptFrameException("Unsupported data record format " + cdr.dataRecordFormat() + ".",
+                        cdr.offset(), "cdr[" + cdr.index() + "]", null);
+            }
+            ValueView data = cdr.data();
+            ByteBuffer slice = data.buffer().duplicate();
+            slice.limit(data.offset() + data.length()).position(data.offset());
+            streamer.process(slice, cdr.dataOffset(), listener);
+        });
+    }
+
+    /**
+     * Builds the index of the encoded CDRs of a file from their headers. Offsets and lengths describe the encoded
+     * CDRs without their CDR headers; tags are those of BER encoded CDRs and 0 for other formats.
+     *
+     * @param file The CDR file.
+     * @return The index.
+     * @throws IOException             If the file cannot be read.
+     * @throws ASN1ProcessingException If the framing is malformed.
+     */
+    public RecordIndex index(Path file) throws IOException, ASN1ProcessingException {
+        long fileSize = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        IndexCollector collector = new IndexCollector();
+        process(file, collector);
+        return collector.build(fileSize, lastModified);
+    }
+
+    /**
+     * Collects the index entries of all CDRs into growable arrays.
+     */
+    private static final class IndexCollector implements CdrRecordListener {
+        private long[] offsets = new long[1024];
+        private int[] lengths = new int[1024];
+        private int[] tags = new int[1024];
+        private int count;
+
+        @Override
+        public void onRecord(CdrRecord cdr) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+                lengths = Arrays.copyOf(lengths, count * 2);
+                tags = Arrays.copyOf(tags, count * 2);
+            }
+            offsets[count] = cdr.dataOffset();
+            lengths[count] = cdr.data().length();
+            tags[count] = cdr.dataRecordFormat() == CdrRecord.FORMAT_BER ? leadingTag(cdr.data()) : 0;
+            count++;
+        }
+
+        RecordIndex build(long fileSize, long lastModified) {
+            return new RecordIndex(fileSize, lastModified, Arrays.copyOf(offsets, count), Arrays.copyOf(lengths, count), Arrays.copyOf(tags, count));
+        }
+    }
+
+    private static int leadingTag(ValueView data) {
+        if (data.isEmpty()) {
+            return 0;
+        }
+        int tagLength = 1;
+        if ((data.get(0) & 0x1F) == 0x1F) {
+            while (tagLength < data.length() && tagLength <= 5 && (data.get(tagLength) & 0x80) != 0) {
+                tagLength++;
+            }
+            tagLength = Math.min(tagLength + 1, data.length());
+        }
+        return Tags.decode(data.buffer(), data.offset(), tagLength);
+    }
+
+    private CdrFileHeader readHeader(ByteSource source) throws IOException, CorruptFrameException {
+        source.fill(0, 8);
+        ByteBuffer buf = source.buffer();
+        if (buf.limit() < 8) {
+            throw new CorruptFrameException("File is too short for a CDR file header.", 0, "fileHeader", null);
+        }
+        int headerLength = buf.getInt(4);
+        if (headerLength < CdrFileHeader.FIXED_LENGTH) {
+            return CdrFileHeader.parse(buf, headerLength); // Reports the invalid length.
+        }
+        source.fill(0, headerLength);
+        buf = source.buffer();
+        if (buf.limit() < headerLength) {
+            throw new CorruptFrameException("File ends inside the file header of " + headerLength + " bytes.", buf.limit(), "fileHeader", null);
+        }
+        return CdrFileHeader.parse(buf, headerLength);
+    }
+}
@@ -0,0 +1,76 @@
+package com.gamma.asn1.core.framing;
+
+import com.gamma.asn1.core.tlv.ValueView;
+
+/**
+ * A reusable view of one CDR of a TS 32.297 file: the fields of its CDR header and a view of its encoded bytes.
+ * <p>
+ * The {@link CdrFileReader} hands the same instance to every {@link CdrRecordListener#onRecord} call, so a record
+ * is only valid for the duration of the callback.
+ */
+public final class CdrRecord {
+
+    /** Data record format of BER encoded CDRs. */
+    public static final int FORMAT_BER = 1;
+    /** Data record format of unaligned PER encoded CDRs. */
+    public static final int FORMAT_UNALIGNED_PER = 2;
+    /** Data record format of aligned PER encoded CDRs. */
+    public static final int FORMAT_ALIGNED_PER = 3;
+    /** Data record format of XER encoded CDRs. */
+    public static final int FORMAT_XER = 4;
+
+    private final ValueView data = new ValueView();
+    private int index;
+    private long offset;
+    private int headerLength;
+    private int releaseIdentifier;
+    private int versionIdentifier;
+    private int releaseIdentifierExtension;
+    private int dataRecordFormat;
+    private int tsNumber;
+
+    void set(int index, long offset, int headerLength, int releaseIdentifier, int versionIdentifier,
+             int releaseIdentifierExtension, int dataRecordFormat, int tsNumber) {
+        this.index = index;
+        this.offset = offset;
+        this.headerLength = headerLength;
+        this.releaseIdentifier = releaseIdentifier;
+        this.versionIdentifier = versionIdentifier;
+        this.releaseIdentifierExtension = releaseIdentifierExtension;
+        this.dataRecordFormat = dataRecordFormat;
+        this.tsNumber = tsNumber;
+    }
+
+    /** @return The zero-based number of the CDR in the file. */
+    public int index() { return index; }
+    /** @return The file offset of the CDR header. */
+    public long offset() { return offset; }
+    /** @return The file offset of the encoded CDR, right after its header. */
+    public long dataOffset() { return offset + headerLength; }
+    /** @return The length of the CDR header: 4, or 5 with a release identifier extension. */
+    public int headerLength() { return headerLength; }
+    /** @return The release identifier of the CDR. */
+    public int releaseIdentifier() { return releaseIdentifier; }
+    /** @return The version identifier of the CDR. */
+    public int versionIdentifier() { return versionIdentifier; }
+    /** @return The release identifier extension, or -1 if the header does not contain one. */
+    public int releaseIdentifierExtension() { return releaseIdentifierExtension; }
+    /** @return The data record format, e.g. {@link #FORMAT_BER}. */
+    public int dataRecordFormat() { return dataRecordFormat; }
+    /** @return The number of the TS that defines the CDR syntax. */
+    public int tsNumber() { return tsNumber; }
+    /** @return A view of the encoded CDR. */
+    public ValueView data() { return data; }
+
+    @Override
+    public String toString() {
+        return "CdrRecord{" +
+               "index=" + index +
+               ", offset=" + offset +
+               ", length=" + data.length() +
+               ", format=" + dataRecordFormat +
+               ", release=" + releaseIdentifier +
+               ", version=" + versionIdentifier +
+               '}';
+    }
+}
@@ -0,0 +1,15 @@
+package com.gamma.asn1.core.framing;
+
+/**
+ * Receives the CDRs of a TS 32.297 file, located from their CDR headers alone.
+ */
+@FunctionalInterface
+public interface CdrRecordListener {
+
+    /**
+     * Called once per CDR, in file order.
+     * @param record The record. Only valid for the duration of the call.
+     * @throws Exception if an error occurs during processing.
+     */
+    void onRecord(CdrRecord record) throws Exception;
+}
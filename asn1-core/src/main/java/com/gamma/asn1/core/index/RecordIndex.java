@@ -0,0 +1,154 @@
+package com.gamma.asn1.core.index;
+
+import com.gamma.asn1.core.tlv.Tags;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * An immutable index of the top-level records of a file: the byte offset, encoded length and tag of each record.
+ * <p>
+ * With an index, locating record N, sampling records or splitting a file into work units costs O(index)
+ * instead of a full decode. Indexes are built and persisted by {@link RecordIndexer}; the size and modification
+ * time of the indexed file are recorded so that a stale index can be detected.
+ */
+public final class RecordIndex {
+
+    private final long fileSize;
+    private final long lastModified;
+    private final long[] offsets;
+    private final int[] lengths;
+    private final int[] tags;
+
+    /**
+     * Creates an index. The arrays are used as-is and must not be modified afterwards.
+     *
+     * @param fileSize     The size of the indexed file in bytes.
+     * @param lastModified The modification time of the indexed file, in epoch milliseconds.
+     * @param offsets      The byte offset of each record, in ascending order.
+     * @param lengths      The encoded length of each record, including its tag and length octets.
+     * @param tags         The packed tag of each record, see {@link Tags}.
+     */
+    public RecordIndex(long fileSize, long lastModified, long[] offsets, int[] lengths, int[] tags) {
+        this.offsets = Objects.requireNonNull(offsets, "Offsets cannot be null");
+        this.lengths = Objects.requireNonNull(lengths, "Lengths cannot be null");
+        this.tags = Objects.requireNonNull(tags, "Tags cannot be null");
+        if (offsets.length != lengths.length || offsets.length != tags.length) {
+            throw new IllegalArgumentException("Offsets, lengths and tags must have the same number of entries.");
+        }
+        this.fileSize = fileSize;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * @return The number of records.
+     */
+    public int size() {
+        return offsets.length;
+    }
+
+    /**
+     * @param record The zero-based record number.
+     * @return The byte offset of the record's first identifier octet.
+     */
+    public long offset(int record) {
+        return offsets[record];
+    }
+
+    /**
+     * @param record The zero-based record number.
+     * @return The encoded length of the record, including its tag and length octets.
+     */
+    public int length(int record) {
+        return lengths[record];
+    }
+
+    /**
+     * @param record The zero-based record number.
+     * @return The packed tag of the record.
+     */
+    public int tag(int record) {
+        return tags[record];
+    }
+
+    /**
+     * @return The size of the indexed file in bytes.
+     */
+    public long fileSize() {
+        return fileSize;
+    }
+
+    /**
+     * @return The modification time of the indexed file, in epoch milliseconds.
+     */
+    public long lastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Finds the record that contains a byte offset, e.g. the offset reported by an exception.
+     *
+     * @param byteOffset A byte offset in the indexed file.
+     * @return The zero-based record number, or -1 if the offset lies outside all records.
+     */
+    public int findRecord(long byteOffset) {
+        int i = Arrays.binarySearch(offsets, byteOffset);
+        if (i < 0) {
+            i = -i - 2; // The last record starting before the offset.
+        }
+        if (i < 0 || byteOffset >= offsets[i] + lengths[i]) {
+            return -1;
+        }
+        return i;
+    }
+
+    /**
+     * Splits the records into consecutive chunks of roughly equal encoded size, e.g. to distribute
+     * work across threads. A record is never split; a single record larger than the target forms a
+     * chunk of its own.
+     *
+     * @param targetChunkBytes The desired number of bytes per chunk.
+     * @return The chunk boundaries as record numbers: chunk {@code i} covers records
+     *         {@code [result[i], result[i + 1])}. The array has one more entry than there are chunks.
+     */
+    public int[] split(long targetChunkBytes) {
+        if (targetChunkBytes <= 0) {
+            throw new IllegalArgumentException("Target chunk size must be positive: " + targetChunkBytes);
+        }
+        int[] boundaries = new int[16];
+        int chunks = 0;
+        int record = 0;
+        while (record < offsets.length) {
+            if (chunks + 2 > boundaries.length) {
+                boundaries = Arrays.copyOf(boundaries, boundaries.length * 2);
+            }
+            boundaries[chunks++] = record;
+            long chunkStart = offsets[record];
+            do {
+                record++;
+            } while (record < offsets.length && offsets[record] + lengths[record] - chunkStart <= targetChunkBytes);
+        }
+        boundaries[chunks] = offsets.length;
+        return Arrays.copyOf(boundaries, chunks + 1);
+    }
+
+    /**
+     * Checks whether this index still describes a file.
+     *
+     * @param fileSize     The current size of the file.
+     * @param lastModified The current modification time of the file, in epoch milliseconds.
+     * @return {@code true} if both match the values recorded at indexing time.
+     */
+    public boolean matches(long fileSize, long lastModified) {
+        return this.fileSize == fileSize && this.lastModified == lastModified;
+    }
+
+    @Override
+    public String toString() {
+        return "RecordIndex{" +
+               "records=" + offsets.length +
+               ", fileSize=" + fileSize +
+               ", lastModified=" + lastModified +
+               '}';
+    }
+}
@@ -0,0 +1,204 @@
+package com.gamma.asn1.core.index;
+
+import com.gamma.asn1.core.exception.ASN1ProcessingException;
+import com.gamma.asn1.core.tlv.TLVEventStreamer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Builds {@link RecordIndex}es with a header-only pre-pass and persists them as sidecar files next to the input.
+ * <p>
+ * The sidecar format is a small binary file: a magic number and format version, the size and modification time
+ * of the indexed file, the record count, the offsets, lengths and tags of all records, and a CRC32 trailer.
+ * {@link #loadOrBuild(Path)} validates the sidecar against the current size and modification time of the input
+ * and transparently rebuilds it when it is missing, stale or damaged.
+ */
+public final class RecordIndexer {
+
+    /** Suffix appended to the input file name to form the sidecar file name. */
+    public static final String SIDECAR_SUFFIX = ".tlvidx";
+
+    private static final int MAGIC = 0x544C5849; // "TLXI"
+    private static final int FORMAT_VERSION = 1;
+
+    private RecordIndexer() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * @param file An input file.
+     * @return The path of the sidecar index for that file.
+     */
+    public static Path sidecarPath(Path file) {
+        return file.resolveSibling(file.getFileName().toString() + SIDECAR_SUFFIX);
+    }
+
+    /**
+     * Returns the index of a file, loading it from its sidecar if that is still valid, and otherwise
+     * building it and writing a fresh sidecar.
+     *
+     * @param file The file to index.
+     * @return The up-to-date index.
+     * @throws IOException             If the file cannot be read or the sidecar cannot be written.
+     * @throws ASN1ProcessingException If the file's top-level TLV structure is malformed.
+     */
+    public static RecordIndex loadOrBuild(Path file) throws IOException, ASN1ProcessingException {
+        long fileSize = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        Path sidecar = sidecarPath(file);
+
+        Optional<RecordIndex> existing = load(sidecar);
+        if (existing.isPresent() && existing.get().matches(fileSize, lastModified)) {
+            return existing.get();
+        }
+        RecordIndex index = build(file);
+        save(index, sidecar);
+        return index;
+    }
+
+    /**
+     * Builds the index of a file by scanning only its top-level headers.
+     *
+     * @param file The file to index.
+     * @return The new index.
+     * @throws IOException             If the file cannot be read.
+     * @throws ASN1ProcessingException If the file's top-level TLV structure is malformed.
+     */
+    public static RecordIndex build(Path file) throws IOException, ASN1ProcessingException {
+        // Capture the file state before scanning, so a concurrent modification makes the index stale.
+        long fileSize = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+
+        Builder builder = new Builder();
+        new TLVEventStreamer().scanRecords(file, builder::add);
+        return builder.build(fileSize, lastModified);
+    }
+
+    /**
+     * Writes an index to a sidecar file. The file is replaced atomically where the file system allows it.
+     *
+     * @param index   The index to write.
+     * @param sidecar The destination path.
+     * @throws IOException If the sidecar cannot be written.
+     */
+    public static void save(RecordIndex index, Path sidecar) throws IOException {
+        Path tmp = sidecar.resolveSibling(sidecar.getFileName().toString() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (BufferedOutputStream raw = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(raw, crc));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(index.fileSize());
+            out.writeLong(index.lastModified());
+            int n = index.size();
+            out.writeInt(n);
+            for (int i = 0; i < n; i++) {
+                out.writeLong(index.offset(i));
+            }
+            for (int i = 0; i < n; i++) {
+                out.writeInt(index.length(i));
+            }
+            for (int i = 0; i < n; i++) {
+                out.writeInt(index.tag(i));
+            }
+            out.flush();
+            // The checksum covers everything before it and is written past the checked stream.
+            DataOutputStream trailer = new DataOutputStream(raw);
+            trailer.writeLong(crc.getValue());
+            trailer.flush();
+        }
+        try {
+            Files.move(tmp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(tmp, sidecar, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads a sidecar file.
+     *
+     * @param sidecar The sidecar path.
+     * @return The index, or empty if the sidecar does not exist, has an unknown format or fails its checksum.
+     * @throws IOException If the sidecar exists but cannot be read.
+     */
+    public static Optional<RecordIndex> load(Path sidecar) throws IOException {
+        CRC32 crc = new CRC32();
+        try (BufferedInputStream raw = new BufferedInputStream(Files.newInputStream(sidecar));
+             DataInputStream in = new DataInputStream(new CheckedInputStream(raw, crc))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return Optional.empty();
+            }
+            long fileSize = in.readLong();
+            long lastModified = in.readLong();
+            int n = in.readInt();
+            if (n < 0 || (long) n * 16 > Files.size(sidecar)) {
+                return Optional.empty();
+            }
+            long[] offsets = new long[n];
+            int[] lengths = new int[n];
+            int[] tags = new int[n];
+            for (int i = 0; i < n; i++) {
+                offsets[i] = in.readLong();
+            }
+            for (int i = 0; i < n; i++) {
+                lengths[i] = in.readInt();
+            }
+            for (int i = 0; i < n; i++) {
+                tags[i] = in.readInt();
+            }
+            long expected = crc.getValue();
+            if (new DataInputStream(raw).readLong() != expected) {
+                return Optional.empty();
+            }
+            return Optional.of(new RecordIndex(fileSize, lastModified, offsets, lengths, tags));
+        } catch (NoSuchFileException | EOFException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Accumulates scanned records in growable primitive arrays.
+     */
+    private static final class Builder {
+        private long[] offsets = new long[1024];
+        private int[] lengths = new int[1024];
+        private int[] tags = new int[1024];
+        private int size = 0;
+
+        void add(int tag, long offset, int headerLength, int length) {
+            if (size == offsets.length) {
+                int newSize = size * 2;
+                offsets = Arrays.copyOf(offsets, newSize);
+                lengths = Arrays.copyOf(lengths, newSize);
+                tags = Arrays.copyOf(tags, newSize);
+            }
+            long encodedLength = (long) headerLength + length;
+            if (encodedLength > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Record at offset " + offset + " is too large to index: " + encodedLength + " bytes.");
+            }
+            offsets[size] = offset;
+            lengths[size] = (int) encodedLength;
+            tags[size] = tag;
+            size++;
+        }
+
+        RecordIndex build(long fileSize, long lastModified) {
+            return new RecordIndex(fileSize, lastModified,
+                    Arrays.copyOf(offsets, size), Arrays.copyOf(lengths, size), Arrays.copyOf(tags, size));
+        }
+    }
+}
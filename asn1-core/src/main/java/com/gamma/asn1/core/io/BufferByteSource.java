@@ -0,0 +1,55 @@
+package com.gamma.asn1.core.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link ByteSource} over bytes that are already resident, such as a heap array or one mapped
+ * chunk of a file. The whole input is a single block, so nothing is ever copied.
+ */
+public class BufferByteSource implements ByteSource {
+
+    private final ByteBuffer buffer;
+    private final long baseOffset;
+
+    /**
+     * @param buffer     The bytes between the buffer's position and limit. The buffer itself is not modified.
+     * @param baseOffset The offset of the buffer's position in the original input.
+     */
+    public BufferByteSource(ByteBuffer buffer, long baseOffset) {
+        this.buffer = buffer.isReadOnly() ? buffer.slice() : buffer.slice().asReadOnlyBuffer();
+        this.baseOffset = baseOffset;
+    }
+
+    /**
+     * @param bytes The whole input.
+     */
+    public BufferByteSource(byte[] bytes) {
+        this(ByteBuffer.wrap(bytes), 0);
+    }
+
+    @Override
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    @Override
+    public long blockOffset() {
+        return baseOffset;
+    }
+
+    @Override
+    public int fill(int from, int count) {
+        return from;
+    }
+
+    @Override
+    public int skip(int from, long count) {
+        long end = from + count;
+        return end > buffer.limit() ? -1 : (int) end;
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release.
+    }
+}
@@ -0,0 +1,52 @@
+package com.gamma.asn1.core.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A forward-only source of bytes, exposed one block at a time.
+ * <p>
+ * The current block is {@link #buffer()}, holding bytes at absolute indexes {@code 0} to its limit, and
+ * index {@code 0} corresponds to {@link #blockOffset()} in the original input. A consumer works on the block
+ * directly and only calls {@link #fill(int, int)} when it needs more bytes than the block holds, for example
+ * for a value or header that straddles two blocks. Only the unconsumed tail of the block is carried over, so
+ * records never have to be copied as a whole.
+ * <p>
+ * After {@link #fill} or {@link #skip} the buffer and the block offset may have changed and must be
+ * fetched again. The buffer is only valid until the next of these calls.
+ */
+public interface ByteSource extends Closeable {
+
+    /**
+     * @return The current block. Bytes are addressed with absolute indexes; position is unused.
+     */
+    ByteBuffer buffer();
+
+    /**
+     * @return The offset in the original input of index {@code 0} of the current block.
+     */
+    long blockOffset();
+
+    /**
+     * Makes at least {@code count} bytes available starting at index {@code from} of the current block,
+     * unless the input ends first. Bytes before {@code from} may be discarded.
+     *
+     * @param from  The index of the first byte that must be kept.
+     * @param count The number of bytes needed from {@code from} on.
+     * @return The index of the byte previously at {@code from}. Fewer than {@code count} bytes follow it
+     *         only if the input has ended.
+     * @throws IOException If the underlying input cannot be read.
+     */
+    int fill(int from, int count) throws IOException;
+
+    /**
+     * Advances past {@code count} bytes starting at index {@code from}, without necessarily reading them.
+     *
+     * @param from  The index of the first byte to skip.
+     * @param count The number of bytes to skip.
+     * @return The index of the first byte after the skipped range, or {@code -1} if the input ended first.
+     * @throws IOException If the underlying input cannot be read.
+     */
+    int skip(int from, long count) throws IOException;
+}
@@ -0,0 +1,79 @@
+package com.gamma.asn1.core.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Chooses the fastest {@link ByteSource} for an input file.
+ * <ul>
+ *     <li>Blocked gzip files are inflated in parallel by a {@link ParallelGzipInputStream}.</li>
+ *     <li>Other gzip files, including multi-member ones, are inflated on the I/O thread of a
+ *     {@link ReadAheadByteSource}, so that inflation runs alongside parsing.</li>
+ *     <li>Uncompressed files are memory-mapped.</li>
+ * </ul>
+ */
+public final class ByteSources {
+
+    private static final int GZIP_BUFFER_SIZE = 64 << 10;
+
+    private ByteSources() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Opens a file with the common pool for parallel inflation.
+     *
+     * @param file The file to read, compressed or not.
+     * @return The source. It must be closed.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static ByteSource open(Path file) throws IOException {
+        return open(file, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Opens a file, detecting gzip compression from its content.
+     *
+     * @param file The file to read, compressed or not.
+     * @param pool The pool that inflates blocked gzip files.
+     * @return The source. It must be closed.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static ByteSource open(Path file, ForkJoinPool pool) throws IOException {
+        if (!isGzip(file)) {
+            return new MappedFileByteSource(file, MappedFileByteSource.DEFAULT_WINDOW_SIZE);
+        }
+        if (ParallelGzipInputStream.isBlocked(file)) {
+            return new StreamByteSource(new ParallelGzipInputStream(file, pool));
+        }
+        InputStream in = Files.newInputStream(file);
+        try {
+            return new ReadAheadByteSource(new GZIPInputStream(in, GZIP_BUFFER_SIZE));
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param file The file to check.
+     * @return {@code true} if the file starts with the gzip magic bytes.
+     * @throws IOException If the file cannot be read.
+     */
+    public static boolean isGzip(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(2);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // Read both magic bytes unless the file is shorter.
+            }
+            return magic.position() == 2 && (magic.get(0) & 0xFF) == 0x1F && (magic.get(1) & 0xFF) == 0x8B;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.gamma.asn1.core.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A {@link ByteSource} that memory-maps a file in consecutive windows. Moving to the next window remaps
+ * the file at the first byte still needed, so no bytes are copied even when data straddles two windows.
+ */
+public class MappedFileByteSource implements ByteSource {
+
+    /** Default number of bytes mapped at once. */
+    public static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int windowSize;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    /**
+     * Opens and maps the first window of a file.
+     *
+     * @param file       The file to read.
+     * @param windowSize The number of bytes mapped at once. Grows temporarily if a single request needs more.
+     * @throws IOException If the file cannot be opened or mapped.
+     */
+    public MappedFileByteSource(Path file, int windowSize) throws IOException {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.windowSize = windowSize;
+        try {
+            this.fileSize = channel.size();
+            map(0, 0);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public ByteBuffer buffer() {
+        return window;
+    }
+
+    @Override
+    public long blockOffset() {
+        return windowStart;
+    }
+
+    @Override
+    public int fill(int from, int count) throws IOException {
+        if (window.limit() - from >= count || windowStart + window.limit() == fileSize) {
+            return from;
+        }
+        map(windowStart + from, count);
+        return 0;
+    }
+
+    @Override
+    public int skip(int from, long count) throws IOException {
+        long target = windowStart + from + count;
+        if (target > fileSize) {
+            return -1;
+        }
+        if (from + count <= window.limit()) {
+            return (int) (from + count);
+        }
+        map(target, 0);
+        return 0;
+    }
+
+    private void map(long start, int minSize) throws IOException {
+        long size = Math.min(fileSize - start, Math.max(windowSize, minSize));
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+        windowStart = start;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,299 @@
+package com.gamma.asn1.core.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Inflates a blocked gzip file on several cores and returns the uncompressed bytes in order.
+ * <p>
+ * A blocked gzip file (as written by {@code bgzip}) is a sequence of small gzip members, each of which records its
+ * own compressed size in a {@code BC} extra field. Member boundaries can therefore be found from the headers alone,
+ * and batches of members are inflated independently on a fork-join pool. The number of batches in flight is bounded,
+ * and each member's CRC and size are verified. Use {@link #isBlocked(Path)} to check whether a file has this layout.
+ */
+public class ParallelGzipInputStream extends InputStream {
+
+    // Target number of compressed bytes per inflation task.
+    private static final int BATCH_SIZE = 1 << 20;
+
+    private static final int FHCRC = 0x02;
+    private static final int FEXTRA = 0x04;
+    private static final int FNAME = 0x08;
+    private static final int FCOMMENT = 0x10;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final ForkJoinPool pool;
+    private final int maxInFlight;
+    private final Deque<Future<byte[]>> inFlight = new ArrayDeque<>();
+    private final ByteBuffer header = ByteBuffer.allocate(18).order(ByteOrder.LITTLE_ENDIAN);
+
+    private long nextMember;
+    private int[] memberSizes = new int[64];
+    private byte[] block = new byte[0];
+    private int blockPos;
+
+    /**
+     * Opens a blocked gzip file and starts inflating it ahead of the reader.
+     *
+     * @param file The file to read.
+     * @param pool The pool that runs the inflation tasks.
+     * @throws IOException If the file cannot be opened or is not a blocked gzip file.
+     */
+    public ParallelGzipInputStream(Path file, ForkJoinPool pool) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.pool = pool;
+        this.maxInFlight = Math.max(2, pool.getParallelism() * 2);
+        try {
+            this.fileSize = channel.size();
+            submitBatches();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks whether a file is a blocked gzip file whose first member carries its compressed size.
+     *
+     * @param file The file to check.
+     * @return {@code true} if the file can be inflated in parallel.
+     * @throws IOException If the file cannot be read.
+     */
+    public static boolean isBlocked(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return memberSize(channel, 0, ByteBuffer.allocate(18).order(ByteOrder.LITTLE_ENDIAN)) > 0;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (blockPos == block.length && !nextBlock()) {
+            return -1;
+        }
+        return block[blockPos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (blockPos == block.length && !nextBlock()) {
+            return -1;
+        }
+        int n = Math.min(len, block.length - blockPos);
+        System.arraycopy(block, blockPos, b, off, n);
+        blockPos += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return block.length - blockPos;
+    }
+
+    /**
+     * Waits for the oldest batch and tops up the tasks in flight.
+     *
+     * @return {@code false} at the end of the file.
+     */
+    private boolean nextBlock() throws IOException {
+        do {
+            Future<byte[]> next = inFlight.poll();
+            if (next == null) {
+                return false;
+            }
+            try {
+                block = next.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for inflated data.");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException("Inflation failed.", e.getCause());
+            }
+            blockPos = 0;
+            submitBatches();
+        } while (block.length == 0);
+        return true;
+    }
+
+    /**
+     * Finds the next batches of members from their headers and submits them for inflation.
+     */
+    private void submitBatches() throws IOException {
+        while (inFlight.size() < maxInFlight && nextMember < fileSize) {
+            long start = nextMember;
+            long end = start;
+            int count = 0;
+            while (end < fileSize && end - start < BATCH_SIZE) {
+                int size = memberSize(channel, end, header);
+                if (size <= 0) {
+                    throw new ZipException("Not a blocked gzip member at offset " + end);
+                }
+                if (count == memberSizes.length) {
+                    memberSizes = Arrays.copyOf(memberSizes, count * 2);
+                }
+                memberSizes[count++] = size;
+                end += size;
+            }
+            if (end > fileSize) {
+                throw new EOFException("Gzip member at offset " + start + " is truncated.");
+            }
+            final int[] sizes = Arrays.copyOf(memberSizes, count);
+            final int batchLength = (int) (end - start);
+            inFlight.add(pool.submit(() -> inflate(start, batchLength, sizes)));
+            nextMember = end;
+        }
+    }
+
+    /**
+     * Reads the header of a member and returns its total compressed size from the {@code BC} extra field.
+     *
+     * @return The size of the member in bytes, or {@code -1} if the member does not record it.
+     */
+    private static int memberSize(FileChannel channel, long offset, ByteBuffer header) throws IOException {
+        header.clear();
+        while (header.hasRemaining()) {
+            if (channel.read(header, offset + header.position()) < 0) {
+                return -1;
+            }
+        }
+        if ((header.get(0) & 0xFF) != 0x1F || (header.get(1) & 0xFF) != 0x8B || header.get(2) != 8
+                || (header.get(3) & FEXTRA) == 0) {
+            return -1;
+        }
+        int extraLength = header.getShort(10) & 0xFFFF;
+        ByteBuffer extra = ByteBuffer.allocate(extraLength).order(ByteOrder.LITTLE_ENDIAN);
+        while (extra.hasRemaining()) {
+            if (channel.read(extra, offset + 12 + extra.position()) < 0) {
+                return -1;
+            }
+        }
+        for (int i = 0; i + 4 <= extraLength; ) {
+            int subfieldLength = extra.getShort(i + 2) & 0xFFFF;
+            if (extra.get(i) == 'B' && extra.get(i + 1) == 'C' && subfieldLength == 2 && i + 6 <= extraLength) {
+                return (extra.getShort(i + 4) & 0xFFFF) + 1;
+            }
+            i += 4 + subfieldLength;
+        }
+        return -1;
+    }
+
+    /**
+     * Inflates a batch of complete members. Runs on the pool.
+     */
+    private byte[] inflate(long start, int length, int[] sizes) throws IOException {
+        ByteBuffer in = ByteBuffer.allocate(length);
+        while (in.hasRemaining()) {
+            if (channel.read(in, start + in.position()) < 0) {
+                throw new EOFException("Unexpected end of file in gzip member at offset " + start);
+            }
+        }
+        byte[] compressed = in.array();
+
+        // The uncompressed size of every member is in its trailer.
+        int total = 0;
+        for (int i = 0, pos = 0; i < sizes.length; pos += sizes[i++]) {
+            total += getInt(compressed, pos + sizes[i] - 4);
+        }
+
+        byte[] out = new byte[total];
+        Inflater inflater = new Inflater(true);
+        CRC32 crc = new CRC32();
+        try {
+            int outPos = 0;
+            for (int i = 0, pos = 0; i < sizes.length; pos += sizes[i++]) {
+                int size = sizes[i];
+                int isize = getInt(compressed, pos + size - 4);
+                int data = headerLength(compressed, pos);
+                inflater.reset();
+                inflater.setInput(compressed, data, pos + size - 8 - data);
+                int n = 0;
+                while (n < isize && !inflater.finished()) {
+                    int r = inflater.inflate(out, outPos + n, isize - n);
+                    if (r == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    n += r;
+                }
+                crc.reset();
+                crc.update(out, outPos, n);
+                if (n != isize || (int) crc.getValue() != getInt(compressed, pos + size - 8)) {
+                    throw new ZipException("Corrupt gzip member at offset " + (start + pos));
+                }
+                outPos += n;
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException("Corrupt gzip data in batch at offset " + start + ": " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+        return out;
+    }
+
+    /**
+     * @return The index of the first deflate byte of the member starting at {@code pos}.
+     */
+    private static int headerLength(byte[] b, int pos) throws ZipException {
+        int flags = b[pos + 3];
+        int p = pos + 12 + getShort(b, pos + 10);
+        if ((flags & FNAME) != 0) {
+            p = skipZeroTerminated(b, p);
+        }
+        if ((flags & FCOMMENT) != 0) {
+            p = skipZeroTerminated(b, p);
+        }
+        if ((flags & FHCRC) != 0) {
+            p += 2;
+        }
+        if (p > b.length) {
+            throw new ZipException("Corrupt gzip header at " + pos);
+        }
+        return p;
+    }
+
+    private static int skipZeroTerminated(byte[] b, int p) throws ZipException {
+        while (p < b.length) {
+            if (b[p++] == 0) {
+                return p;
+            }
+        }
+        throw new ZipException("Unterminated gzip header field.");
+    }
+
+    private static int getShort(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8;
+    }
+
+    private static int getInt(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16 | (b[i + 3] & 0xFF) << 24;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inFlight.forEach(f -> f.cancel(true));
+        inFlight.clear();
+        channel.close();
+    }
+}
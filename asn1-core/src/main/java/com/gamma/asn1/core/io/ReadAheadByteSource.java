@@ -0,0 +1,286 @@
+package com.gamma.asn1.core.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A {@link ByteSource} that reads ahead on a dedicated I/O thread, so that reading the next block overlaps
+ * with parsing the current one.
+ * <p>
+ * The I/O thread fills direct buffers taken from a small, fixed pool and queues them for the consumer; a buffer
+ * returns to the pool as soon as the consumer moves past it, so memory use is bounded by the pool regardless of
+ * the input size. Every buffer reserves a headroom in front of its data. When a header or value straddles two
+ * buffers, the unconsumed tail of the current buffer is copied into the headroom of the next one, so the bytes
+ * are contiguous without copying the next buffer. Only requests larger than a buffer fall back to a temporary
+ * buffer that collects several blocks.
+ * <p>
+ * A source must be closed to stop its I/O thread.
+ */
+public class ReadAheadByteSource implements ByteSource {
+
+    /** Default number of data bytes per buffer. */
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+    /** Default number of buffers in the pool. */
+    public static final int DEFAULT_BUFFER_COUNT = 4;
+
+    /** Default size of the headroom used to stitch straddling data. */
+    public static final int DEFAULT_HEADROOM = 64 << 10;
+
+    /**
+     * One pooled buffer, with a read-only view handed to consumers.
+     */
+    private static final class Block {
+        final ByteBuffer data;
+        final ByteBuffer view;
+        final boolean pooled;
+
+        Block(ByteBuffer data, boolean pooled) {
+            this.data = data;
+            this.view = data.asReadOnlyBuffer();
+            this.pooled = pooled;
+        }
+    }
+
+    private static final Block END = new Block(ByteBuffer.allocate(0), false);
+
+    private final ReadableByteChannel channel;
+    private final int headroom;
+    private final BlockingQueue<Block> free;
+    private final BlockingQueue<Block> filled;
+    private final Thread reader;
+    private volatile IOException failure;
+
+    private Block current;
+    private int limit;
+    private long blockOffset;
+    // Offset in the original input of the first byte the consumer has not been handed yet.
+    private long delivered;
+    private boolean endOfInput;
+
+    /**
+     * Opens a file for read-ahead with the default buffer settings.
+     *
+     * @param file The file to read.
+     * @return The source. It must be closed.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static ReadAheadByteSource open(Path file) throws IOException {
+        return new ReadAheadByteSource(FileChannel.open(file, StandardOpenOption.READ), DEFAULT_BLOCK_SIZE, DEFAULT_BUFFER_COUNT, DEFAULT_HEADROOM);
+    }
+
+    /**
+     * Creates a source over a stream with the default buffer settings.
+     *
+     * @param in The stream to read. It is closed by {@link #close()}.
+     */
+    public ReadAheadByteSource(InputStream in) {
+        this(Channels.newChannel(in), DEFAULT_BLOCK_SIZE, DEFAULT_BUFFER_COUNT, DEFAULT_HEADROOM);
+    }
+
+    /**
+     * @param channel     The channel to read. It is closed by {@link #close()}.
+     * @param blockSize   The number of data bytes per buffer.
+     * @param bufferCount The number of buffers in the pool, at least two so that reading and parsing overlap.
+     * @param headroom    The number of bytes reserved in front of every buffer for stitching straddling data.
+     */
+    public ReadAheadByteSource(ReadableByteChannel channel, int blockSize, int bufferCount, int headroom) {
+        if (blockSize <= 0 || headroom < 0) {
+            throw new IllegalArgumentException("Invalid block size " + blockSize + " or headroom " + headroom);
+        }
+        if (bufferCount < 2) {
+            throw new IllegalArgumentException("At least two buffers are required: " + bufferCount);
+        }
+        this.channel = channel;
+        this.headroom = headroom;
+        this.free = new ArrayBlockingQueue<>(bufferCount);
+        this.filled = new ArrayBlockingQueue<>(bufferCount + 1);
+        for (int i = 0; i < bufferCount; i++) {
+            free.add(new Block(ByteBuffer.allocateDirect(headroom + blockSize), true));
+        }
+        this.current = END;
+        this.reader = new Thread(this::readLoop, "tlv-read-ahead");
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    /**
+     * Body of the I/O thread: fills free buffers until the end of the channel.
+     */
+    private void readLoop() {
+        try {
+            while (true) {
+                Block block = free.take();
+                ByteBuffer data = block.data;
+                data.clear().position(headroom);
+                int n = 0;
+                while (data.hasRemaining() && (n = channel.read(data)) >= 0) {
+                    // Keep reading until the buffer is full or the channel ends.
+                }
+                data.limit(data.position());
+                if (data.limit() > headroom) {
+                    filled.put(block);
+                } else {
+                    free.add(block);
+                }
+                if (n < 0) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            return; // Closed by the consumer.
+        } catch (IOException e) {
+            failure = e;
+        }
+        filled.offer(END);
+    }
+
+    @Override
+    public ByteBuffer buffer() {
+        return current.view;
+    }
+
+    @Override
+    public long blockOffset() {
+        return blockOffset;
+    }
+
+    @Override
+    public int fill(int from, int count) throws IOException {
+        if (limit - from >= count || endOfInput) {
+            return from;
+        }
+        int tail = limit - from;
+        Block next = take();
+        if (next == END) {
+            return from;
+        }
+        int nextLength = next.data.limit() - headroom;
+        if (tail <= headroom && tail + nextLength >= count) {
+            // Common case: stitch the tail into the headroom of the next buffer.
+            int start = headroom - tail;
+            copy(current.data, from, tail, next.data, start);
+            moveTo(next);
+            return start;
+        }
+
+        // The request is larger than one buffer: collect blocks into a temporary buffer.
+        ByteBuffer large = ByteBuffer.allocate(Math.max(count, tail + nextLength));
+        copy(current.data, from, tail, large, 0);
+        int size = tail;
+        long start = blockOffset + from;
+        Block block = next;
+        while (true) {
+            int length = block.data.limit() - headroom;
+            if (size + length > large.capacity()) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(size + length, large.capacity() * 2));
+                copy(large, 0, size, grown, 0);
+                large = grown;
+            }
+            copy(block.data, headroom, length, large, size);
+            size += length;
+            delivered += length;
+            recycle(block);
+            if (size >= count) {
+                break;
+            }
+            block = take();
+            if (block == END) {
+                break;
+            }
+        }
+        large.limit(size);
+        recycle(current);
+        current = new Block(large, false);
+        limit = size;
+        blockOffset = start;
+        return 0;
+    }
+
+    @Override
+    public int skip(int from, long count) throws IOException {
+        if (limit - from >= count) {
+            return (int) (from + count);
+        }
+        long remaining = count - (limit - from);
+        while (true) {
+            Block next = take();
+            if (next == END) {
+                return -1;
+            }
+            moveTo(next);
+            int length = limit - headroom;
+            if (remaining <= length) {
+                return headroom + (int) remaining;
+            }
+            remaining -= length;
+        }
+    }
+
+    /**
+     * Makes a freshly filled buffer the current block and returns the previous one to the pool.
+     */
+    private void moveTo(Block next) {
+        recycle(current);
+        current = next;
+        limit = next.data.limit();
+        next.view.limit(limit);
+        blockOffset = delivered - headroom;
+        delivered += limit - headroom;
+    }
+
+    private Block take() throws IOException {
+        if (endOfInput) {
+            return END;
+        }
+        Block next;
+        try {
+            next = filled.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for read-ahead data.");
+        }
+        if (next == END) {
+            endOfInput = true;
+            if (failure != null) {
+                throw new IOException("Read-ahead failed.", failure);
+            }
+        }
+        return next;
+    }
+
+    private void recycle(Block block) {
+        if (block.pooled) {
+            free.add(block);
+        }
+    }
+
+    private static void copy(ByteBuffer src, int srcIndex, int length, ByteBuffer dst, int dstIndex) {
+        ByteBuffer from = src.duplicate();
+        from.limit(srcIndex + length).position(srcIndex);
+        ByteBuffer to = dst.duplicate();
+        to.limit(dstIndex + length).position(dstIndex);
+        to.put(from);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.interrupt();
+        try {
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+    }
+}
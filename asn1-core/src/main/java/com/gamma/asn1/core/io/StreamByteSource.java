@@ -0,0 +1,128 @@
+package com.gamma.asn1.core.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link ByteSource} that reads an arbitrary {@link InputStream}, such as a pipe or a decompressing
+ * stream, into a refillable block buffer with bulk reads.
+ * <p>
+ * When a consumer needs bytes beyond the block, only the unconsumed tail is moved to the front of the
+ * block before refilling it. The block grows only when a single request is larger than the block.
+ */
+public class StreamByteSource implements ByteSource {
+
+    /** Default size of the block buffer. */
+    public static final int DEFAULT_BLOCK_SIZE = 64 << 10;
+
+    private final InputStream in;
+    private byte[] block;
+    private ByteBuffer view;
+    private int limit;
+    private long blockOffset;
+    private boolean endOfInput;
+
+    /**
+     * Creates a source with the {@link #DEFAULT_BLOCK_SIZE}.
+     *
+     * @param in The stream to read. It is closed by {@link #close()}.
+     */
+    public StreamByteSource(InputStream in) {
+        this(in, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * @param in        The stream to read. It is closed by {@link #close()}.
+     * @param blockSize The initial size of the block buffer.
+     */
+    public StreamByteSource(InputStream in, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.in = in;
+        this.block = new byte[blockSize];
+        this.view = ByteBuffer.wrap(block).asReadOnlyBuffer();
+        this.view.limit(0);
+    }
+
+    @Override
+    public ByteBuffer buffer() {
+        return view;
+    }
+
+    @Override
+    public long blockOffset() {
+        return blockOffset;
+    }
+
+    @Override
+    public int fill(int from, int count) throws IOException {
+        if (limit - from >= count || endOfInput) {
+            return from;
+        }
+        if (from + count > block.length) {
+            // Move the unconsumed tail to the front, growing the block if the request cannot fit at all.
+            int kept = limit - from;
+            byte[] target = count > block.length ? new byte[Math.max(count, block.length * 2)] : block;
+            System.arraycopy(block, from, target, 0, kept);
+            if (target != block) {
+                block = target;
+                view = ByteBuffer.wrap(block).asReadOnlyBuffer();
+            }
+            blockOffset += from;
+            limit = kept;
+            from = 0;
+        }
+        while (limit - from < count) {
+            int n = in.read(block, limit, block.length - limit);
+            if (n < 0) {
+                endOfInput = true;
+                break;
+            }
+            limit += n;
+        }
+        view.limit(limit);
+        return from;
+    }
+
+    @Override
+    public int skip(int from, long count) throws IOException {
+        if (limit - from >= count) {
+            return (int) (from + count);
+        }
+        long remaining = count - (limit - from);
+        blockOffset += limit;
+        limit = 0;
+        view.limit(0);
+        // Skip all but the last byte. InputStream.skip may skip past the end of input (FileInputStream does),
+        // so the last byte is read: that fails exactly when the skipped range runs past the end.
+        while (remaining > 1) {
+            long skipped = in.skip(remaining - 1);
+            if (skipped <= 0) {
+                // skip() may legitimately return 0; fall back to reading to tell that apart from end of input.
+                int n = in.read(block, 0, (int) Math.min(remaining - 1, block.length));
+                if (n < 0) {
+                    endOfInput = true;
+                    return -1;
+                }
+                skipped = n;
+            }
+            remaining -= skipped;
+            blockOffset += skipped;
+        }
+        if (remaining == 1) {
+            if (in.read() < 0) {
+                endOfInput = true;
+                return -1;
+            }
+            blockOffset++;
+        }
+        return 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,54 @@
+package com.gamma.asn1.core.mapper;
+
+import com.gamma.asn1.core.tlv.ValueView;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link DecodedNode} view of a node in a {@link NodeArena}. The value and children are read from the arena
+ * when they are requested. The view cannot be modified.
+ */
+final class ArenaNode extends DecodedNode {
+
+    private final NodeArena arena;
+    private final int node;
+    private List<DecodedNode> children;
+
+    ArenaNode(NodeArena arena, int node) {
+        super(arena.tag(node), arena.length(node), arena.isConstructed(node), arena.offset(node));
+        this.arena = arena;
+        this.node = node;
+    }
+
+    @Override
+    public byte[] getValue() {
+        if (isConstructed()) {
+            return null;
+        }
+        return arena.value(node, new ValueView()).toByteArray();
+    }
+
+    @Override
+    public List<DecodedNode> getChildren() {
+        if (children == null) {
+            List<DecodedNode> list = new ArrayList<>();
+            for (int child = arena.firstChild(node); child != NodeArena.NONE; child = arena.nextSibling(child)) {
+                list.add(new ArenaNode(arena, child));
+            }
+            children = Collections.unmodifiableList(list);
+        }
+        return children;
+    }
+
+    @Override
+    public void addChild(DecodedNode child) {
+        throw new UnsupportedOperationException("Arena nodes cannot be modified.");
+    }
+
+    @Override
+    public void setValue(byte[] value) {
+        throw new UnsupportedOperationException("Arena nodes cannot be modified.");
+    }
+}
@@ -1,5 +1,7 @@
 package com.gamma.asn1.core.mapper;
 
+import com.gamma.asn1.core.tlv.Tags;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -19,7 +21,7 @@ import java.util.Objects;
  */
 public class DecodedNode {
 
-    private final byte[] tag;
+    private final int tag; // Packed, see Tags
     private final int length;
     private final boolean constructed;
     private final long byteOffset;
@@ -35,7 +37,30 @@ public class DecodedNode {
      * @param byteOffset  The starting byte offset of this node in the original stream.
      */
     public DecodedNode(byte[] tag, int length, boolean constructed, long byteOffset) {
-        this.tag = Objects.requireNonNull(tag, "Tag cannot be null");
+        this(Tags.fromBytes(Objects.requireNonNull(tag, "Tag cannot be null")), length, constructed, byteOffset);
+    }
+
+    /**
+     * Constructs a TLV node from a packed tag. The node is constructed if the tag's constructed bit is set.
+     *
+     * @param tag        The packed tag, see {@link Tags}.
+     * @param length     The length of the value part.
+     * @param byteOffset The starting byte offset of this node in the original stream.
+     */
+    public DecodedNode(int tag, int length, long byteOffset) {
+        this(tag, length, Tags.isConstructed(tag), byteOffset);
+    }
+
+    /**
+     * Constructs a TLV node; for use by subclasses that keep the value and children elsewhere.
+     *
+     * @param tag         The packed tag, see {@link Tags}.
+     * @param length      The length of the value part.
+     * @param constructed A flag indicating if the node is constructed.
+     * @param byteOffset  The starting byte offset of this node in the original stream.
+     */
+    protected DecodedNode(int tag, int length, boolean constructed, long byteOffset) {
+        this.tag = tag;
         this.length = length;
         this.constructed = constructed;
         this.byteOffset = byteOffset;
@@ -53,10 +78,19 @@ public class DecodedNode {
     /**
      * Gets the tag bytes.
      *
-     * @return A copy of the tag byte array to preserve immutability.
+     * @return A new array holding the identifier octets of the tag.
      */
     public byte[] getTag() {
-        return tag.clone();
+        return Tags.toBytes(tag);
+    }
+
+    /**
+     * Gets the tag without allocating.
+     *
+     * @return The packed tag, see {@link Tags}.
+     */
+    public int getPackedTag() {
+        return tag;
     }
 
     /**
@@ -144,17 +178,17 @@ public class DecodedNode {
     private void toStringHelper(StringBuilder sb, int indentLevel) {
         String indent = String.join("", Collections.nCopies(indentLevel, "  "));
         sb.append(indent)
-                .append("Tag: ").append(toHexString(tag))
+                .append("Tag: ").append(Tags.toHex(tag))
                 .append(", Length: ").append(length)
                 .append(", Offset: ~").append(byteOffset);
 
         if (constructed) {
             sb.append(" (Constructed)\n");
-            for (DecodedNode child : children) {
+            for (DecodedNode child : getChildren()) {
                 child.toStringHelper(sb, indentLevel + 1);
             }
         } else {
-            sb.append(" (Primitive), Value: ").append(toHexString(value)).append("\n");
+            sb.append(" (Primitive), Value: ").append(toHexString(getValue())).append("\n");
         }
     }
 
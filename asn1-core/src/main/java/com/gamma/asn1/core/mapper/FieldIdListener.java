@@ -0,0 +1,24 @@
+package com.gamma.asn1.core.mapper;
+
+import com.gamma.asn1.core.schema.CompiledSchema;
+import com.gamma.asn1.core.tlv.ValueView;
+import com.gamma.asn1.model.ASN1BaseType;
+
+/**
+ * A listener for flattened fields that identifies each field by the field ID of a {@link CompiledSchema}
+ * instead of its dotted path. Consumers can keep their per-field state in arrays indexed by ID and resolve
+ * the path with {@link CompiledSchema#fieldPath(int)} only when they need it, e.g. for diagnostics.
+ */
+@FunctionalInterface
+public interface FieldIdListener extends RecordEventListener {
+
+    /**
+     * Called when a primitive ASN.1 field is fully parsed and identified.
+     *
+     * @param fieldId The field ID of the leaf in the compiled schema.
+     * @param value   A view of the raw bytes of the primitive value. Must not be retained after the call returns.
+     * @param type    The {@link ASN1BaseType} of the field as defined in the schema, which guides final decoding.
+     * @throws Exception if an error occurs during processing of the field by the listener.
+     */
+    void onField(int fieldId, ValueView value, ASN1BaseType type) throws Exception;
+}
@@ -0,0 +1,142 @@
+package com.gamma.asn1.core.mapper;
+
+import com.gamma.asn1.core.decoders.InternCache;
+import com.gamma.asn1.core.decoders.PrimitiveDecoders;
+import com.gamma.asn1.core.decoders.ValueLoader;
+import com.gamma.asn1.core.exception.DecoderException;
+import com.gamma.asn1.core.schema.CompiledSchema;
+import com.gamma.asn1.core.tlv.ValueView;
+import com.gamma.asn1.model.ASN1BaseType;
+import com.gamma.asn1.model.ASN1TypeDefinition;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Interns the decoded values of selected fields, with one {@link InternCache} per field of a {@link CompiledSchema}.
+ * <p>
+ * Fields opt in by path, e.g. from the {@code intern} setting of the flattener rules, or by the name of their
+ * schema type, e.g. {@code AccessPointNameNI}, which selects every field of that type. Only the ASCII string types
+ * (IA5String, VisibleString, PrintableString and NumericString, see {@link #canIntern}) can be interned, since
+ * those are the fields a {@link TypedFieldSink} receives as text; selecting any other field is an error. The
+ * {@link TypedFieldDispatcher} passes interned values to {@link TypedFieldSink#onAscii}; other consumers call
+ * {@link #intern(int, ValueView)} for the fields where {@link #isInterned(int)} holds. {@link #caches()} exposes
+ * the counters of every cache to see which fields benefit.
+ * <p>
+ * Instances are not thread-safe; use one interner per mapper.
+ */
+public final class FieldInterner {
+
+    private final CompiledSchema schema;
+    private final InternCache<String>[] caches;
+
+    /**
+     * @param schema         The compiled schema whose field IDs are interned.
+     * @param paths          The paths of the fields to intern.
+     * @param typeNames      The names of schema types whose fields are interned.
+     * @param maxEntries     The maximum number of cached values per field.
+     * @param maxValueLength The length in bytes above which values are not cached.
+     * @param loader         Decodes the values of the selected fields.
+     * @throws IllegalArgumentException If a path is not a leaf of the schema, or a selected field is not of an ASCII
+     *                                  string type.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public FieldInterner(CompiledSchema schema, Collection<String> paths, Collection<String> typeNames,
+                         int maxEntries, int maxValueLength, ValueLoader<String> loader) {
+        this.schema = schema;
+        this.caches = new InternCache[schema.fieldCount()];
+        for (String path : paths) {
+            int fieldId = schema.findField(path);
+            if (fieldId == CompiledSchema.NO_FIELD) {
+                throw new IllegalArgumentException("Cannot intern unknown field: " + path);
+            }
+            checkInternable(schema, fieldId);
+            caches[fieldId] = new InternCache<>(maxEntries, maxValueLength, loader);
+        }
+        if (!typeNames.isEmpty()) {
+            for (int state = 0; state < schema.stateCount(); state++) {
+                int fieldId = schema.fieldId(state);
+                ASN1TypeDefinition definition = schema.definition(state);
+                if (fieldId != CompiledSchema.NO_FIELD && caches[fieldId] == null && definition != null
+                        && typeNames.contains(definition.getName())) {
+                    checkInternable(schema, fieldId);
+                    caches[fieldId] = new InternCache<>(maxEntries, maxValueLength, loader);
+                }
+            }
+        }
+    }
+
+    private static void checkInternable(CompiledSchema schema, int fieldId) {
+        if (!canIntern(schema.fieldType(fieldId))) {
+            throw new IllegalArgumentException("Cannot intern field " + schema.fieldPath(fieldId) + " of type "
+                    + schema.fieldType(fieldId) + ": only ASCII string fields can be interned");
+        }
+    }
+
+    /**
+     * @param type The base type of a field, or {@code null} if the schema does not define it.
+     * @return {@code true} for the ASCII string types, whose fields can be interned.
+     */
+    public static boolean canIntern(ASN1BaseType type) {
+        if (type == null) {
+            return false;
+        }
+        switch (type) {
+            case IA5_STRING:
+            case VISIBLE_STRING:
+            case PRINTABLE_STRING:
+            case NUMERIC_STRING:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Creates an interner for IA5String fields selected by path.
+     *
+     * @param schema     The compiled schema whose field IDs are interned.
+     * @param paths      The paths of the fields to intern.
+     * @param maxEntries The maximum number of cached values per field.
+     * @return The interner.
+     */
+    public static FieldInterner ia5Strings(CompiledSchema schema, Collection<String> paths, int maxEntries) {
+        return new FieldInterner(schema, paths, Collections.emptySet(), maxEntries, 256,
+                PrimitiveDecoders::decodeIA5String);
+    }
+
+    /**
+     * @param fieldId A field ID.
+     * @return {@code true} if the values of the field are interned.
+     */
+    public boolean isInterned(int fieldId) {
+        return caches[fieldId] != null;
+    }
+
+    /**
+     * Returns the decoded value of an interned field, decoding it only if it is not cached.
+     *
+     * @param fieldId The ID of a field for which {@link #isInterned(int)} holds.
+     * @param value   A view of the raw bytes of the value.
+     * @return The decoded value.
+     * @throws DecoderException If the value cannot be decoded.
+     */
+    public String intern(int fieldId, ValueView value) throws DecoderException {
+        return caches[fieldId].intern(value);
+    }
+
+    /**
+     * @return The cache of every interned field, keyed by path, in field ID order.
+     */
+    public Map<String, InternCache<String>> caches() {
+        Map<String, InternCache<String>> result = new LinkedHashMap<>();
+        for (int fieldId = 0; fieldId < caches.length; fieldId++) {
+            if (caches[fieldId] != null) {
+                result.put(schema.fieldPath(fieldId), caches[fieldId]);
+            }
+        }
+        return result;
+    }
+}
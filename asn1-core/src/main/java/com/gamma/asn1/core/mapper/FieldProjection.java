@@ -0,0 +1,108 @@
+package com.gamma.asn1.core.mapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The set of schema paths a consumer needs, used by the {@link SemanticEventMapper} to skip everything else.
+ * <p>
+ * The paths are stored as a trie of field names. Walking the trie is done with integer node handles, so the
+ * mapper can keep its position on a primitive stack: {@link #root()} is the starting node and
+ * {@link #child(int, String)} moves one level down. A path that ends at a constructed element selects that
+ * element's whole subtree. Elements of SEQUENCE OF / SET OF types do not add a path segment and are
+ * represented by the empty name, which keeps the current node.
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ */
+public final class FieldProjection {
+
+    /** Node handle returned for elements outside the projection. */
+    public static final int EXCLUDED = -1;
+
+    // Node 0 selects everything below it; real trie nodes start at 1.
+    private static final int EVERYTHING = 0;
+    private static final FieldProjection ALL = new FieldProjection(null);
+
+    private final List<Map<String, Integer>> children;
+
+    private FieldProjection(List<Map<String, Integer>> children) {
+        this.children = children;
+    }
+
+    /**
+     * @return A projection that selects every element.
+     */
+    public static FieldProjection all() {
+        return ALL;
+    }
+
+    /**
+     * Builds a projection from dotted paths such as {@code "callEventRecord.servingNetwork.imsi"}.
+     *
+     * @param paths The required paths. Each selects its element and, for constructed elements, the whole subtree.
+     * @return The projection.
+     */
+    public static FieldProjection of(Collection<String> paths) {
+        List<Map<String, Integer>> children = new ArrayList<>();
+        children.add(null);          // EVERYTHING
+        children.add(new HashMap<>()); // root
+        for (String path : paths) {
+            if (path == null || path.isEmpty()) {
+                continue;
+            }
+            int node = 1;
+            String[] segments = path.split("\\.");
+            for (int i = 0; i < segments.length && node != EVERYTHING; i++) {
+                Map<String, Integer> next = children.get(node);
+                boolean last = i == segments.length - 1;
+                Integer child = next.get(segments[i]);
+                if (child == null || last) {
+                    if (last) {
+                        child = EVERYTHING;
+                    } else {
+                        child = children.size();
+                        children.add(new HashMap<>());
+                    }
+                    next.put(segments[i], child);
+                }
+                node = child;
+            }
+        }
+        return new FieldProjection(children);
+    }
+
+    /**
+     * @return The node handle of the top level.
+     */
+    public int root() {
+        return children == null ? EVERYTHING : 1;
+    }
+
+    /**
+     * Moves one level down the trie.
+     *
+     * @param node The current node handle.
+     * @param name The name of the child element; the empty string for list elements.
+     * @return The child's node handle, or {@link #EXCLUDED} if the child is not needed.
+     */
+    public int child(int node, String name) {
+        if (node == EVERYTHING || name.isEmpty()) {
+            return node;
+        }
+        if (node == EXCLUDED) {
+            return EXCLUDED;
+        }
+        Integer child = children.get(node).get(name);
+        return child == null ? EXCLUDED : child;
+    }
+
+    /**
+     * @return {@code true} if this projection selects every element.
+     */
+    public boolean isAll() {
+        return children == null;
+    }
+}
@@ -1,19 +1,36 @@
 package com.gamma.asn1.core.mapper;
 
-import com.gamma.asn1.grammar.ASN1Type; /**
+import com.gamma.asn1.core.tlv.ValueView;
+import com.gamma.asn1.model.ASN1BaseType;
+
+/**
  * A listener interface for receiving events from a flattening process.
  * It is called for each primitive value encountered in the ASN.1 stream.
  */
 @FunctionalInterface
-public interface FlattenerListener {
+public interface FlattenerListener extends RecordEventListener {
 
     /**
      * Called when a primitive ASN.1 field is fully parsed and identified.
      *
      * @param path     The dot-separated path to the field, derived from the schema (e.g., "record.header.id").
      * @param rawValue The raw bytes of the primitive value.
-     * @param type     The {@link ASN1Type} of the field as defined in the schema, which guides final decoding.
+     * @param type     The {@link ASN1BaseType} of the field as defined in the schema, which guides final decoding.
+     * @throws Exception if an error occurs during processing of the field by the listener.
+     */
+    void onField(String path, byte[] rawValue, ASN1BaseType type) throws Exception;
+
+    /**
+     * Allocation-free variant of {@link #onField(String, byte[], ASN1BaseType)}, called by the
+     * {@link SemanticEventMapper}. The default implementation copies the view and delegates;
+     * listeners that can consume the bytes in place should override it.
+     *
+     * @param path  The dot-separated path to the field, derived from the schema (e.g., "record.header.id").
+     * @param value A view of the raw bytes of the primitive value. Must not be retained after the call returns.
+     * @param type  The {@link ASN1BaseType} of the field as defined in the schema, which guides final decoding.
      * @throws Exception if an error occurs during processing of the field by the listener.
      */
-    void onField(String path, byte[] rawValue, ASN1Type type) throws Exception;
+    default void onField(String path, ValueView value, ASN1BaseType type) throws Exception {
+        onField(path, value.toByteArray(), type);
+    }
 }
@@ -0,0 +1,168 @@
+package com.gamma.asn1.core.mapper;
+
+import com.gamma.asn1.core.exception.CorruptTLVException;
+import com.gamma.asn1.core.tlv.TLVHeader;
+import com.gamma.asn1.core.tlv.Tags;
+import com.gamma.asn1.core.tlv.ValueView;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link DecodedNode} that decodes its children only when they are first requested.
+ * <p>
+ * A node records just the header of its element and the position of the value in the underlying buffer, which
+ * may be a heap buffer or a {@link java.nio.MappedByteBuffer} over a file. {@link #getChildren()} parses the
+ * headers of the nested elements on the first call and caches them, so the cost of decoding a record is
+ * proportional to the parts that are looked at. Values of primitive nodes stay in the buffer: {@link #value(ValueView)}
+ * and {@link #valueBuffer()} expose them without copying, while {@link #getValue()} returns a copy as its contract
+ * requires.
+ * <p>
+ * Malformed nested elements are only detected when they are parsed; {@link #getChildren()} then throws an
+ * {@link IllegalStateException} caused by a {@link CorruptTLVException}. Nodes cannot be modified and are not
+ * thread-safe.
+ */
+public final class LazyDecodedNode extends DecodedNode {
+
+    private final ByteBuffer buffer;
+    private final long baseOffset;
+    private final int index;
+    private final int valueIndex;
+    private List<DecodedNode> children;
+
+    private LazyDecodedNode(ByteBuffer buffer, long baseOffset, int index, int valueIndex, int tag, int length) {
+        super(tag, length, Tags.isConstructed(tag), baseOffset + index);
+        this.buffer = buffer;
+        this.baseOffset = baseOffset;
+        this.index = index;
+        this.valueIndex = valueIndex;
+    }
+
+    /**
+     * Parses the header of the element at the start of a buffer.
+     *
+     * @param buffer The buffer holding the element, from its position to its limit.
+     * @return The node.
+     * @throws CorruptTLVException If the header is malformed or the element exceeds the buffer.
+     */
+    public static LazyDecodedNode parse(ByteBuffer buffer) throws CorruptTLVException {
+        return parse(buffer.slice(), 0, 0);
+    }
+
+    /**
+     * Parses the header of the element at an index of a buffer. Use {@link #endIndex()} to find the element
+     * that follows it.
+     *
+     * @param buffer     The buffer holding the element. It is not modified; the node reads it with absolute
+     *                   indices up to its limit.
+     * @param index      The absolute index of the element's tag.
+     * @param baseOffset The offset in the original stream of index 0 of the buffer.
+     * @return The node.
+     * @throws CorruptTLVException If the header is malformed or the element exceeds the buffer's limit.
+     */
+    public static LazyDecodedNode parse(ByteBuffer buffer, int index, long baseOffset) throws CorruptTLVException {
+        ByteBuffer readOnly = buffer.isReadOnly() ? buffer : buffer.asReadOnlyBuffer();
+        return parseHeader(new TLVHeader(), readOnly, baseOffset, index, readOnly.limit());
+    }
+
+    private static LazyDecodedNode parseHeader(TLVHeader header, ByteBuffer buf, long baseOffset, int index, int limit) throws CorruptTLVException {
+        int status = header.decode(buf, index, limit);
+        if (status != TLVHeader.OK) {
+            throw header.error(status, baseOffset, "");
+        }
+        int tag = header.tag();
+        int length = header.length();
+        int valueIndex = header.valueIndex();
+        if ((long) valueIndex + length > limit) {
+            throw new CorruptTLVException(String.format("Element with tag %s and declared length %d exceeds the available data by %d bytes.",
+                    Tags.toHex(tag), length, (long) valueIndex + length - limit), baseOffset + index, "", null);
+        }
+        return new LazyDecodedNode(buf, baseOffset, index, valueIndex, tag, length);
+    }
+
+    /**
+     * @return The absolute index in the buffer of the byte after this element.
+     */
+    public int endIndex() {
+        return valueIndex + getLength();
+    }
+
+    /**
+     * @return The absolute index in the buffer of the first byte of the value.
+     */
+    public int valueIndex() {
+        return valueIndex;
+    }
+
+    /**
+     * Positions a view over the value of the element, without copying.
+     *
+     * @param view The view to reposition.
+     * @return The view.
+     */
+    public ValueView value(ValueView view) {
+        return view.set(buffer, valueIndex, getLength());
+    }
+
+    /**
+     * @return A read-only buffer over the value of the element, sharing the underlying memory.
+     */
+    public ByteBuffer valueBuffer() {
+        ByteBuffer value = buffer.duplicate();
+        value.limit(valueIndex + getLength()).position(valueIndex);
+        return value.slice();
+    }
+
+    @Override
+    public byte[] getValue() {
+        if (isConstructed()) {
+            return null;
+        }
+        byte[] copy = new byte[getLength()];
+        ByteBuffer value = buffer.duplicate();
+        value.position(valueIndex);
+        value.get(copy);
+        return copy;
+    }
+
+    /**
+     * Parses the nested elements on the first call.
+     *
+     * @throws IllegalStateException If a nested element is malformed.
+     */
+    @Override
+    public List<DecodedNode> getChildren() {
+        if (children == null) {
+            if (!isConstructed()) {
+                children = Collections.emptyList();
+            } else {
+                List<DecodedNode> list = new ArrayList<>();
+                int end = endIndex();
+                TLVHeader header = new TLVHeader();
+                try {
+                    for (int pos = valueIndex; pos < end; ) {
+                        LazyDecodedNode child = parseHeader(header, buffer, baseOffset, pos, end);
+                        list.add(child);
+                        pos = child.endIndex();
+                    }
+                } catch (CorruptTLVException e) {
+                    throw new IllegalStateException("Corrupt nested element in " + Tags.toString(getPackedTag()) + " at offset " + (baseOffset + index), e);
+                }
+                children = Collections.unmodifiableList(list);
+            }
+        }
+        return children;
+    }
+
+    @Override
+    public void addChild(DecodedNode child) {
+        throw new UnsupportedOperationException("Lazy nodes cannot be modified.");
+    }
+
+    @Override
+    public void setValue(byte[] value) {
+        throw new UnsupportedOperationException("Lazy nodes cannot be modified.");
+    }
+}
@@ -0,0 +1,310 @@
+package com.gamma.asn1.core.mapper;
+
+import com.gamma.asn1.core.tlv.TLVFlyweightListener;
+import com.gamma.asn1.core.tlv.Tags;
+import com.gamma.asn1.core.tlv.ValueView;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A compact, reusable store for decoded TLV trees.
+ * <p>
+ * Every element becomes a node: an index into parallel primitive arrays holding its packed tag, stream offset,
+ * value length, parent, first child and next sibling. The values of primitive nodes are copied into a single byte
+ * array. Nodes are numbered in stream order, so a parent always has a lower number than its children. Top-level
+ * elements have the parent {@link #NONE} and are linked to each other as siblings, starting at {@link #firstRoot()}.
+ * <p>
+ * The arena is filled by passing it to the {@link com.gamma.asn1.core.tlv.TLVEventStreamer} as a listener.
+ * Nodes are read through a {@link NodeCursor} or, for code written against the object tree, through a
+ * {@link DecodedNode} view from {@link #node(int)}. {@link #clear()} empties the arena but keeps its arrays, so
+ * decoding a steady stream record by record produces no garbage once the arrays have grown to the largest record.
+ * With a {@link NodeArenaListener}, the arena delivers and clears itself every given number of records.
+ * <p>
+ * Instances are not thread-safe. Cursors and views are only valid until the arena is cleared.
+ */
+public final class NodeArena implements TLVFlyweightListener {
+
+    /** The node number used for "no such node", e.g. the parent of a top-level node. */
+    public static final int NONE = -1;
+
+    private static final int INITIAL_NODES = 64;
+    private static final int INITIAL_DEPTH = 16;
+
+    private final int recordsPerBatch;
+    private final NodeArenaListener listener;
+
+    private int nodeCount;
+    private int[] tags = new int[INITIAL_NODES];
+    private long[] offsets = new long[INITIAL_NODES];
+    private int[] lengths = new int[INITIAL_NODES];
+    private int[] parents = new int[INITIAL_NODES];
+    private int[] firstChildren = new int[INITIAL_NODES];
+    private int[] nextSiblings = new int[INITIAL_NODES];
+    private int[] valueStarts = new int[INITIAL_NODES];
+
+    private byte[] data = new byte[INITIAL_NODES * 16];
+    private ByteBuffer dataBuffer = ByteBuffer.wrap(data).asReadOnlyBuffer();
+    private int dataLength;
+
+    // Open nodes while building, and the last child added to each of them.
+    private int[] openStack = new int[INITIAL_DEPTH];
+    private int[] lastChildStack = new int[INITIAL_DEPTH];
+    private int depth;
+    private int lastRoot = NONE;
+    private int rootCount;
+
+    /**
+     * Creates an arena that keeps every record until it is cleared.
+     */
+    public NodeArena() {
+        this.recordsPerBatch = Integer.MAX_VALUE;
+        this.listener = null;
+    }
+
+    /**
+     * Creates an arena that hands its content to a listener and clears itself after every batch of records.
+     *
+     * @param recordsPerBatch The number of top-level elements per batch; 1 to deliver record by record.
+     * @param listener        The listener to receive the batches.
+     */
+    public NodeArena(int recordsPerBatch, NodeArenaListener listener) {
+        if (recordsPerBatch <= 0) {
+            throw new IllegalArgumentException("Records per batch must be positive: " + recordsPerBatch);
+        }
+        if (listener == null) {
+            throw new IllegalArgumentException("NodeArenaListener cannot be null");
+        }
+        this.recordsPerBatch = recordsPerBatch;
+        this.listener = listener;
+    }
+
+    /**
+     * Removes all nodes, keeping the allocated arrays for reuse.
+     */
+    public void clear() {
+        nodeCount = 0;
+        dataLength = 0;
+        depth = 0;
+        lastRoot = NONE;
+        rootCount = 0;
+    }
+
+    /**
+     * Delivers the records that do not fill a batch to the listener, if any, and clears the arena.
+     *
+     * @throws Exception if the listener fails.
+     */
+    public void flush() throws Exception {
+        if (listener != null && rootCount > 0) {
+            deliver();
+        }
+    }
+
+    private void deliver() throws Exception {
+        try {
+            listener.onNodes(this);
+        } finally {
+            clear();
+        }
+    }
+
+    // ---- Building ----
+
+    @Override
+    public void onStartTag(int tag, int length, long offset) {
+        if (nodeCount == tags.length) {
+            grow();
+        }
+        int node = nodeCount++;
+        tags[node] = tag;
+        offsets[node] = offset;
+        lengths[node] = length;
+        firstChildren[node] = NONE;
+        nextSiblings[node] = NONE;
+        valueStarts[node] = dataLength;
+        if (depth == 0) {
+            parents[node] = NONE;
+            if (lastRoot != NONE) {
+                nextSiblings[lastRoot] = node;
+            }
+            lastRoot = node;
+        } else {
+            int parent = openStack[depth - 1];
+            parents[node] = parent;
+            int previous = lastChildStack[depth - 1];
+            if (previous == NONE) {
+                firstChildren[parent] = node;
+            } else {
+                nextSiblings[previous] = node;
+            }
+            lastChildStack[depth - 1] = node;
+        }
+        if (depth == openStack.length) {
+            openStack = Arrays.copyOf(openStack, depth * 2);
+            lastChildStack = Arrays.copyOf(lastChildStack, depth * 2);
+        }
+        openStack[depth] = node;
+        lastChildStack[depth] = NONE;
+        depth++;
+    }
+
+    @Override
+    public void onPrimitiveValue(ValueView value) {
+        int length = value.length();
+        if (dataLength + length > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, dataLength + length));
+            dataBuffer = ByteBuffer.wrap(data).asReadOnlyBuffer();
+        }
+        value.copyTo(data, dataLength);
+        valueStarts[openStack[depth - 1]] = dataLength;
+        dataLength += length;
+    }
+
+    @Override
+    public void onEndTag(int tag) throws Exception {
+        if (depth == 0) {
+            throw new IllegalStateException("Received onEndTag event with an empty node stack. Mismatched tags.");
+        }
+        depth--;
+        if (depth == 0 && ++rootCount == recordsPerBatch && listener != null) {
+            deliver();
+        }
+    }
+
+    private void grow() {
+        int newSize = nodeCount * 2;
+        tags = Arrays.copyOf(tags, newSize);
+        offsets = Arrays.copyOf(offsets, newSize);
+        lengths = Arrays.copyOf(lengths, newSize);
+        parents = Arrays.copyOf(parents, newSize);
+        firstChildren = Arrays.copyOf(firstChildren, newSize);
+        nextSiblings = Arrays.copyOf(nextSiblings, newSize);
+        valueStarts = Arrays.copyOf(valueStarts, newSize);
+    }
+
+    // ---- Access ----
+
+    /**
+     * @return The number of nodes in the arena.
+     */
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return The number of completed top-level elements in the arena.
+     */
+    public int recordCount() {
+        return rootCount;
+    }
+
+    /**
+     * @return The first top-level node, or {@link #NONE} if the arena is empty.
+     */
+    public int firstRoot() {
+        return nodeCount == 0 ? NONE : 0;
+    }
+
+    /**
+     * @param node A node.
+     * @return The packed tag of the node, including the constructed bit.
+     */
+    public int tag(int node) {
+        return tags[check(node)];
+    }
+
+    /**
+     * @param node A node.
+     * @return The starting byte offset of the node's tag in the original stream.
+     */
+    public long offset(int node) {
+        return offsets[check(node)];
+    }
+
+    /**
+     * @param node A node.
+     * @return The length of the node's value field.
+     */
+    public int length(int node) {
+        return lengths[check(node)];
+    }
+
+    /**
+     * @param node A node.
+     * @return {@code true} if the node is constructed.
+     */
+    public boolean isConstructed(int node) {
+        return Tags.isConstructed(tag(node));
+    }
+
+    /**
+     * @param node A node.
+     * @return The enclosing node, or {@link #NONE} for a top-level node.
+     */
+    public int parent(int node) {
+        return parents[check(node)];
+    }
+
+    /**
+     * @param node A node.
+     * @return The first nested node, or {@link #NONE} if there is none.
+     */
+    public int firstChild(int node) {
+        return firstChildren[check(node)];
+    }
+
+    /**
+     * @param node A node.
+     * @return The following node with the same parent, or {@link #NONE} if there is none.
+     */
+    public int nextSibling(int node) {
+        return nextSiblings[check(node)];
+    }
+
+    /**
+     * Positions a view over the value of a primitive node. The view is empty for constructed nodes.
+     *
+     * @param node A node.
+     * @param view The view to reposition.
+     * @return The view.
+     */
+    public ValueView value(int node, ValueView view) {
+        if (isConstructed(node)) {
+            return view.set(dataBuffer, 0, 0);
+        }
+        int start = valueStarts[node];
+        int end = node + 1 < nodeCount ? valueStarts[node + 1] : dataLength;
+        return view.set(dataBuffer, start, end - start);
+    }
+
+    /**
+     * @return A new cursor over this arena, positioned at the first top-level node.
+     */
+    public NodeCursor cursor() {
+        return new NodeCursor(this);
+    }
+
+    /**
+     * Returns a {@link DecodedNode} view of a node for code written against the object tree. The view reads the
+     * arena on access; children are created on demand.
+     *
+     * @param node A node.
+     * @return The view. It is only valid until the arena is cleared.
+     */
+    public DecodedNode node(int node) {
+        return new ArenaNode(this, check(node));
+    }
+
+    private int check(int node) {
+        if (node < 0 || node >= nodeCount) {
+            throw new IndexOutOfBoundsException("Node " + node + " out of range for arena of " + nodeCount + " nodes");
+        }
+        return node;
+    }
+
+    @Override
+    public String toString() {
+        return "NodeArena{nodes=" + nodeCount + ", records=" + rootCount + ", bytes=" + dataLength + '}';
+    }
+}
@@ -0,0 +1,17 @@
+package com.gamma.asn1.core.mapper;
+
+/**
+ * Receives the content of a {@link NodeArena} every time it has collected a batch of records.
+ */
+@FunctionalInterface
+public interface NodeArenaListener {
+
+    /**
+     * Called when the arena holds a full batch of records, and by {@link NodeArena#flush()} for the remaining ones.
+     * The arena is cleared when the call returns, so nodes, cursors and views must not be retained.
+     *
+     * @param arena The arena holding the records, starting at {@link NodeArena#firstRoot()}.
+     * @throws Exception if an error occurs during processing of the records by the listener.
+     */
+    void onNodes(NodeArena arena) throws Exception;
+}
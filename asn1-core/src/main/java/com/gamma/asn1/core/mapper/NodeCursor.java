@@ -0,0 +1,114 @@
+package com.gamma.asn1.core.mapper;
+
+import com.gamma.asn1.core.tlv.ValueView;
+
+/**
+ * A reusable position in a {@link NodeArena} for walking its trees without allocating.
+ * <p>
+ * The navigation methods move the cursor and return {@code true}, or leave it in place and return {@code false}
+ * if there is no such node:
+ * <pre>{@code
+ * NodeCursor cursor = arena.cursor();
+ * if (cursor.firstChild()) {
+ *     do {
+ *         // cursor.tag(), cursor.value(view), ...
+ *     } while (cursor.nextSibling());
+ * }
+ * }</pre>
+ */
+public final class NodeCursor {
+
+    private final NodeArena arena;
+    private int node;
+
+    NodeCursor(NodeArena arena) {
+        this.arena = arena;
+        this.node = arena.firstRoot();
+    }
+
+    /**
+     * Moves the cursor to a node.
+     *
+     * @param node A node of the arena.
+     * @return This cursor.
+     */
+    public NodeCursor moveTo(int node) {
+        arena.tag(node); // Checks the index.
+        this.node = node;
+        return this;
+    }
+
+    /**
+     * @return The node the cursor is on, or {@link NodeArena#NONE} if the arena was empty when it was positioned.
+     */
+    public int node() {
+        return node;
+    }
+
+    /**
+     * @return {@code true} if the cursor moved to the first nested node.
+     */
+    public boolean firstChild() {
+        return move(arena.firstChild(node));
+    }
+
+    /**
+     * @return {@code true} if the cursor moved to the following node with the same parent.
+     */
+    public boolean nextSibling() {
+        return move(arena.nextSibling(node));
+    }
+
+    /**
+     * @return {@code true} if the cursor moved to the enclosing node.
+     */
+    public boolean parent() {
+        return move(arena.parent(node));
+    }
+
+    private boolean move(int target) {
+        if (target == NodeArena.NONE) {
+            return false;
+        }
+        node = target;
+        return true;
+    }
+
+    /**
+     * @return The packed tag of the node, including the constructed bit.
+     */
+    public int tag() {
+        return arena.tag(node);
+    }
+
+    /**
+     * @return The starting byte offset of the node's tag in the original stream.
+     */
+    public long offset() {
+        return arena.offset(node);
+    }
+
+    /**
+     * @return The length of the node's value field.
+     */
+    public int length() {
+        return arena.length(node);
+    }
+
+    /**
+     * @return {@code true} if the node is constructed.
+     */
+    public boolean isConstructed() {
+        return arena.isConstructed(node);
+    }
+
+    /**
+     * Positions a view over the value of the node.
+     *
+     * @param view The view to reposition.
+     * @return The view.
+     */
+    public ValueView value(ValueView view) {
+        return arena.value(node, view);
+    }
+}
@@ -0,0 +1,186 @@
+package com.gamma.asn1.core.mapper;
+
+import com.gamma.asn1.core.schema.CompiledSchema;
+import com.gamma.asn1.core.tlv.ValueView;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A batch of completed records collected by a {@link RecordBatcher}.
+ * <p>
+ * The fields of all records are stored in parallel arrays, and their values are copied into a single byte
+ * array, so a batch costs a handful of objects no matter how many records it holds. Records are numbered from 0
+ * to {@link #recordCount()}; the fields of record {@code r} are numbered from {@link #firstField(int) firstField(r)}
+ * to {@link #endField(int) endField(r)}, exclusive. Field IDs refer to the {@link CompiledSchema} of the mapper
+ * that produced the batch.
+ * <p>
+ * A batch that has been delivered belongs to its consumer, which may pass it to another thread. It can be handed
+ * back with {@link RecordBatcher#recycle(RecordBatch)} to be reused.
+ */
+public final class RecordBatch {
+
+    private int recordCount;
+    private long[] recordOffsets;
+    private int[] recordLengths;
+    private int[] recordFieldEnds;
+
+    private int fieldCount;
+    private int[] fieldIds;
+    private int[] valueOffsets;
+    private int[] valueLengths;
+
+    private byte[] data;
+    private ByteBuffer dataBuffer;
+    private int dataLength;
+
+    // Where the fields and values of the record being collected start.
+    private int openFieldStart;
+    private int openDataStart;
+
+    RecordBatch(int recordCapacity) {
+        this.recordOffsets = new long[recordCapacity];
+        this.recordLengths = new int[recordCapacity];
+        this.recordFieldEnds = new int[recordCapacity];
+        this.fieldIds = new int[recordCapacity * 8];
+        this.valueOffsets = new int[fieldIds.length];
+        this.valueLengths = new int[fieldIds.length];
+        this.data = new byte[recordCapacity * 64];
+        this.dataBuffer = ByteBuffer.wrap(data).asReadOnlyBuffer();
+    }
+
+    /**
+     * @return The number of records in the batch.
+     */
+    public int recordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @param record A record number.
+     * @return The starting byte offset of the record's tag in the original stream.
+     */
+    public long recordOffset(int record) {
+        return recordOffsets[checkRecord(record)];
+    }
+
+    /**
+     * @param record A record number.
+     * @return The encoded length of the record, including its tag and length octets, as in
+     *         {@link com.gamma.asn1.core.index.RecordIndex#length(int)}.
+     */
+    public int recordLength(int record) {
+        return recordLengths[checkRecord(record)];
+    }
+
+    /**
+     * @param record A record number.
+     * @return The number of the first field of the record.
+     */
+    public int firstField(int record) {
+        return checkRecord(record) == 0 ? 0 : recordFieldEnds[record - 1];
+    }
+
+    /**
+     * @param record A record number.
+     * @return The number after the last field of the record.
+     */
+    public int endField(int record) {
+        return recordFieldEnds[checkRecord(record)];
+    }
+
+    /**
+     * @return The number of fields of all records in the batch.
+     */
+    public int fieldCount() {
+        return recordCount == 0 ? 0 : recordFieldEnds[recordCount - 1];
+    }
+
+    /**
+     * @param field A field number.
+     * @return The field ID of the field in the compiled schema.
+     */
+    public int fieldId(int field) {
+        return fieldIds[checkField(field)];
+    }
+
+    /**
+     * Positions a view over the value of a field.
+     *
+     * @param field A field number.
+     * @param view  The view to reposition.
+     * @return The view. It stays valid as long as the batch is not recycled.
+     */
+    public ValueView value(int field, ValueView view) {
+        checkField(field);
+        return view.set(dataBuffer, valueOffsets[field], valueLengths[field]);
+    }
+
+    private int checkRecord(int record) {
+        if (record < 0 || record >= recordCount) {
+            throw new IndexOutOfBoundsException("Record " + record + " out of range for batch of " + recordCount + " records");
+        }
+        return record;
+    }
+
+    private int checkField(int field) {
+        if (field < 0 || field >= fieldCount()) {
+            throw new IndexOutOfBoundsException("Field " + field + " out of range for batch of " + fieldCount() + " fields");
+        }
+        return field;
+    }
+
+    void clear() {
+        recordCount = 0;
+        fieldCount = 0;
+        dataLength = 0;
+        openFieldStart = 0;
+        openDataStart = 0;
+    }
+
+    void startRecord() {
+        // Drops the fields of a record that was started but never ended.
+        fieldCount = openFieldStart;
+        dataLength = openDataStart;
+    }
+
+    void addField(int fieldId, ValueView value) {
+        if (fieldCount == fieldIds.length) {
+            int newSize = fieldCount * 2;
+            fieldIds = Arrays.copyOf(fieldIds, newSize);
+            valueOffsets = Arrays.copyOf(valueOffsets, newSize);
+            valueLengths = Arrays.copyOf(valueLengths, newSize);
+        }
+        int length = value.length();
+        if (dataLength + length > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, dataLength + length));
+            dataBuffer = ByteBuffer.wrap(data).asReadOnlyBuffer();
+        }
+        value.copyTo(data, dataLength);
+        fieldIds[fieldCount] = fieldId;
+        valueOffsets[fieldCount] = dataLength;
+        valueLengths[fieldCount] = length;
+        fieldCount++;
+        dataLength += length;
+    }
+
+    void endRecord(long offset, int length) {
+        if (recordCount == recordOffsets.length) {
+            int newSize = recordCount * 2;
+            recordOffsets = Arrays.copyOf(recordOffsets, newSize);
+            recordLengths = Arrays.copyOf(recordLengths, newSize);
+            recordFieldEnds = Arrays.copyOf(recordFieldEnds, newSize);
+        }
+        recordOffsets[recordCount] = offset;
+        recordLengths[recordCount] = length;
+        recordFieldEnds[recordCount] = fieldCount;
+        recordCount++;
+        openFieldStart = fieldCount;
+        openDataStart = dataLength;
+    }
+
+    @Override
+    public String toString() {
+        return "RecordBatch{records=" + recordCount + ", fields=" + fieldCount() + ", bytes=" + openDataStart + '}';
+    }
+}
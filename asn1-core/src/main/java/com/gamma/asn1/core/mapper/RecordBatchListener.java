@@ -0,0 +1,16 @@
+package com.gamma.asn1.core.mapper;
+
+/**
+ * Receives batches of completed records from a {@link RecordBatcher}.
+ */
+@FunctionalInterface
+public interface RecordBatchListener {
+
+    /**
+     * Called when a batch is full, and by {@link RecordBatcher#flush()} for the remaining records.
+     *
+     * @param batch The batch. It now belongs to the listener, which may keep it or pass it to another thread.
+     * @throws Exception if an error occurs during processing of the batch by the listener.
+     */
+    void onBatch(RecordBatch batch) throws Exception;
+}
@@ -0,0 +1,91 @@
+package com.gamma.asn1.core.mapper;
+
+import com.gamma.asn1.core.tlv.ValueView;
+import com.gamma.asn1.model.ASN1BaseType;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Collects the fields of completed records into {@link RecordBatch}es and delivers them a fixed number of records
+ * at a time, so that consumers pay their per-call overhead once per batch and can hand whole batches to other
+ * threads. Attach it to a mapper with {@link SemanticEventMapper#withFieldIds}.
+ * <p>
+ * Field values are copied into the batch, since the views passed by the mapper do not outlive the call. Batches
+ * returned with {@link #recycle(RecordBatch)} are reused, so a steady stream does not allocate once every batch
+ * in circulation has grown to its working size. Fields of a record that is started but not completed, e.g. because
+ * the input is corrupt, are discarded. Call {@link #flush()} after the input has been processed to deliver the
+ * last, partial batch.
+ * <p>
+ * A batcher is fed by a single mapper; only {@link #recycle(RecordBatch)} may be called from other threads.
+ */
+public class RecordBatcher implements FieldIdListener {
+
+    private final int batchSize;
+    private final RecordBatchListener listener;
+    private final Queue<RecordBatch> free = new ConcurrentLinkedQueue<>();
+    private RecordBatch current;
+
+    /**
+     * @param batchSize The number of records per batch.
+     * @param listener  The listener to receive the batches.
+     */
+    public RecordBatcher(int batchSize, RecordBatchListener listener) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        this.listener = Objects.requireNonNull(listener, "RecordBatchListener cannot be null");
+        this.current = new RecordBatch(batchSize);
+    }
+
+    @Override
+    public void onRecordStart(long offset, int length) {
+        current.startRecord();
+    }
+
+    @Override
+    public void onField(int fieldId, ValueView value, ASN1BaseType type) {
+        current.addField(fieldId, value);
+    }
+
+    @Override
+    public void onRecordEnd(long offset, int length) throws Exception {
+        current.endRecord(offset, length);
+        if (current.recordCount() == batchSize) {
+            deliver();
+        }
+    }
+
+    /**
+     * Delivers the completed records that do not fill a batch, if any.
+     *
+     * @throws Exception if the listener fails.
+     */
+    public void flush() throws Exception {
+        if (current.recordCount() > 0) {
+            deliver();
+        }
+    }
+
+    /**
+     * Returns a delivered batch for reuse. May be called from any thread, once the batch is no longer used.
+     *
+     * @param batch The batch.
+     */
+    public void recycle(RecordBatch batch) {
+        free.add(batch);
+    }
+
+    private void deliver() throws Exception {
+        RecordBatch full = current;
+        RecordBatch next = free.poll();
+        if (next == null) {
+            next = new RecordBatch(batchSize);
+        }
+        next.clear();
+        current = next;
+        listener.onBatch(full);
+    }
+}
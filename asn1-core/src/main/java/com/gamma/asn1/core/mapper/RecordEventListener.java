@@ -0,0 +1,33 @@
+package com.gamma.asn1.core.mapper;
+
+/**
+ * The record lifecycle reported by a {@link SemanticEventMapper}: every top-level element is a record, and its
+ * fields are enclosed by {@link #onRecordStart} and {@link #onRecordEnd}. The field listeners of the mapper
+ * extend this interface; both methods do nothing by default.
+ * <p>
+ * A record is located the same way as in a {@link com.gamma.asn1.core.index.RecordIndex}: by the offset of its
+ * tag and its encoded length, including the tag and length octets, so the record ends at
+ * {@code offset + length}.
+ */
+public interface RecordEventListener {
+
+    /**
+     * Called before the first field of a top-level record.
+     *
+     * @param offset The starting byte offset of the record's tag in the original stream.
+     * @param length The encoded length of the record, including its tag and length octets.
+     * @throws Exception if an error occurs during processing of the record by the listener.
+     */
+    default void onRecordStart(long offset, int length) throws Exception {
+    }
+
+    /**
+     * Called after the last field of a top-level record.
+     *
+     * @param offset The starting byte offset of the record's tag in the original stream.
+     * @param length The encoded length of the record, including its tag and length octets.
+     * @throws Exception if an error occurs during processing of the record by the listener.
+     */
+    default void onRecordEnd(long offset, int length) throws Exception {
+    }
+}
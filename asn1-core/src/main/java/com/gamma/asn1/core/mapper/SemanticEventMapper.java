@@ -1,15 +1,20 @@
 package com.gamma.asn1.core.mapper;
 
+import com.gamma.asn1.core.decoders.DecoderRegistry;
+import com.gamma.asn1.core.decoders.FieldDecoders;
 import com.gamma.asn1.core.exception.ASN1ProcessingException;
-import com.gamma.asn1.core.tlv.TLVListener;
+import com.gamma.asn1.core.exception.GrammarMismatchException;
+import com.gamma.asn1.core.schema.CompiledSchema;
+import com.gamma.asn1.core.schema.SchemaCompiler;
+import com.gamma.asn1.core.tlv.TLVFlyweightListener;
+import com.gamma.asn1.core.tlv.TLVHeader;
+import com.gamma.asn1.core.tlv.Tags;
+import com.gamma.asn1.core.tlv.ValueView;
 import com.gamma.asn1.grammar.ASN1Schema;
-import com.gamma.asn1.grammar.SchemaElement;
-import com.gamma.asn1.grammar.ASN1Type;
+import com.gamma.asn1.model.ASN1BaseType;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 
 /**
@@ -17,25 +22,45 @@ import java.util.stream.Collectors;
  * It maintains a state machine to track its position in the grammar and the data stream,
  * effectively acting as a bridge between the structural parser and a schema-aware consumer.
  * This implementation performs direct flattening, avoiding the creation of an intermediate node tree.
+ * <p>
+ * The schema is used in its {@link CompiledSchema} form: every element is resolved with a table lookup from the
+ * state of its parent, and the position in the schema is kept on a primitive state stack. Field paths are
+ * precomputed per state, so decoding an element does not allocate. A compiled schema can be shared by the
+ * mappers of all threads. Consumers that key fields by the schema's field IDs rather than by path can be
+ * attached with {@link #withFieldIds}, and consumers of decoded Java primitives with {@link #withTypedSink}, or
+ * with {@link #withDecoders} to decode with the decoders of a {@link DecoderRegistry}.
+ * <p>
+ * With a {@link FieldProjection}, elements that no consumer needs are rejected in {@link #acceptElement},
+ * so the streamer skips them by length instead of reading and reporting them.
+ * <p>
+ * Every top-level element is reported as a record: its fields are enclosed by the events of
+ * {@link RecordEventListener}, which every field listener extends. A {@link RecordBatcher} can collect completed
+ * records into batches.
  */
-public class SemanticEventMapper implements TLVListener {
+public class SemanticEventMapper implements TLVFlyweightListener {
 
-    private final ASN1Schema schema;
-    private final FlattenerListener listener;
-    private final Deque<StateTuple> stateStack = new ArrayDeque<>();
+    private static final int INITIAL_DEPTH = 16;
 
-    /**
-     * Internal class to hold the state for each level of the ASN.1 structure.
-     */
-    private static class StateTuple {
-        final SchemaElement definition;
-        final boolean isConstructed;
+    private final CompiledSchema schema;
+    private final FieldIdListener listener;
+    // Per schema state: whether the projection needs the element.
+    private final boolean[] selected;
 
-        StateTuple(SchemaElement definition, boolean isConstructed) {
-            this.definition = Objects.requireNonNull(definition);
-            this.isConstructed = isConstructed;
-        }
-    }
+    // State for each level of the ASN.1 structure, indexed by depth.
+    private int[] stateStack = new int[INITIAL_DEPTH];
+    private int[] tagStack = new int[INITIAL_DEPTH];
+    private boolean[] constructedStack = new boolean[INITIAL_DEPTH];
+    private long[] offsetStack = new long[INITIAL_DEPTH];
+    private int depth = 0;
+
+    // The top-level element currently being mapped.
+    private long recordOffset;
+    private int recordLength;
+
+    // The element most recently resolved by acceptElement, reused by the following onStartTag.
+    private int resolvedTag;
+    private long resolvedOffset = -1;
+    private int resolvedState;
 
     /**
      * Constructs a new SemanticEventMapper.
@@ -44,80 +69,271 @@ public class SemanticEventMapper implements TLVListener {
      * @param listener The listener to receive high-level, flattened field events.
      */
     public SemanticEventMapper(ASN1Schema schema, FlattenerListener listener) {
+        this(schema, listener, FieldProjection.all());
+    }
+
+    /**
+     * Constructs a new SemanticEventMapper that only reports the fields selected by a projection.
+     * Elements outside the projection are skipped by the streamer without being read.
+     *
+     * @param schema     The schema to validate and interpret the stream against.
+     * @param listener   The listener to receive high-level, flattened field events.
+     * @param projection The paths the listener needs.
+     */
+    public SemanticEventMapper(ASN1Schema schema, FlattenerListener listener, FieldProjection projection) {
+        this(SchemaCompiler.compile(Objects.requireNonNull(schema, "Schema cannot be null")), listener, projection);
+    }
+
+    /**
+     * Constructs a new SemanticEventMapper over a compiled schema.
+     *
+     * @param schema   The compiled schema, which may be shared with other mappers.
+     * @param listener The listener to receive high-level, flattened field events.
+     */
+    public SemanticEventMapper(CompiledSchema schema, FlattenerListener listener) {
+        this(schema, listener, FieldProjection.all());
+    }
+
+    /**
+     * Constructs a new SemanticEventMapper over a compiled schema that only reports the fields selected by a projection.
+     *
+     * @param schema     The compiled schema, which may be shared with other mappers.
+     * @param listener   The listener to receive high-level, flattened field events.
+     * @param projection The paths the listener needs.
+     */
+    public SemanticEventMapper(CompiledSchema schema, FlattenerListener listener, FieldProjection projection) {
+        this(schema, pathListener(schema, listener), projection);
+    }
+
+    private SemanticEventMapper(CompiledSchema schema, FieldIdListener listener, FieldProjection projection) {
         this.schema = Objects.requireNonNull(schema, "Schema cannot be null");
-        this.listener = Objects.requireNonNull(listener, "FlattenerListener cannot be null");
+        this.listener = Objects.requireNonNull(listener, "FieldIdListener cannot be null");
+        this.selected = select(schema, Objects.requireNonNull(projection, "FieldProjection cannot be null"));
+    }
+
+    /**
+     * Creates a mapper that reports fields by the field IDs of the compiled schema instead of by path.
+     *
+     * @param schema     The compiled schema, which may be shared with other mappers.
+     * @param listener   The listener to receive the field events.
+     * @param projection The paths the listener needs.
+     * @return The mapper.
+     */
+    public static SemanticEventMapper withFieldIds(CompiledSchema schema, FieldIdListener listener, FieldProjection projection) {
+        return new SemanticEventMapper(schema, listener, projection);
+    }
+
+    /**
+     * Creates a mapper that decodes primitive values in place and reports them to a typed sink, choosing the
+     * sink method from the base type of each field.
+     *
+     * @param schema     The compiled schema, which may be shared with other mappers.
+     * @param sink       The sink to receive the decoded field values.
+     * @param projection The paths the sink needs.
+     * @return The mapper.
+     */
+    public static SemanticEventMapper withTypedSink(CompiledSchema schema, TypedFieldSink sink, FieldProjection projection) {
+        return new SemanticEventMapper(schema, new TypedFieldDispatcher(schema, sink), projection);
+    }
+
+    /**
+     * Creates a mapper like {@link #withTypedSink(CompiledSchema, TypedFieldSink, FieldProjection)} that passes the
+     * string fields selected by an interner as interned {@code String}s.
+     *
+     * @param schema     The compiled schema, which may be shared with other mappers.
+     * @param sink       The sink to receive the decoded field values.
+     * @param projection The paths the sink needs.
+     * @param interner   The interner, which must not be shared with other mappers.
+     * @return The mapper.
+     */
+    public static SemanticEventMapper withTypedSink(CompiledSchema schema, TypedFieldSink sink, FieldProjection projection,
+                                                    FieldInterner interner) {
+        return new SemanticEventMapper(schema, new TypedFieldDispatcher(schema, sink, interner), projection);
+    }
+
+    /**
+     * Creates a mapper that decodes every field with the decoder a {@link DecoderRegistry} bound to it and
+     * reports the results to a typed sink. Each field's decoder is bound to the matching sink method once, so
+     * {@code long}, {@code int} and {@code boolean} results reach the sink without boxing.
+     *
+     * @param schema     The compiled schema, which may be shared with other mappers.
+     * @param decoders   The decoders bound to {@code schema}, which must not be shared with other mappers.
+     * @param sink       The sink to receive the decoded field values.
+     * @param projection The paths the sink needs.
+     * @return The mapper.
+     * @throws IllegalArgumentException If the decoders were bound to another schema.
+     */
+    public static SemanticEventMapper withDecoders(CompiledSchema schema, FieldDecoders decoders, TypedFieldSink sink,
+                                                   FieldProjection projection) {
+        if (decoders.schema() != schema) {
+            throw new IllegalArgumentException("FieldDecoders were bound to a different schema");
+        }
+        return new SemanticEventMapper(schema, new TypedFieldDispatcher(decoders, sink), projection);
+    }
+
+    private static FieldIdListener pathListener(CompiledSchema schema, FlattenerListener listener) {
+        Objects.requireNonNull(schema, "Schema cannot be null");
+        Objects.requireNonNull(listener, "FlattenerListener cannot be null");
+        return new FieldIdListener() {
+            @Override
+            public void onField(int fieldId, ValueView value, ASN1BaseType type) throws Exception {
+                listener.onField(schema.fieldPath(fieldId), value, type);
+            }
+
+            @Override
+            public void onRecordStart(long offset, int length) throws Exception {
+                listener.onRecordStart(offset, length);
+            }
+
+            @Override
+            public void onRecordEnd(long offset, int length) throws Exception {
+                listener.onRecordEnd(offset, length);
+            }
+        };
+    }
+
+    /**
+     * Evaluates a projection once for every state of the schema. Parents always precede their children.
+     */
+    private static boolean[] select(CompiledSchema schema, FieldProjection projection) {
+        int n = schema.stateCount();
+        int[] nodes = new int[n];
+        boolean[] selected = new boolean[n];
+        nodes[CompiledSchema.ROOT] = projection.root();
+        selected[CompiledSchema.ROOT] = true;
+        for (int state = 1; state < n; state++) {
+            int node = nodes[schema.parent(state)];
+            for (int i = 0, segments = schema.segmentCount(state); i < segments; i++) {
+                node = projection.child(node, schema.segment(state, i));
+            }
+            nodes[state] = node;
+            selected[state] = node != FieldProjection.EXCLUDED;
+        }
+        return selected;
     }
 
+    /**
+     * Resolves the element against the schema and asks the projection whether it is needed. Elements that
+     * are not needed are skipped by the streamer without being read.
+     */
     @Override
-    public void onStartTag(byte[] tag, int length, boolean isConstructed, long offset) throws Exception {
-        StateTuple parentState = stateStack.peek();
-        SchemaElement elementDef;
-
-        if (parentState == null) {
-            // This is a top-level element
-            // TODO: Ensure schema.findElementByTag and parentState.definition.findChildByTag are robust
-            // and throw appropriate exceptions (e.g., GrammarMismatchException).
-            // The existing grammar classes (ASN1Schema, SchemaElement) from grammar-parser module need to be available.
-            elementDef = schema.findElementByTag(tag)
-                    .orElseThrow(() -> new ASN1ProcessingException("Unknown top-level tag: " + bytesToHex(tag), offset, buildCurrentPath(), null));
-        } else {
-            // This is a nested element, look for it within the parent's definition
-            if (!parentState.isConstructed) {
-                throw new ASN1ProcessingException("Data stream contains nested element where schema expects a primitive", offset, buildCurrentPath(), null);
+    public boolean acceptElement(int tag, int length, long offset) throws Exception {
+        resolve(tag, offset);
+        return selected[resolvedState];
+    }
+
+    /**
+     * Starts an element reported without its header length. The record length of a top-level element is then
+     * computed from the shortest header for its tag and length.
+     */
+    @Override
+    public void onStartTag(int tag, int length, long offset) throws Exception {
+        onStartTag(tag, TLVHeader.minimalLength(tag, length), length, offset);
+    }
+
+    @Override
+    public void onStartTag(int tag, int headerLength, int length, long offset) throws Exception {
+        if (resolvedTag != tag || resolvedOffset != offset) {
+            // Not preceded by acceptElement for this element, e.g. when driven by another producer.
+            resolve(tag, offset);
+        }
+        resolvedOffset = -1;
+        if (depth == 0) {
+            long encodedLength = (long) headerLength + length;
+            if (encodedLength > Integer.MAX_VALUE) {
+                throw new ASN1ProcessingException("Record is too large to report: " + encodedLength + " bytes.", offset, "", null);
             }
-            elementDef = parentState.definition.findChildByTag(tag)
-                    .orElseThrow(() -> new ASN1ProcessingException("Unknown nested tag: " + bytesToHex(tag) + " within " + parentState.definition.getName(), offset, buildCurrentPath(), null));
+            recordOffset = offset;
+            recordLength = (int) encodedLength;
+            listener.onRecordStart(recordOffset, recordLength);
         }
+        push(resolvedState, tag, offset);
+    }
 
-        stateStack.push(new StateTuple(elementDef, isConstructed));
+    /**
+     * Looks up the schema state of a new element and stores it in the {@code resolved*} fields.
+     */
+    private void resolve(int tag, long offset) throws ASN1ProcessingException {
+        int parentState = CompiledSchema.ROOT;
+        if (depth > 0) {
+            int parent = depth - 1;
+            if (!constructedStack[parent]) {
+                throw new ASN1ProcessingException("Data stream contains nested element where schema expects a primitive", offset, buildCurrentPath(), null);
+            }
+            parentState = stateStack[parent];
+            if (schema.isLeaf(parentState)) {
+                throw new GrammarMismatchException("Nested element inside a built-in type.", offset, buildCurrentPath(),
+                        "no nested elements in " + schema.baseType(parentState), Tags.toString(tag));
+            }
+        }
+        int state = schema.transition(parentState, tag);
+        if (state == CompiledSchema.NO_STATE) {
+            if (depth == 0) {
+                throw new GrammarMismatchException("Unknown top-level tag.", offset, buildCurrentPath(),
+                        "a record type of the schema", Tags.toString(tag));
+            }
+            throw new GrammarMismatchException("Unknown nested tag within " + buildCurrentPath() + ".", offset, buildCurrentPath(),
+                    "a component of " + buildCurrentPath(), Tags.toString(tag));
+        }
+        resolvedTag = tag;
+        resolvedOffset = offset;
+        resolvedState = state;
     }
 
     @Override
-    public void onPrimitiveValue(byte[] value) throws ASN1ProcessingException {
-        StateTuple currentState = stateStack.peek();
-        if (currentState == null) {
+    public void onPrimitiveValue(ValueView value) throws Exception {
+        if (depth == 0) {
             throw new ASN1ProcessingException("Received primitive value in an invalid null state.", -1, buildCurrentPath(), null);
         }
-        if (currentState.isConstructed) {
-             throw new ASN1ProcessingException("Received primitive value for a constructed type: " + currentState.definition.getName(), -1, buildCurrentPath(), null);
+        int current = depth - 1;
+        int state = stateStack[current];
+        if (constructedStack[current]) {
+             throw new ASN1ProcessingException("Received primitive value for a constructed type: " + schema.path(state), offsetStack[current], buildCurrentPath(), null);
         }
-
-        String path = buildCurrentPath();
-        ASN1Type type = currentState.definition.getType();
-        // TODO: Ensure listener.onField can handle potential exceptions or declared them.
-        listener.onField(path, value, type);
+        int fieldId = schema.fieldId(state);
+        if (fieldId == CompiledSchema.NO_FIELD) {
+            throw new GrammarMismatchException("Primitive value where the schema expects nested elements.", offsetStack[current], buildCurrentPath(),
+                    "constructed " + schema.baseType(state), "primitive");
+        }
+        listener.onField(fieldId, value, schema.baseType(state));
     }
 
     @Override
-    public void onEndTag(byte[] tag) throws ASN1ProcessingException {
-        if (stateStack.isEmpty()) {
-            throw new ASN1ProcessingException("Received onEndTag event with an empty state stack. Mismatched tags for tag: " + bytesToHex(tag), -1, buildCurrentPath(), null);
+    public void onEndTag(int tag) throws Exception {
+        if (depth == 0) {
+            throw new ASN1ProcessingException("Received onEndTag event with an empty state stack. Mismatched tags for tag: " + Tags.toHex(tag), -1, buildCurrentPath(), null);
+        }
+        int open = tagStack[depth - 1];
+        if (Tags.withoutConstructed(tag) != Tags.withoutConstructed(open)) {
+            throw new ASN1ProcessingException("Mismatched end tag " + Tags.toHex(tag) + " for open element " + Tags.toHex(open),
+                    offsetStack[depth - 1], buildCurrentPath(), null);
+        }
+        depth--;
+        if (depth == 0) {
+            listener.onRecordEnd(recordOffset, recordLength);
         }
-        // TODO: Optionally, verify that the ending tag matches currentState.definition.getTag()
-        stateStack.pop();
+    }
+
+    private void push(int state, int tag, long offset) {
+        if (depth == stateStack.length) {
+            int newSize = depth * 2;
+            stateStack = Arrays.copyOf(stateStack, newSize);
+            tagStack = Arrays.copyOf(tagStack, newSize);
+            constructedStack = Arrays.copyOf(constructedStack, newSize);
+            offsetStack = Arrays.copyOf(offsetStack, newSize);
+        }
+        stateStack[depth] = state;
+        tagStack[depth] = tag;
+        constructedStack[depth] = Tags.isConstructed(tag);
+        offsetStack[depth] = offset;
+        depth++;
     }
 
     /**
-     * Constructs the current dot-notation path from the state stack.
+     * Returns the current dot-notation path from the state stack.
      * @return A path string like "record.header.id".
      */
     private String buildCurrentPath() {
-        if (stateStack.isEmpty()) {
-            return "";
-        }
-        // The stream of definitions is reversed to build the path from root to leaf.
-        return stateStack.stream()
-                .map(s -> s.definition.getName())
-                .collect(Collectors.joining("."));
-    }
-
-    // Helper to convert byte array to hex string for logging/exceptions
-    private static String bytesToHex(byte[] bytes) {
-        if (bytes == null) return "null";
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(String.format("%02X", b));
-        }
-        return sb.toString();
+        return depth == 0 ? "" : schema.path(stateStack[depth - 1]);
     }
-}
\ No newline at end of file
+}
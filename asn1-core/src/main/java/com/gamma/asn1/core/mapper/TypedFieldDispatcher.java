@@ -0,0 +1,143 @@
+package com.gamma.asn1.core.mapper;
+
+import com.gamma.asn1.core.decoders.FieldDecoders;
+import com.gamma.asn1.core.decoders.PrimitiveDecoders;
+import com.gamma.asn1.core.decoders.ValueLoader;
+import com.gamma.asn1.core.schema.CompiledSchema;
+import com.gamma.asn1.core.tlv.AsciiView;
+import com.gamma.asn1.core.tlv.ValueView;
+import com.gamma.asn1.model.ASN1BaseType;
+
+import java.util.Objects;
+
+/**
+ * Decodes primitive values in place and passes them to the matching method of a {@link TypedFieldSink}.
+ * <p>
+ * A handler is bound to every field once, when the dispatcher is created, so a value costs one array load and one
+ * call, with no switch on the field's type. Handlers are chosen either from the base types of the compiled schema
+ * or from the decoders a {@link com.gamma.asn1.core.decoders.DecoderRegistry} bound to the fields; in both cases
+ * integers, enumerations and booleans reach the sink's primitive methods without boxing.
+ * <p>
+ * With base-type handlers, string fields selected by a {@link FieldInterner} are passed as interned
+ * {@code String}s, which a sink can keep without copying; other string fields are passed as a reusable view.
+ * <p>
+ * Instances hold a reusable {@link AsciiView} and must not be shared between threads.
+ */
+public final class TypedFieldDispatcher implements FieldIdListener {
+
+    /**
+     * Decodes the value of one field and passes it to the sink.
+     */
+    @FunctionalInterface
+    private interface Handler {
+        void handle(int fieldId, ValueView value) throws Exception;
+    }
+
+    private final TypedFieldSink sink;
+    private final Handler[] handlers;
+    private final AsciiView ascii = new AsciiView();
+
+    /**
+     * @param schema The compiled schema whose field IDs the mapper reports.
+     * @param sink   The sink to receive the decoded values.
+     */
+    public TypedFieldDispatcher(CompiledSchema schema, TypedFieldSink sink) {
+        this(schema, sink, null);
+    }
+
+    /**
+     * @param schema   The compiled schema whose field IDs the mapper reports.
+     * @param sink     The sink to receive the decoded values.
+     * @param interner The interner for string fields, or {@code null} to intern none.
+     */
+    public TypedFieldDispatcher(CompiledSchema schema, TypedFieldSink sink, FieldInterner interner) {
+        this.sink = Objects.requireNonNull(sink, "TypedFieldSink cannot be null");
+        this.handlers = new Handler[schema.fieldCount()];
+        for (int id = 0; id < handlers.length; id++) {
+            handlers[id] = interner != null && interner.isInterned(id)
+                    ? (fieldId, value) -> this.sink.onAscii(fieldId, interner.intern(fieldId, value))
+                    : baseTypeHandler(schema.fieldType(id));
+        }
+    }
+
+    /**
+     * @param decoders The decoders bound to the fields of a compiled schema, for use by this dispatcher only.
+     * @param sink     The sink to receive the decoded values.
+     */
+    public TypedFieldDispatcher(FieldDecoders decoders, TypedFieldSink sink) {
+        this.sink = Objects.requireNonNull(sink, "TypedFieldSink cannot be null");
+        this.handlers = new Handler[decoders.schema().fieldCount()];
+        for (int id = 0; id < handlers.length; id++) {
+            handlers[id] = decoders.isRaw(id) ? this.sink::onBytes : decoderHandler(decoders.decoder(id));
+        }
+    }
+
+    private Handler baseTypeHandler(ASN1BaseType type) {
+        if (type == null) {
+            return sink::onBytes;
+        }
+        switch (type) {
+            case INTEGER:
+                return (fieldId, value) -> sink.onLong(fieldId, PrimitiveDecoders.decodeInteger(value));
+            case BOOLEAN:
+                return (fieldId, value) -> sink.onBoolean(fieldId, PrimitiveDecoders.decodeBoolean(value));
+            case ENUMERATED:
+                return (fieldId, value) -> sink.onEnum(fieldId, PrimitiveDecoders.decodeEnumerated(value));
+            case NULL:
+                return (fieldId, value) -> {
+                    PrimitiveDecoders.decodeNull(value);
+                    sink.onNull(fieldId);
+                };
+            case IA5_STRING:
+            case VISIBLE_STRING:
+            case PRINTABLE_STRING:
+            case NUMERIC_STRING:
+                return (fieldId, value) -> {
+                    PrimitiveDecoders.checkAscii(value);
+                    sink.onAscii(fieldId, ascii.set(value));
+                };
+            default:
+                return sink::onBytes;
+        }
+    }
+
+    private Handler decoderHandler(ValueLoader<?> decoder) {
+        if (decoder instanceof ValueLoader.OfLong) {
+            ValueLoader.OfLong longs = (ValueLoader.OfLong) decoder;
+            return (fieldId, value) -> sink.onLong(fieldId, longs.loadLong(value));
+        }
+        if (decoder instanceof ValueLoader.OfInt) {
+            ValueLoader.OfInt ints = (ValueLoader.OfInt) decoder;
+            return (fieldId, value) -> sink.onEnum(fieldId, ints.loadInt(value));
+        }
+        if (decoder instanceof ValueLoader.OfBoolean) {
+            ValueLoader.OfBoolean booleans = (ValueLoader.OfBoolean) decoder;
+            return (fieldId, value) -> sink.onBoolean(fieldId, booleans.loadBoolean(value));
+        }
+        return (fieldId, value) -> {
+            Object decoded = decoder.load(value);
+            if (decoded == null) {
+                sink.onNull(fieldId);
+            } else if (decoded instanceof CharSequence) {
+                sink.onAscii(fieldId, (CharSequence) decoded);
+            } else {
+                sink.onObject(fieldId, decoded);
+            }
+        };
+    }
+
+    @Override
+    public void onField(int fieldId, ValueView value, ASN1BaseType type) throws Exception {
+        handlers[fieldId].handle(fieldId, value);
+    }
+
+    @Override
+    public void onRecordStart(long offset, int length) throws Exception {
+        sink.onRecordStart(offset, length);
+    }
+
+    @Override
+    public void onRecordEnd(long offset, int length) throws Exception {
+        sink.onRecordEnd(offset, length);
+    }
+}
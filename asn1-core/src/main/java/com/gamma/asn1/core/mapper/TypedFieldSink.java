@@ -0,0 +1,84 @@
+package com.gamma.asn1.core.mapper;
+
+import com.gamma.asn1.core.schema.CompiledSchema;
+import com.gamma.asn1.core.tlv.ValueView;
+
+/**
+ * Receives flattened fields already decoded to Java primitives, so that integers, booleans and enumerations
+ * reach the consumer without boxing or allocation. Fields are identified by the field IDs of a
+ * {@link CompiledSchema}; the method called for a field is chosen once by a {@link TypedFieldDispatcher}, from its
+ * base type or from the decoder a {@link com.gamma.asn1.core.decoders.DecoderRegistry} binds to it.
+ * <p>
+ * Views passed to this sink are only valid for the duration of the call.
+ */
+public interface TypedFieldSink extends RecordEventListener {
+
+    /**
+     * Called for INTEGER fields.
+     *
+     * @param fieldId The field ID of the leaf in the compiled schema.
+     * @param value   The decoded value.
+     * @throws Exception if an error occurs during processing of the field by the sink.
+     */
+    void onLong(int fieldId, long value) throws Exception;
+
+    /**
+     * Called for BOOLEAN fields.
+     *
+     * @param fieldId The field ID of the leaf in the compiled schema.
+     * @param value   The decoded value.
+     * @throws Exception if an error occurs during processing of the field by the sink.
+     */
+    void onBoolean(int fieldId, boolean value) throws Exception;
+
+    /**
+     * Called for IA5String, VisibleString, PrintableString and NumericString fields, after checking that every
+     * character is 7-bit ASCII, and for fields whose bound decoder produces text, e.g. the digits of an IMSI.
+     *
+     * @param fieldId The field ID of the leaf in the compiled schema.
+     * @param value   The characters, read in place from the input.
+     * @throws Exception if an error occurs during processing of the field by the sink.
+     */
+    void onAscii(int fieldId, CharSequence value) throws Exception;
+
+    /**
+     * Called for all other fields, e.g. OCTET STRING, BIT STRING and OBJECT IDENTIFIER, and for fields whose
+     * type the schema does not define.
+     *
+     * @param fieldId The field ID of the leaf in the compiled schema.
+     * @param value   A view of the raw bytes of the value.
+     * @throws Exception if an error occurs during processing of the field by the sink.
+     */
+    void onBytes(int fieldId, ValueView value) throws Exception;
+
+    /**
+     * Called for NULL fields.
+     *
+     * @param fieldId The field ID of the leaf in the compiled schema.
+     * @throws Exception if an error occurs during processing of the field by the sink.
+     */
+    void onNull(int fieldId) throws Exception;
+
+    /**
+     * Called for ENUMERATED fields.
+     *
+     * @param fieldId The field ID of the leaf in the compiled schema.
+     * @param value   The decoded enumeration value.
+     * @throws Exception if an error occurs during processing of the field by the sink.
+     */
+    void onEnum(int fieldId, int value) throws Exception;
+
+    /**
+     * Called for fields whose bound decoder produces an object other than a primitive or text, e.g. an IP
+     * address decoded by an operator-specific decoder. The default implementation rejects the value, since
+     * sinks that do not register such decoders never receive one.
+     *
+     * @param fieldId The field ID of the leaf in the compiled schema.
+     * @param value   The decoded value.
+     * @throws Exception if an error occurs during processing of the field by the sink.
+     */
+    default void onObject(int fieldId, Object value) throws Exception {
+        throw new UnsupportedOperationException("Sink does not accept values of " + value.getClass().getName()
+                + " for field " + fieldId);
+    }
+}
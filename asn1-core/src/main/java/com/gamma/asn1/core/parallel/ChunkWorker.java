@@ -0,0 +1,22 @@
+package com.gamma.asn1.core.parallel;
+
+import com.gamma.asn1.core.tlv.TLVFlyweightListener;
+
+/**
+ * Decodes one chunk of a file for the {@link ParallelTLVDecoder}.
+ * <p>
+ * A fresh worker is created for every chunk and only ever used by one thread, so it can hold its own
+ * decoding state, typically a private {@link com.gamma.asn1.core.mapper.SemanticEventMapper} that
+ * forwards to a chunk-local buffer of results.
+ *
+ * @param <R> The type of the result produced for a chunk.
+ */
+public interface ChunkWorker<R> extends TLVFlyweightListener {
+
+    /**
+     * Called once after all records of the chunk were delivered.
+     * @return The result of the chunk, handed to the decoder's sink.
+     * @throws Exception if the result cannot be produced.
+     */
+    R finish() throws Exception;
+}
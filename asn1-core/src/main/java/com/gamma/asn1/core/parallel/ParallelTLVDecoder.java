@@ -0,0 +1,201 @@
+package com.gamma.asn1.core.parallel;
+
+import com.gamma.asn1.core.exception.ASN1ProcessingException;
+import com.gamma.asn1.core.index.RecordIndex;
+import com.gamma.asn1.core.index.RecordIndexer;
+import com.gamma.asn1.core.tlv.TLVEventStreamer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Decodes a single file on several cores.
+ * <p>
+ * The file is split at top-level record boundaries taken from its {@link RecordIndex}. Each chunk is mapped
+ * separately and decoded on a fork-join pool by its own {@link ChunkWorker}, so no decoding state is shared
+ * between threads. Chunk results are handed to a sink on the calling thread, either in original record order
+ * or in completion order. The number of chunks in flight is bounded, so memory use does not grow with the
+ * file size.
+ * <p>
+ * Byte offsets reported to workers and in exceptions are global to the file. Records need not be adjacent,
+ * so an index of framed records, such as one built by {@link com.gamma.asn1.core.framing.CdrFileReader#index},
+ * can be used as well.
+ */
+public class ParallelTLVDecoder {
+
+    /** Default number of bytes per chunk. */
+    public static final int DEFAULT_CHUNK_SIZE = 8 << 20;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final boolean ordered;
+
+    /**
+     * Creates a decoder that uses the common pool, {@link #DEFAULT_CHUNK_SIZE} and ordered output.
+     */
+    public ParallelTLVDecoder() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE, true);
+    }
+
+    /**
+     * @param pool      The pool that runs the chunk workers.
+     * @param chunkSize The target number of bytes per chunk. Must not exceed the size of a single mapping.
+     * @param ordered   {@code true} to deliver chunk results in original record order,
+     *                  {@code false} to deliver them as soon as they complete.
+     */
+    public ParallelTLVDecoder(ForkJoinPool pool, int chunkSize, boolean ordered) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.pool = Objects.requireNonNull(pool, "Pool cannot be null");
+        this.chunkSize = chunkSize;
+        this.ordered = ordered;
+    }
+
+    /**
+     * Decodes a file, loading or building its sidecar index first.
+     *
+     * @param file          The file to decode.
+     * @param workerFactory Creates a fresh worker for every chunk.
+     * @param sink          Receives the result of every chunk, on the calling thread.
+     * @param <R>           The type of a chunk result.
+     * @throws IOException             If the file cannot be read.
+     * @throws ASN1ProcessingException If the data is malformed or a worker fails.
+     */
+    public <R> void process(Path file, Supplier<? extends ChunkWorker<R>> workerFactory, Consumer<? super R> sink)
+            throws IOException, ASN1ProcessingException {
+        process(file, RecordIndexer.loadOrBuild(file), workerFactory, sink);
+    }
+
+    /**
+     * Decodes a file using an existing index.
+     *
+     * @param file          The file to decode.
+     * @param index         The up-to-date index of the file.
+     * @param workerFactory Creates a fresh worker for every chunk.
+     * @param sink          Receives the result of every chunk, on the calling thread.
+     * @param <R>           The type of a chunk result.
+     * @throws IOException             If the file cannot be read.
+     * @throws ASN1ProcessingException If the data is malformed or a worker fails.
+     */
+    public <R> void process(Path file, RecordIndex index, Supplier<? extends ChunkWorker<R>> workerFactory, Consumer<? super R> sink)
+            throws IOException, ASN1ProcessingException {
+        int[] boundaries = index.split(chunkSize);
+        int chunks = boundaries.length - 1;
+        int maxInFlight = Math.max(2, pool.getParallelism() * 2);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ordered) {
+                Deque<Future<R>> inFlight = new ArrayDeque<>();
+                int next = 0;
+                try {
+                    while (next < chunks || !inFlight.isEmpty()) {
+                        while (next < chunks && inFlight.size() < maxInFlight) {
+                            inFlight.add(pool.submit(chunkTask(channel, index, boundaries[next], boundaries[next + 1], workerFactory)));
+                            next++;
+                        }
+                        sink.accept(await(inFlight.poll()));
+                    }
+                } finally {
+                    inFlight.forEach(f -> f.cancel(true));
+                }
+            } else {
+                ExecutorCompletionService<R> completion = new ExecutorCompletionService<>(pool);
+                Deque<Future<R>> submitted = new ArrayDeque<>();
+                int next = 0;
+                int pending = 0;
+                try {
+                    while (next < chunks || pending > 0) {
+                        while (next < chunks && pending < maxInFlight) {
+                            submitted.add(completion.submit(chunkTask(channel, index, boundaries[next], boundaries[next + 1], workerFactory)));
+                            next++;
+                            pending++;
+                        }
+                        Future<R> done;
+                        try {
+                            done = completion.take();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new InterruptedIOException("Interrupted while waiting for a chunk.");
+                        }
+                        submitted.remove(done);
+                        pending--;
+                        sink.accept(await(done));
+                    }
+                } finally {
+                    submitted.forEach(f -> f.cancel(true));
+                }
+            }
+        }
+    }
+
+    private <R> Callable<R> chunkTask(FileChannel channel, RecordIndex index, int firstRecord, int endRecord,
+                                      Supplier<? extends ChunkWorker<R>> workerFactory) {
+        return () -> {
+            long start = index.offset(firstRecord);
+            long end = index.offset(endRecord - 1) + index.length(endRecord - 1);
+            MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            ChunkWorker<R> worker = workerFactory.get();
+            TLVEventStreamer streamer = new TLVEventStreamer();
+            // Records are decoded in contiguous runs; framing bytes between records, such as CDR headers, are left out.
+            int run = firstRecord;
+            for (int record = firstRecord + 1; record <= endRecord; record++) {
+                if (record == endRecord || index.offset(record) != index.offset(record - 1) + index.length(record - 1)) {
+                    long runEnd = index.offset(record - 1) + index.length(record - 1);
+                    chunk.limit((int) (runEnd - start)).position((int) (index.offset(run) - start));
+                    streamer.process(chunk, index.offset(run), worker);
+                    chunk.limit(chunk.capacity());
+                    run = record;
+                }
+            }
+            try {
+                return worker.finish();
+            } catch (ASN1ProcessingException | IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new ASN1ProcessingException("Chunk worker failed to finish.", start, "root", e);
+            }
+        };
+    }
+
+    /**
+     * Waits for a chunk and unwraps its failure into the exception types of {@link #process}.
+     */
+    private static <R> R await(Future<R> future) throws IOException, ASN1ProcessingException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a chunk.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ASN1ProcessingException) {
+                throw (ASN1ProcessingException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ASN1ProcessingException("Chunk decoding failed: " + cause, -1, "unknown", cause);
+        }
+    }
+}
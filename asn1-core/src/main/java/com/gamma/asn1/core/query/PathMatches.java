@@ -0,0 +1,59 @@
+package com.gamma.asn1.core.query;
+
+import com.gamma.asn1.core.mapper.DecodedNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The nodes matched by each expression of a {@link PathQuery} in one record, in document order.
+ * <p>
+ * A holder is reused across records: {@link PathQuery#evaluate} clears it and keeps its lists. The lists returned
+ * by {@link #get(int)} are only valid until the next evaluation and must not be modified.
+ */
+public final class PathMatches {
+
+    private final List<List<DecodedNode>> matches;
+
+    PathMatches(int size) {
+        this.matches = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            matches.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * @param index The index of an expression in the query.
+     * @return The nodes it matched.
+     */
+    public List<DecodedNode> get(int index) {
+        return matches.get(index);
+    }
+
+    /**
+     * @param index The index of an expression in the query.
+     * @return The first node it matched, or {@code null} if there is none.
+     */
+    public DecodedNode first(int index) {
+        List<DecodedNode> nodes = matches.get(index);
+        return nodes.isEmpty() ? null : nodes.get(0);
+    }
+
+    /**
+     * @param index The index of an expression in the query.
+     * @return The number of nodes it matched.
+     */
+    public int count(int index) {
+        return matches.get(index).size();
+    }
+
+    void add(int index, DecodedNode node) {
+        matches.get(index).add(node);
+    }
+
+    void clear() {
+        for (List<DecodedNode> nodes : matches) {
+            nodes.clear();
+        }
+    }
+}
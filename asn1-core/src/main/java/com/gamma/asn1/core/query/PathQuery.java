@@ -0,0 +1,208 @@
+package com.gamma.asn1.core.query;
+
+import com.gamma.asn1.core.mapper.DecodedNode;
+import com.gamma.asn1.core.schema.CompiledSchema;
+import com.gamma.asn1.model.ASN1BaseType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A set of dotted path expressions compiled against a {@link CompiledSchema} and evaluated together on decoded
+ * records.
+ * <p>
+ * Each expression is resolved once, at compile time, to the schema states it selects; the schema's tag
+ * transitions then serve as a trie shared by all expressions, so one walk over a record finds the matches of
+ * every expression and only descends into elements that lead to a match. Expressions use the path naming of the
+ * {@link com.gamma.asn1.core.mapper.SemanticEventMapper}, starting with the record type, e.g.
+ * {@code CallEventRecord.sgsnPDPRecord.servingNodeAddress}. They may contain:
+ * <ul>
+ *     <li>{@code *} as a segment, matching any single field or alternative name;</li>
+ *     <li>{@code [*]} after the last segment, selecting the items of a SEQUENCE OF / SET OF rather than the list
+ *     itself, e.g. {@code ...listOfTrafficVolumes[*]}.</li>
+ * </ul>
+ * Fields of list items are addressed through the list without a wildcard, e.g.
+ * {@code ...listOfTrafficVolumes.dataVolumeGPRSUplink} matches that field in every item; {@code [*]} on an inner
+ * segment is accepted and means the same. Nested occurrences of a recursive type are matched at their first level.
+ * <p>
+ * Instances are immutable and can be shared by all threads; each thread evaluates into its own {@link PathMatches}.
+ */
+public final class PathQuery {
+
+    private static final String ITEMS = "[*]";
+    private static final String ANY = "*";
+    private static final int[] NONE = new int[0];
+
+    private final CompiledSchema schema;
+    private final String[] expressions;
+    // Per schema state: the expressions it satisfies, and whether a matching state lies below it.
+    private final int[][] matches;
+    private final boolean[] descend;
+
+    private PathQuery(CompiledSchema schema, String[] expressions, int[][] matches, boolean[] descend) {
+        this.schema = schema;
+        this.expressions = expressions;
+        this.matches = matches;
+        this.descend = descend;
+    }
+
+    /**
+     * Compiles path expressions.
+     *
+     * @param schema      The compiled schema the records are decoded with.
+     * @param expressions The path expressions. An expression's position in the list is its index in the results.
+     * @return The query.
+     * @throws IllegalArgumentException If an expression matches no element of the schema.
+     */
+    public static PathQuery compile(CompiledSchema schema, List<String> expressions) {
+        Objects.requireNonNull(schema, "Schema cannot be null");
+        int n = schema.stateCount();
+        String[][] statePaths = new String[n][];
+        for (int state = 1; state < n; state++) {
+            statePaths[state] = schema.path(state).split("\\.");
+        }
+
+        List<List<Integer>> matching = new ArrayList<>(n);
+        for (int state = 0; state < n; state++) {
+            matching.add(new ArrayList<>());
+        }
+        // EXPLICIT tags whose single nested element carries the same path.
+        boolean[] wrapping = new boolean[n];
+        for (int state = 1; state < n; state++) {
+            if (schema.segmentCount(state) == 0 && !isList(schema.baseType(schema.parent(state)))) {
+                wrapping[schema.parent(state)] = true;
+            }
+        }
+        boolean[] descend = new boolean[n];
+        String[] exprs = expressions.toArray(new String[0]);
+        for (int q = 0; q < exprs.length; q++) {
+            String expression = exprs[q];
+            boolean items = expression.endsWith(ITEMS);
+            String[] pattern = (items ? expression.substring(0, expression.length() - ITEMS.length()) : expression).split("\\.");
+            for (int i = 0; i < pattern.length; i++) {
+                if (pattern[i].endsWith(ITEMS)) {
+                    pattern[i] = pattern[i].substring(0, pattern[i].length() - ITEMS.length());
+                }
+            }
+            boolean found = false;
+            for (int state = 1; state < n; state++) {
+                if (selects(schema, wrapping, state, items) && matchesPattern(statePaths[state], pattern)) {
+                    found = true;
+                    matching.get(state).add(q);
+                    for (int ancestor = schema.parent(state); ancestor != CompiledSchema.NO_STATE && !descend[ancestor]; ancestor = schema.parent(ancestor)) {
+                        descend[ancestor] = true;
+                    }
+                }
+            }
+            if (!found) {
+                throw new IllegalArgumentException("Path expression matches no element of the schema: " + expression);
+            }
+        }
+
+        int[][] matches = new int[n][];
+        for (int state = 0; state < n; state++) {
+            List<Integer> list = matching.get(state);
+            matches[state] = list.isEmpty() ? NONE : list.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return new PathQuery(schema, exprs, matches, descend);
+    }
+
+    /**
+     * Decides whether a state is the element its path names. That is the state adding the last segment, except
+     * for an EXPLICIT tag, where it is the nested element holding the value. The items of a list add no segment.
+     */
+    private static boolean selects(CompiledSchema schema, boolean[] wrapping, int state, boolean items) {
+        int parent = schema.parent(state);
+        if (items) {
+            return schema.segmentCount(state) == 0 && isList(schema.baseType(parent));
+        }
+        if (schema.segmentCount(state) > 0) {
+            return !wrapping[state];
+        }
+        return wrapping[parent];
+    }
+
+    private static boolean isList(ASN1BaseType type) {
+        return type == ASN1BaseType.SEQUENCE_OF || type == ASN1BaseType.SET_OF;
+    }
+
+    private static boolean matchesPattern(String[] path, String[] pattern) {
+        if (path.length != pattern.length) {
+            return false;
+        }
+        for (int i = 0; i < path.length; i++) {
+            if (!pattern[i].equals(ANY) && !pattern[i].equals(path[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The number of expressions.
+     */
+    public int size() {
+        return expressions.length;
+    }
+
+    /**
+     * @param index The index of an expression.
+     * @return The expression.
+     */
+    public String expression(int index) {
+        return expressions[index];
+    }
+
+    /**
+     * @param expression An expression.
+     * @return The index of the expression, or -1 if it is not part of this query.
+     */
+    public int indexOf(String expression) {
+        return Arrays.asList(expressions).indexOf(expression);
+    }
+
+    /**
+     * @return A new, empty result holder for this query.
+     */
+    public PathMatches newMatches() {
+        return new PathMatches(expressions.length);
+    }
+
+    /**
+     * Finds the matches of all expressions in a record with a single walk.
+     *
+     * @param record The top-level node of a decoded record.
+     * @param out    The result holder; its previous content is discarded.
+     * @return {@code out}. It holds no matches if the record's tag is not a record type of the schema.
+     */
+    public PathMatches evaluate(DecodedNode record, PathMatches out) {
+        out.clear();
+        int state = schema.transition(CompiledSchema.ROOT, record.getPackedTag());
+        if (state != CompiledSchema.NO_STATE) {
+            visit(record, state, out);
+        }
+        return out;
+    }
+
+    private void visit(DecodedNode node, int state, PathMatches out) {
+        for (int q : matches[state]) {
+            out.add(q, node);
+        }
+        if (!descend[state] || !node.isConstructed()) {
+            return;
+        }
+        for (DecodedNode child : node.getChildren()) {
+            int childState = schema.transition(state, child.getPackedTag());
+            if (childState != CompiledSchema.NO_STATE && (descend[childState] || matches[childState].length > 0)) {
+                visit(child, childState, out);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PathQuery" + Arrays.toString(expressions);
+    }
+}
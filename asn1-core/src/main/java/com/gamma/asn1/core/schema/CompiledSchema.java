@@ -0,0 +1,277 @@
+package com.gamma.asn1.core.schema;
+
+import com.gamma.asn1.core.tlv.Tags;
+import com.gamma.asn1.model.ASN1BaseType;
+import com.gamma.asn1.model.ASN1TypeDefinition;
+import com.gamma.asn1.model.TagClass;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An {@link com.gamma.asn1.grammar.ASN1Schema} compiled into an immutable dispatch automaton by the {@link SchemaCompiler}.
+ * <p>
+ * Every state stands for one position in the unfolded schema tree, e.g. the {@code imsi} field of the
+ * {@code servingNetwork} field of a record, and knows its dotted path, its type and the states its nested
+ * elements lead to. {@link #ROOT} is the state before any element has been read. Moving from a state to a child
+ * is a lookup in a dense table indexed by context-specific tag number, falling back to a short sorted table for
+ * the other tag classes, so decoding an element does not allocate or hash.
+ * <p>
+ * Besides the states of schema fields, there are states that add no path segment of their own: the element
+ * states of SEQUENCE OF / SET OF types and the inner element of an EXPLICIT tag, both of which share the path
+ * of their parent. Alternatives of an untagged CHOICE are reached directly from the CHOICE's parent and add two
+ * segments, the name of the CHOICE field and the name of the alternative.
+ * <p>
+ * Every leaf state is given a field ID, a small integer that is stable for a given schema and numbers the
+ * distinct leaf paths in schema order. Leaf states with the same path share an ID. Consumers can key their
+ * per-field data by ID and use {@link #fieldPath(int)} to recover the dotted path.
+ * <p>
+ * Instances are immutable and can be shared by all decoding threads.
+ */
+public final class CompiledSchema {
+
+    /** The state before the first element of a record. */
+    public static final int ROOT = 0;
+
+    /** Returned by {@link #transition} when no nested element with the tag is expected. */
+    public static final int NO_STATE = -1;
+
+    /** The field ID of states that are not leaves, and the result of {@link #findField} for unknown paths. */
+    public static final int NO_FIELD = -1;
+
+    // Context-specific tag numbers up to this bound are looked up in a dense table.
+    static final int MAX_DENSE_TAG = 1024;
+
+    private static final int[] EMPTY = new int[0];
+
+    private final String[] paths;
+    private final String[][] segments;
+    private final int[] parents;
+    private final ASN1BaseType[] baseTypes;
+    private final ASN1TypeDefinition[] definitions;
+    private final boolean[] leaves;
+    private final int[][] contextTables;
+    private final int[][] otherKeys;
+    private final int[][] otherTargets;
+    private final int[] fieldIds;
+    private final String[] fieldPaths;
+    private final ASN1BaseType[] fieldTypes;
+    private final Map<String, Integer> fieldsByPath;
+
+    CompiledSchema(String[] paths, String[][] segments, int[] parents, ASN1BaseType[] baseTypes,
+                   ASN1TypeDefinition[] definitions, int[][] transitionKeys, int[][] transitionTargets) {
+        int n = paths.length;
+        this.paths = paths;
+        this.segments = segments;
+        this.parents = parents;
+        this.baseTypes = baseTypes;
+        this.definitions = definitions;
+        this.leaves = new boolean[n];
+        this.contextTables = new int[n][];
+        this.otherKeys = new int[n][];
+        this.otherTargets = new int[n][];
+
+        for (int state = 0; state < n; state++) {
+            int[] keys = transitionKeys[state];
+            int[] targets = transitionTargets[state];
+            leaves[state] = keys.length == 0;
+
+            int maxContext = -1;
+            int others = 0;
+            for (int key : keys) {
+                if (isDense(key)) {
+                    maxContext = Math.max(maxContext, Tags.number(key));
+                } else {
+                    others++;
+                }
+            }
+            int[] dense = maxContext < 0 ? EMPTY : new int[maxContext + 1];
+            Arrays.fill(dense, NO_STATE);
+            long[] sorted = new long[others];
+            int o = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (isDense(keys[i])) {
+                    dense[Tags.number(keys[i])] = targets[i];
+                } else {
+                    sorted[o++] = ((long) keys[i] << 32) | (targets[i] & 0xFFFFFFFFL);
+                }
+            }
+            Arrays.sort(sorted);
+            int[] sortedKeys = new int[others];
+            int[] sortedTargets = new int[others];
+            for (int i = 0; i < others; i++) {
+                sortedKeys[i] = (int) (sorted[i] >> 32);
+                sortedTargets[i] = (int) sorted[i];
+            }
+            contextTables[state] = dense;
+            otherKeys[state] = sortedKeys;
+            otherTargets[state] = sortedTargets;
+        }
+
+        this.fieldIds = new int[n];
+        this.fieldsByPath = new HashMap<>();
+        List<String> fieldPathList = new ArrayList<>();
+        List<ASN1BaseType> fieldTypeList = new ArrayList<>();
+        for (int state = 0; state < n; state++) {
+            if (state == ROOT || !leaves[state]) {
+                fieldIds[state] = NO_FIELD;
+                continue;
+            }
+            Integer id = fieldsByPath.get(paths[state]);
+            if (id == null) {
+                id = fieldPathList.size();
+                fieldsByPath.put(paths[state], id);
+                fieldPathList.add(paths[state]);
+                fieldTypeList.add(baseTypes[state]);
+            }
+            fieldIds[state] = id;
+        }
+        this.fieldPaths = fieldPathList.toArray(new String[0]);
+        this.fieldTypes = fieldTypeList.toArray(new ASN1BaseType[0]);
+    }
+
+    private static boolean isDense(int tagKey) {
+        return Tags.tagClassOf(tagKey) == TagClass.CONTEXT_SPECIFIC && Tags.number(tagKey) <= MAX_DENSE_TAG;
+    }
+
+    /**
+     * Looks up the state of a nested element.
+     *
+     * @param state The state of the enclosing element, or {@link #ROOT}.
+     * @param tag   The packed tag of the nested element; the constructed bit is ignored.
+     * @return The state of the nested element, or {@link #NO_STATE} if the schema does not expect it.
+     */
+    public int transition(int state, int tag) {
+        int key = Tags.withoutConstructed(tag);
+        if (Tags.tagClassOf(key) == TagClass.CONTEXT_SPECIFIC) {
+            int[] dense = contextTables[state];
+            int number = Tags.number(key);
+            if (number < dense.length) {
+                return dense[number];
+            }
+            if (number <= MAX_DENSE_TAG) {
+                return NO_STATE;
+            }
+        }
+        int[] keys = otherKeys[state];
+        // The sort order of signed keys matches the packed order used at construction.
+        int i = Arrays.binarySearch(keys, key);
+        return i < 0 ? NO_STATE : otherTargets[state][i];
+    }
+
+    /**
+     * @return The number of states, including {@link #ROOT}.
+     */
+    public int stateCount() {
+        return paths.length;
+    }
+
+    /**
+     * @param state A state.
+     * @return The dotted path of the state, e.g. {@code "CallEventRecord.servingNetwork.imsi"}; empty for {@link #ROOT}.
+     */
+    public String path(int state) {
+        return paths[state];
+    }
+
+    /**
+     * @param state A state.
+     * @return The state of the enclosing element, or {@link #NO_STATE} for {@link #ROOT}.
+     */
+    public int parent(int state) {
+        return parents[state];
+    }
+
+    /**
+     * @param state A state.
+     * @return The number of path segments the state adds to its parent's path: 0, 1, or 2 for alternatives of an
+     *         untagged CHOICE.
+     */
+    public int segmentCount(int state) {
+        return segments[state].length;
+    }
+
+    /**
+     * @param state A state.
+     * @param index The segment number, less than {@link #segmentCount(int)}.
+     * @return The name of the segment.
+     */
+    public String segment(int state, int index) {
+        return segments[state][index];
+    }
+
+    /**
+     * @param state A state.
+     * @return The base type of the element, or {@code null} for the outer element of an EXPLICIT tag and for
+     *         types the schema does not define.
+     */
+    public ASN1BaseType baseType(int state) {
+        return baseTypes[state];
+    }
+
+    /**
+     * @param state A state.
+     * @return The type definition of the element, or {@code null} for built-in types and EXPLICIT tags.
+     */
+    public ASN1TypeDefinition definition(int state) {
+        return definitions[state];
+    }
+
+    /**
+     * @param state A state.
+     * @return {@code true} if no nested elements are expected in this state, i.e. the element is a primitive.
+     */
+    public boolean isLeaf(int state) {
+        return leaves[state];
+    }
+
+    /**
+     * @param state A state.
+     * @return The field ID of a leaf state, or {@link #NO_FIELD} if the state has nested elements.
+     */
+    public int fieldId(int state) {
+        return fieldIds[state];
+    }
+
+    /**
+     * @return The number of field IDs. IDs range from 0 to this count, exclusive.
+     */
+    public int fieldCount() {
+        return fieldPaths.length;
+    }
+
+    /**
+     * @param fieldId A field ID.
+     * @return The dotted path of the field, e.g. {@code "CallEventRecord.servingNetwork.imsi"}.
+     */
+    public String fieldPath(int fieldId) {
+        return fieldPaths[fieldId];
+    }
+
+    /**
+     * @param fieldId A field ID.
+     * @return The base type of the field, or {@code null} for types the schema does not define.
+     */
+    public ASN1BaseType fieldType(int fieldId) {
+        return fieldTypes[fieldId];
+    }
+
+    /**
+     * Looks up the field ID of a dotted path. Intended for setting up consumers, not for the decoding loop.
+     *
+     * @param path The dotted path of a leaf, e.g. {@code "CallEventRecord.servingNetwork.imsi"}.
+     * @return The field ID, or {@link #NO_FIELD} if no leaf has this path.
+     */
+    public int findField(String path) {
+        Integer id = fieldsByPath.get(path);
+        return id == null ? NO_FIELD : id;
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledSchema{states=" + paths.length + ", fields=" + fieldPaths.length + '}';
+    }
+}
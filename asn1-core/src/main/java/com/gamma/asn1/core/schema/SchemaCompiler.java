@@ -0,0 +1,264 @@
+package com.gamma.asn1.core.schema;
+
+import com.gamma.asn1.core.tlv.Tags;
+import com.gamma.asn1.grammar.ASN1Schema;
+import com.gamma.asn1.model.ASN1BaseType;
+import com.gamma.asn1.model.ASN1TagInfo;
+import com.gamma.asn1.model.ASN1TypeDefinition;
+import com.gamma.asn1.model.TaggingMode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Compiles an {@link ASN1Schema} into a {@link CompiledSchema}.
+ * <p>
+ * The schema is unfolded from its record types into a tree of states. A tagged field leads to a state for its
+ * tag: with IMPLICIT tagging the tag replaces the tag of the field's type, with EXPLICIT tagging the state has a
+ * single nested element carrying the type's own tag. Fields without a tagging mode use the module default given
+ * to the compiler; tags on CHOICE types are always EXPLICIT. Tags without a class are context-specific, as in
+ * {@link ASN1Schema#findElementByTag}. Untagged CHOICE types are transparent, so their alternatives are reached
+ * directly from the enclosing element.
+ * <p>
+ * A type that contains itself is not unfolded again; the nested occurrence reuses the state of the outer one.
+ */
+public final class SchemaCompiler {
+
+    private SchemaCompiler() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Compiles a schema with EXPLICIT default tagging. The record types are the types not used by any other type.
+     *
+     * @param schema The schema.
+     * @return The compiled schema.
+     * @throws IllegalArgumentException If two elements in the same position share a tag.
+     */
+    public static CompiledSchema compile(ASN1Schema schema) {
+        return compile(schema, TaggingMode.EXPLICIT, null);
+    }
+
+    /**
+     * Compiles a schema.
+     *
+     * @param schema         The schema.
+     * @param defaultTagging The tagging mode of the module, used for tags without an explicit mode.
+     *                       {@link TaggingMode#AUTOMATIC} is treated as IMPLICIT.
+     * @param rootType       The name of the record type, or {@code null} to use every type that is not used by
+     *                       another type. A CHOICE record type accepts each of its alternatives as a record.
+     * @return The compiled schema.
+     * @throws IllegalArgumentException If the root type is unknown or two elements in the same position share a tag.
+     */
+    public static CompiledSchema compile(ASN1Schema schema, TaggingMode defaultTagging, String rootType) {
+        Map<String, ASN1TypeDefinition> types = new TreeMap<>(schema.getAllTypeDefinitions());
+        Compiler compiler = new Compiler(types, defaultTagging == TaggingMode.EXPLICIT ? TaggingMode.EXPLICIT : TaggingMode.IMPLICIT);
+        if (rootType != null) {
+            if (!types.containsKey(rootType)) {
+                throw new IllegalArgumentException("Unknown root type: " + rootType);
+            }
+            compiler.addEntries(CompiledSchema.ROOT, new String[]{rootType}, rootType, null, false);
+        } else {
+            for (String name : recordTypes(types)) {
+                compiler.addEntries(CompiledSchema.ROOT, new String[]{name}, name, null, false);
+            }
+        }
+        return compiler.build();
+    }
+
+    /**
+     * @return The names of the types that no other type refers to, or all types if every type is referenced.
+     */
+    private static List<String> recordTypes(Map<String, ASN1TypeDefinition> types) {
+        Set<String> referenced = new HashSet<>();
+        for (ASN1TypeDefinition def : types.values()) {
+            for (ASN1TypeDefinition.ASN1Field field : def.getFields()) {
+                if (!field.getTypeName().equals(def.getName())) {
+                    referenced.add(field.getTypeName());
+                }
+            }
+            if (def.getElementTypeName() != null && !def.getElementTypeName().equals(def.getName())) {
+                referenced.add(def.getElementTypeName());
+            }
+        }
+        List<String> roots = new ArrayList<>();
+        for (String name : types.keySet()) {
+            if (!referenced.contains(name)) {
+                roots.add(name);
+            }
+        }
+        return roots.isEmpty() ? new ArrayList<>(types.keySet()) : roots;
+    }
+
+    /**
+     * Collects the states while unfolding the schema.
+     */
+    private static final class Compiler {
+        private final Map<String, ASN1TypeDefinition> types;
+        private final TaggingMode defaultTagging;
+
+        private final List<String> paths = new ArrayList<>();
+        private final List<String[]> segments = new ArrayList<>();
+        private final List<Integer> parents = new ArrayList<>();
+        private final List<ASN1BaseType> baseTypes = new ArrayList<>();
+        private final List<ASN1TypeDefinition> definitions = new ArrayList<>();
+        private final List<Map<Integer, Integer>> transitions = new ArrayList<>();
+
+        // The types being unfolded on the current branch, mapped to their states.
+        private final Map<String, Integer> unfolding = new HashMap<>();
+        private final Set<String> expandingChoices = new HashSet<>();
+
+        Compiler(Map<String, ASN1TypeDefinition> types, TaggingMode defaultTagging) {
+            this.types = types;
+            this.defaultTagging = defaultTagging;
+            newState(CompiledSchema.NO_STATE, new String[0], null, null);
+        }
+
+        /**
+         * Adds the transitions from {@code parent} into a value of {@code typeName}.
+         *
+         * @param parent      The state of the enclosing element.
+         * @param prefix      The path segments added by the value.
+         * @param typeName    The name of the value's type.
+         * @param tag         The tag of the field holding the value, or {@code null} if it is untagged.
+         * @param skipTypeTag {@code true} if the type's own tag has already been handled.
+         */
+        void addEntries(int parent, String[] prefix, String typeName, ASN1TagInfo tag, boolean skipTypeTag) {
+            ASN1TypeDefinition def = types.get(typeName);
+            ASN1BaseType baseType = def != null ? def.getBaseType() : ASN1BaseType.fromKeyword(typeName);
+            if (tag == null && !skipTypeTag && def != null && def.getTagInfo() != null) {
+                tag = def.getTagInfo();
+                skipTypeTag = true;
+            }
+
+            if (tag != null) {
+                int key = Tags.pack(tag.getEffectiveTagClass(), false, tag.getTagNumber());
+                if (modeOf(tag) == TaggingMode.IMPLICIT && baseType != ASN1BaseType.CHOICE) {
+                    addTransition(parent, key, typeState(parent, prefix, typeName, def, baseType));
+                } else {
+                    int outer = newState(parent, prefix, null, null);
+                    addTransition(parent, key, outer);
+                    addEntries(outer, new String[0], typeName, null, true);
+                }
+                return;
+            }
+
+            if (baseType == ASN1BaseType.CHOICE && def != null) {
+                if (!expandingChoices.add(typeName)) {
+                    return; // An untagged CHOICE that contains itself has no tag to dispatch on.
+                }
+                for (ASN1TypeDefinition.ASN1Field alternative : def.getFields()) {
+                    addEntries(parent, append(prefix, alternative.getName()), alternative.getTypeName(), alternative.getTagInfo(), false);
+                }
+                expandingChoices.remove(typeName);
+                return;
+            }
+            if (baseType == null || baseType.getUniversalTagNumber() < 0) {
+                return; // No tag to dispatch on.
+            }
+            addTransition(parent, Tags.pack(0, false, baseType.getUniversalTagNumber()), typeState(parent, prefix, typeName, def, baseType));
+        }
+
+        /**
+         * Creates the state of a value of a type and unfolds its components.
+         */
+        private int typeState(int parent, String[] prefix, String typeName, ASN1TypeDefinition def, ASN1BaseType baseType) {
+            Integer recursive = unfolding.get(typeName);
+            if (recursive != null) {
+                return recursive;
+            }
+            int state = newState(parent, prefix, baseType, def);
+            if (def == null) {
+                return state;
+            }
+            unfolding.put(typeName, state);
+            // Nested CHOICEs are behind a tag of their own, so they may expand the same types again.
+            Set<String> outerChoices = new HashSet<>(expandingChoices);
+            expandingChoices.clear();
+            if (baseType == ASN1BaseType.SEQUENCE_OF || baseType == ASN1BaseType.SET_OF) {
+                addEntries(state, new String[0], def.getElementTypeName(), null, false);
+            } else {
+                for (ASN1TypeDefinition.ASN1Field field : def.getFields()) {
+                    addEntries(state, new String[]{field.getName()}, field.getTypeName(), field.getTagInfo(), false);
+                }
+            }
+            expandingChoices.addAll(outerChoices);
+            unfolding.remove(typeName);
+            return state;
+        }
+
+        private TaggingMode modeOf(ASN1TagInfo tag) {
+            TaggingMode mode = tag.getTaggingMode();
+            if (mode == null) {
+                return defaultTagging;
+            }
+            return mode == TaggingMode.EXPLICIT ? TaggingMode.EXPLICIT : TaggingMode.IMPLICIT;
+        }
+
+        private int newState(int parent, String[] segs, ASN1BaseType baseType, ASN1TypeDefinition def) {
+            int state = paths.size();
+            String path;
+            if (parent == CompiledSchema.NO_STATE) {
+                path = "";
+            } else {
+                StringBuilder sb = new StringBuilder(paths.get(parent));
+                for (String seg : segs) {
+                    if (sb.length() > 0) {
+                        sb.append('.');
+                    }
+                    sb.append(seg);
+                }
+                path = sb.toString();
+            }
+            paths.add(path);
+            segments.add(segs);
+            parents.add(parent);
+            baseTypes.add(baseType);
+            definitions.add(def);
+            transitions.add(new HashMap<>());
+            return state;
+        }
+
+        private void addTransition(int state, int key, int target) {
+            Integer existing = transitions.get(state).putIfAbsent(key, target);
+            if (existing != null && existing != target) {
+                throw new IllegalArgumentException("Ambiguous tag " + Tags.toString(key) + " in "
+                        + (paths.get(state).isEmpty() ? "the record types" : paths.get(state))
+                        + ": used by both " + paths.get(existing) + " and " + paths.get(target));
+            }
+        }
+
+        private static String[] append(String[] prefix, String name) {
+            String[] segs = Arrays.copyOf(prefix, prefix.length + 1);
+            segs[prefix.length] = name;
+            return segs;
+        }
+
+        CompiledSchema build() {
+            int n = paths.size();
+            int[] parentArray = new int[n];
+            int[][] keys = new int[n][];
+            int[][] targets = new int[n][];
+            for (int i = 0; i < n; i++) {
+                parentArray[i] = parents.get(i);
+                Map<Integer, Integer> t = transitions.get(i);
+                keys[i] = new int[t.size()];
+                targets[i] = new int[t.size()];
+                int j = 0;
+                for (Map.Entry<Integer, Integer> e : t.entrySet()) {
+                    keys[i][j] = e.getKey();
+                    targets[i][j] = e.getValue();
+                    j++;
+                }
+            }
+            return new CompiledSchema(paths.toArray(new String[0]), segments.toArray(new String[0][]), parentArray,
+                    baseTypes.toArray(new ASN1BaseType[0]), definitions.toArray(new ASN1TypeDefinition[0]), keys, targets);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.gamma.asn1.core.tlv;
+
+import java.util.Objects;
+
+/**
+ * A reusable {@link CharSequence} over the bytes of a {@link ValueView} holding a single-byte character string,
+ * such as an IA5String. Characters are read from the underlying buffer on access; nothing is copied until
+ * {@link #toString()} is called.
+ * <p>
+ * Like the view it wraps, an instance is only valid for the duration of the callback that received it.
+ */
+public final class AsciiView implements CharSequence {
+
+    private ValueView value;
+
+    /**
+     * Repositions this sequence over a value. Does not copy any bytes.
+     *
+     * @param value The view holding the characters, one per byte.
+     * @return This sequence.
+     */
+    public AsciiView set(ValueView value) {
+        this.value = value;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return value.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) value.getUnsigned(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        Objects.checkFromToIndex(start, end, length());
+        return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        int length = value.length();
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) value.getUnsigned(i);
+        }
+        return new String(chars);
+    }
+}
@@ -1,9 +1,20 @@
 package com.gamma.asn1.core.tlv;
 
+import com.gamma.asn1.core.exception.ASN1ProcessingException;
 import com.gamma.asn1.core.exception.CorruptTLVException;
+import com.gamma.asn1.core.io.BufferByteSource;
+import com.gamma.asn1.core.io.ByteSource;
+import com.gamma.asn1.core.io.MappedFileByteSource;
+import com.gamma.asn1.core.io.StreamByteSource;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 
 /**
@@ -21,11 +32,62 @@ import java.util.Arrays;
  *     <li>The raw byte value of a primitive element (onPrimitiveValue).</li>
  *     <li>The end of a data element (onEndTag).</li>
  * </ul>
+ * <p>
+ * For files, {@link #process(Path, TLVSliceListener)} maps the input with {@link FileChannel#map} and walks the
+ * TLV headers directly on the mapped buffer, handing out slices instead of copies. Files larger than the
+ * mapping window are mapped in consecutive windows, each starting at a top-level record boundary.
+ * <p>
+ * Flyweight listeners are driven by a single header-parsing loop over a {@link ByteSource}, whether the bytes
+ * come from a mapped file, a heap buffer or an arbitrary stream.
+ * All engines, including the slice walker and the record scanner, decode headers with the same {@link TLVHeader}.
  */
 public class TLVEventStreamer {
 
+    /**
+     * Default size of a single mapping window. Every top-level record must fit into one window.
+     */
+    public static final int DEFAULT_MAPPING_WINDOW = 1 << 30;
+
+    private static final int INITIAL_DEPTH = 16;
+
+    private final int mappingWindowSize;
+
     private long bytesRead = 0;
 
+    // Per-depth state of the mapped walker: end of the value, and the position/size of the tag in the window.
+    private int[] endStack = new int[INITIAL_DEPTH];
+    private int[] tagOffsetStack = new int[INITIAL_DEPTH];
+    private int[] tagLengthStack = new int[INITIAL_DEPTH];
+
+    // Per-depth state of the byte source engine: global offset where the value ends, and the packed tag.
+    private long[] streamEndStack = new long[INITIAL_DEPTH];
+    private int[] streamTagStack = new int[INITIAL_DEPTH];
+
+    // Reused for every primitive value handed to a flyweight listener.
+    private final ValueView valueView = new ValueView();
+
+    // Reused for every header decoded by any of the engines.
+    private final TLVHeader header = new TLVHeader();
+
+    /**
+     * Creates a streamer that uses the {@link #DEFAULT_MAPPING_WINDOW} for file processing.
+     */
+    public TLVEventStreamer() {
+        this(DEFAULT_MAPPING_WINDOW);
+    }
+
+    /**
+     * Creates a streamer with a custom mapping window for file processing.
+     *
+     * @param mappingWindowSize The maximum number of bytes mapped at once. Bounds the size of a single top-level record.
+     */
+    public TLVEventStreamer(int mappingWindowSize) {
+        if (mappingWindowSize <= 0) {
+            throw new IllegalArgumentException("Mapping window size must be positive: " + mappingWindowSize);
+        }
+        this.mappingWindowSize = mappingWindowSize;
+    }
+
     /**
      * Processes the entire input stream and sends events to the provided listener.
      *
@@ -35,154 +97,383 @@ public class TLVEventStreamer {
      * @throws CorruptTLVException If the TLV structure is malformed (e.g., unexpected end of stream).
      */
     public void process(InputStream inputStream, TLVListener listener) throws IOException, ASN1ProcessingException {
-        // The initial call processes until the stream ends.
-        processRecursive(inputStream, listener, Long.MAX_VALUE, "root"); // Assuming "root" for top-level path
+        process(inputStream, new TLVListenerAdapter(listener));
+    }
+
+    /**
+     * Processes the entire input stream and sends allocation-free events to the provided listener.
+     * <p>
+     * The stream is read in blocks through a {@link StreamByteSource}; see {@link #process(ByteSource, TLVFlyweightListener)}.
+     * The stream is not closed.
+     *
+     * @param inputStream The binary data stream to process.
+     * @param listener    The listener that will receive TLV events.
+     * @throws IOException         If an I/O error occurs while reading from the stream.
+     * @throws CorruptTLVException If the TLV structure is malformed (e.g., unexpected end of stream).
+     */
+    public void process(InputStream inputStream, TLVFlyweightListener listener) throws IOException, ASN1ProcessingException {
+        process(new StreamByteSource(inputStream), listener);
     }
 
     /**
-     * A recursive helper to process a bounded part of the stream, used for handling constructed types.
+     * Processes all bytes of a source and sends allocation-free events to the provided listener.
+     * <p>
+     * Headers are decoded directly from the source's current block, and primitive values are exposed through a
+     * single reused {@link ValueView} over that block, so no bytes are copied unless a header or value straddles
+     * two blocks. Nesting is tracked on an explicit stack of value end offsets and tags rather than by recursion,
+     * so deeply nested input cannot overflow the call stack; the tag path is only rebuilt from that stack when an
+     * exception is thrown. The source is not closed.
      *
-     * @param inputStream   The stream to read from.
-     * @param listener      The listener for events.
-     * @param bytesToProcess The number of bytes that constitute the current constructed element's value.
-     * @param currentPath   The current ASN.1 path for context in exceptions.
-     * @return The total number of bytes read during this invocation.
+     * @param source   The bytes to process.
+     * @param listener The listener that will receive TLV events.
+     * @throws IOException         If an I/O error occurs while reading from the source.
+     * @throws CorruptTLVException If the TLV structure is malformed (e.g., unexpected end of data).
      */
-    private long processRecursive(InputStream inputStream, TLVListener listener, long bytesToProcess, String currentPath) throws IOException, ASN1ProcessingException {
-        long localBytesRead = 0;
-        long tagStartOffset;
+    public void process(ByteSource source, TLVFlyweightListener listener) throws IOException, ASN1ProcessingException {
+        ByteBuffer buf = source.buffer();
+        int pos = 0;
+        int depth = 0;
 
-        while (localBytesRead < bytesToProcess) {
-            tagStartOffset = this.bytesRead;
-            int firstTagByte = inputStream.read();
+        while (true) {
+            // Close every element whose value ends at the current position.
+            while (depth > 0 && source.blockOffset() + pos == streamEndStack[depth - 1]) {
+                depth--;
+                try {
+                    listener.onEndTag(streamTagStack[depth]);
+                } catch (Exception e) {
+                    throw new ASN1ProcessingException("Listener failed onEndTag for tag " + Tags.toHex(streamTagStack[depth]), source.blockOffset() + pos, buildStreamPath(depth), e);
+                }
+            }
 
-            if (firstTagByte == -1) {
-                if (bytesToProcess != Long.MAX_VALUE && localBytesRead < bytesToProcess) {
-                    throw new CorruptTLVException("Unexpected end of stream while processing a constructed type.", this.bytesRead, currentPath, null);
+            // Make sure a complete header is in the block, so that it never has to be parsed across blocks.
+            if (buf.limit() - pos < TLVHeader.MAX_LENGTH) {
+                pos = source.fill(pos, TLVHeader.MAX_LENGTH);
+                buf = source.buffer();
+                if (pos == buf.limit()) {
+                    if (depth > 0) {
+                        throw new CorruptTLVException("Unexpected end of data while processing a constructed type.", source.blockOffset() + pos, buildStreamPath(depth), null);
+                    }
+                    this.bytesRead = source.blockOffset() + pos;
+                    return;
                 }
-                break;
             }
-            this.bytesRead++;
-            localBytesRead++;
+            final long base = source.blockOffset();
+            final int limit = buf.limit();
+            final long tagStartOffset = base + pos;
+
+            int status = header.decode(buf, pos, limit);
+            if (status != TLVHeader.OK) {
+                throw header.error(status, base, buildStreamPath(depth));
+            }
+            final int tag = header.tag();
+            final long length = header.length();
+            pos = header.valueIndex();
 
-            byte[] tag = {(byte) firstTagByte};
-            boolean isConstructed = (firstTagByte & 0x20) != 0;
+            long valueEnd = base + pos + length;
+            if (depth > 0 && valueEnd > streamEndStack[depth - 1]) {
+                throw new CorruptTLVException(
+                        String.format("Element with tag %s and declared length %d exceeds its enclosing element by %d bytes.",
+                                Tags.toHex(tag), length, valueEnd - streamEndStack[depth - 1]),
+                        tagStartOffset, buildStreamPath(depth), null);
+            }
 
-            // Store current global offset before parsing length, as parseLength also increments bytesRead
-            long lengthFieldStartOffset = this.bytesRead;
-            int length;
+            boolean accepted;
             try {
-                length = parseLength(inputStream);
-            } catch (CorruptTLVException e) {
-                // Enhance exception with current context
-                throw new CorruptTLVException(e.getMessage(), e.getByteOffset(), currentPath + ".length", e.getCause());
+                accepted = listener.acceptElement(tag, (int) length, tagStartOffset);
+            } catch (Exception e) {
+                throw new ASN1ProcessingException("Listener failed acceptElement for tag " + Tags.toHex(tag), tagStartOffset, buildStreamPath(depth), e);
+            }
+            if (!accepted) {
+                // Skipped by length: nothing below this element is read.
+                pos = source.skip(pos, length);
+                buf = source.buffer();
+                if (pos < 0) {
+                    throw new CorruptTLVException(String.format("Expected to skip %d bytes of value, but data ended first.", length),
+                            tagStartOffset, buildStreamPath(depth), null);
+                }
+                continue;
             }
-            // localBytesRead for length field is accounted for by parseLength's increment of this.bytesRead
-            // and then taking the difference if needed, but simpler to track overall consumption.
 
             try {
-                listener.onStartTag(tag, length, isConstructed, tagStartOffset);
+                listener.onStartTag(tag, header.headerLength(), (int) length, tagStartOffset);
             } catch (Exception e) { // Listener can throw generic Exception as per its signature
-                 throw new ASN1ProcessingException("Listener failed onStartTag for tag " + bytesToHex(tag), tagStartOffset, currentPath, e);
+                 throw new ASN1ProcessingException("Listener failed onStartTag for tag " + Tags.toHex(tag), tagStartOffset, buildStreamPath(depth), e);
             }
 
+            if (depth == streamEndStack.length) {
+                streamEndStack = Arrays.copyOf(streamEndStack, depth * 2);
+                streamTagStack = Arrays.copyOf(streamTagStack, depth * 2);
+            }
+            streamEndStack[depth] = valueEnd;
+            streamTagStack[depth] = tag;
+            depth++;
 
-            if (isConstructed) {
-                String nextPath = currentPath + "." + bytesToHex(tag); // Example path segment
-                long nestedBytesRead = processRecursive(inputStream, listener, length, nextPath);
-                if (nestedBytesRead != length) {
-                     throw new CorruptTLVException(
-                                String.format("Constructed type with tag %s and declared length %d contained %d bytes.", bytesToHex(tag), length, nestedBytesRead),
-                                tagStartOffset, nextPath, null);
-                }
-                localBytesRead += nestedBytesRead; // Value bytes are the sum of children's full TLV sizes
-            } else {
-                if (length > 0) {
-                    byte[] value = readValue(inputStream, length, currentPath + "." + bytesToHex(tag) + ".value");
-                    try {
-                        listener.onPrimitiveValue(value);
-                    } catch (Exception e) {
-                        throw new ASN1ProcessingException("Listener failed onPrimitiveValue for tag " + bytesToHex(tag), this.bytesRead - length, currentPath, e);
-                    }
-                } else {
-                    try {
-                        listener.onPrimitiveValue(new byte[0]);
-                    } catch (Exception e) {
-                         throw new ASN1ProcessingException("Listener failed onPrimitiveValue (empty) for tag " + bytesToHex(tag), this.bytesRead, currentPath, e);
+            if (!Tags.isConstructed(tag)) {
+                if (limit - pos < length) {
+                    pos = source.fill(pos, (int) length);
+                    buf = source.buffer();
+                    if (buf.limit() - pos < length) {
+                        throw new CorruptTLVException(
+                                String.format("Expected to read %d bytes for value, but data ended after %d.", length, buf.limit() - pos),
+                                source.blockOffset() + pos, buildStreamPath(depth) + ".value", null);
                     }
                 }
-                localBytesRead += length; // Value bytes
+                try {
+                    listener.onPrimitiveValue(valueView.set(buf, pos, (int) length));
+                } catch (Exception e) {
+                    throw new ASN1ProcessingException("Listener failed onPrimitiveValue for tag " + Tags.toHex(tag), source.blockOffset() + pos, buildStreamPath(depth - 1), e);
+                }
+                pos += (int) length;
             }
+        }
+    }
 
-            try {
-                listener.onEndTag(tag);
-            } catch (Exception e) {
-                 throw new ASN1ProcessingException("Listener failed onEndTag for tag " + bytesToHex(tag), this.bytesRead, currentPath, e);
+    /**
+     * Rebuilds the tag path of the stream engine from its stack. Only used when an exception is thrown.
+     */
+    private String buildStreamPath(int depth) {
+        StringBuilder sb = new StringBuilder("root");
+        for (int i = 0; i < depth; i++) {
+            sb.append('.').append(Tags.toHex(streamTagStack[i]));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Processes an entire file by memory-mapping it and sends zero-copy events to the provided listener.
+     * <p>
+     * Tag and length headers are decoded directly from the mapped buffer; neither tags nor values are
+     * copied. The slices handed to the listener are only valid for the duration of the callback.
+     *
+     * @param file     The file to process.
+     * @param listener The listener that will receive TLV slice events.
+     * @throws IOException         If the file cannot be opened or mapped.
+     * @throws CorruptTLVException If the TLV structure is malformed or a top-level record exceeds the mapping window.
+     */
+    public void process(Path file, TLVSliceListener listener) throws IOException, ASN1ProcessingException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long windowStart = 0;
+            while (windowStart < fileSize) {
+                long windowSize = Math.min(fileSize - windowStart, mappingWindowSize);
+                boolean lastWindow = windowStart + windowSize == fileSize;
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+                int consumed = walkWindow(window, windowStart, lastWindow, listener);
+                if (consumed == 0 && !lastWindow) {
+                    throw new CorruptTLVException("Top-level record does not fit into the mapping window of " + mappingWindowSize + " bytes.",
+                            windowStart, "root", null);
+                }
+                windowStart += consumed;
             }
+            this.bytesRead = windowStart;
+        }
+    }
+
+    /**
+     * Processes an entire file by memory-mapping it and sends allocation-free events to the provided listener.
+     * Values are exposed as a {@link ValueView} directly over the mapped buffer.
+     *
+     * @param file     The file to process.
+     * @param listener The listener that will receive TLV events.
+     * @throws IOException         If the file cannot be opened or mapped.
+     * @throws CorruptTLVException If the TLV structure is malformed or a top-level record exceeds the mapping window.
+     */
+    public void process(Path file, TLVFlyweightListener listener) throws IOException, ASN1ProcessingException {
+        try (ByteSource source = new MappedFileByteSource(file, mappingWindowSize)) {
+            process(source, listener);
         }
-        return localBytesRead;
     }
 
-    private int parseLength(InputStream inputStream) throws IOException, CorruptTLVException {
-        long lengthStartOffset = this.bytesRead;
-        int firstLengthByte = inputStream.read();
-        if (firstLengthByte == -1) {
-            throw new CorruptTLVException("Unexpected end of stream while reading length.", lengthStartOffset, "currentPath.length", null);
+    /**
+     * Processes the bytes of a buffer between its position and its limit, for example one mapped
+     * chunk of a larger file, and sends allocation-free events to the provided listener.
+     *
+     * @param buffer     The buffer holding a sequence of complete top-level records.
+     * @param baseOffset The offset of the buffer's position in the original file, so that reported
+     *                   offsets stay global to the file.
+     * @param listener   The listener that will receive TLV events.
+     * @throws CorruptTLVException If the TLV structure is malformed.
+     */
+    public void process(ByteBuffer buffer, long baseOffset, TLVFlyweightListener listener) throws ASN1ProcessingException {
+        try {
+            process(new BufferByteSource(buffer, baseOffset), listener);
+        } catch (IOException e) {
+            // A resident buffer never performs I/O.
+            throw new UncheckedIOException(e);
         }
-        this.bytesRead++;
+    }
+
+    /**
+     * Scans a file for its top-level records, reading only their tag and length headers and skipping
+     * over all value bytes. This is a cheap pre-pass for building record indexes and splitting work.
+     *
+     * @param file     The file to scan.
+     * @param listener The listener that will receive one event per top-level record.
+     * @throws IOException         If the file cannot be opened or mapped.
+     * @throws CorruptTLVException If a header is malformed or a record extends beyond the end of the file.
+     */
+    public void scanRecords(Path file, TLVRecordListener listener) throws IOException, ASN1ProcessingException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long fileSize = channel.size();
+            MappedByteBuffer window = null;
+            long windowStart = 0;
+            long windowEnd = 0;
+            long offset = 0;
+
+            while (offset < fileSize) {
+                // Remap whenever the next header may cross the end of the current window.
+                if (window == null || offset + TLVHeader.MAX_LENGTH > windowEnd && windowEnd < fileSize) {
+                    windowStart = offset;
+                    windowEnd = offset + Math.min(fileSize - offset, Math.max(mappingWindowSize, TLVHeader.MAX_LENGTH));
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+                }
+                final int limit = (int) (windowEnd - windowStart);
+                final int pos = (int) (offset - windowStart);
+
+                int status = header.decode(window, pos, limit);
+                if (status != TLVHeader.OK) {
+                    throw header.error(status, windowStart, "root");
+                }
+                int tag = header.tag();
+                long length = header.length();
+                int headerLength = header.headerLength();
+                long recordEnd = offset + headerLength + length;
+                if (recordEnd > fileSize) {
+                    throw new CorruptTLVException(
+                            String.format("Top-level record with declared length %d extends %d bytes beyond the end of the file.", length, recordEnd - fileSize),
+                            offset, "root." + Tags.toHex(tag), null);
+                }
+                try {
+                    listener.onRecord(tag, offset, headerLength, (int) length);
+                } catch (Exception e) {
+                    throw new ASN1ProcessingException("Listener failed onRecord for tag " + Tags.toHex(tag), offset, "root." + Tags.toHex(tag), e);
+                }
+                offset = recordEnd;
+                if (offset >= windowEnd) {
+                    window = null;
+                }
+            }
+            this.bytesRead = offset;
+        }
+    }
+
+    /**
+     * Walks all complete top-level records of a mapped window without recursion.
+     *
+     * @param buf        The mapped window.
+     * @param base       The file offset of index 0 of the window.
+     * @param lastWindow Whether the window reaches the end of the file. Otherwise, a top-level record that
+     *                   crosses the end of the window is left for the next window.
+     * @param listener   The listener for events.
+     * @return The number of bytes consumed, always a top-level record boundary.
+     */
+    private int walkWindow(ByteBuffer buf, long base, boolean lastWindow, TLVSliceListener listener) throws ASN1ProcessingException {
+        final int limit = buf.limit();
+        int pos = 0;
+        int depth = 0;
+
+        while (true) {
+            // Close every element whose value ends at the current position.
+            while (depth > 0 && pos == endStack[depth - 1]) {
+                depth--;
+                fireEndTag(listener, buf, base, depth, pos);
+            }
+            if (depth == 0 && pos == limit) {
+                return pos;
+            }
+
+            final int bound = depth == 0 ? limit : endStack[depth - 1];
+            final int tagStart = pos;
 
-        if ((firstLengthByte & 0x80) == 0) {
-            return firstLengthByte;
-        } else {
-            int numLengthBytes = firstLengthByte & 0x7F;
-            if (numLengthBytes == 0) {
-                 throw new CorruptTLVException("Indefinite length form not supported.", lengthStartOffset, "currentPath.length", null);
+            int status = header.decode(buf, tagStart, bound);
+            if (status != TLVHeader.OK) {
+                if (depth == 0 && !lastWindow && TLVHeader.isTruncated(status)) {
+                    return tagStart; // The record continues in the next window.
+                }
+                throw header.error(status, base, buildPath(buf, depth));
             }
-            if (numLengthBytes > 4) {
-                throw new CorruptTLVException("Length field too long (max 4 bytes for int): " + numLengthBytes, lengthStartOffset, "currentPath.length", null);
+            final int tagLength = header.tagLength();
+            final boolean isConstructed = header.isConstructed();
+            final long length = header.length();
+            pos = header.valueIndex();
+
+            final long valueEnd = pos + length;
+            if (valueEnd > bound) {
+                if (depth == 0 && !lastWindow) return tagStart;
+                throw new CorruptTLVException(
+                        String.format("Element with declared length %d exceeds its enclosing element or the end of data by %d bytes.", length, valueEnd - bound),
+                        base + tagStart, buildPath(buf, depth), null);
             }
 
-            byte[] lengthBytes = readValue(inputStream, numLengthBytes, "currentPath.lengthValue");
-            int length = 0;
-            for (byte b : lengthBytes) {
-                length = (length << 8) | (b & 0xFF);
+            boolean accepted;
+            try {
+                accepted = listener.acceptElement(buf, tagStart, tagLength, (int) length, base + tagStart);
+            } catch (Exception e) {
+                throw new ASN1ProcessingException("Listener failed acceptElement for tag " + sliceToHex(buf, tagStart, tagLength), base + tagStart, buildPath(buf, depth), e);
+            }
+            if (!accepted) {
+                // Skipped by length: nothing below this element is read.
+                pos = (int) valueEnd;
+                continue;
+            }
+
+            try {
+                listener.onStartTag(buf, tagStart, tagLength, (int) length, isConstructed, base + tagStart);
+            } catch (Exception e) {
+                throw new ASN1ProcessingException("Listener failed onStartTag for tag " + sliceToHex(buf, tagStart, tagLength), base + tagStart, buildPath(buf, depth), e);
+            }
+
+            if (depth == endStack.length) {
+                growStacks();
+            }
+            endStack[depth] = (int) valueEnd;
+            tagOffsetStack[depth] = tagStart;
+            tagLengthStack[depth] = tagLength;
+            depth++;
+
+            if (!isConstructed) {
+                try {
+                    listener.onPrimitiveValue(buf, pos, (int) length);
+                } catch (Exception e) {
+                    throw new ASN1ProcessingException("Listener failed onPrimitiveValue for tag " + sliceToHex(buf, tagStart, tagLength), base + pos, buildPath(buf, depth - 1), e);
+                }
+                pos = (int) valueEnd;
             }
-            // Check for impossibly large lengths if needed, e.g., if length would cause int overflow during accumulation.
-            // For now, numLengthBytes > 4 handles this for standard int.
-            return length;
         }
     }
 
-    private byte[] readValue(InputStream inputStream, int length, String pathContext) throws IOException, CorruptTLVException {
-        if (length < 0) {
-            throw new CorruptTLVException("Invalid negative length specified: " + length, this.bytesRead, pathContext, null);
+    private void fireEndTag(TLVSliceListener listener, ByteBuffer buf, long base, int depth, int pos) throws ASN1ProcessingException {
+        try {
+            listener.onEndTag(buf, tagOffsetStack[depth], tagLengthStack[depth]);
+        } catch (Exception e) {
+            throw new ASN1ProcessingException("Listener failed onEndTag for tag " + sliceToHex(buf, tagOffsetStack[depth], tagLengthStack[depth]),
+                    base + pos, buildPath(buf, depth), e);
         }
-        byte[] value = new byte[length];
-        int totalBytesActuallyRead = 0;
-        int bytesReadThisTime;
+    }
 
-        long valueStartOffset = this.bytesRead;
+    private void growStacks() {
+        int newSize = endStack.length * 2;
+        endStack = Arrays.copyOf(endStack, newSize);
+        tagOffsetStack = Arrays.copyOf(tagOffsetStack, newSize);
+        tagLengthStack = Arrays.copyOf(tagLengthStack, newSize);
+    }
 
-        while(totalBytesActuallyRead < length) {
-            bytesReadThisTime = inputStream.read(value, totalBytesActuallyRead, length - totalBytesActuallyRead);
-            if (bytesReadThisTime == -1) {
-                 throw new CorruptTLVException(
-                    String.format("Expected to read %d bytes for value, but stream ended after %d at path %s.", length, totalBytesActuallyRead, pathContext),
-                    valueStartOffset, pathContext, null);
-            }
-            totalBytesActuallyRead += bytesReadThisTime;
+    /**
+     * Rebuilds the tag path of the mapped walker from its stack. Only used when an exception is thrown.
+     */
+    private String buildPath(ByteBuffer buf, int depth) {
+        StringBuilder sb = new StringBuilder("root");
+        for (int i = 0; i < depth; i++) {
+            sb.append('.').append(sliceToHex(buf, tagOffsetStack[i], tagLengthStack[i]));
         }
-        this.bytesRead += totalBytesActuallyRead; // totalBytesActuallyRead should be equal to length here
-        return value;
+        return sb.toString();
     }
 
-    // Helper to convert byte array to hex string for logging/exceptions
-    private static String bytesToHex(byte[] bytes) {
-        if (bytes == null) return "null";
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(String.format("%02X", b));
+    private static String sliceToHex(ByteBuffer buf, int offset, int length) {
+        StringBuilder sb = new StringBuilder(length * 2);
+        for (int i = offset; i < offset + length; i++) {
+            sb.append(String.format("%02X", buf.get(i)));
         }
         return sb.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package com.gamma.asn1.core.tlv;
+
+/**
+ * An allocation-free alternative to {@link TLVListener}.
+ * <p>
+ * Tags arrive as packed {@code int}s (see {@link Tags}) and primitive values arrive as a reusable,
+ * read-only {@link ValueView} over the streamer's buffer. Neither requires an allocation per element.
+ * The view is only valid for the duration of the {@link #onPrimitiveValue(ValueView)} call.
+ */
+public interface TLVFlyweightListener {
+
+    /**
+     * Called for every element before {@link #onStartTag}. Returning {@code false} makes the streamer skip
+     * the element by its declared length: neither its value nor any nested element is read or reported,
+     * and no start or end event is sent for it.
+     * @param tag The packed tag, including the constructed bit.
+     * @param length The length of the value field.
+     * @param offset The starting byte offset of this tag in the original stream.
+     * @return {@code true} to receive events for the element, {@code false} to skip it.
+     * @throws Exception if an error occurs during processing.
+     */
+    default boolean acceptElement(int tag, int length, long offset) throws Exception {
+        return true;
+    }
+
+    /**
+     * Called when a new TLV tag is encountered.
+     * @param tag The packed tag, including the constructed bit.
+     * @param length The length of the value field.
+     * @param offset The starting byte offset of this tag in the original stream.
+     * @throws Exception if an error occurs during processing.
+     */
+    void onStartTag(int tag, int length, long offset) throws Exception;
+
+    /**
+     * Called by producers that know the size of the element's header, such as the {@link TLVEventStreamer},
+     * instead of {@link #onStartTag(int, int, long)}. The element ends at {@code offset + headerLength + length}.
+     * The default implementation ignores the header length.
+     * @param tag The packed tag, including the constructed bit.
+     * @param headerLength The number of identifier and length octets.
+     * @param length The length of the value field.
+     * @param offset The starting byte offset of this tag in the original stream.
+     * @throws Exception if an error occurs during processing.
+     */
+    default void onStartTag(int tag, int headerLength, int length, long offset) throws Exception {
+        onStartTag(tag, length, offset);
+    }
+
+    /**
+     * Called when a primitive (non-constructed) value is read.
+     * @param value A view of the raw bytes of the primitive value. Must not be retained after the call returns.
+     * @throws Exception if an error occurs during processing.
+     */
+    void onPrimitiveValue(ValueView value) throws Exception;
+
+    /**
+     * Called when the end of a tag's scope is reached.
+     * @param tag The packed tag that is now ending.
+     * @throws Exception if an error occurs during processing.
+     */
+    void onEndTag(int tag) throws Exception;
+
+}
@@ -0,0 +1,228 @@
+package com.gamma.asn1.core.tlv;
+
+import com.gamma.asn1.core.exception.CorruptTLVException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes BER tag and length headers. This is the one header parser of the library: the streamer's loops over
+ * byte sources and mapped windows, the record scanner and {@link com.gamma.asn1.core.mapper.LazyDecodedNode} all
+ * decode headers with it.
+ * <p>
+ * {@link #decode} reads a header at an absolute index of a buffer and reports the outcome as a status code instead
+ * of throwing, so that a caller can treat a header cut off by the end of its data as "need more bytes" and build
+ * the tag path for an exception only when one is needed. On success the header's fields hold the packed tag, the
+ * length and the index of the value. The instance is reused for every header, so decoding does not allocate.
+ * <p>
+ * Identifier octets may use the high-tag-number form with up to 4 subsequent octets; lengths must use the
+ * definite form with up to 4 length octets and fit into an {@code int}.
+ */
+public final class TLVHeader {
+
+    /** The longest header accepted: 1 + 4 identifier octets and 1 + 4 length octets. */
+    public static final int MAX_LENGTH = 10;
+
+    /** The header was decoded. */
+    public static final int OK = 0;
+    /** The data ended inside the identifier octets. */
+    public static final int TRUNCATED_TAG = 1;
+    /** The data ended inside the length octets. */
+    public static final int TRUNCATED_LENGTH = 2;
+    /** The tag number has more than 4 subsequent octets. */
+    public static final int TAG_TOO_LARGE = 3;
+    /** The length uses the indefinite form. */
+    public static final int INDEFINITE_LENGTH = 4;
+    /** The length has more than 4 length octets. */
+    public static final int LENGTH_TOO_LONG = 5;
+    /** The declared length does not fit into an {@code int}. */
+    public static final int LENGTH_TOO_LARGE = 6;
+
+    private int tag;
+    private int tagLength;
+    private int length;
+    private int startIndex;
+    private int valueIndex;
+    private int errorIndex;
+    private long invalidLength;
+
+    /**
+     * Decodes the header starting at an index.
+     *
+     * @param buf   The buffer holding the header; read with absolute indices, its position is unused.
+     * @param index The absolute index of the first identifier octet.
+     * @param bound The index the header must end before, e.g. the buffer limit or the end of the enclosing value.
+     * @return {@link #OK} or one of the error statuses; see {@link #isTruncated} and {@link #error}.
+     */
+    public int decode(ByteBuffer buf, int index, int bound) {
+        startIndex = index;
+        int pos = index;
+        if (pos >= bound) {
+            errorIndex = pos;
+            return TRUNCATED_TAG;
+        }
+
+        // Identifier octets, including the high-tag-number form.
+        int first = buf.get(pos++) & 0xFF;
+        if ((first & 0x1F) != 0x1F) {
+            tag = ((first >>> 6) << 30) | ((first & 0x20) != 0 ? Tags.CONSTRUCTED : 0) | (first & 0x1F);
+        } else {
+            int number = 0;
+            int subsequentBytes = 0;
+            int b;
+            do {
+                if (pos >= bound) {
+                    errorIndex = pos;
+                    return TRUNCATED_TAG;
+                }
+                b = buf.get(pos++) & 0xFF;
+                if (++subsequentBytes > 4) {
+                    errorIndex = index;
+                    return TAG_TOO_LARGE;
+                }
+                number = (number << 7) | (b & 0x7F);
+            } while ((b & 0x80) != 0);
+            tag = Tags.pack(first >>> 6, (first & 0x20) != 0, number);
+        }
+        tagLength = pos - index;
+
+        // Length octets.
+        if (pos >= bound) {
+            errorIndex = pos;
+            return TRUNCATED_LENGTH;
+        }
+        int firstLengthByte = buf.get(pos++) & 0xFF;
+        if ((firstLengthByte & 0x80) == 0) {
+            length = firstLengthByte;
+        } else {
+            int numLengthBytes = firstLengthByte & 0x7F;
+            if (numLengthBytes == 0) {
+                errorIndex = pos - 1;
+                return INDEFINITE_LENGTH;
+            }
+            if (numLengthBytes > 4) {
+                errorIndex = pos - 1;
+                invalidLength = numLengthBytes;
+                return LENGTH_TOO_LONG;
+            }
+            if (pos + numLengthBytes > bound) {
+                errorIndex = pos;
+                return TRUNCATED_LENGTH;
+            }
+            long value = 0;
+            for (int i = 0; i < numLengthBytes; i++) {
+                value = (value << 8) | (buf.get(pos++) & 0xFF);
+            }
+            if (value > Integer.MAX_VALUE) {
+                errorIndex = index;
+                invalidLength = value;
+                return LENGTH_TOO_LARGE;
+            }
+            length = (int) value;
+        }
+        valueIndex = pos;
+        return OK;
+    }
+
+    /**
+     * Computes the size of the shortest header for an element, as written by a DER encoder. Used where only the
+     * tag and length of an element are known; a BER header may be longer.
+     *
+     * @param tag    The packed tag.
+     * @param length The length of the value.
+     * @return The number of identifier and length octets.
+     */
+    public static int minimalLength(int tag, int length) {
+        int headerLength = 2;
+        if (Tags.number(tag) >= 0x1F) {
+            for (int n = Tags.number(tag); n != 0; n >>>= 7) {
+                headerLength++;
+            }
+        }
+        if (length >= 0x80) {
+            for (int n = length; n != 0; n >>>= 8) {
+                headerLength++;
+            }
+        }
+        return headerLength;
+    }
+
+    /**
+     * @param status A status returned by {@link #decode}.
+     * @return {@code true} if the header was cut off by the bound, so it may be complete with more data.
+     */
+    public static boolean isTruncated(int status) {
+        return status == TRUNCATED_TAG || status == TRUNCATED_LENGTH;
+    }
+
+    /**
+     * Creates the exception describing a failed {@link #decode}.
+     *
+     * @param status The status returned by {@link #decode}; not {@link #OK}.
+     * @param base   The offset in the original input of index 0 of the decoded buffer.
+     * @param path   The tag path of the enclosing element; {@code ".length"} is appended for length errors.
+     * @return The exception.
+     */
+    public CorruptTLVException error(int status, long base, String path) {
+        long offset = base + errorIndex;
+        switch (status) {
+            case TRUNCATED_TAG:
+                return new CorruptTLVException(errorIndex == startIndex
+                        ? "Unexpected end of data while reading a tag."
+                        : "Unexpected end of data while reading a multi-byte tag.", offset, path, null);
+            case TAG_TOO_LARGE:
+                return new CorruptTLVException("Tag number too large (more than 4 subsequent octets).", offset, path, null);
+            case TRUNCATED_LENGTH:
+                return new CorruptTLVException("Unexpected end of data while reading length.", offset, path + ".length", null);
+            case INDEFINITE_LENGTH:
+                return new CorruptTLVException("Indefinite length form not supported.", offset, path + ".length", null);
+            case LENGTH_TOO_LONG:
+                return new CorruptTLVException("Length field too long (max 4 bytes for int): " + invalidLength, offset, path + ".length", null);
+            case LENGTH_TOO_LARGE:
+                return new CorruptTLVException("Declared length " + invalidLength + " exceeds the supported maximum.", offset, path, null);
+            default:
+                throw new IllegalArgumentException("Not an error status: " + status);
+        }
+    }
+
+    /**
+     * @return The packed tag, including the constructed bit; see {@link Tags}.
+     */
+    public int tag() {
+        return tag;
+    }
+
+    /**
+     * @return The number of identifier octets.
+     */
+    public int tagLength() {
+        return tagLength;
+    }
+
+    /**
+     * @return The declared length of the value.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return {@code true} if the element is constructed.
+     */
+    public boolean isConstructed() {
+        return Tags.isConstructed(tag);
+    }
+
+    /**
+     * @return The absolute index of the first byte of the value.
+     */
+    public int valueIndex() {
+        return valueIndex;
+    }
+
+    /**
+     * @return The number of header bytes, identifier and length octets together.
+     */
+    public int headerLength() {
+        return valueIndex - startIndex;
+    }
+}
@@ -0,0 +1,29 @@
+package com.gamma.asn1.core.tlv;
+
+/**
+ * Bridges the flyweight event stream to a classic {@link TLVListener}, materializing tags and
+ * values as fresh arrays for every element.
+ */
+final class TLVListenerAdapter implements TLVFlyweightListener {
+
+    private final TLVListener delegate;
+
+    TLVListenerAdapter(TLVListener delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void onStartTag(int tag, int length, long offset) throws Exception {
+        delegate.onStartTag(Tags.toBytes(tag), length, Tags.isConstructed(tag), offset);
+    }
+
+    @Override
+    public void onPrimitiveValue(ValueView value) throws Exception {
+        delegate.onPrimitiveValue(value.toByteArray());
+    }
+
+    @Override
+    public void onEndTag(int tag) throws Exception {
+        delegate.onEndTag(Tags.toBytes(tag));
+    }
+}
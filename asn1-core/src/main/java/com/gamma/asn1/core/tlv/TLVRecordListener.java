@@ -0,0 +1,19 @@
+package com.gamma.asn1.core.tlv;
+
+/**
+ * Receives the top-level record headers found by {@link TLVEventStreamer#scanRecords}. Value bytes are
+ * never read, so no events are delivered for nested elements.
+ */
+@FunctionalInterface
+public interface TLVRecordListener {
+
+    /**
+     * Called for every top-level record, in file order.
+     * @param tag The packed tag of the record, see {@link Tags}.
+     * @param offset The byte offset of the record's first identifier octet in the file.
+     * @param headerLength The number of identifier and length octets.
+     * @param length The length of the record's value field.
+     * @throws Exception if an error occurs during processing.
+     */
+    void onRecord(int tag, long offset, int headerLength, int length) throws Exception;
+}
@@ -0,0 +1,61 @@
+package com.gamma.asn1.core.tlv;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A zero-copy variant of {@link TLVListener} used by the memory-mapped file mode of the {@link TLVEventStreamer}.
+ * <p>
+ * Instead of freshly allocated arrays, every event carries a slice of the underlying buffer
+ * (buffer + offset + length). The buffer is shared with the streamer and is only guaranteed to
+ * hold the described bytes for the duration of the callback; listeners that need to keep a tag or
+ * value must copy it. Offsets into the buffer are absolute indexes and are independent of the
+ * buffer's position and limit.
+ */
+public interface TLVSliceListener {
+
+    /**
+     * Called for every element before {@link #onStartTag}. Returning {@code false} makes the streamer skip
+     * the element by its declared length without reporting it or anything nested in it.
+     * @param buffer The buffer holding the tag bytes.
+     * @param tagOffset The index of the first identifier octet in {@code buffer}.
+     * @param tagLength The number of identifier octets.
+     * @param length The length of the value field.
+     * @param offset The starting byte offset of this tag in the original file.
+     * @return {@code true} to receive events for the element, {@code false} to skip it.
+     * @throws Exception if an error occurs during processing.
+     */
+    default boolean acceptElement(ByteBuffer buffer, int tagOffset, int tagLength, int length, long offset) throws Exception {
+        return true;
+    }
+
+    /**
+     * Called when a new TLV tag is encountered.
+     * @param buffer The buffer holding the tag bytes.
+     * @param tagOffset The index of the first identifier octet in {@code buffer}.
+     * @param tagLength The number of identifier octets.
+     * @param length The length of the value field.
+     * @param isConstructed True if the value contains more TLV structures, false if it's a primitive.
+     * @param offset The starting byte offset of this tag in the original file.
+     * @throws Exception if an error occurs during processing.
+     */
+    void onStartTag(ByteBuffer buffer, int tagOffset, int tagLength, int length, boolean isConstructed, long offset) throws Exception;
+
+    /**
+     * Called when a primitive (non-constructed) value is read.
+     * @param buffer The buffer holding the value bytes.
+     * @param valueOffset The index of the first value byte in {@code buffer}.
+     * @param valueLength The number of value bytes, possibly zero.
+     * @throws Exception if an error occurs during processing.
+     */
+    void onPrimitiveValue(ByteBuffer buffer, int valueOffset, int valueLength) throws Exception;
+
+    /**
+     * Called when the end of a tag's scope is reached.
+     * @param buffer The buffer holding the tag bytes.
+     * @param tagOffset The index of the first identifier octet in {@code buffer}.
+     * @param tagLength The number of identifier octets.
+     * @throws Exception if an error occurs during processing.
+     */
+    void onEndTag(ByteBuffer buffer, int tagOffset, int tagLength) throws Exception;
+
+}
@@ -0,0 +1,178 @@
+package com.gamma.asn1.core.tlv;
+
+import com.gamma.asn1.model.TagClass;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Utility methods for the packed {@code int} tag representation used by {@link TLVFlyweightListener}.
+ * <p>
+ * A packed tag holds the complete identifier of a TLV element without any allocation:
+ * <pre>
+ *  bits 31-30  tag class (0 = UNIVERSAL, 1 = APPLICATION, 2 = CONTEXT_SPECIFIC, 3 = PRIVATE)
+ *  bit  29     constructed flag
+ *  bits 28-0   tag number
+ * </pre>
+ * The class values follow the BER encoding, so they line up with {@link TagClass#ordinal()}.
+ */
+public final class Tags {
+
+    /** Bit set in a packed tag when the element is constructed. */
+    public static final int CONSTRUCTED = 1 << 29;
+
+    /** Largest tag number that fits into a packed tag. */
+    public static final int MAX_TAG_NUMBER = CONSTRUCTED - 1;
+
+    private static final int CLASS_SHIFT = 30;
+    private static final TagClass[] TAG_CLASSES = TagClass.values();
+
+    private Tags() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Packs a tag.
+     * @param tagClass The BER tag class, 0 to 3.
+     * @param constructed Whether the element is constructed.
+     * @param tagNumber The tag number, 0 to {@link #MAX_TAG_NUMBER}.
+     * @return The packed tag.
+     */
+    public static int pack(int tagClass, boolean constructed, int tagNumber) {
+        if (tagClass < 0 || tagClass > 3) {
+            throw new IllegalArgumentException("Tag class must be between 0 and 3: " + tagClass);
+        }
+        if (tagNumber < 0 || tagNumber > MAX_TAG_NUMBER) {
+            throw new IllegalArgumentException("Tag number out of range: " + tagNumber);
+        }
+        return (tagClass << CLASS_SHIFT) | (constructed ? CONSTRUCTED : 0) | tagNumber;
+    }
+
+    /**
+     * Packs a tag.
+     * @param tagClass The tag class.
+     * @param constructed Whether the element is constructed.
+     * @param tagNumber The tag number, 0 to {@link #MAX_TAG_NUMBER}.
+     * @return The packed tag.
+     */
+    public static int pack(TagClass tagClass, boolean constructed, int tagNumber) {
+        return pack(tagClass.ordinal(), constructed, tagNumber);
+    }
+
+    /**
+     * @param tag A packed tag.
+     * @return The BER tag class, 0 to 3.
+     */
+    public static int tagClass(int tag) {
+        return tag >>> CLASS_SHIFT;
+    }
+
+    /**
+     * @param tag A packed tag.
+     * @return The tag class as an enum constant.
+     */
+    public static TagClass tagClassOf(int tag) {
+        return TAG_CLASSES[tag >>> CLASS_SHIFT];
+    }
+
+    /**
+     * @param tag A packed tag.
+     * @return {@code true} if the constructed bit is set.
+     */
+    public static boolean isConstructed(int tag) {
+        return (tag & CONSTRUCTED) != 0;
+    }
+
+    /**
+     * @param tag A packed tag.
+     * @return The tag number.
+     */
+    public static int number(int tag) {
+        return tag & MAX_TAG_NUMBER;
+    }
+
+    /**
+     * Strips the constructed bit, leaving only the (class, number) pair that identifies a type.
+     * @param tag A packed tag.
+     * @return The packed tag without the constructed bit.
+     */
+    public static int withoutConstructed(int tag) {
+        return tag & ~CONSTRUCTED;
+    }
+
+    /**
+     * Decodes BER identifier octets held in a buffer.
+     * @param buffer The buffer holding the identifier octets.
+     * @param offset The absolute index of the first identifier octet.
+     * @param length The number of identifier octets.
+     * @return The packed tag.
+     */
+    public static int decode(ByteBuffer buffer, int offset, int length) {
+        int first = buffer.get(offset) & 0xFF;
+        int number = first & 0x1F;
+        if (number == 0x1F) {
+            number = 0;
+            for (int i = offset + 1; i < offset + length; i++) {
+                number = (number << 7) | (buffer.get(i) & 0x7F);
+            }
+        }
+        return ((first >>> 6) << CLASS_SHIFT) | ((first & 0x20) != 0 ? CONSTRUCTED : 0) | (number & MAX_TAG_NUMBER);
+    }
+
+    /**
+     * Decodes BER identifier octets.
+     * @param identifier The complete identifier octets.
+     * @return The packed tag.
+     */
+    public static int fromBytes(byte[] identifier) {
+        if (identifier == null || identifier.length == 0) {
+            throw new IllegalArgumentException("Identifier octets cannot be null or empty.");
+        }
+        return decode(ByteBuffer.wrap(identifier), 0, identifier.length);
+    }
+
+    /**
+     * Encodes a packed tag as BER identifier octets.
+     * @param tag A packed tag.
+     * @return A new array holding the identifier octets.
+     */
+    public static byte[] toBytes(int tag) {
+        int leading = (tagClass(tag) << 6) | (isConstructed(tag) ? 0x20 : 0);
+        int number = number(tag);
+        if (number < 0x1F) {
+            return new byte[]{(byte) (leading | number)};
+        }
+        int subsequent = 1;
+        for (int n = number >>> 7; n != 0; n >>>= 7) {
+            subsequent++;
+        }
+        byte[] bytes = new byte[1 + subsequent];
+        bytes[0] = (byte) (leading | 0x1F);
+        for (int i = subsequent; i >= 1; i--) {
+            bytes[i] = (byte) ((number & 0x7F) | (i == subsequent ? 0 : 0x80));
+            number >>>= 7;
+        }
+        return bytes;
+    }
+
+    /**
+     * Formats a packed tag as the hex string of its identifier octets, e.g. {@code "BF1F"}.
+     * @param tag A packed tag.
+     * @return The hex string.
+     */
+    public static String toHex(int tag) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : toBytes(tag)) {
+            sb.append(String.format("%02X", b));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Formats a packed tag in ASN.1 notation, e.g. {@code "[CONTEXT_SPECIFIC 3]"}.
+     * @param tag A packed tag.
+     * @return The human-readable tag.
+     */
+    public static String toString(int tag) {
+        return "[" + tagClassOf(tag).name() + " " + number(tag) + "]" + (isConstructed(tag) ? " constructed" : "");
+    }
+}
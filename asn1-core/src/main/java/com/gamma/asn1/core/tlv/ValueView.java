@@ -0,0 +1,120 @@
+package com.gamma.asn1.core.tlv;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * A reusable, read-only view over a range of bytes in a shared buffer.
+ * <p>
+ * The {@link TLVEventStreamer} hands the same instance to {@link TLVFlyweightListener#onPrimitiveValue}
+ * for every primitive, repositioned over its own buffer. A view is therefore only valid for the duration
+ * of the callback that received it; consumers that need the bytes later must copy them with
+ * {@link #copyTo(byte[], int)} or {@link #toByteArray()}.
+ */
+public final class ValueView {
+
+    private ByteBuffer buffer;
+    private int offset;
+    private int length;
+
+    /**
+     * Creates an empty view. It must be positioned with {@link #set(ByteBuffer, int, int)} before use.
+     */
+    public ValueView() {
+        this.length = 0;
+    }
+
+    /**
+     * Repositions this view. Does not copy any bytes.
+     *
+     * @param buffer The backing buffer. Callers should pass a read-only buffer if the view is handed to third parties.
+     * @param offset The absolute index of the first byte.
+     * @param length The number of bytes.
+     * @return This view.
+     */
+    public ValueView set(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    /**
+     * @return The number of bytes in the view.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return {@code true} if the view holds no bytes.
+     */
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    /**
+     * Reads a byte of the view.
+     * @param index The index relative to the start of the view.
+     * @return The byte.
+     */
+    public byte get(int index) {
+        return buffer.get(offset + Objects.checkIndex(index, length));
+    }
+
+    /**
+     * Reads a byte of the view as an unsigned value.
+     * @param index The index relative to the start of the view.
+     * @return The byte, 0 to 255.
+     */
+    public int getUnsigned(int index) {
+        return get(index) & 0xFF;
+    }
+
+    /**
+     * @return The shared backing buffer. Use absolute reads starting at {@link #offset()}.
+     */
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * @return The absolute index of the first byte of the view in {@link #buffer()}.
+     */
+    public int offset() {
+        return offset;
+    }
+
+    /**
+     * Copies the bytes of the view into an array.
+     * @param dst The destination array.
+     * @param dstOffset The index in {@code dst} of the first byte written.
+     */
+    public void copyTo(byte[] dst, int dstOffset) {
+        Objects.checkFromIndexSize(dstOffset, length, dst.length);
+        for (int i = 0; i < length; i++) {
+            dst[dstOffset + i] = buffer.get(offset + i);
+        }
+    }
+
+    /**
+     * @return A new array holding a copy of the bytes of the view.
+     */
+    public byte[] toByteArray() {
+        byte[] copy = new byte[length];
+        copyTo(copy, 0);
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        if (length == 0) {
+            return "[empty]";
+        }
+        StringBuilder sb = new StringBuilder(length * 2);
+        for (int i = 0; i < length; i++) {
+            sb.append(String.format("%02X", buffer.get(offset + i)));
+        }
+        return sb.toString();
+    }
+}
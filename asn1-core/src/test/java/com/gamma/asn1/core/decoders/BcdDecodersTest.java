@@ -0,0 +1,112 @@
+package com.gamma.asn1.core.decoders;
+
+import com.gamma.asn1.core.exception.DecoderException;
+import com.gamma.asn1.core.tlv.ValueView;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BcdDecodersTest {
+
+    // IMSI 262011234567890 as TBCD: the first digit of each pair in the low nibble, a filler after the odd digit.
+    private static final byte[] IMSI = {0x62, 0x02, 0x11, 0x32, 0x54, 0x76, (byte) 0x98, (byte) 0xF0};
+
+    @Test
+    void decodesTbcdWithTrailingFiller() throws DecoderException {
+        assertEquals("262011234567890", BcdDecoders.decodeTbcd(IMSI));
+        assertEquals("262011234567890", BcdDecoders.decodeTbcd(view(IMSI)));
+        assertEquals(">262011234567890", BcdDecoders.decodeTbcd(view(IMSI), new StringBuilder(">")).toString());
+    }
+
+    @Test
+    void acceptsFillerBytesAfterTheLastDigit() throws DecoderException {
+        assertEquals("123", BcdDecoders.decodeTbcd(new byte[]{0x21, (byte) 0xF3, (byte) 0xFF, (byte) 0xFF}));
+        assertEquals("12", BcdDecoders.decodeTbcd(new byte[]{0x21, (byte) 0xFF}));
+        assertEquals("", BcdDecoders.decodeTbcd(new byte[]{(byte) 0xFF}));
+        assertEquals("123", BcdDecoders.decodeBcd(new byte[]{0x12, 0x3F, (byte) 0xFF}));
+    }
+
+    @Test
+    void rejectsDigitsAfterAFiller() {
+        assertThrows(DecoderException.class, () -> BcdDecoders.decodeTbcd(new byte[]{0x3F}));
+        assertThrows(DecoderException.class, () -> BcdDecoders.decodeTbcd(new byte[]{(byte) 0xF1, 0x32}));
+        assertThrows(DecoderException.class, () -> BcdDecoders.decodeTbcd(new byte[]{0x21, (byte) 0xFF, 0x43}));
+        assertThrows(DecoderException.class, () -> BcdDecoders.decodeBcd(new byte[]{0x1F, 0x23}));
+        assertThrows(DecoderException.class, () -> BcdDecoders.decodeTbcdPacked(new byte[]{0x3F}));
+        assertThrows(DecoderException.class, () -> BcdDecoders.decodeTbcdPacked(new byte[]{0x21, (byte) 0xF3, 0x54}));
+    }
+
+    @Test
+    void decodesBcdWithTheFirstDigitInTheHighNibble() throws DecoderException {
+        byte[] bytes = {0x49, 0x17, 0x12, 0x34, 0x56, 0x7F};
+        assertEquals("49171234567", BcdDecoders.decodeBcd(bytes));
+        assertEquals("49171234567", BcdDecoders.decodeBcd(view(bytes)));
+        assertEquals("49171234567", BcdDecoders.decodeBcd(view(bytes), new StringBuilder()).toString());
+    }
+
+    @Test
+    void decodesNonDecimalNibblesAsTextButRejectsThemWhenPacked() throws DecoderException {
+        // Nibbles 0xA-0xE are '*', '#', 'a', 'b' and 'c'.
+        assertEquals("*#1abc", BcdDecoders.decodeTbcd(new byte[]{(byte) 0xBA, (byte) 0xC1, (byte) 0xED}));
+        assertThrows(DecoderException.class, () -> BcdDecoders.decodeTbcdPacked(new byte[]{0x1A}));
+        assertThrows(DecoderException.class, () -> BcdDecoders.decodeTbcdPacked(new byte[]{(byte) 0xA1}));
+        assertThrows(DecoderException.class, () -> BcdDecoders.decodeTbcdPacked(new byte[]{0x21, (byte) 0xFE}));
+    }
+
+    @Test
+    void packsUpToSixteenDigits() throws DecoderException {
+        byte[] sixteen = {0x21, 0x43, 0x65, (byte) 0x87, 0x09, 0x21, 0x43, 0x65};
+        long packed = BcdDecoders.decodeTbcdPacked(sixteen);
+        assertEquals(BcdDecoders.MAX_PACKED_DIGITS, BcdDecoders.packedLength(packed));
+        assertEquals("1234567890123456", BcdDecoders.packedToString(packed));
+
+        byte[] seventeen = {0x21, 0x43, 0x65, (byte) 0x87, 0x09, 0x21, 0x43, 0x65, (byte) 0xF7};
+        assertThrows(DecoderException.class, () -> BcdDecoders.decodeTbcdPacked(seventeen));
+        byte[] nines = {(byte) 0x99, (byte) 0x99, (byte) 0x99, (byte) 0x99, (byte) 0x99, (byte) 0x99, (byte) 0x99, (byte) 0x99};
+        assertEquals("9999999999999999", BcdDecoders.packedToString(BcdDecoders.decodeTbcdPacked(nines)));
+    }
+
+    @Test
+    void keepsLeadingZerosInThePackedForm() throws DecoderException {
+        long zeros = BcdDecoders.decodeTbcdPacked(new byte[]{0x00, (byte) 0xF1});
+        long shorter = BcdDecoders.decodeTbcdPacked(new byte[]{0x10});
+        assertEquals("001", BcdDecoders.packedToString(zeros));
+        assertEquals("01", BcdDecoders.packedToString(shorter));
+        assertEquals(3, BcdDecoders.packedLength(zeros));
+        assertFalse(zeros == shorter);
+        assertEquals("", BcdDecoders.packedToString(BcdDecoders.decodeTbcdPacked(new byte[0])));
+    }
+
+    @Test
+    void packedFormRoundTripsToTheTextForm() throws DecoderException {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            int digits = random.nextInt(BcdDecoders.MAX_PACKED_DIGITS + 1);
+            byte[] bytes = new byte[(digits + 1) / 2];
+            for (int d = 0; d < digits; d++) {
+                int digit = random.nextInt(10);
+                bytes[d / 2] |= (byte) (d % 2 == 0 ? digit : digit << 4);
+            }
+            if (digits % 2 == 1) {
+                bytes[bytes.length - 1] |= (byte) 0xF0;
+            }
+            long packed = BcdDecoders.decodeTbcdPacked(bytes);
+            assertEquals(BcdDecoders.decodeTbcd(bytes), BcdDecoders.packedToString(packed));
+            assertEquals(digits, BcdDecoders.packedLength(packed));
+            assertEquals(packed, BcdDecoders.decodeTbcdPacked(view(bytes)));
+        }
+    }
+
+    /** A view of the bytes at a non-zero offset of a larger buffer. */
+    private static ValueView view(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 5);
+        buffer.position(3);
+        buffer.put(bytes);
+        return new ValueView().set(buffer, 3, bytes.length);
+    }
+}
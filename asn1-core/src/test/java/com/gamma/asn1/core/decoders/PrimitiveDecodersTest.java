@@ -0,0 +1,120 @@
+package com.gamma.asn1.core.decoders;
+
+import com.gamma.asn1.core.exception.DecoderException;
+import com.gamma.asn1.core.tlv.ValueView;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class PrimitiveDecodersTest {
+
+    private static final byte[] APN = "internet.mnc001.mcc262.gprs".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    void decodesNullInEveryInputForm() throws DecoderException {
+        PrimitiveDecoders.decodeNull(new byte[0]);
+        PrimitiveDecoders.decodeNull(new byte[]{1, 2}, 1, 0);
+        PrimitiveDecoders.decodeNull(ByteBuffer.allocate(4), 2, 0);
+        PrimitiveDecoders.decodeNull(new ValueView().set(ByteBuffer.allocate(4), 0, 0));
+
+        assertThrows(DecoderException.class, () -> PrimitiveDecoders.decodeNull((byte[]) null));
+        assertThrows(DecoderException.class, () -> PrimitiveDecoders.decodeNull(new byte[1]));
+        assertThrows(DecoderException.class, () -> PrimitiveDecoders.decodeNull(new byte[2], 0, 1));
+        assertThrows(DecoderException.class, () -> PrimitiveDecoders.decodeNull(ByteBuffer.allocate(2), 0, 2));
+    }
+
+    @Test
+    void decodesIA5StringIntoCharArraysAndBuildersForEveryInputForm() throws DecoderException {
+        char[] expected = "internet.mnc001.mcc262.gprs".toCharArray();
+        ByteBuffer buffer = ByteBuffer.allocate(APN.length + 3);
+        buffer.position(3);
+        buffer.put(APN);
+        ValueView view = new ValueView().set(buffer, 3, APN.length);
+
+        char[] dst = new char[APN.length + 1];
+        assertEquals(APN.length, PrimitiveDecoders.decodeIA5String(APN, dst, 1));
+        assertEquals(new String(expected), new String(dst, 1, APN.length));
+        assertEquals(APN.length, PrimitiveDecoders.decodeIA5String(APN, 0, APN.length, dst, 0));
+        assertEquals(new String(expected), new String(dst, 0, APN.length));
+        assertEquals(APN.length, PrimitiveDecoders.decodeIA5String(buffer, 3, APN.length, dst, 0));
+        assertEquals(new String(expected), new String(dst, 0, APN.length));
+        char[] exact = new char[APN.length];
+        assertEquals(APN.length, PrimitiveDecoders.decodeIA5String(view, exact, 0));
+        assertArrayEquals(expected, exact);
+
+        assertEquals("x" + new String(expected), PrimitiveDecoders.decodeIA5String(APN, new StringBuilder("x")).toString());
+        assertEquals("mnc001", PrimitiveDecoders.decodeIA5String(APN, 9, 6, new StringBuilder()).toString());
+        assertEquals("mnc001", PrimitiveDecoders.decodeIA5String(buffer, 12, 6, new StringBuilder()).toString());
+        assertEquals(new String(expected), PrimitiveDecoders.decodeIA5String(view, new StringBuilder()).toString());
+        assertEquals(new String(expected), PrimitiveDecoders.decodeIA5String(view));
+    }
+
+    @Test
+    void rejectsNonAsciiWithoutWritingOutput() {
+        byte[] invalid = {'a', (byte) 0xC3, 'b'};
+        StringBuilder out = new StringBuilder();
+        assertThrows(DecoderException.class, () -> PrimitiveDecoders.decodeIA5String(invalid, out));
+        assertThrows(DecoderException.class, () -> PrimitiveDecoders.decodeIA5String(ByteBuffer.wrap(invalid), 0, 3, out));
+        assertEquals(0, out.length());
+        assertThrows(DecoderException.class, () -> PrimitiveDecoders.decodeIA5String(invalid, new char[3], 0));
+        assertThrows(DecoderException.class, () -> PrimitiveDecoders.decodeIA5String(ByteBuffer.wrap(invalid), 0, 3, new char[3], 0));
+    }
+
+    @Test
+    void decodesWithoutAllocating() throws DecoderException {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean, "thread allocation counters are not available");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled(),
+                "thread allocation counters are disabled");
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+        buffer.put(new byte[]{0x01, 0x00, 0x00, 0x00, 0x00, 0x00, (byte) 0xFF, 0x05, 0x00});
+        buffer.put(APN);
+        ValueView integer = new ValueView().set(buffer, 0, 3);
+        ValueView enumerated = new ValueView().set(buffer, 7, 1);
+        ValueView bool = new ValueView().set(buffer, 6, 1);
+        ValueView empty = new ValueView().set(buffer, 8, 0);
+        ValueView apn = new ValueView().set(buffer, 9, APN.length);
+        char[] chars = new char[APN.length];
+        StringBuilder builder = new StringBuilder(APN.length);
+
+        long checksum = 0;
+        for (int i = 0; i < 20_000; i++) { // Lets the JIT compile the loop before measuring.
+            checksum += decodeAll(buffer, integer, enumerated, bool, empty, apn, chars, builder);
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            checksum += decodeAll(buffer, integer, enumerated, bool, empty, apn, chars, builder);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(120_000L * (0x010000 + 5 + 1 + APN.length * 2), checksum);
+        // A few hundred bytes of slack for the counter itself; one allocation per call would be megabytes.
+        assertTrue(allocated < 1024, "decoders allocated " + allocated + " bytes");
+    }
+
+    private static long decodeAll(ByteBuffer buffer, ValueView integer, ValueView enumerated, ValueView bool,
+                                  ValueView empty, ValueView apn, char[] chars, StringBuilder builder)
+            throws DecoderException {
+        long sum = PrimitiveDecoders.decodeInteger(integer);
+        sum += PrimitiveDecoders.decodeInteger(buffer, 0, 3) - PrimitiveDecoders.decodeInteger(integer);
+        sum += PrimitiveDecoders.decodeEnumerated(enumerated);
+        sum += PrimitiveDecoders.decodeBoolean(bool) ? 1 : 0;
+        PrimitiveDecoders.decodeNull(empty);
+        PrimitiveDecoders.decodeNull(buffer, 8, 0);
+        sum += PrimitiveDecoders.decodeIA5String(apn, chars, 0);
+        builder.setLength(0);
+        sum += PrimitiveDecoders.decodeIA5String(apn, builder).length();
+        return sum;
+    }
+}
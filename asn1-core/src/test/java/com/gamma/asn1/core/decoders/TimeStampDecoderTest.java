@@ -0,0 +1,117 @@
+package com.gamma.asn1.core.decoders;
+
+import com.gamma.asn1.core.exception.DecoderException;
+import com.gamma.asn1.core.tlv.ValueView;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TimeStampDecoderTest {
+
+    @Test
+    void decodesUtcTimeStamps() throws DecoderException {
+        TimeStampDecoder decoder = new TimeStampDecoder();
+        assertEquals(millis("2024-03-15T10:20:30Z"), decoder.toEpochMillis(timeStamp("240315102030+0000")));
+        assertEquals(millis("2000-01-01T00:00:00Z"), decoder.toEpochMillis(timeStamp("000101000000+0000")));
+        assertEquals(millis("2099-12-31T23:59:59Z"), decoder.toEpochMillis(timeStamp("991231235959-0000")));
+    }
+
+    @Test
+    void appliesPositiveAndNegativeOffsets() throws DecoderException {
+        TimeStampDecoder decoder = new TimeStampDecoder();
+        assertEquals(millis("2024-03-15T10:20:30+05:30"), decoder.toEpochMillis(timeStamp("240315102030+0530")));
+        assertEquals(millis("2024-03-15T10:20:30-08:00"), decoder.toEpochMillis(timeStamp("240315102030-0800")));
+        // The offset moves the instant into the previous or the next UTC day.
+        assertEquals(millis("2024-03-15T01:00:00+14:00"), decoder.toEpochMillis(timeStamp("240315010000+1400")));
+        assertEquals(millis("2024-03-15T23:00:00-12:00"), decoder.toEpochMillis(timeStamp("240315230000-1200")));
+    }
+
+    @Test
+    void recomputesTheDateWhenTheDayChanges() throws DecoderException {
+        TimeStampDecoder decoder = new TimeStampDecoder();
+        assertEquals(millis("2024-02-28T23:59:59+01:00"), decoder.toEpochMillis(timeStamp("240228235959+0100")));
+        assertEquals(millis("2024-02-29T00:00:00+01:00"), decoder.toEpochMillis(timeStamp("240229000000+0100")));
+        assertEquals(millis("2024-02-29T12:00:00+01:00"), decoder.toEpochMillis(timeStamp("240229120000+0100")));
+        assertEquals(millis("2024-03-01T00:00:01+01:00"), decoder.toEpochMillis(timeStamp("240301000001+0100")));
+        // Going back to an earlier day must not reuse the cached date.
+        assertEquals(millis("2024-02-28T06:00:00+01:00"), decoder.toEpochMillis(timeStamp("240228060000+0100")));
+        assertEquals(millis("2023-12-31T23:59:59Z"), decoder.toEpochMillis(timeStamp("231231235959+0000")));
+        assertEquals(millis("2024-01-01T00:00:00Z"), decoder.toEpochMillis(timeStamp("240101000000+0000")));
+    }
+
+    @Test
+    void decodesInPlaceFromBuffersAndViews() throws DecoderException {
+        ByteBuffer buffer = ByteBuffer.allocate(TimeStampDecoder.LENGTH + 4);
+        buffer.position(4);
+        buffer.put(timeStamp("240315102030+0200"));
+        int position = buffer.position();
+        long expected = millis("2024-03-15T10:20:30+02:00");
+
+        TimeStampDecoder decoder = new TimeStampDecoder();
+        assertEquals(expected, decoder.toEpochMillis(buffer, 4, TimeStampDecoder.LENGTH));
+        assertEquals(expected, decoder.toEpochMillis(new ValueView().set(buffer, 4, TimeStampDecoder.LENGTH)));
+        assertEquals(position, buffer.position());
+    }
+
+    @Test
+    void rejectsInvalidBcdDigits() {
+        TimeStampDecoder decoder = new TimeStampDecoder();
+        byte[] nonDecimal = timeStamp("240315102030+0000");
+        nonDecimal[4] = 0x2A; // Minute nibble 0xA.
+        assertThrows(DecoderException.class, () -> decoder.toEpochMillis(nonDecimal));
+        assertThrows(DecoderException.class, () -> decoder.toEpochMillis(timeStamp("240315242030+0000")));
+        assertThrows(DecoderException.class, () -> decoder.toEpochMillis(timeStamp("240315106030+0000")));
+        assertThrows(DecoderException.class, () -> decoder.toEpochMillis(timeStamp("240315102060+0000")));
+        assertThrows(DecoderException.class, () -> decoder.toEpochMillis(timeStamp("240315102030+2400")));
+        assertThrows(DecoderException.class, () -> decoder.toEpochMillis(timeStamp("240315102030+0060")));
+    }
+
+    @Test
+    void rejectsInvalidCalendarDates() throws DecoderException {
+        TimeStampDecoder decoder = new TimeStampDecoder();
+        assertThrows(DecoderException.class, () -> decoder.toEpochMillis(timeStamp("230229000000+0000")));
+        assertThrows(DecoderException.class, () -> decoder.toEpochMillis(timeStamp("240431000000+0000")));
+        assertThrows(DecoderException.class, () -> decoder.toEpochMillis(timeStamp("241301000000+0000")));
+        assertThrows(DecoderException.class, () -> decoder.toEpochMillis(timeStamp("240001000000+0000")));
+        assertThrows(DecoderException.class, () -> decoder.toEpochMillis(timeStamp("240100000000+0000")));
+        // A rejected date must not be cached.
+        assertThrows(DecoderException.class, () -> decoder.toEpochMillis(timeStamp("230229000000+0000")));
+        assertEquals(millis("2024-02-29T00:00:00Z"), decoder.toEpochMillis(timeStamp("240229000000+0000")));
+    }
+
+    @Test
+    void rejectsInvalidSignsAndLengths() {
+        TimeStampDecoder decoder = new TimeStampDecoder();
+        byte[] badSign = timeStamp("240315102030+0000");
+        badSign[6] = ' ';
+        assertThrows(DecoderException.class, () -> decoder.toEpochMillis(badSign));
+        assertThrows(DecoderException.class, () -> decoder.toEpochMillis(new byte[TimeStampDecoder.LENGTH - 1]));
+        assertThrows(DecoderException.class, () -> decoder.toEpochMillis(new byte[TimeStampDecoder.LENGTH + 1]));
+    }
+
+    /**
+     * Encodes {@code YYMMDDhhmmssShhmm} as a TimeStamp: BCD digit pairs around the ASCII sign.
+     */
+    private static byte[] timeStamp(String text) {
+        byte[] bytes = new byte[TimeStampDecoder.LENGTH];
+        int digit = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (i == 6) {
+                bytes[i] = (byte) text.charAt(12);
+                digit++;
+                continue;
+            }
+            bytes[i] = (byte) (((text.charAt(digit) - '0') << 4) | (text.charAt(digit + 1) - '0'));
+            digit += 2;
+        }
+        return bytes;
+    }
+
+    private static long millis(String isoDateTime) {
+        return OffsetDateTime.parse(isoDateTime).toInstant().toEpochMilli();
+    }
+}
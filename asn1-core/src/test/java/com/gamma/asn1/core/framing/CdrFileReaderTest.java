@@ -0,0 +1,343 @@
+package com.gamma.asn1.core.framing;
+
+import com.gamma.asn1.core.exception.ASN1ProcessingException;
+import com.gamma.asn1.core.exception.CorruptFrameException;
+import com.gamma.asn1.core.index.RecordIndex;
+import com.gamma.asn1.core.tlv.TLVFlyweightListener;
+import com.gamma.asn1.core.tlv.Tags;
+import com.gamma.asn1.core.tlv.ValueView;
+import com.gamma.asn1.model.TagClass;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CdrFileReaderTest {
+
+    private static final byte[] BER_CDR = {0x30, 0x06, (byte) 0x80, 0x01, 0x05, (byte) 0x81, 0x01, 0x07};
+    private static final byte[] HIGH_TAG_CDR = {(byte) 0xBF, (byte) 0x82, 0x2C, 0x03, (byte) 0x80, 0x01, 0x06};
+    private static final byte[] PER_CDR = {0x11, 0x22, 0x33};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsTheFileHeader() throws Exception {
+        byte[] routingFilter = {1, 2, 3};
+        byte[] privateExtension = {4, 5};
+        Path file = write(file(header(routingFilter, privateExtension, true), cdrs()), true);
+
+        CdrFileHeader header = new CdrFileReader().readHeader(file);
+        assertEquals(Files.size(file), header.getFileLength());
+        assertEquals(48 + 5 + 4 + 2, header.getHeaderLength());
+        assertEquals(5, header.getHighReleaseIdentifier());
+        assertEquals(17, header.getHighVersionIdentifier());
+        assertEquals(3, header.getLowReleaseIdentifier());
+        assertEquals(2, header.getLowVersionIdentifier());
+        assertEquals(0x12345678, header.getOpeningTimestamp());
+        assertEquals(0x9ABCDEF0, header.getLastAppendTimestamp());
+        assertEquals(4, header.getNumberOfCdrs());
+        assertEquals(0xFFFFFFFEL, header.getFileSequenceNumber());
+        assertEquals(2, header.getClosureTriggerReason());
+        assertEquals(10, header.getNodeAddress()[19]);
+        assertEquals(1, header.getLostCdrIndicator());
+        assertArrayEquals(routingFilter, header.getCdrRoutingFilter());
+        assertArrayEquals(privateExtension, header.getPrivateExtension());
+        assertEquals(9, header.getHighReleaseIdentifierExtension());
+        assertEquals(8, header.getLowReleaseIdentifierExtension());
+    }
+
+    @Test
+    void optionalHeaderFieldsMayBeAbsent() throws Exception {
+        Path file = write(file(header(null, null, false), cdrs()), true);
+
+        CdrFileHeader header = new CdrFileReader().readHeader(file);
+        assertEquals(48, header.getHeaderLength());
+        assertNull(header.getCdrRoutingFilter());
+        assertNull(header.getPrivateExtension());
+        assertEquals(-1, header.getHighReleaseIdentifierExtension());
+        assertEquals(-1, header.getLowReleaseIdentifierExtension());
+        assertEquals(List.of(
+                "0 @48+4 r5 v3 x-1 f1 ts18 " + hex(BER_CDR),
+                "1 @60+5 r7 v1 x19 f1 ts18 " + hex(HIGH_TAG_CDR),
+                "2 @72+4 r6 v0 x-1 f2 ts18 " + hex(PER_CDR),
+                "3 @79+5 r7 v2 x20 f1 ts18 "), records(file, new CdrFileReader()));
+    }
+
+    @Test
+    void locatesEveryCdrWithAnyMappingWindow() throws Exception {
+        Path file = write(file(header(new byte[]{1}, new byte[0], true), cdrs()), true);
+        List<String> expected = records(file, new CdrFileReader());
+        assertEquals(4, expected.size());
+        assertTrue(expected.get(1).startsWith("1 @67+5 r7 v1 x19 "), expected.get(1));
+        for (int window : new int[]{1, 5, 16, 50, 64}) {
+            assertEquals(expected, records(file, new CdrFileReader(window)), "window " + window);
+        }
+    }
+
+    @Test
+    void unknownFileLengthReadsToTheEndOfTheFile() throws Exception {
+        byte[] data = file(header(null, null, false), cdrs());
+        Path file = write(data, false);
+
+        assertEquals(0, new CdrFileReader().readHeader(file).getFileLength());
+        assertEquals(4, records(file, new CdrFileReader()).size());
+    }
+
+    @Test
+    void indexesTheEncodedCdrs() throws Exception {
+        Path file = write(file(header(null, null, false), cdrs()), true);
+
+        RecordIndex index = new CdrFileReader().index(file);
+        assertEquals(4, index.size());
+        assertEquals(52, index.offset(0));
+        assertEquals(BER_CDR.length, index.length(0));
+        assertEquals(Tags.pack(TagClass.UNIVERSAL, true, 16), index.tag(0));
+        assertEquals(65, index.offset(1));
+        assertEquals(Tags.pack(TagClass.CONTEXT_SPECIFIC, true, 300), index.tag(1));
+        assertEquals(0, index.tag(2));
+        assertEquals(84, index.offset(3));
+        assertEquals(0, index.length(3));
+        assertTrue(index.matches(Files.size(file), Files.getLastModifiedTime(file).toMillis()));
+    }
+
+    @Test
+    void decodesBerCdrsWithFileOffsets() throws Exception {
+        byte[] data = file(header(null, null, false), List.of(cdr(5, 0, -1, 1, BER_CDR), cdr(7, 1, 19, 1, HIGH_TAG_CDR)));
+        Path file = write(data, true);
+        List<String> events = new ArrayList<>();
+        new CdrFileReader().process(file, new TLVFlyweightListener() {
+            @Override
+            public void onStartTag(int tag, int length, long offset) {
+                events.add(Tags.toHex(tag) + "@" + offset);
+            }
+
+            @Override
+            public void onPrimitiveValue(ValueView value) {
+            }
+
+            @Override
+            public void onEndTag(int tag) {
+            }
+        });
+
+        assertEquals(List.of("30@52", "80@54", "81@57", "BF822C@65", "80@69"), events);
+    }
+
+    @Test
+    void rejectsNonBerCdrsWhenDecoding() throws Exception {
+        Path file = write(file(header(null, null, false), cdrs()), true);
+
+        CorruptFrameException e = assertThrows(CorruptFrameException.class,
+                () -> new CdrFileReader().process(file, new TLVFlyweightListener() {
+                    @Override
+                    public void onStartTag(int tag, int length, long offset) {
+                    }
+
+                    @Override
+                    public void onPrimitiveValue(ValueView value) {
+                    }
+
+                    @Override
+                    public void onEndTag(int tag) {
+                    }
+                }));
+        assertEquals(72, e.getByteOffset());
+        assertEquals("cdr[2]", e.getTagPath());
+    }
+
+    @Test
+    void truncatedCdrHeadersAreReportedAtTheirOffset() throws Exception {
+        byte[] data = file(header(null, null, false), cdrs());
+        // CDR headers start at 48, 60, 72 and 79; the last one declares an extension and an empty CDR.
+        int[] starts = {48, 60, 72, 79, data.length};
+        for (int cut = 49; cut < data.length; cut++) {
+            int cdr = 0;
+            while (starts[cdr + 1] <= cut) {
+                cdr++;
+            }
+            if (cut == starts[cdr]) {
+                continue; // Ends cleanly after the previous CDR.
+            }
+            Path file = write(Arrays.copyOf(data, cut), false);
+            CorruptFrameException e = assertThrows(CorruptFrameException.class,
+                    () -> records(file, new CdrFileReader(16)), "cut at " + cut);
+            assertEquals(starts[cdr], e.getByteOffset(), "cut at " + cut);
+            assertEquals("cdr[" + cdr + "]", e.getTagPath(), "cut at " + cut);
+        }
+    }
+
+    @Test
+    void extendedReleaseHeaderMustBeComplete() throws Exception {
+        byte[] data = file(header(null, null, false), List.of(cdr(7, 2, 20, 1, new byte[0])));
+        Path file = write(Arrays.copyOf(data, data.length - 1), false);
+
+        CorruptFrameException e = assertThrows(CorruptFrameException.class, () -> records(file, new CdrFileReader()));
+        assertTrue(e.getMessage().startsWith("Truncated CDR header."), e.getMessage());
+        assertEquals(48, e.getByteOffset());
+    }
+
+    @Test
+    void fileShorterThanItsDeclaredLengthIsCorrupt() throws Exception {
+        byte[] data = file(header(null, null, false), cdrs());
+        ByteBuffer.wrap(data).putInt(0, data.length + 1);
+        Path file = write(data, false);
+
+        CorruptFrameException e = assertThrows(CorruptFrameException.class, () -> records(file, new CdrFileReader()));
+        assertEquals(0, e.getByteOffset());
+    }
+
+    @Test
+    void declaredFileLengthInsideTheHeaderIsCorrupt() throws Exception {
+        byte[] data = file(header(null, null, false), cdrs());
+        ByteBuffer.wrap(data).putInt(0, 20);
+        Path file = write(data, false);
+
+        CorruptFrameException e = assertThrows(CorruptFrameException.class, () -> records(file, new CdrFileReader()));
+        assertEquals("fileHeader", e.getTagPath());
+    }
+
+    @Test
+    void truncatedFileHeadersAreCorrupt() throws Exception {
+        byte[] data = file(header(new byte[]{1, 2, 3}, new byte[]{4}, true), cdrs());
+        int headerLength = ByteBuffer.wrap(data).getInt(4);
+        for (int cut = 0; cut < headerLength; cut++) {
+            Path file = write(Arrays.copyOf(data, cut), false);
+            CorruptFrameException e = assertThrows(CorruptFrameException.class,
+                    () -> new CdrFileReader(16).readHeader(file), "cut at " + cut);
+            assertEquals("fileHeader", e.getTagPath());
+        }
+    }
+
+    @Test
+    void malformedFileHeadersAreCorrupt() throws Exception {
+        byte[] tooShort = file(header(null, null, false), cdrs());
+        ByteBuffer.wrap(tooShort).putInt(4, 47);
+        byte[] negative = file(header(null, null, false), cdrs());
+        ByteBuffer.wrap(negative).putInt(4, -1);
+        byte[] huge = file(header(null, null, false), cdrs());
+        ByteBuffer.wrap(huge).putInt(4, Integer.MAX_VALUE);
+        // The routing filter declares more bytes than the header holds.
+        byte[] overlong = file(header(new byte[]{1, 2, 3}, null, false), cdrs());
+        ByteBuffer.wrap(overlong).putShort(48, (short) 4);
+
+        for (byte[] data : List.of(tooShort, negative, huge, overlong)) {
+            Path file = write(data, false);
+            CorruptFrameException e = assertThrows(CorruptFrameException.class, () -> new CdrFileReader().readHeader(file));
+            assertEquals("fileHeader", e.getTagPath());
+        }
+    }
+
+    @Test
+    void listenerFailuresCarryTheCdr() throws Exception {
+        Path file = write(file(header(null, null, false), cdrs()), true);
+
+        ASN1ProcessingException e = assertThrows(ASN1ProcessingException.class,
+                () -> new CdrFileReader().process(file, (CdrRecordListener) cdr -> {
+                    if (cdr.index() == 1) {
+                        throw new IllegalStateException("rejected");
+                    }
+                }));
+        assertEquals(60, e.getByteOffset());
+        assertEquals("cdr[1]", e.getTagPath());
+        assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+    private Path write(byte[] data, boolean declareLength) throws Exception {
+        if (declareLength) {
+            ByteBuffer.wrap(data).putInt(0, data.length);
+        }
+        return Files.write(dir.resolve("cdrs.dat"), data);
+    }
+
+    private static List<String> records(Path file, CdrFileReader reader) throws Exception {
+        List<String> records = new ArrayList<>();
+        reader.process(file, (CdrRecordListener) cdr -> records.add(cdr.index() + " @" + cdr.offset() + "+" + cdr.headerLength()
+                + " r" + cdr.releaseIdentifier() + " v" + cdr.versionIdentifier() + " x" + cdr.releaseIdentifierExtension()
+                + " f" + cdr.dataRecordFormat() + " ts" + cdr.tsNumber() + " " + hex(cdr.data().toByteArray())));
+        return records;
+    }
+
+    /**
+     * A BER CDR, a BER CDR with a release identifier extension, a PER CDR and an empty CDR with an extension.
+     */
+    private static List<byte[]> cdrs() {
+        return List.of(cdr(5, 3, -1, 1, BER_CDR), cdr(7, 1, 19, 1, HIGH_TAG_CDR), cdr(6, 0, -1, 2, PER_CDR),
+                cdr(7, 2, 20, 1, new byte[0]));
+    }
+
+    /**
+     * Encodes a CDR header with TS number 18 and its data.
+     */
+    private static byte[] cdr(int release, int version, int extension, int format, byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(data.length >>> 8);
+        out.write(data.length);
+        out.write(release << 5 | version);
+        out.write(format << 5 | 0x12);
+        if (extension >= 0) {
+            out.write(extension);
+        }
+        out.writeBytes(data);
+        return out.toByteArray();
+    }
+
+    /**
+     * Encodes a file header with a file length of 0; the optional routing filter, private extension and release
+     * identifier extensions are written only if given.
+     */
+    private static byte[] header(byte[] routingFilter, byte[] privateExtension, boolean extensions) {
+        ByteArrayOutputStream optional = new ByteArrayOutputStream();
+        if (routingFilter != null) {
+            optional.write(routingFilter.length >>> 8);
+            optional.write(routingFilter.length);
+            optional.writeBytes(routingFilter);
+        }
+        if (privateExtension != null) {
+            optional.write(privateExtension.length >>> 8);
+            optional.write(privateExtension.length);
+            optional.writeBytes(privateExtension);
+        }
+        if (extensions) {
+            optional.write(9);
+            optional.write(8);
+        }
+        ByteBuffer header = ByteBuffer.allocate(48 + optional.size());
+        header.putInt(0).putInt(header.capacity());
+        header.put((byte) (5 << 5 | 17)).put((byte) (3 << 5 | 2));
+        header.putInt(0x12345678).putInt(0x9ABCDEF0).putInt(4).putInt(0xFFFFFFFE);
+        header.put((byte) 2);
+        byte[] node = new byte[20];
+        node[19] = 10;
+        header.put(node).put((byte) 1);
+        header.put(optional.toByteArray());
+        return header.array();
+    }
+
+    private static byte[] file(byte[] header, List<byte[]> cdrs) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(header);
+        cdrs.forEach(out::writeBytes);
+        return out.toByteArray();
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02X", b));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,170 @@
+package com.gamma.asn1.core.index;
+
+import com.gamma.asn1.core.tlv.Tags;
+import com.gamma.asn1.model.TagClass;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecordIndexerTest {
+
+    private static final int SEQUENCE = Tags.pack(TagClass.UNIVERSAL, true, 16);
+    private static final int HIGH_TAG = Tags.pack(TagClass.CONTEXT_SPECIFIC, true, 300);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void indexesTheEncodedLengthOfEveryRecord() throws Exception {
+        RecordIndex index = RecordIndexer.build(write(records()));
+
+        assertEquals(3, index.size());
+        assertEquals("0+5 " + Tags.toHex(SEQUENCE), record(index, 0));
+        assertEquals("5+7 " + Tags.toHex(HIGH_TAG), record(index, 1));
+        assertEquals("12+304 " + Tags.toHex(SEQUENCE), record(index, 2));
+    }
+
+    @Test
+    void sidecarRoundTrips() throws Exception {
+        Path file = write(records());
+        RecordIndex index = RecordIndexer.build(file);
+        Path sidecar = RecordIndexer.sidecarPath(file);
+        RecordIndexer.save(index, sidecar);
+
+        RecordIndex loaded = RecordIndexer.load(sidecar).orElseThrow();
+        assertSameIndex(index, loaded);
+        assertTrue(loaded.matches(Files.size(file), Files.getLastModifiedTime(file).toMillis()));
+        assertFalse(Files.exists(sidecar.resolveSibling(sidecar.getFileName() + ".tmp")));
+    }
+
+    @Test
+    void loadOrBuildUsesAValidSidecar() throws Exception {
+        Path file = write(records());
+        RecordIndex built = RecordIndexer.loadOrBuild(file);
+        assertSameIndex(built, RecordIndexer.load(RecordIndexer.sidecarPath(file)).orElseThrow());
+
+        // A sidecar that matches the file is trusted without rescanning it.
+        RecordIndex planted = new RecordIndex(built.fileSize(), built.lastModified(), new long[]{0}, new int[]{5}, new int[]{SEQUENCE});
+        RecordIndexer.save(planted, RecordIndexer.sidecarPath(file));
+        assertEquals(1, RecordIndexer.loadOrBuild(file).size());
+    }
+
+    @Test
+    void rebuildsAfterTheFileGrows() throws Exception {
+        Path file = write(records());
+        RecordIndex before = RecordIndexer.loadOrBuild(file);
+        FileTime modified = Files.getLastModifiedTime(file);
+        Files.write(file, new byte[]{0x30, 0x00}, StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(file, modified);
+
+        RecordIndex after = RecordIndexer.loadOrBuild(file);
+        assertEquals(before.size() + 1, after.size());
+        assertEquals("316+2 " + Tags.toHex(SEQUENCE), record(after, 3));
+        assertSameIndex(after, RecordIndexer.load(RecordIndexer.sidecarPath(file)).orElseThrow());
+    }
+
+    @Test
+    void rebuildsAfterTheFileIsRewrittenInPlace() throws Exception {
+        Path file = write(records());
+        RecordIndexer.loadOrBuild(file);
+        // Same size, different records: only the modification time tells.
+        byte[] data = records();
+        data[5] = 0x30;
+        data[6] = 0x05;
+        data[7] = 0x02;
+        data[8] = 0x03;
+        Files.write(file, data);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 60_000));
+
+        RecordIndex after = RecordIndexer.loadOrBuild(file);
+        assertEquals("5+7 " + Tags.toHex(SEQUENCE), record(after, 1));
+    }
+
+    @Test
+    void damagedSidecarsAreMisses() throws Exception {
+        Path file = write(records());
+        Path sidecar = RecordIndexer.sidecarPath(file);
+        RecordIndexer.save(RecordIndexer.build(file), sidecar);
+        byte[] valid = Files.readAllBytes(sidecar);
+
+        for (int i = 0; i < valid.length; i++) {
+            byte[] corrupt = valid.clone();
+            corrupt[i] ^= 0x10;
+            Files.write(sidecar, corrupt);
+            assertEquals(Optional.empty(), RecordIndexer.load(sidecar), "bit flipped in byte " + i);
+        }
+        for (int length = 0; length < valid.length; length++) {
+            Files.write(sidecar, Arrays.copyOf(valid, length));
+            assertEquals(Optional.empty(), RecordIndexer.load(sidecar), "truncated to " + length);
+        }
+        Files.delete(sidecar);
+        assertEquals(Optional.empty(), RecordIndexer.load(sidecar));
+    }
+
+    @Test
+    void implausibleRecordCountIsAMiss() throws Exception {
+        Path file = write(records());
+        Path sidecar = RecordIndexer.sidecarPath(file);
+        RecordIndexer.save(RecordIndexer.build(file), sidecar);
+        byte[] data = Files.readAllBytes(sidecar);
+        // The count follows the magic, version, size and modification time.
+        ByteBuffer.wrap(data).putInt(24, Integer.MAX_VALUE);
+        Files.write(sidecar, data);
+
+        assertEquals(Optional.empty(), RecordIndexer.load(sidecar));
+    }
+
+    @Test
+    void loadOrBuildReplacesADamagedSidecar() throws Exception {
+        Path file = write(records());
+        Path sidecar = RecordIndexer.sidecarPath(file);
+        RecordIndex built = RecordIndexer.loadOrBuild(file);
+        byte[] data = Files.readAllBytes(sidecar);
+        data[data.length - 1] ^= 0x01;
+        Files.write(sidecar, data);
+
+        assertSameIndex(built, RecordIndexer.loadOrBuild(file));
+        assertSameIndex(built, RecordIndexer.load(sidecar).orElseThrow());
+    }
+
+    private Path write(byte[] data) throws Exception {
+        return Files.write(dir.resolve("records.ber"), data);
+    }
+
+    private static String record(RecordIndex index, int record) {
+        return index.offset(record) + "+" + index.length(record) + " " + Tags.toHex(index.tag(record));
+    }
+
+    private static void assertSameIndex(RecordIndex expected, RecordIndex actual) {
+        assertEquals(expected.fileSize(), actual.fileSize());
+        assertEquals(expected.lastModified(), actual.lastModified());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(record(expected, i), record(actual, i));
+        }
+    }
+
+    /**
+     * Three records of 5, 7 and 304 bytes: a short-form length, a high tag number, and a long-form length.
+     */
+    private static byte[] records() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{0x30, 0x03, (byte) 0x80, 0x01, 0x05});
+        out.writeBytes(new byte[]{(byte) 0xBF, (byte) 0x82, 0x2C, 0x03, (byte) 0x80, 0x01, 0x06});
+        out.writeBytes(new byte[]{0x30, (byte) 0x82, 0x01, 0x2C, (byte) 0x80, (byte) 0x82, 0x01, 0x28});
+        out.writeBytes(new byte[0x128]);
+        return out.toByteArray();
+    }
+}
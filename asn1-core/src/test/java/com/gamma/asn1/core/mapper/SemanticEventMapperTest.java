@@ -0,0 +1,129 @@
+package com.gamma.asn1.core.mapper;
+
+import com.gamma.asn1.core.schema.CompiledSchema;
+import com.gamma.asn1.core.schema.SchemaCompiler;
+import com.gamma.asn1.core.tlv.TLVEventStreamer;
+import com.gamma.asn1.core.tlv.Tags;
+import com.gamma.asn1.core.tlv.ValueView;
+import com.gamma.asn1.grammar.ASN1Schema;
+import com.gamma.asn1.model.ASN1BaseType;
+import com.gamma.asn1.model.ASN1TagInfo;
+import com.gamma.asn1.model.ASN1TypeDefinition;
+import com.gamma.asn1.model.TagClass;
+import com.gamma.asn1.model.TaggingMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SemanticEventMapperTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reportsTheEncodedLengthOfEachRecord() throws Exception {
+        byte[] data = records();
+        List<String> events = new ArrayList<>();
+        SemanticEventMapper mapper = SemanticEventMapper.withFieldIds(compile(), new FieldIdListener() {
+            @Override
+            public void onField(int fieldId, ValueView value, ASN1BaseType type) {
+            }
+
+            @Override
+            public void onRecordStart(long offset, int length) {
+                events.add("start " + offset + "+" + length);
+            }
+
+            @Override
+            public void onRecordEnd(long offset, int length) {
+                events.add("end " + offset + "+" + length);
+            }
+        }, FieldProjection.all());
+        new TLVEventStreamer().process(ByteBuffer.wrap(data), 0, mapper);
+
+        // The second record uses a long-form length where the short form would do.
+        assertEquals(List.of("start 0+8", "end 0+8", "start 8+9", "end 8+9", "start 17+133", "end 17+133"), events);
+    }
+
+    @Test
+    void recordBoundariesMatchTheRecordScan() throws Exception {
+        byte[] data = records();
+        Path file = Files.write(dir.resolve("records.ber"), data);
+        List<String> scanned = new ArrayList<>();
+        new TLVEventStreamer().scanRecords(file, (tag, offset, headerLength, length) -> scanned.add(offset + "+" + (headerLength + length)));
+
+        List<String> batched = new ArrayList<>();
+        RecordBatcher batcher = new RecordBatcher(2, batch -> {
+            for (int r = 0; r < batch.recordCount(); r++) {
+                batched.add(batch.recordOffset(r) + "+" + batch.recordLength(r));
+            }
+        });
+        new TLVEventStreamer().process(file, SemanticEventMapper.withFieldIds(compile(), batcher, FieldProjection.all()));
+        batcher.flush();
+
+        assertEquals(scanned, batched);
+        assertEquals(3, batched.size());
+    }
+
+    @Test
+    void assumesTheShortestHeaderWhenTheProducerDoesNotReportIt() throws Exception {
+        List<String> events = new ArrayList<>();
+        SemanticEventMapper mapper = SemanticEventMapper.withFieldIds(compile(), new FieldIdListener() {
+            @Override
+            public void onField(int fieldId, ValueView value, ASN1BaseType type) {
+            }
+
+            @Override
+            public void onRecordStart(long offset, int length) {
+                events.add(offset + "+" + length);
+            }
+        }, FieldProjection.all());
+        int sequence = Tags.pack(TagClass.UNIVERSAL, true, 16);
+        mapper.onStartTag(sequence, 6, 0);
+        mapper.onEndTag(sequence);
+        mapper.onStartTag(sequence, 130, 8);
+        mapper.onEndTag(sequence);
+
+        assertEquals(List.of("0+8", "8+133"), events);
+    }
+
+    /**
+     * Rec ::= SEQUENCE { a [0] IMPLICIT INTEGER, b [1] IMPLICIT OCTET STRING }
+     */
+    private static CompiledSchema compile() {
+        ASN1TypeDefinition rec = new ASN1TypeDefinition("Rec");
+        rec.setBaseType(ASN1BaseType.SEQUENCE);
+        rec.addField(field("a", "INTEGER", 0));
+        rec.addField(field("b", "OCTET STRING", 1));
+        ASN1Schema schema = new ASN1Schema();
+        schema.addTypeDefinition("Rec", rec);
+        return SchemaCompiler.compile(schema, TaggingMode.IMPLICIT, null);
+    }
+
+    private static ASN1TypeDefinition.ASN1Field field(String name, String typeName, int tag) {
+        ASN1TypeDefinition.ASN1Field field = new ASN1TypeDefinition.ASN1Field(name, typeName, false);
+        field.setTagInfo(new ASN1TagInfo(TagClass.CONTEXT_SPECIFIC, tag, null));
+        return field;
+    }
+
+    /**
+     * Three records of 8, 9 and 133 bytes: a short-form length, a long-form length where the short form would do,
+     * and a long-form length of 130.
+     */
+    private static byte[] records() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{0x30, 0x06, (byte) 0x80, 0x01, 0x05, (byte) 0x81, 0x01, (byte) 0xAA});
+        out.writeBytes(new byte[]{0x30, (byte) 0x81, 0x06, (byte) 0x80, 0x01, 0x05, (byte) 0x81, 0x01, (byte) 0xBB});
+        out.writeBytes(new byte[]{0x30, (byte) 0x81, (byte) 0x82, (byte) 0x80, 0x01, 0x05, (byte) 0x81, 0x7D});
+        out.writeBytes(new byte[0x7D]);
+        return out.toByteArray();
+    }
+}
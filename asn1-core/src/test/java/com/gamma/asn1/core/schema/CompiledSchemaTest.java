@@ -0,0 +1,360 @@
+package com.gamma.asn1.core.schema;
+
+import com.gamma.asn1.core.tlv.Tags;
+import com.gamma.asn1.grammar.ASN1Schema;
+import com.gamma.asn1.model.ASN1BaseType;
+import com.gamma.asn1.model.ASN1TagInfo;
+import com.gamma.asn1.model.ASN1TypeDefinition;
+import com.gamma.asn1.model.TagClass;
+import com.gamma.asn1.model.TaggingMode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledSchemaTest {
+
+    private static final int SEQUENCE = universal(16);
+    private static final int INTEGER = universal(2);
+
+    @Test
+    void treatsTagsWithoutAClassAsContextSpecific() {
+        // Record ::= SEQUENCE { a [1] IMPLICIT OCTET STRING }
+        ASN1Schema schema = schema(
+                type("Record", ASN1BaseType.SEQUENCE, null, field("a", "OCTET STRING", tag(null, 1, TaggingMode.IMPLICIT))));
+        CompiledSchema compiled = SchemaCompiler.compile(schema);
+
+        int record = compiled.transition(CompiledSchema.ROOT, SEQUENCE | Tags.CONSTRUCTED);
+        int a = compiled.transition(record, context(1));
+        assertEquals("Record.a", compiled.path(a));
+        assertEquals(ASN1BaseType.OCTET_STRING, compiled.baseType(a));
+        assertTrue(compiled.isLeaf(a));
+        assertEquals(CompiledSchema.NO_STATE, compiled.transition(record, Tags.pack(TagClass.UNIVERSAL, false, 1)));
+    }
+
+    @Test
+    void unfoldsImplicitAndExplicitTags() {
+        // Record ::= SEQUENCE { imp [0] IMPLICIT INTEGER, exp [1] EXPLICIT INTEGER, def [2] INTEGER }
+        ASN1Schema schema = schema(type("Record", ASN1BaseType.SEQUENCE, null,
+                field("imp", "INTEGER", tag(TagClass.CONTEXT_SPECIFIC, 0, TaggingMode.IMPLICIT)),
+                field("exp", "INTEGER", tag(TagClass.CONTEXT_SPECIFIC, 1, TaggingMode.EXPLICIT)),
+                field("def", "INTEGER", tag(TagClass.CONTEXT_SPECIFIC, 2, null))));
+        CompiledSchema compiled = SchemaCompiler.compile(schema, TaggingMode.EXPLICIT, null);
+        int record = compiled.transition(CompiledSchema.ROOT, SEQUENCE);
+
+        int imp = compiled.transition(record, context(0));
+        assertTrue(compiled.isLeaf(imp));
+        assertEquals(ASN1BaseType.INTEGER, compiled.baseType(imp));
+        assertEquals(CompiledSchema.NO_STATE, compiled.transition(imp, INTEGER));
+
+        for (int number = 1; number <= 2; number++) {
+            int outer = compiled.transition(record, context(number) | Tags.CONSTRUCTED);
+            assertFalse(compiled.isLeaf(outer));
+            assertNull(compiled.baseType(outer));
+            assertEquals(1, compiled.segmentCount(outer));
+            assertEquals(CompiledSchema.NO_FIELD, compiled.fieldId(outer));
+
+            int inner = compiled.transition(outer, INTEGER);
+            assertTrue(compiled.isLeaf(inner));
+            assertEquals(ASN1BaseType.INTEGER, compiled.baseType(inner));
+            assertEquals(0, compiled.segmentCount(inner));
+            assertEquals(compiled.path(outer), compiled.path(inner));
+            assertEquals(outer, compiled.parent(inner));
+        }
+        assertEquals("Record.exp", compiled.path(compiled.transition(record, context(1))));
+        assertEquals("Record.def", compiled.path(compiled.transition(record, context(2))));
+    }
+
+    @Test
+    void usesTheModuleDefaultForTagsWithoutAMode() {
+        ASN1Schema schema = schema(type("Record", ASN1BaseType.SEQUENCE, null,
+                field("exp", "INTEGER", tag(TagClass.CONTEXT_SPECIFIC, 1, TaggingMode.EXPLICIT)),
+                field("def", "INTEGER", tag(TagClass.CONTEXT_SPECIFIC, 2, null))));
+        for (TaggingMode mode : new TaggingMode[]{TaggingMode.IMPLICIT, TaggingMode.AUTOMATIC}) {
+            CompiledSchema compiled = SchemaCompiler.compile(schema, mode, null);
+            int record = compiled.transition(CompiledSchema.ROOT, SEQUENCE);
+
+            int def = compiled.transition(record, context(2));
+            assertTrue(compiled.isLeaf(def), mode.name());
+            assertEquals(ASN1BaseType.INTEGER, compiled.baseType(def));
+            assertEquals("Record.def", compiled.path(def));
+            // An explicit mode on the tag still wins over the default.
+            assertFalse(compiled.isLeaf(compiled.transition(record, context(1))), mode.name());
+        }
+    }
+
+    @Test
+    void tagsOnChoicesAreAlwaysExplicit() {
+        // Alt ::= CHOICE { x [0] INTEGER, y [1] IA5String }
+        // Record ::= SEQUENCE { c [3] IMPLICIT Alt }
+        ASN1Schema schema = schema(
+                type("Alt", ASN1BaseType.CHOICE, null,
+                        field("x", "INTEGER", tag(TagClass.CONTEXT_SPECIFIC, 0, null)),
+                        field("y", "IA5String", tag(TagClass.CONTEXT_SPECIFIC, 1, null))),
+                type("Record", ASN1BaseType.SEQUENCE, null,
+                        field("c", "Alt", tag(TagClass.CONTEXT_SPECIFIC, 3, TaggingMode.IMPLICIT))));
+        CompiledSchema compiled = SchemaCompiler.compile(schema, TaggingMode.IMPLICIT, null);
+        int record = compiled.transition(CompiledSchema.ROOT, SEQUENCE);
+
+        int outer = compiled.transition(record, context(3) | Tags.CONSTRUCTED);
+        assertEquals("Record.c", compiled.path(outer));
+        assertFalse(compiled.isLeaf(outer));
+        int x = compiled.transition(outer, context(0));
+        int y = compiled.transition(outer, context(1));
+        assertEquals("Record.c.x", compiled.path(x));
+        assertEquals("Record.c.y", compiled.path(y));
+        assertEquals(1, compiled.segmentCount(x));
+        assertEquals(ASN1BaseType.IA5_STRING, compiled.baseType(y));
+    }
+
+    @Test
+    void untaggedChoicesAreTransparent() {
+        // Alt ::= CHOICE { x [0] INTEGER, y IA5String }
+        // Record ::= SEQUENCE { id [1] INTEGER, c Alt }
+        ASN1Schema schema = schema(
+                type("Alt", ASN1BaseType.CHOICE, null,
+                        field("x", "INTEGER", tag(TagClass.CONTEXT_SPECIFIC, 0, null)),
+                        field("y", "IA5String", null)),
+                type("Record", ASN1BaseType.SEQUENCE, null,
+                        field("id", "INTEGER", tag(TagClass.CONTEXT_SPECIFIC, 1, null)),
+                        field("c", "Alt", null)));
+        CompiledSchema compiled = SchemaCompiler.compile(schema, TaggingMode.IMPLICIT, null);
+        int record = compiled.transition(CompiledSchema.ROOT, SEQUENCE);
+
+        int x = compiled.transition(record, context(0));
+        assertEquals("Record.c.x", compiled.path(x));
+        assertEquals(record, compiled.parent(x));
+        assertEquals(2, compiled.segmentCount(x));
+        assertEquals("c", compiled.segment(x, 0));
+        assertEquals("x", compiled.segment(x, 1));
+
+        int y = compiled.transition(record, universal(22));
+        assertEquals("Record.c.y", compiled.path(y));
+        assertEquals(2, compiled.segmentCount(y));
+        assertEquals(1, compiled.segmentCount(compiled.transition(record, context(1))));
+    }
+
+    @Test
+    void acceptsEachAlternativeOfAChoiceRootAsARecord() {
+        ASN1Schema schema = schema(
+                type("Record", ASN1BaseType.CHOICE, null,
+                        field("moCall", "Call", tag(TagClass.CONTEXT_SPECIFIC, 0, null)),
+                        field("mtCall", "Call", tag(TagClass.CONTEXT_SPECIFIC, 1, null))),
+                type("Call", ASN1BaseType.SEQUENCE, null,
+                        field("duration", "INTEGER", tag(TagClass.CONTEXT_SPECIFIC, 5, null))));
+        CompiledSchema compiled = SchemaCompiler.compile(schema, TaggingMode.IMPLICIT, "Record");
+
+        int mo = compiled.transition(CompiledSchema.ROOT, context(0) | Tags.CONSTRUCTED);
+        int mt = compiled.transition(CompiledSchema.ROOT, context(1) | Tags.CONSTRUCTED);
+        assertEquals("Record.moCall", compiled.path(mo));
+        assertEquals("Record.mtCall.duration", compiled.path(compiled.transition(mt, context(5))));
+        assertEquals(CompiledSchema.NO_STATE, compiled.transition(CompiledSchema.ROOT, SEQUENCE));
+        assertThrows(IllegalArgumentException.class, () -> SchemaCompiler.compile(schema, TaggingMode.IMPLICIT, "Unknown"));
+    }
+
+    @Test
+    void recursiveTypesReuseTheStateOfTheirAncestor() {
+        // Node ::= SEQUENCE { value [0] INTEGER, child [1] IMPLICIT Node }
+        ASN1Schema schema = schema(type("Node", ASN1BaseType.SEQUENCE, null,
+                field("value", "INTEGER", tag(TagClass.CONTEXT_SPECIFIC, 0, null)),
+                field("child", "Node", tag(TagClass.CONTEXT_SPECIFIC, 1, TaggingMode.IMPLICIT))));
+        CompiledSchema compiled = SchemaCompiler.compile(schema);
+
+        int node = compiled.transition(CompiledSchema.ROOT, SEQUENCE);
+        assertEquals("Node", compiled.path(node));
+        assertEquals(node, compiled.transition(node, context(1) | Tags.CONSTRUCTED));
+        int child = compiled.transition(compiled.transition(node, context(1)), context(1));
+        assertEquals(node, child);
+        assertEquals("Node.value", compiled.path(compiled.transition(child, context(0))));
+    }
+
+    @Test
+    void rejectsAmbiguousTags() {
+        ASN1Schema fields = schema(type("Record", ASN1BaseType.SEQUENCE, null,
+                field("a", "INTEGER", tag(TagClass.CONTEXT_SPECIFIC, 0, TaggingMode.IMPLICIT)),
+                field("b", "IA5String", tag(null, 0, TaggingMode.IMPLICIT))));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> SchemaCompiler.compile(fields));
+        assertTrue(e.getMessage().startsWith("Ambiguous tag"), e.getMessage());
+        assertTrue(e.getMessage().contains("Record.a") && e.getMessage().contains("Record.b"), e.getMessage());
+
+        // Two untagged SEQUENCE record types share UNIVERSAL 16.
+        ASN1Schema records = schema(
+                type("First", ASN1BaseType.SEQUENCE, null, field("a", "INTEGER", null)),
+                type("Second", ASN1BaseType.SEQUENCE, null, field("b", "INTEGER", null)));
+        e = assertThrows(IllegalArgumentException.class, () -> SchemaCompiler.compile(records));
+        assertTrue(e.getMessage().contains("the record types"), e.getMessage());
+    }
+
+    @Test
+    void looksUpDenseAndSortedTagsAlike() {
+        int max = CompiledSchema.MAX_DENSE_TAG;
+        ASN1Schema schema = schema(type("Record", ASN1BaseType.SEQUENCE, null,
+                field("low", "INTEGER", tag(TagClass.CONTEXT_SPECIFIC, 0, null)),
+                field("edge", "INTEGER", tag(TagClass.CONTEXT_SPECIFIC, max, null)),
+                field("high", "INTEGER", tag(TagClass.CONTEXT_SPECIFIC, max + 1, null)),
+                field("huge", "INTEGER", tag(TagClass.CONTEXT_SPECIFIC, Tags.MAX_TAG_NUMBER, null)),
+                field("app", "INTEGER", tag(TagClass.APPLICATION, 5, null)),
+                field("priv", "INTEGER", tag(TagClass.PRIVATE, max, null)),
+                field("bool", "BOOLEAN", null)));
+        CompiledSchema compiled = SchemaCompiler.compile(schema, TaggingMode.IMPLICIT, null);
+        int record = compiled.transition(CompiledSchema.ROOT, SEQUENCE);
+
+        assertEquals("Record.low", compiled.path(compiled.transition(record, context(0))));
+        assertEquals("Record.edge", compiled.path(compiled.transition(record, context(max))));
+        assertEquals("Record.high", compiled.path(compiled.transition(record, context(max + 1))));
+        assertEquals("Record.huge", compiled.path(compiled.transition(record, context(Tags.MAX_TAG_NUMBER))));
+        assertEquals("Record.app", compiled.path(compiled.transition(record, Tags.pack(TagClass.APPLICATION, true, 5))));
+        assertEquals("Record.priv", compiled.path(compiled.transition(record, Tags.pack(TagClass.PRIVATE, false, max))));
+        assertEquals("Record.bool", compiled.path(compiled.transition(record, universal(1))));
+
+        for (int missing : new int[]{context(1), context(max - 1), context(max + 2), context(5000),
+                Tags.pack(TagClass.APPLICATION, false, 0), Tags.pack(TagClass.APPLICATION, false, 6),
+                Tags.pack(TagClass.PRIVATE, false, 5), universal(5)}) {
+            assertEquals(CompiledSchema.NO_STATE, compiled.transition(record, missing), Tags.toString(missing));
+        }
+        // A leaf has no dense or sorted entries at all.
+        int low = compiled.transition(record, context(0));
+        assertEquals(CompiledSchema.NO_STATE, compiled.transition(low, context(0)));
+        assertEquals(CompiledSchema.NO_STATE, compiled.transition(low, universal(1)));
+    }
+
+    @Test
+    void numbersLeavesInSchemaOrder() {
+        CompiledSchema compiled = SchemaCompiler.compile(fieldSchema(false), TaggingMode.IMPLICIT, null);
+        assertEquals(4, compiled.fieldCount());
+        assertEquals("Record.a", compiled.fieldPath(0));
+        assertEquals("Record.b", compiled.fieldPath(1));
+        assertEquals("Record.list", compiled.fieldPath(2));
+        assertEquals("Record.nested.c", compiled.fieldPath(3));
+        assertEquals(ASN1BaseType.INTEGER, compiled.fieldType(0));
+        assertEquals(ASN1BaseType.OCTET_STRING, compiled.fieldType(1));
+
+        for (int state = 0; state < compiled.stateCount(); state++) {
+            int id = compiled.fieldId(state);
+            if (state == CompiledSchema.ROOT || !compiled.isLeaf(state)) {
+                assertEquals(CompiledSchema.NO_FIELD, id);
+            } else {
+                assertEquals(compiled.path(state), compiled.fieldPath(id));
+                assertEquals(id, compiled.findField(compiled.path(state)));
+            }
+        }
+        int record = compiled.transition(CompiledSchema.ROOT, SEQUENCE);
+        int list = compiled.transition(record, context(2));
+        assertEquals(2, compiled.fieldId(compiled.transition(list, INTEGER)));
+        assertEquals(CompiledSchema.NO_FIELD, compiled.findField("Record.nested"));
+        assertEquals(CompiledSchema.NO_FIELD, compiled.findField("Record.unknown"));
+    }
+
+    @Test
+    void keepsFieldIdsStableAcrossCompilations() {
+        CompiledSchema first = SchemaCompiler.compile(fieldSchema(false), TaggingMode.IMPLICIT, null);
+        CompiledSchema second = SchemaCompiler.compile(fieldSchema(true), TaggingMode.IMPLICIT, null);
+        assertEquals(first.fieldCount(), second.fieldCount());
+        assertEquals(first.stateCount(), second.stateCount());
+        for (int id = 0; id < first.fieldCount(); id++) {
+            assertEquals(first.fieldPath(id), second.fieldPath(id));
+            assertEquals(id, second.findField(first.fieldPath(id)));
+        }
+        assertNotEquals(CompiledSchema.NO_FIELD, second.findField("Record.nested.c"));
+    }
+
+    @Test
+    void recordTagsMatchTheTagIndexOfTheSchema() {
+        // Tagged ::= [7] IMPLICIT SEQUENCE { id [0] INTEGER }
+        // Event ::= CHOICE { mo [0] IMPLICIT Call, mt [PRIVATE 3] Call, text IA5String }
+        // Call ::= SEQUENCE { duration [1] INTEGER }
+        ASN1Schema schema = schema(
+                type("Tagged", ASN1BaseType.SEQUENCE, tag(null, 7, TaggingMode.IMPLICIT),
+                        field("id", "INTEGER", tag(null, 0, null))),
+                type("Event", ASN1BaseType.CHOICE, null,
+                        field("mo", "Call", tag(null, 0, TaggingMode.IMPLICIT)),
+                        field("mt", "Call", tag(TagClass.PRIVATE, 3, null)),
+                        field("text", "IA5String", null)),
+                type("Call", ASN1BaseType.SEQUENCE, null, field("duration", "INTEGER", tag(null, 1, null))));
+        CompiledSchema compiled = SchemaCompiler.compile(schema, TaggingMode.IMPLICIT, null);
+
+        int matched = 0;
+        for (TagClass tagClass : TagClass.values()) {
+            for (int number = 0; number < 32; number++) {
+                int state = compiled.transition(CompiledSchema.ROOT, Tags.pack(tagClass, false, number));
+                if (state == CompiledSchema.NO_STATE) {
+                    continue;
+                }
+                String tag = tagClass + " " + number;
+                ASN1TypeDefinition indexed = schema.findElementByTag(tagClass, number).orElse(null);
+                assertTrue(indexed != null, "not indexed: " + tag);
+                assertEquals(compiled.segment(state, 0), indexed.getName(), tag);
+                matched++;
+            }
+        }
+        assertEquals(4, matched);
+        assertEquals("Tagged", compiled.path(compiled.transition(CompiledSchema.ROOT, context(7))));
+        assertEquals("Event.mo", compiled.path(compiled.transition(CompiledSchema.ROOT, context(0))));
+        assertEquals("Event.text", compiled.path(compiled.transition(CompiledSchema.ROOT, universal(22))));
+    }
+
+    /**
+     * Record ::= SEQUENCE { a [0] INTEGER, b [1] OCTET STRING, list [2] Ints, nested [3] Inner }
+     * Ints ::= SEQUENCE OF INTEGER
+     * Inner ::= SEQUENCE { c [0] BOOLEAN }
+     */
+    private static ASN1Schema fieldSchema(boolean reversed) {
+        ASN1TypeDefinition ints = type("Ints", ASN1BaseType.SEQUENCE_OF, null);
+        ints.setElementTypeName("INTEGER");
+        ASN1TypeDefinition[] types = {
+                type("Record", ASN1BaseType.SEQUENCE, null,
+                        field("a", "INTEGER", tag(TagClass.CONTEXT_SPECIFIC, 0, null)),
+                        field("b", "OCTET STRING", tag(TagClass.CONTEXT_SPECIFIC, 1, null)),
+                        field("list", "Ints", tag(TagClass.CONTEXT_SPECIFIC, 2, null)),
+                        field("nested", "Inner", tag(TagClass.CONTEXT_SPECIFIC, 3, null))),
+                ints,
+                type("Inner", ASN1BaseType.SEQUENCE, null, field("c", "BOOLEAN", tag(TagClass.CONTEXT_SPECIFIC, 0, null)))
+        };
+        ASN1Schema schema = new ASN1Schema();
+        for (int i = 0; i < types.length; i++) {
+            ASN1TypeDefinition def = types[reversed ? types.length - 1 - i : i];
+            schema.addTypeDefinition(def.getName(), def);
+        }
+        return schema;
+    }
+
+    private static ASN1Schema schema(ASN1TypeDefinition... types) {
+        ASN1Schema schema = new ASN1Schema();
+        for (ASN1TypeDefinition def : types) {
+            schema.addTypeDefinition(def.getName(), def);
+        }
+        return schema;
+    }
+
+    private static ASN1TypeDefinition type(String name, ASN1BaseType baseType, ASN1TagInfo tag, ASN1TypeDefinition.ASN1Field... fields) {
+        ASN1TypeDefinition def = new ASN1TypeDefinition(name);
+        def.setBaseType(baseType);
+        def.setTagInfo(tag);
+        for (ASN1TypeDefinition.ASN1Field field : fields) {
+            def.addField(field);
+        }
+        return def;
+    }
+
+    private static ASN1TypeDefinition.ASN1Field field(String name, String typeName, ASN1TagInfo tag) {
+        ASN1TypeDefinition.ASN1Field field = new ASN1TypeDefinition.ASN1Field(name, typeName, false);
+        field.setTagInfo(tag);
+        return field;
+    }
+
+    private static ASN1TagInfo tag(TagClass tagClass, int number, TaggingMode mode) {
+        return new ASN1TagInfo(tagClass, number, mode);
+    }
+
+    private static int context(int number) {
+        return Tags.pack(TagClass.CONTEXT_SPECIFIC, false, number);
+    }
+
+    private static int universal(int number) {
+        return Tags.pack(TagClass.UNIVERSAL, false, number);
+    }
+}
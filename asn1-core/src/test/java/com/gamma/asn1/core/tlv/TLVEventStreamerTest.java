@@ -0,0 +1,308 @@
+package com.gamma.asn1.core.tlv;
+
+import com.gamma.asn1.core.exception.ASN1ProcessingException;
+import com.gamma.asn1.core.exception.CorruptTLVException;
+import com.gamma.asn1.core.io.BufferByteSource;
+import com.gamma.asn1.core.io.ByteSource;
+import com.gamma.asn1.core.io.ByteSources;
+import com.gamma.asn1.core.io.MappedFileByteSource;
+import com.gamma.asn1.core.io.ReadAheadByteSource;
+import com.gamma.asn1.core.io.StreamByteSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Feeds the same records through every {@link ByteSource} and checks that the events, including their offsets,
+ * match those of a single resident buffer. Tiny blocks and short reads make headers and values straddle blocks.
+ */
+class TLVEventStreamerTest {
+
+    private static final byte[] DATA = records(new Random(7), 300);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void streamSourcesWithTinyBlocksMatchTheResidentBuffer() throws Exception {
+        for (boolean skipping : new boolean[]{false, true}) {
+            List<String> expected = reference(DATA, skipping);
+            for (int blockSize : new int[]{1, 2, 3, 7, 10, 64, 4096}) {
+                for (int maxRead : new int[]{1, 5, 1 << 16}) {
+                    String label = "block " + blockSize + ", reads of " + maxRead + (skipping ? ", skipping" : "");
+                    ByteSource source = new StreamByteSource(new ShortReadInputStream(DATA, maxRead), blockSize);
+                    assertEquals(expected, events(source, skipping), label);
+                }
+            }
+        }
+    }
+
+    @Test
+    void readAheadPoolMatchesTheResidentBuffer() throws Exception {
+        // {block size, buffer count, headroom}: headrooms smaller than a header or value force the fallback
+        // that collects several blocks.
+        int[][] settings = {{16, 2, 10}, {7, 3, 0}, {64, 2, 16}, {1000, 2, 64}, {5000, 4, 4096}};
+        for (boolean skipping : new boolean[]{false, true}) {
+            List<String> expected = reference(DATA, skipping);
+            for (int[] s : settings) {
+                String label = Arrays.toString(s) + (skipping ? ", skipping" : "");
+                InputStream in = new ShortReadInputStream(DATA, 3);
+                try (ByteSource source = new ReadAheadByteSource(Channels.newChannel(in), s[0], s[1], s[2])) {
+                    assertEquals(expected, events(source, skipping), label);
+                }
+            }
+        }
+    }
+
+    @Test
+    void mappedWindowsMatchTheResidentBuffer() throws Exception {
+        Path file = Files.write(dir.resolve("records.ber"), DATA);
+        for (boolean skipping : new boolean[]{false, true}) {
+            List<String> expected = reference(DATA, skipping);
+            for (int window : new int[]{1, 16, 100, 4096, MappedFileByteSource.DEFAULT_WINDOW_SIZE}) {
+                try (ByteSource source = new MappedFileByteSource(file, window)) {
+                    assertEquals(expected, events(source, skipping), "window " + window);
+                }
+            }
+        }
+    }
+
+    @Test
+    void compressedFilesMatchTheResidentBuffer() throws Exception {
+        // Enough incompressible data for several inflation batches of the blocked reader.
+        byte[] data = records(new Random(11), 1800);
+        assertTrue(data.length > 2 << 20, "only " + data.length + " bytes");
+        List<String> expected = reference(data, false);
+
+        Path gzip = dir.resolve("records.ber.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+            out.write(data);
+        }
+        Path multiMember = dir.resolve("multi.ber.gz");
+        try (OutputStream file = Files.newOutputStream(multiMember)) {
+            int half = data.length / 2 + 1;
+            for (int start = 0; start < data.length; start += half) {
+                GZIPOutputStream member = new GZIPOutputStream(file);
+                member.write(data, start, Math.min(half, data.length - start));
+                member.finish();
+            }
+        }
+        Path bgzf = Files.write(dir.resolve("records.ber.bgz"), bgzf(data, 997));
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            for (Path file : new Path[]{gzip, multiMember, bgzf}) {
+                try (ByteSource source = ByteSources.open(file, pool)) {
+                    assertEquals(expected, events(source, false), file.getFileName().toString());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void truncatedInputFailsAtTheSameOffsetInEverySource() throws Exception {
+        byte[] data = records(new Random(3), 20);
+        Random random = new Random(5);
+        for (int i = 0; i < 200; i++) {
+            int cut = 1 + random.nextInt(data.length - 1);
+            byte[] truncated = Arrays.copyOf(data, cut);
+            List<String> expected = reference(truncated, false);
+            assertTrue(expected.get(expected.size() - 1).startsWith("error"), "cut at " + cut + " did not fail");
+            for (int blockSize : new int[]{1, 3, 16}) {
+                ByteSource source = new StreamByteSource(new ShortReadInputStream(truncated, 2), blockSize);
+                assertEquals(expected, events(source, false), "cut at " + cut + ", block " + blockSize);
+            }
+            try (ByteSource source = new ReadAheadByteSource(Channels.newChannel(new ByteArrayInputStream(truncated)), 8, 2, 4)) {
+                assertEquals(expected, events(source, false), "cut at " + cut + ", read-ahead");
+            }
+        }
+    }
+
+    private static List<String> reference(byte[] data, boolean skipping) throws IOException {
+        return events(new BufferByteSource(data), skipping);
+    }
+
+    /**
+     * Processes a source and returns its events, ending with the error if processing failed.
+     */
+    private static List<String> events(ByteSource source, boolean skipping) throws IOException {
+        Recorder recorder = new Recorder(skipping);
+        try {
+            new TLVEventStreamer().process(source, recorder);
+        } catch (ASN1ProcessingException e) {
+            assertTrue(e instanceof CorruptTLVException, "unexpected " + e);
+            recorder.events.add("error @" + e.getByteOffset() + ": " + e.getMessage());
+        }
+        return recorder.events;
+    }
+
+    /**
+     * Records every event as text. When skipping, elements whose tag number is a multiple of 5 are rejected.
+     */
+    private static final class Recorder implements TLVFlyweightListener {
+        final List<String> events = new ArrayList<>();
+        private final boolean skipping;
+        private final CRC32 crc = new CRC32();
+
+        Recorder(boolean skipping) {
+            this.skipping = skipping;
+        }
+
+        @Override
+        public boolean acceptElement(int tag, int length, long offset) {
+            if (skipping && Tags.number(tag) % 5 == 0) {
+                events.add("skip " + Tags.toHex(tag) + " " + length + " @" + offset);
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public void onStartTag(int tag, int length, long offset) {
+            throw new AssertionError("The streamer reports the header length.");
+        }
+
+        @Override
+        public void onStartTag(int tag, int headerLength, int length, long offset) {
+            events.add("start " + Tags.toHex(tag) + " " + headerLength + "+" + length + " @" + offset);
+        }
+
+        @Override
+        public void onPrimitiveValue(ValueView value) {
+            crc.reset();
+            crc.update(value.toByteArray());
+            events.add("value " + value.length() + " " + Long.toHexString(crc.getValue()));
+        }
+
+        @Override
+        public void onEndTag(int tag) {
+            events.add("end " + Tags.toHex(tag));
+        }
+    }
+
+    /**
+     * Returns at most {@code maxRead} bytes per read, as pipes and decompressing streams may.
+     */
+    private static final class ShortReadInputStream extends ByteArrayInputStream {
+        private final int maxRead;
+
+        ShortReadInputStream(byte[] data, int maxRead) {
+            super(data);
+            this.maxRead = maxRead;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            return super.read(b, off, Math.min(len, maxRead));
+        }
+
+        @Override
+        public synchronized long skip(long n) {
+            return super.skip(Math.min(n, maxRead));
+        }
+    }
+
+    /**
+     * Generates top-level SEQUENCEs with nested elements of every tag class, high tag numbers, empty, short and
+     * long values, and some lengths in a needlessly long form.
+     */
+    private static byte[] records(Random random, int count) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < count; i++) {
+            out.writeBytes(encode(Tags.pack(0, true, 16), content(random, 1), random));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] content(Random random, int depth) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = random.nextInt(8); i >= 0; i--) {
+            int number = random.nextInt(6) == 0 ? 31 + random.nextInt(200_000) : random.nextInt(31);
+            boolean constructed = depth < 4 && random.nextInt(4) == 0;
+            byte[] value;
+            if (constructed) {
+                value = content(random, depth + 1);
+            } else {
+                int kind = random.nextInt(10);
+                value = new byte[kind == 0 ? 0 : kind < 8 ? random.nextInt(20) : 100 + random.nextInt(3000)];
+                random.nextBytes(value);
+            }
+            out.writeBytes(encode(Tags.pack(random.nextInt(4), constructed, number), value, random));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] encode(int tag, byte[] value, Random random) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(Tags.toBytes(tag));
+        int length = value.length;
+        if (random.nextInt(5) == 0) {
+            out.write(0x84);
+            out.writeBytes(ByteBuffer.allocate(4).putInt(length).array());
+        } else if (length < 0x80) {
+            out.write(length);
+        } else if (length <= 0xFF) {
+            out.write(0x81);
+            out.write(length);
+        } else {
+            out.write(0x82);
+            out.write(length >>> 8);
+            out.write(length);
+        }
+        out.writeBytes(value);
+        return out.toByteArray();
+    }
+
+    /**
+     * Compresses data as a blocked gzip file: one member per {@code memberSize} bytes, each recording its
+     * compressed size in a {@code BC} extra field.
+     */
+    private static byte[] bgzf(byte[] data, int memberSize) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] deflated = new byte[memberSize + 1024];
+        for (int start = 0; start < data.length; start += memberSize) {
+            int length = Math.min(memberSize, data.length - start);
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            deflater.setInput(data, start, length);
+            deflater.finish();
+            int n = 0;
+            while (!deflater.finished()) {
+                n += deflater.deflate(deflated, n, deflated.length - n);
+            }
+            deflater.end();
+            CRC32 crc = new CRC32();
+            crc.update(data, start, length);
+
+            int total = 18 + n + 8;
+            ByteBuffer member = ByteBuffer.allocate(total).order(ByteOrder.LITTLE_ENDIAN);
+            member.put(new byte[]{0x1F, (byte) 0x8B, 8, 4}).putInt(0).put((byte) 0).put((byte) 0xFF);
+            member.putShort((short) 6).put((byte) 'B').put((byte) 'C').putShort((short) 2).putShort((short) (total - 1));
+            member.put(deflated, 0, n).putInt((int) crc.getValue()).putInt(length);
+            out.writeBytes(member.array());
+        }
+        return out.toByteArray();
+    }
+}
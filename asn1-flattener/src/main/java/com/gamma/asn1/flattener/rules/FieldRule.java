@@ -14,6 +14,7 @@ public class FieldRule {
     private String path; // Path to the source field in the DecodedNode (for simple map, or source for reduce/expand).
     private String type; // Explicit output Avro type (e.g., "string", "long", "int", "boolean", "bytes").
     private String doc;  // Documentation for the field, to be included in the Avro schema.
+    private boolean intern; // Cache decoded values of 'path' by their raw bytes; for low-cardinality fields such as APNs.
 
     // Attributes specific to 'reduce' rules
     private String reduce; // Path to the list of sub-records in DecodedNode to be reduced.
@@ -36,6 +37,8 @@ public class FieldRule {
     public void setType(String type) { this.type = type; }
     public String getDoc() { return doc; }
     public void setDoc(String doc) { this.doc = doc; }
+    public boolean isIntern() { return intern; }
+    public void setIntern(boolean intern) { this.intern = intern; }
     public String getReduce() { return reduce; }
     public void setReduce(String reduce) { this.reduce = reduce; }
     public String getAs() { return as; }
@@ -63,7 +66,8 @@ public class FieldRule {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         FieldRule fieldRule = (FieldRule) o;
-        return Objects.equals(name, fieldRule.name) &&
+        return intern == fieldRule.intern &&
+               Objects.equals(name, fieldRule.name) &&
                Objects.equals(path, fieldRule.path) &&
                Objects.equals(type, fieldRule.type) &&
                Objects.equals(doc, fieldRule.doc) &&
@@ -76,7 +80,7 @@ public class FieldRule {
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, path, type, doc, reduce, as, keyBy, rules, expand);
+        return Objects.hash(name, path, type, doc, intern, reduce, as, keyBy, rules, expand);
     }
 
     @Override
@@ -85,6 +89,7 @@ public class FieldRule {
                "name='" + name + '\'' +
                (path != null ? ", path='" + path + '\'' : "") +
                (type != null ? ", type='" + type + '\'' : "") +
+               (intern ? ", intern=true" : "") +
                (reduce != null ? ", reduce='" + reduce + '\'' : "") +
                (expand != null ? ", expand='" + expand + '\'' : "") +
                '}';
@@ -0,0 +1,261 @@
+package com.gamma.asn1.flattener.rules;
+
+import com.gamma.asn1.core.mapper.FieldInterner;
+import com.gamma.asn1.core.mapper.FieldProjection;
+import com.gamma.asn1.core.query.PathQuery;
+import com.gamma.asn1.core.schema.CompiledSchema;
+import com.gamma.asn1.flattener.exception.FlattenerException;
+import com.gamma.asn1.grammar.ASN1Schema;
+import com.gamma.asn1.model.ASN1BaseType;
+import com.gamma.asn1.model.ASN1TypeDefinition;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Derives the {@link FieldProjection} a set of {@link FlattenerRules} needs, so the decoder can skip every
+ * element the rules never read.
+ * <p>
+ * A rule needs its {@code path}, its {@code expand} list and, for {@code reduce} rules, the aggregated fields
+ * and {@code keyBy} field of every list item. A {@code count} without a field needs the whole list. Every path
+ * is checked against the schema; the first segment names a top-level type and is matched without regard to
+ * case, so that {@code callEventRecord} selects the type {@code CallEventRecord}.
+ * <p>
+ * For rules evaluated against decoded trees, {@link #query} compiles the same paths into a single {@link PathQuery}.
+ * Rules marked {@code intern: true} select the fields whose values {@link #interner} caches.
+ */
+public final class ProjectionPlanner {
+
+    private ProjectionPlanner() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Computes the projection for a set of rules.
+     *
+     * @param rules  The flattener rules.
+     * @param schema The schema the data is decoded with.
+     * @return The projection selecting only the elements the rules reference.
+     * @throws FlattenerException If a rule references a path that does not exist in the schema.
+     */
+    public static FieldProjection plan(FlattenerRules rules, ASN1Schema schema) throws FlattenerException {
+        return FieldProjection.of(requiredPaths(rules, schema));
+    }
+
+    /**
+     * Collects the schema paths referenced by a set of rules, in the naming used by the
+     * {@link com.gamma.asn1.core.mapper.SemanticEventMapper}.
+     *
+     * @param rules  The flattener rules.
+     * @param schema The schema the data is decoded with.
+     * @return The referenced paths, in rule order.
+     * @throws FlattenerException If a rule references a path that does not exist in the schema.
+     */
+    public static Set<String> requiredPaths(FlattenerRules rules, ASN1Schema schema) throws FlattenerException {
+        Set<String> paths = new LinkedHashSet<>();
+        if (rules.getFields() == null) {
+            return paths;
+        }
+        Map<String, ASN1TypeDefinition> types = schema.getAllTypeDefinitions();
+        for (FieldRule rule : rules.getFields()) {
+            if (rule.getPath() != null) {
+                paths.add(resolve(rule.getPath(), types, rule));
+            }
+            if (rule.isExpandRule()) {
+                paths.add(resolve(rule.getExpand(), types, rule));
+            }
+            if (rule.isReduceRule()) {
+                String list = rule.getReduce();
+                boolean wholeList = false;
+                if (rule.getRules() != null) {
+                    for (String field : rule.getRules().values()) {
+                        if (field == null || field.isEmpty()) {
+                            wholeList = true;
+                        } else {
+                            paths.add(resolve(list + "." + field, types, rule));
+                        }
+                    }
+                }
+                if (rule.getKeyBy() != null && !rule.getKeyBy().isEmpty()) {
+                    paths.add(resolve(list + "." + rule.getKeyBy(), types, rule));
+                }
+                String resolvedList = resolve(list, types, rule);
+                if (wholeList) {
+                    paths.add(resolvedList);
+                }
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Compiles the paths read by a set of rules into one query, so that every record is walked once for all rules.
+     *
+     * @param rules    The flattener rules.
+     * @param schema   The schema the data is decoded with.
+     * @param compiled The compiled form of the schema.
+     * @return The query; see {@link #queryPaths} for the order of its expressions.
+     * @throws FlattenerException If a rule references a path that does not exist in the schema.
+     */
+    public static PathQuery query(FlattenerRules rules, ASN1Schema schema, CompiledSchema compiled) throws FlattenerException {
+        try {
+            return PathQuery.compile(compiled, queryPaths(rules, schema));
+        } catch (IllegalArgumentException e) {
+            throw new FlattenerException("Rules reference a path outside the record types: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Collects the path expressions a set of rules reads from a decoded record, without duplicates and in rule
+     * order. Simple mappings and aggregated fields select the named element; {@code reduce} and {@code expand}
+     * sources select the items of their list, with the {@code [*]} wildcard of {@link PathQuery}.
+     *
+     * @param rules  The flattener rules.
+     * @param schema The schema the data is decoded with.
+     * @return The path expressions.
+     * @throws FlattenerException If a rule references a path that does not exist in the schema.
+     */
+    public static List<String> queryPaths(FlattenerRules rules, ASN1Schema schema) throws FlattenerException {
+        Set<String> paths = new LinkedHashSet<>();
+        if (rules.getFields() != null) {
+            Map<String, ASN1TypeDefinition> types = schema.getAllTypeDefinitions();
+            for (FieldRule rule : rules.getFields()) {
+                if (rule.getPath() != null) {
+                    paths.add(resolve(rule.getPath(), types, rule));
+                }
+                if (rule.isExpandRule()) {
+                    paths.add(resolve(rule.getExpand(), types, rule) + "[*]");
+                }
+                if (rule.isReduceRule()) {
+                    String list = rule.getReduce();
+                    paths.add(resolve(list, types, rule) + "[*]");
+                    if (rule.getRules() != null) {
+                        for (String field : rule.getRules().values()) {
+                            if (field != null && !field.isEmpty()) {
+                                paths.add(resolve(list + "." + field, types, rule));
+                            }
+                        }
+                    }
+                    if (rule.getKeyBy() != null && !rule.getKeyBy().isEmpty()) {
+                        paths.add(resolve(list + "." + rule.getKeyBy(), types, rule));
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(paths);
+    }
+
+    /**
+     * Collects the paths of the simple mappings that opt in to interning with {@code intern: true}.
+     *
+     * @param rules  The flattener rules.
+     * @param schema The schema the data is decoded with.
+     * @return The paths to intern, in the naming used by {@link CompiledSchema#findField}.
+     * @throws FlattenerException If an interned rule has no path, references a path that does not exist or
+     *                            references a field that is not of an ASCII string type.
+     */
+    public static Set<String> internedPaths(FlattenerRules rules, ASN1Schema schema) throws FlattenerException {
+        Set<String> paths = new LinkedHashSet<>();
+        if (rules.getFields() == null) {
+            return paths;
+        }
+        Map<String, ASN1TypeDefinition> types = schema.getAllTypeDefinitions();
+        for (FieldRule rule : rules.getFields()) {
+            if (rule.isIntern()) {
+                if (rule.getPath() == null) {
+                    throw new FlattenerException("Only rules with a path can be interned: " + rule);
+                }
+                StringBuilder path = new StringBuilder();
+                ASN1TypeDefinition.ASN1Field leaf = walk(rule.getPath(), types, rule, path);
+                ASN1BaseType type = null;
+                if (leaf != null) {
+                    ASN1TypeDefinition definition = types.get(leaf.getTypeName());
+                    type = definition != null ? definition.getBaseType() : ASN1BaseType.fromKeyword(leaf.getTypeName());
+                }
+                if (!FieldInterner.canIntern(type)) {
+                    throw new FlattenerException("Only IA5String, VisibleString, PrintableString and NumericString fields"
+                            + " can be interned, but '" + rule.getPath() + "' is " + (type == null ? "not a string" : type) + ": " + rule);
+                }
+                paths.add(path.toString());
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Creates the interner for the string fields that opt in to interning, see {@link #internedPaths}.
+     *
+     * @param rules      The flattener rules.
+     * @param schema     The schema the data is decoded with.
+     * @param compiled   The compiled form of the schema.
+     * @param maxEntries The maximum number of cached values per field.
+     * @return The interner.
+     * @throws FlattenerException If an interned path is not a string leaf of the compiled schema.
+     */
+    public static FieldInterner interner(FlattenerRules rules, ASN1Schema schema, CompiledSchema compiled,
+                                         int maxEntries) throws FlattenerException {
+        try {
+            return FieldInterner.ia5Strings(compiled, internedPaths(rules, schema), maxEntries);
+        } catch (IllegalArgumentException e) {
+            throw new FlattenerException("Rules intern a field that cannot be interned: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Walks a dotted path through the schema, passing through SEQUENCE OF / SET OF items.
+     *
+     * @return The path with its first segment replaced by the name of the top-level type.
+     */
+    private static String resolve(String path, Map<String, ASN1TypeDefinition> types, FieldRule rule) throws FlattenerException {
+        StringBuilder resolved = new StringBuilder();
+        walk(path, types, rule, resolved);
+        return resolved.toString();
+    }
+
+    /**
+     * Walks a dotted path through the schema, appending the resolved path to {@code resolved}.
+     *
+     * @return The field the path ends at, or {@code null} if the path names only a top-level type.
+     */
+    private static ASN1TypeDefinition.ASN1Field walk(String path, Map<String, ASN1TypeDefinition> types, FieldRule rule,
+                                                     StringBuilder resolved) throws FlattenerException {
+        String[] segments = path.split("\\.");
+        ASN1TypeDefinition current = types.get(segments[0]);
+        if (current == null) {
+            for (ASN1TypeDefinition candidate : types.values()) {
+                if (candidate.getName().equalsIgnoreCase(segments[0])) {
+                    current = candidate;
+                    break;
+                }
+            }
+        }
+        if (current == null) {
+            throw new FlattenerException("Unknown top-level type '" + segments[0] + "' in path '" + path + "' of rule " + rule);
+        }
+        resolved.append(current.getName());
+        ASN1TypeDefinition.ASN1Field field = null;
+        for (int i = 1; i < segments.length; i++) {
+            while (current != null && (current.getBaseType() == ASN1BaseType.SEQUENCE_OF || current.getBaseType() == ASN1BaseType.SET_OF)) {
+                current = types.get(current.getElementTypeName());
+            }
+            field = null;
+            if (current != null) {
+                for (ASN1TypeDefinition.ASN1Field candidate : current.getFields()) {
+                    if (candidate.getName().equals(segments[i])) {
+                        field = candidate;
+                        break;
+                    }
+                }
+            }
+            if (field == null) {
+                throw new FlattenerException("Unknown field '" + segments[i] + "' in path '" + path + "' of rule " + rule);
+            }
+            resolved.append('.').append(field.getName());
+            current = types.get(field.getTypeName());
+        }
+        return field;
+    }
+}
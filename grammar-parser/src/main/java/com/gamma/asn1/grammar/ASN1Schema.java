@@ -1,11 +1,15 @@
 package com.gamma.asn1.grammar;
 
+import com.gamma.asn1.model.ASN1BaseType;
+import com.gamma.asn1.model.ASN1TagInfo;
 import com.gamma.asn1.model.ASN1TypeDefinition;
-// Removed: import com.gamma.asn1.model.SchemaElement; // As SchemaElement is deleted
+import com.gamma.asn1.model.TagClass;
 
 import java.io.Serializable;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -19,6 +23,9 @@ public class ASN1Schema implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private final Map<String, ASN1TypeDefinition> typeDefinitions;
+    // Built on demand by findElementByTag and dropped whenever a definition is added; both under the lock on this
+    // schema, so an index built from an older set of definitions is never published after a newer one.
+    private transient volatile TagIndex tagIndex;
 
     public ASN1Schema() {
         this.typeDefinitions = new ConcurrentHashMap<>();
@@ -30,7 +37,10 @@ public class ASN1Schema implements Serializable {
      * @param definition The fully parsed {@link ASN1TypeDefinition} object.
      */
     public void addTypeDefinition(String name, ASN1TypeDefinition definition) {
-        this.typeDefinitions.put(name, definition);
+        synchronized (this) {
+            this.typeDefinitions.put(name, definition);
+            this.tagIndex = null;
+        }
     }
 
     /**
@@ -38,45 +48,68 @@ public class ASN1Schema implements Serializable {
      * This method would typically be used to find the definition of an implicitly tagged
      * top-level type in a BER/DER encoded message.
      *
-     * <p>Note: The actual tag matching logic can be complex, involving tag class,
-     * number, and potentially information about IMPLICIT/EXPLICIT tagging context
-     * if searching within a specific module or context. This implementation is a placeholder
-     * and a full implementation would require a robust ASN.1 parsing and resolution engine.</p>
-     *
-     * @param tagBytes The raw byte array of the ASN.1 tag.
-     * @return An Optional containing the {@link ASN1TypeDefinition} if a uniquely matching
-     *         type definition is found, otherwise empty.
+     * @param tagBytes The raw identifier octets of the ASN.1 tag; the constructed bit is ignored.
+     * @return An Optional containing the {@link ASN1TypeDefinition} matching the tag as described in
+     *         {@link #findElementByTag(TagClass, int)}, otherwise empty.
+     * @throws IllegalArgumentException If the bytes are not a complete tag.
      */
     public Optional<ASN1TypeDefinition> findElementByTag(byte[] tagBytes) {
-        // Placeholder implementation.
-        // Actual logic would involve:
-        // 1. Parsing the tagBytes to extract tag class, number, and constructed/primitive flag.
-        // 2. Iterating through typeDefinitions.values().
-        // 3. For each ASN1TypeDefinition, get its ASN1TagInfo.
-        // 4. Compare the parsed tag from tagBytes with the ASN1TagInfo.
-        //    - This needs to consider default tagging (UNIVERSAL class for standard types if no explicit tag).
-        //    - For example, an INTEGER is UNIVERSAL 2. A [CONTEXT 0] INTEGER would have different tagInfo.
-        //    - The matching needs to be precise.
-        // 5. This is a simplified placeholder. Real-world scenarios might require more context
-        //    (e.g., if multiple types could potentially match a CONTEXT_SPECIFIC tag,
-        //    disambiguation rules or further schema information would be needed).
-
-        // Example conceptual check (not fully functional without tag parsing and full TagInfo comparison):
-        // for (ASN1TypeDefinition def : typeDefinitions.values()) {
-        //     if (def.getTagInfo() != null) {
-        //         // Hypothetical TagParser.parse(tagBytes) would return an object (e.g. ParsedTag)
-        //         // ParsedTag inputTag = TagParser.parse(tagBytes);
-        //         // ASN1TagInfo schemaTag = def.getTagInfo();
-        //         // if (inputTag.getTagClass() == schemaTag.getTagClass() &&
-        //         //     inputTag.getTagNumber() == schemaTag.getTagNumber()) {
-        //         //     return Optional.of(def);
-        //         // }
-        //     } else {
-        //         // Handle types with default UNIVERSAL tags (e.g. INTEGER, SEQUENCE)
-        //         // This would require mapping ASN1BaseType to its default UNIVERSAL tag.
-        //     }
-        // }
-        return Optional.empty(); // Placeholder - full implementation is complex and context-dependent.
+        if (tagBytes == null || tagBytes.length == 0) {
+            throw new IllegalArgumentException("Tag bytes cannot be empty");
+        }
+        TagClass tagClass = TagClass.values()[(tagBytes[0] >> 6) & 0x03];
+        int tagNumber = tagBytes[0] & 0x1F;
+        if (tagNumber == 0x1F) {
+            // High-tag-number form: base-128 digits, the last one with the top bit clear.
+            tagNumber = 0;
+            int i = 1;
+            while (true) {
+                if (i >= tagBytes.length || i > 4) {
+                    throw new IllegalArgumentException("Incomplete or oversized high-tag-number form");
+                }
+                int b = tagBytes[i++];
+                tagNumber = (tagNumber << 7) | (b & 0x7F);
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+            }
+        }
+        return findElementByTag(tagClass, tagNumber);
+    }
+
+    /**
+     * Finds a top-level type definition by tag class and number.
+     * <p>
+     * Types with an explicit {@link ASN1TagInfo} are matched on that tag. An untagged CHOICE has no tag of its
+     * own and is matched on the tags of its alternatives instead, e.g. the {@code CallEventRecord} of 3GPP TS
+     * 32.298 on {@code [20]} for its {@code sgsnPDPRecord}; an untagged alternative contributes the tag of its
+     * type. Other untagged types are matched on the default UNIVERSAL tag of their
+     * {@link com.gamma.asn1.model.ASN1BaseType}. A tag without a class is context-specific, as defined by
+     * {@link ASN1TagInfo#getEffectiveTagClass()}.
+     * <p>
+     * Where several types share a tag, an explicit tag wins over a CHOICE alternative, and a CHOICE alternative
+     * over a default tag. Different types sharing a tag at the same level are ambiguous, e.g. two untagged
+     * SEQUENCE types on UNIVERSAL 16, and the lookup returns empty rather than guess.
+     * <p>
+     * Lookups use a tag index built on the first lookup after the schema last changed, so each lookup is
+     * a single probe. Definitions must be added with {@link #addTypeDefinition} for the index to see them.
+     *
+     * @param tagClass  The class of the tag.
+     * @param tagNumber The tag number.
+     * @return An Optional containing the matching {@link ASN1TypeDefinition}, otherwise empty.
+     */
+    public Optional<ASN1TypeDefinition> findElementByTag(TagClass tagClass, int tagNumber) {
+        TagIndex index = tagIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = tagIndex;
+                if (index == null) {
+                    index = new TagIndex(typeDefinitions);
+                    tagIndex = index;
+                }
+            }
+        }
+        return Optional.ofNullable(index.get(tagClass, tagNumber));
     }
 
     public Optional<ASN1TypeDefinition> getTypeDefinition(String name) {
@@ -86,4 +119,144 @@ public class ASN1Schema implements Serializable {
     public Map<String, ASN1TypeDefinition> getAllTypeDefinitions() {
         return typeDefinitions;
     }
-}
\ No newline at end of file
+
+    /**
+     * An open-addressing table from packed (class, number) keys to type definitions. Every entry has a rank, and
+     * a key claimed by different definitions of the same rank is marked ambiguous.
+     */
+    private static final class TagIndex {
+        private static final byte DEFAULT = 1;
+        private static final byte ALTERNATIVE = 2;
+        private static final byte EXPLICIT = 3;
+
+        private final Map<String, ASN1TypeDefinition> definitions;
+        private int[] keys;
+        private ASN1TypeDefinition[] values;
+        private byte[] ranks;
+        private boolean[] ambiguous;
+        private int mask;
+        private int size;
+
+        TagIndex(Map<String, ASN1TypeDefinition> definitions) {
+            this.definitions = definitions;
+            allocate(Integer.highestOneBit(Math.max(4, definitions.size() * 2 - 1)) << 1);
+            for (ASN1TypeDefinition def : definitions.values()) {
+                ASN1TagInfo tagInfo = def.getTagInfo();
+                if (tagInfo != null) {
+                    put(key(tagInfo), def, EXPLICIT);
+                } else if (def.getBaseType() == ASN1BaseType.CHOICE) {
+                    putAlternatives(def, def, new HashSet<>());
+                } else if (def.getBaseType() != null && def.getBaseType().getUniversalTagNumber() >= 0) {
+                    put(key(TagClass.UNIVERSAL, def.getBaseType().getUniversalTagNumber()), def, DEFAULT);
+                }
+            }
+        }
+
+        /**
+         * Indexes the tags of the alternatives of an untagged CHOICE, descending into untagged nested CHOICEs.
+         */
+        private void putAlternatives(ASN1TypeDefinition choice, ASN1TypeDefinition owner, Set<String> expanding) {
+            if (!expanding.add(choice.getName())) {
+                return; // A CHOICE that contains itself untagged has no tag to dispatch on.
+            }
+            for (ASN1TypeDefinition.ASN1Field alternative : choice.getFields()) {
+                if (alternative.getTagInfo() != null) {
+                    put(key(alternative.getTagInfo()), owner, ALTERNATIVE);
+                    continue;
+                }
+                ASN1TypeDefinition type = definitions.get(alternative.getTypeName());
+                ASN1BaseType baseType = type != null ? type.getBaseType() : ASN1BaseType.fromKeyword(alternative.getTypeName());
+                if (type != null && type.getTagInfo() != null) {
+                    put(key(type.getTagInfo()), owner, ALTERNATIVE);
+                } else if (type != null && baseType == ASN1BaseType.CHOICE) {
+                    putAlternatives(type, owner, expanding);
+                } else if (baseType != null && baseType.getUniversalTagNumber() >= 0) {
+                    put(key(TagClass.UNIVERSAL, baseType.getUniversalTagNumber()), owner, ALTERNATIVE);
+                }
+            }
+            expanding.remove(choice.getName());
+        }
+
+        private static int key(ASN1TagInfo tagInfo) {
+            return key(tagInfo.getEffectiveTagClass(), tagInfo.getTagNumber());
+        }
+
+        private static int key(TagClass tagClass, int tagNumber) {
+            return (tagClass.ordinal() << 30) | (tagNumber & 0x3FFFFFFF);
+        }
+
+        private static int hash(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        private void allocate(int capacity) {
+            keys = new int[capacity];
+            values = new ASN1TypeDefinition[capacity];
+            ranks = new byte[capacity];
+            ambiguous = new boolean[capacity];
+            mask = capacity - 1;
+            size = 0;
+        }
+
+        /**
+         * Doubles the table, keeping it at most half full; CHOICE alternatives can add more keys than there are
+         * definitions.
+         */
+        private void grow() {
+            int[] oldKeys = keys;
+            ASN1TypeDefinition[] oldValues = values;
+            byte[] oldRanks = ranks;
+            boolean[] oldAmbiguous = ambiguous;
+            allocate(oldKeys.length * 2);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    int slot = hash(oldKeys[i]) & mask;
+                    while (values[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                    ranks[slot] = oldRanks[i];
+                    ambiguous[slot] = oldAmbiguous[i];
+                    size++;
+                }
+            }
+        }
+
+        private void put(int key, ASN1TypeDefinition def, byte rank) {
+            int slot = hash(key) & mask;
+            while (values[slot] != null) {
+                if (keys[slot] == key) {
+                    if (rank > ranks[slot]) {
+                        values[slot] = def;
+                        ranks[slot] = rank;
+                        ambiguous[slot] = false;
+                    } else if (rank == ranks[slot] && values[slot] != def) {
+                        ambiguous[slot] = true;
+                    }
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = def;
+            ranks[slot] = rank;
+            if (++size > (mask + 1) / 2) {
+                grow();
+            }
+        }
+
+        ASN1TypeDefinition get(TagClass tagClass, int tagNumber) {
+            int key = key(tagClass, tagNumber);
+            int slot = hash(key) & mask;
+            while (values[slot] != null) {
+                if (keys[slot] == key) {
+                    return ambiguous[slot] ? null : values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+    }
+}
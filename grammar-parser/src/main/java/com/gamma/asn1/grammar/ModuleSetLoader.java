@@ -0,0 +1,294 @@
+package com.gamma.asn1.grammar;
+
+import com.gamma.asn1.model.ASN1BaseType;
+import com.gamma.asn1.model.ASN1TypeDefinition;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads a grammar that spans several ASN.1 modules, e.g. the 3GPP TS 32.298 set of GPRSChargeable, CAMEL and
+ * GenericChargingDataTypes plus vendor extensions, into one {@link ASN1Schema}.
+ * <p>
+ * Every module file is read and parsed on its own thread, with its own {@link ASN1GrammarParser}. With a cache
+ * directory, each module is cached in its own {@link SchemaCache} file, so changing one module re-parses only that
+ * module; cache files are named after the module file and a hash of its absolute path, so equally named files in
+ * different directories do not share a cache. Cross-module references are resolved once all modules are loaded:
+ * every type a module imports must be defined by the module it names, every field and element type must refer to a
+ * built-in type, a type of its own module or a type it imports, and a type name may only be defined by one module,
+ * since the schema is keyed by type name.
+ * <p>
+ * The module name and the {@code IMPORTS} clause are read from the module header by {@link #readHeader}.
+ */
+public class ModuleSetLoader {
+
+    private final Path cacheDirectory;
+    private final int parallelism;
+
+    /**
+     * @param cacheDirectory The directory to cache parsed modules in, or {@code null} to parse every module on
+     *                       every load.
+     * @param parallelism    The number of modules parsed at the same time.
+     */
+    public ModuleSetLoader(Path cacheDirectory, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.cacheDirectory = cacheDirectory;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Loads and links a set of modules.
+     *
+     * @param moduleFiles The {@code .asn} files, one module per file.
+     * @return The schema holding the types of all modules.
+     * @throws IOException If a module cannot be read or parsed, or its references cannot be resolved.
+     */
+    public ASN1Schema load(List<Path> moduleFiles) throws IOException {
+        List<Module> modules = new ArrayList<>(moduleFiles.size());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, moduleFiles.size())));
+        try {
+            List<Future<Module>> futures = new ArrayList<>(moduleFiles.size());
+            for (Path file : moduleFiles) {
+                futures.add(executor.submit(() -> loadModule(file)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    modules.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    throw new IOException("Failed to load module " + moduleFiles.get(i) + ": " + cause, cause);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading modules", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return link(modules);
+    }
+
+    private Module loadModule(Path file) throws IOException {
+        ModuleHeader header = readHeader(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        ASN1Schema schema;
+        if (cacheDirectory != null) {
+            schema = new SchemaCache(cacheDirectory.resolve(cacheFileName(file)))
+                    .load(Collections.singletonList(file));
+        } else {
+            try (InputStream in = Files.newInputStream(file)) {
+                schema = new ASN1GrammarParser().parse(in);
+            }
+        }
+        return new Module(file, header, schema);
+    }
+
+    /**
+     * Names the cache file of a module after its file name and a hash of its absolute path.
+     */
+    static String cacheFileName(Path file) {
+        byte[] path = file.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8);
+        byte[] hash;
+        try {
+            hash = MessageDigest.getInstance("SHA-256").digest(path);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        StringBuilder name = new StringBuilder().append(file.getFileName()).append('-');
+        for (int i = 0; i < 8; i++) {
+            name.append(Character.forDigit((hash[i] >>> 4) & 0xF, 16)).append(Character.forDigit(hash[i] & 0xF, 16));
+        }
+        return name.append(".cache").toString();
+    }
+
+    /**
+     * Merges the modules into one schema and checks every cross-module reference.
+     */
+    private static ASN1Schema link(List<Module> modules) throws IOException {
+        Map<String, Module> byName = new HashMap<>();
+        for (Module module : modules) {
+            Module previous = byName.put(module.header.name, module);
+            if (previous != null) {
+                throw new IOException("Module " + module.header.name + " is defined in both " + previous.file + " and " + module.file);
+            }
+        }
+
+        ASN1Schema schema = new ASN1Schema();
+        Map<String, Module> definedBy = new HashMap<>();
+        for (Module module : modules) {
+            for (Map.Entry<String, ASN1TypeDefinition> entry : module.schema.getAllTypeDefinitions().entrySet()) {
+                Module previous = definedBy.put(entry.getKey(), module);
+                if (previous != null) {
+                    throw new IOException("Type " + entry.getKey() + " is defined in both module " + previous.header.name
+                            + " and module " + module.header.name);
+                }
+                schema.addTypeDefinition(entry.getKey(), entry.getValue());
+            }
+        }
+
+        for (Module module : modules) {
+            Set<String> visible = new HashSet<>(module.schema.getAllTypeDefinitions().keySet());
+            for (Map.Entry<String, List<String>> imports : module.header.imports.entrySet()) {
+                Module source = byName.get(imports.getKey());
+                if (source == null) {
+                    throw new IOException("Module " + module.header.name + " imports from unknown module " + imports.getKey());
+                }
+                for (String symbol : imports.getValue()) {
+                    // Only type references start with an upper-case letter; imported values are not part of the schema.
+                    if (Character.isUpperCase(symbol.charAt(0))
+                            && !source.schema.getAllTypeDefinitions().containsKey(symbol)) {
+                        throw new IOException("Module " + module.header.name + " imports " + symbol + " from "
+                                + imports.getKey() + ", which does not define it");
+                    }
+                    visible.add(symbol);
+                }
+            }
+            for (ASN1TypeDefinition def : module.schema.getAllTypeDefinitions().values()) {
+                checkReference(visible, module, def.getName(), def.getElementTypeName());
+                for (ASN1TypeDefinition.ASN1Field field : def.getFields()) {
+                    checkReference(visible, module, def.getName(), field.getTypeName());
+                }
+            }
+        }
+        return schema;
+    }
+
+    /**
+     * Checks that a type referenced by a module is built in, defined by the module itself or imported by it.
+     */
+    private static void checkReference(Set<String> visible, Module module, String from, String typeName) throws IOException {
+        if (typeName == null || ASN1BaseType.fromKeyword(typeName) != null || visible.contains(typeName)) {
+            return;
+        }
+        throw new IOException("Type " + from + " in module " + module.header.name + " refers to type " + typeName
+                + ", which the module neither defines nor imports");
+    }
+
+    // ---- Module header ----
+
+    /**
+     * Reads the module name and the {@code IMPORTS} clause of a module, without parsing its type assignments.
+     *
+     * @param text The text of the module.
+     * @return The header.
+     * @throws IOException If the text has no {@code DEFINITIONS} header.
+     */
+    static ModuleHeader readHeader(String text) throws IOException {
+        List<String> tokens = tokens(text);
+        int definitions = tokens.indexOf("DEFINITIONS");
+        if (definitions < 1) {
+            throw new IOException("Module has no DEFINITIONS header");
+        }
+        String name = tokens.get(0);
+        Map<String, List<String>> imports = new LinkedHashMap<>();
+        int begin = tokens.indexOf("BEGIN");
+        if (begin >= 0 && begin + 1 < tokens.size() && tokens.get(begin + 1).equals("IMPORTS")) {
+            List<String> symbols = new ArrayList<>();
+            for (int i = begin + 2; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                if (token.equals(";")) {
+                    break;
+                }
+                if (token.equals("FROM") && i + 1 < tokens.size()) {
+                    imports.computeIfAbsent(tokens.get(++i), module -> new ArrayList<>()).addAll(symbols);
+                    symbols.clear();
+                } else if (!token.equals(",")) {
+                    symbols.add(token);
+                }
+            }
+        }
+        return new ModuleHeader(name, imports);
+    }
+
+    /**
+     * Splits the text into identifiers and the {@code ,} and {@code ;} separators, skipping comments and
+     * brace-delimited blocks such as object identifiers.
+     */
+    private static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        int braces = 0;
+        int i = 0;
+        int n = text.length();
+        while (i < n) {
+            char c = text.charAt(i);
+            if (c == '-' && i + 1 < n && text.charAt(i + 1) == '-') {
+                // A "--" comment ends at the next "--" or at the end of the line.
+                i += 2;
+                while (i < n && text.charAt(i) != '\n' && !(text.charAt(i) == '-' && i + 1 < n && text.charAt(i + 1) == '-')) {
+                    i++;
+                }
+                i = i < n && text.charAt(i) == '-' ? i + 2 : i + 1;
+            } else if (c == '/' && i + 1 < n && text.charAt(i + 1) == '*') {
+                int end = text.indexOf("*/", i + 2);
+                i = end < 0 ? n : end + 2;
+            } else if (c == '{') {
+                braces++;
+                i++;
+            } else if (c == '}') {
+                braces = Math.max(0, braces - 1);
+                i++;
+            } else if (braces > 0) {
+                i++;
+            } else if (c == ',' || c == ';') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else if (Character.isLetterOrDigit(c)) {
+                int start = i;
+                while (i < n && (Character.isLetterOrDigit(text.charAt(i))
+                        || text.charAt(i) == '-' && !(i + 1 < n && text.charAt(i + 1) == '-'))) {
+                    i++;
+                }
+                tokens.add(text.substring(start, i));
+            } else {
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * The name of a module and the symbols it imports, keyed by the name of the module they are imported from.
+     */
+    static final class ModuleHeader {
+        final String name;
+        final Map<String, List<String>> imports;
+
+        ModuleHeader(String name, Map<String, List<String>> imports) {
+            this.name = name;
+            this.imports = imports;
+        }
+    }
+
+    private static final class Module {
+        final Path file;
+        final ModuleHeader header;
+        final ASN1Schema schema;
+
+        Module(Path file, ModuleHeader header, ASN1Schema schema) {
+            this.file = file;
+            this.header = header;
+            this.schema = schema;
+        }
+    }
+}
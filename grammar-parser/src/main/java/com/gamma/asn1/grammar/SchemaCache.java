@@ -0,0 +1,375 @@
+package com.gamma.asn1.grammar;
+
+import com.gamma.asn1.model.ASN1BaseType;
+import com.gamma.asn1.model.ASN1TagInfo;
+import com.gamma.asn1.model.ASN1TypeDefinition;
+import com.gamma.asn1.model.TagClass;
+import com.gamma.asn1.model.TaggingMode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * A binary cache of a parsed {@link ASN1Schema}, so that grammar parsing can be skipped on startup.
+ * <p>
+ * The cache file is keyed by a SHA-256 hash of the {@code .asn} sources, the cache format version and the
+ * library version. {@link #load} maps the file, checks its header, key and CRC-32, and decodes the schema from the
+ * mapped bytes; if any of them does not match, or the file is missing or damaged, the sources are parsed with
+ * {@link ASN1GrammarParser} and the cache is rewritten. A cache that cannot be written is not an error: the
+ * parsed schema is returned, and the sources are parsed again on the next load.
+ * <p>
+ * The format is a fixed header followed by a payload of a string table and the type definitions, which refer to
+ * strings by index. All numbers are big-endian.
+ * <pre>
+ *   int    magic "ASNC"
+ *   short  format version
+ *   byte[] key (32 bytes)
+ *   int    payload length
+ *   int    payload CRC-32
+ *   ...    payload
+ * </pre>
+ * The cache file is replaced atomically where the file system allows it, so concurrent readers never see a
+ * partly written cache.
+ */
+public class SchemaCache {
+
+    /** The version of the cache format; part of the key, so a format change invalidates existing caches. */
+    public static final short FORMAT_VERSION = 1;
+
+    private static final int MAGIC = 0x41534E43; // "ASNC"
+    private static final int KEY_LENGTH = 32;
+    private static final int HEADER_LENGTH = 4 + 2 + KEY_LENGTH + 4 + 4;
+    private static final int NONE = -1;
+    private static final String LIBRARY_VERSION = readLibraryVersion();
+
+    private final Path cacheFile;
+
+    /**
+     * @param cacheFile The file the schema is cached in. Its directory must exist for the cache to be written.
+     */
+    public SchemaCache(Path cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Loads the schema for a set of sources from the cache, or parses the sources and updates the cache.
+     *
+     * @param sources The {@code .asn} files of the schema. Their order is part of the key.
+     * @return The schema.
+     * @throws IOException If a source cannot be read or parsed.
+     */
+    public ASN1Schema load(List<Path> sources) throws IOException {
+        byte[] key = key(sources);
+        ASN1Schema cached = read(key);
+        if (cached != null) {
+            return cached;
+        }
+        ASN1Schema schema = parse(sources);
+        try {
+            write(schema, key);
+        } catch (IOException e) {
+            // The cache is only an optimization; the parsed schema is still valid.
+        }
+        return schema;
+    }
+
+    /**
+     * Computes the key of a set of sources: a SHA-256 hash of their contents, the cache format version and the
+     * library version.
+     *
+     * @param sources The {@code .asn} files of the schema.
+     * @return The 32-byte key.
+     * @throws IOException If a source cannot be read.
+     */
+    public static byte[] key(List<Path> sources) throws IOException {
+        MessageDigest digest = sha256();
+        digest.update(("asn1-schema-cache/" + FORMAT_VERSION + "/" + LIBRARY_VERSION).getBytes(StandardCharsets.UTF_8));
+        for (Path source : sources) {
+            byte[] content = Files.readAllBytes(source);
+            // The length separates the sources, so moving text from one file to the next changes the key.
+            digest.update(ByteBuffer.allocate(8).putLong(content.length).array());
+            digest.update(content);
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Reads the cached schema if the cache file matches a key.
+     *
+     * @param key The key of the sources, see {@link #key}.
+     * @return The cached schema, or {@code null} if the file is missing, stale or damaged.
+     */
+    public ASN1Schema read(byte[] key) {
+        if (!Files.isRegularFile(cacheFile)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_LENGTH || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getShort() != FORMAT_VERSION) {
+                return null;
+            }
+            byte[] fileKey = new byte[KEY_LENGTH];
+            buffer.get(fileKey);
+            if (!Arrays.equals(fileKey, key)) {
+                return null;
+            }
+            int payloadLength = buffer.getInt();
+            int crc = buffer.getInt();
+            if (payloadLength != size - HEADER_LENGTH) {
+                return null;
+            }
+            ByteBuffer payload = buffer.slice();
+            CRC32 checksum = new CRC32();
+            checksum.update(payload.duplicate());
+            if ((int) checksum.getValue() != crc) {
+                return null;
+            }
+            return decode(payload);
+        } catch (IOException | RuntimeException e) {
+            // A damaged payload can fail decoding in many ways, e.g. with a BufferUnderflowException or an
+            // ArrayIndexOutOfBoundsException from an invalid enum ordinal; all of them mean the cache is unusable.
+            return null;
+        }
+    }
+
+    /**
+     * Writes a schema to the cache file, replacing any previous content.
+     *
+     * @param schema The schema.
+     * @param key    The key of the sources it was parsed from, see {@link #key}.
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(ASN1Schema schema, byte[] key) throws IOException {
+        if (key.length != KEY_LENGTH) {
+            throw new IllegalArgumentException("Cache key must be " + KEY_LENGTH + " bytes, but has " + key.length);
+        }
+        byte[] payload = encode(schema);
+        CRC32 checksum = new CRC32();
+        checksum.update(payload);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        header.putInt(MAGIC).putShort(FORMAT_VERSION).put(key).putInt(payload.length).putInt((int) checksum.getValue());
+
+        Path directory = cacheFile.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, cacheFile.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                header.flip();
+                ByteBuffer body = ByteBuffer.wrap(payload);
+                while (header.hasRemaining() || body.hasRemaining()) {
+                    channel.write(new ByteBuffer[]{header, body});
+                }
+            }
+            try {
+                Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static ASN1Schema parse(List<Path> sources) throws IOException {
+        ASN1GrammarParser parser = new ASN1GrammarParser();
+        ASN1Schema schema = new ASN1Schema();
+        for (Path source : sources) {
+            try (InputStream in = Files.newInputStream(source)) {
+                parser.parse(in).getAllTypeDefinitions().forEach(schema::addTypeDefinition);
+            }
+        }
+        return schema;
+    }
+
+    // ---- Encoding ----
+
+    private static byte[] encode(ASN1Schema schema) throws IOException {
+        // Definitions are written in name order, so the same schema always gives the same bytes.
+        Map<String, ASN1TypeDefinition> definitions = new TreeMap<>(schema.getAllTypeDefinitions());
+        Map<String, Integer> indexes = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+        out.writeInt(definitions.size());
+        for (Map.Entry<String, ASN1TypeDefinition> entry : definitions.entrySet()) {
+            ASN1TypeDefinition def = entry.getValue();
+            writeString(out, entry.getKey(), indexes, strings);
+            writeString(out, def.getName(), indexes, strings);
+            writeString(out, def.getBaseType() == null ? null : def.getBaseType().name(), indexes, strings);
+            writeTag(out, def.getTagInfo());
+            writeString(out, def.getConstraints(), indexes, strings);
+            writeString(out, def.getElementTypeName(), indexes, strings);
+            out.writeInt(def.getFields().size());
+            for (ASN1TypeDefinition.ASN1Field field : def.getFields()) {
+                writeString(out, field.getName(), indexes, strings);
+                writeString(out, field.getTypeName(), indexes, strings);
+                out.writeBoolean(field.isOptional());
+                writeTag(out, field.getTagInfo());
+            }
+            out.writeInt(def.getNamedNumbers().size());
+            for (ASN1TypeDefinition.NamedNumber number : def.getNamedNumbers()) {
+                writeString(out, number.getName(), indexes, strings);
+                out.writeInt(number.getValue());
+            }
+        }
+        out.flush();
+
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(body.size() + strings.size() * 16);
+        DataOutputStream table = new DataOutputStream(payload);
+        table.writeInt(strings.size());
+        for (String s : strings) {
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            table.writeInt(utf8.length);
+            table.write(utf8);
+        }
+        body.writeTo(table);
+        table.flush();
+        return payload.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String s, Map<String, Integer> indexes, List<String> strings) throws IOException {
+        if (s == null) {
+            out.writeInt(NONE);
+            return;
+        }
+        Integer index = indexes.get(s);
+        if (index == null) {
+            index = strings.size();
+            indexes.put(s, index);
+            strings.add(s);
+        }
+        out.writeInt(index);
+    }
+
+    private static void writeTag(DataOutputStream out, ASN1TagInfo tag) throws IOException {
+        if (tag == null) {
+            out.writeBoolean(false);
+            return;
+        }
+        out.writeBoolean(true);
+        out.writeByte(tag.getTagClass() == null ? NONE : tag.getTagClass().ordinal());
+        out.writeByte(tag.getTaggingMode() == null ? NONE : tag.getTaggingMode().ordinal());
+        out.writeInt(tag.getTagNumber());
+    }
+
+    // ---- Decoding ----
+
+    private static ASN1Schema decode(ByteBuffer in) {
+        // Each string takes at least its 4-byte length, so a count beyond that is damage, not a huge table.
+        String[] strings = new String[readLength(in, 4)];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] utf8 = new byte[readLength(in, 1)];
+            in.get(utf8);
+            strings[i] = new String(utf8, StandardCharsets.UTF_8);
+        }
+        ASN1Schema schema = new ASN1Schema();
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            String key = readString(in, strings);
+            ASN1TypeDefinition def = new ASN1TypeDefinition(readString(in, strings));
+            String baseType = readString(in, strings);
+            def.setBaseType(baseType == null ? null : ASN1BaseType.valueOf(baseType));
+            def.setTagInfo(readTag(in));
+            def.setConstraints(readString(in, strings));
+            def.setElementTypeName(readString(in, strings));
+            int fields = in.getInt();
+            for (int f = 0; f < fields; f++) {
+                ASN1TypeDefinition.ASN1Field field = new ASN1TypeDefinition.ASN1Field(
+                        readString(in, strings), readString(in, strings), in.get() != 0);
+                field.setTagInfo(readTag(in));
+                def.addField(field);
+            }
+            int numbers = in.getInt();
+            for (int n = 0; n < numbers; n++) {
+                def.addNamedNumber(new ASN1TypeDefinition.NamedNumber(readString(in, strings), in.getInt()));
+            }
+            schema.addTypeDefinition(key, def);
+        }
+        if (in.hasRemaining()) {
+            throw new IllegalArgumentException("Trailing bytes in schema cache");
+        }
+        return schema;
+    }
+
+    /**
+     * Reads a count of items that each take at least {@code itemSize} bytes, rejecting counts the remaining bytes
+     * cannot hold before anything is allocated for them.
+     */
+    private static int readLength(ByteBuffer in, int itemSize) {
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining() / itemSize) {
+            throw new IllegalArgumentException("Invalid length in schema cache: " + length);
+        }
+        return length;
+    }
+
+    private static String readString(ByteBuffer in, String[] strings) {
+        int index = in.getInt();
+        return index == NONE ? null : strings[index];
+    }
+
+    private static ASN1TagInfo readTag(ByteBuffer in) {
+        if (in.get() == 0) {
+            return null;
+        }
+        byte tagClass = in.get();
+        byte mode = in.get();
+        int number = in.getInt();
+        return new ASN1TagInfo(tagClass == NONE ? null : TagClass.values()[tagClass], number,
+                mode == NONE ? null : TaggingMode.values()[mode]);
+    }
+
+    /**
+     * Reads the library version from the {@code version.properties} resource that Maven filters into the build,
+     * falling back to the jar manifest when the classes were built without it.
+     */
+    private static String readLibraryVersion() {
+        try (InputStream in = SchemaCache.class.getResourceAsStream("version.properties")) {
+            if (in != null) {
+                Properties properties = new Properties();
+                properties.load(in);
+                String version = properties.getProperty("version");
+                if (version != null && !version.isEmpty() && !version.startsWith("${")) {
+                    return version;
+                }
+            }
+        } catch (IOException e) {
+            // Fall through to the manifest.
+        }
+        String version = SchemaCache.class.getPackage().getImplementationVersion();
+        return version != null ? version : "unversioned";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
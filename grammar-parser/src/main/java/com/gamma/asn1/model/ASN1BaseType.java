@@ -1,34 +1,84 @@
 package com.gamma.asn1.model;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
- * Defines the base ASN.1 types.
+ * Defines the base ASN.1 types, together with their default UNIVERSAL tag number and the
+ * keyword used for them in ASN.1 notation.
  */
 public enum ASN1BaseType {
-    INTEGER,
-    OCTET_STRING,
-    SEQUENCE,
-    SEQUENCE_OF,
-    SET,
-    SET_OF,
-    CHOICE,
-    BOOLEAN,
-    NULL,
-    ENUMERATED,
-    OBJECT_IDENTIFIER,
-    RELATIVE_OID,
-    BIT_STRING,
-    REAL,
-    DATE,
-    TIME_OF_DAY,
-    DATE_TIME,
-    DURATION,
-    UTF8_STRING,
-    PRINTABLE_STRING,
-    IA5_STRING,
-    VISIBLE_STRING,
-    GENERAL_STRING,
-    NUMERIC_STRING,
-    BMP_STRING,
-    UNIVERSAL_STRING
+    INTEGER(2, "INTEGER"),
+    OCTET_STRING(4, "OCTET STRING"),
+    SEQUENCE(16, "SEQUENCE"),
+    SEQUENCE_OF(16, "SEQUENCE OF"),
+    SET(17, "SET"),
+    SET_OF(17, "SET OF"),
+    CHOICE(-1, "CHOICE"), // A CHOICE has no tag of its own; the chosen alternative's tag is used.
+    BOOLEAN(1, "BOOLEAN"),
+    NULL(5, "NULL"),
+    ENUMERATED(10, "ENUMERATED"),
+    OBJECT_IDENTIFIER(6, "OBJECT IDENTIFIER"),
+    RELATIVE_OID(13, "RELATIVE-OID"),
+    BIT_STRING(3, "BIT STRING"),
+    REAL(9, "REAL"),
+    DATE(31, "DATE"),
+    TIME_OF_DAY(32, "TIME-OF-DAY"),
+    DATE_TIME(33, "DATE-TIME"),
+    DURATION(34, "DURATION"),
+    UTF8_STRING(12, "UTF8String"),
+    PRINTABLE_STRING(19, "PrintableString"),
+    IA5_STRING(22, "IA5String"),
+    VISIBLE_STRING(26, "VisibleString"),
+    GENERAL_STRING(27, "GeneralString"),
+    NUMERIC_STRING(18, "NumericString"),
+    BMP_STRING(30, "BMPString"),
+    UNIVERSAL_STRING(28, "UniversalString");
     // TODO: Add other base types as needed from relevant ASN.1 standards like X.680
+
+    private static final Map<String, ASN1BaseType> BY_KEYWORD = new HashMap<>();
+
+    static {
+        for (ASN1BaseType type : values()) {
+            BY_KEYWORD.put(type.keyword, type);
+        }
+    }
+
+    private final int universalTagNumber;
+    private final String keyword;
+
+    ASN1BaseType(int universalTagNumber, String keyword) {
+        this.universalTagNumber = universalTagNumber;
+        this.keyword = keyword;
+    }
+
+    /**
+     * @return The UNIVERSAL tag number used when a value of this type is not tagged, or -1 for CHOICE.
+     */
+    public int getUniversalTagNumber() {
+        return universalTagNumber;
+    }
+
+    /**
+     * @return {@code true} if values of this type are encoded in the constructed form.
+     */
+    public boolean isConstructed() {
+        return this == SEQUENCE || this == SEQUENCE_OF || this == SET || this == SET_OF;
+    }
+
+    /**
+     * @return The keyword of this type in ASN.1 notation, e.g. "OCTET STRING" or "IA5String".
+     */
+    public String getKeyword() {
+        return keyword;
+    }
+
+    /**
+     * Looks up a built-in type by the name used to reference it in a field definition.
+     * @param typeName A type reference such as "INTEGER" or "IA5String".
+     * @return The matching base type, or {@code null} if the name refers to a user-defined type.
+     */
+    public static ASN1BaseType fromKeyword(String typeName) {
+        return typeName == null ? null : BY_KEYWORD.get(typeName);
+    }
 }
@@ -28,6 +28,15 @@ public class ASN1TagInfo implements Serializable {
         return tagClass;
     }
 
+    /**
+     * Returns the class the tag is encoded with. A tag written without a class, e.g. {@code [1] IMPLICIT}, is
+     * context-specific; every consumer that maps tags to identifier octets must use this rule.
+     * @return The class of the tag, {@link TagClass#CONTEXT_SPECIFIC} if none was given.
+     */
+    public TagClass getEffectiveTagClass() {
+        return tagClass != null ? tagClass : TagClass.CONTEXT_SPECIFIC;
+    }
+
     public int getTagNumber() {
         return tagNumber;
     }
@@ -0,0 +1,263 @@
+package com.gamma.asn1.grammar;
+
+import com.gamma.asn1.model.ASN1BaseType;
+import com.gamma.asn1.model.ASN1TagInfo;
+import com.gamma.asn1.model.ASN1TypeDefinition;
+import com.gamma.asn1.model.TagClass;
+import com.gamma.asn1.model.TaggingMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SchemaCacheTest {
+
+    /** Magic, format version and key precede the payload length and CRC. */
+    private static final int PAYLOAD_LENGTH_OFFSET = 4 + 2 + 32;
+    private static final int HEADER_LENGTH = PAYLOAD_LENGTH_OFFSET + 4 + 4;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void schemaRoundTrips() throws Exception {
+        ASN1Schema schema = schema();
+        SchemaCache cache = new SchemaCache(dir.resolve("schema.cache"));
+        byte[] key = key("A ::= INTEGER");
+        cache.write(schema, key);
+
+        ASN1Schema read = cache.read(key);
+        assertNotNull(read);
+        assertEquals(describe(schema), describe(read));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of(dir.resolve("schema.cache")), files.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void sameSchemaGivesTheSameBytes() throws Exception {
+        byte[] key = key("A ::= INTEGER");
+        SchemaCache first = new SchemaCache(dir.resolve("first.cache"));
+        first.write(schema(), key);
+        SchemaCache second = new SchemaCache(dir.resolve("second.cache"));
+        second.write(schema(), key);
+
+        assertArrayEquals(Files.readAllBytes(dir.resolve("first.cache")), Files.readAllBytes(dir.resolve("second.cache")));
+    }
+
+    @Test
+    void loadUsesAMatchingCacheWithoutParsing() throws Exception {
+        Path source = Files.writeString(dir.resolve("a.asn"), "A DEFINITIONS ::= BEGIN A ::= INTEGER END");
+        List<Path> sources = List.of(source);
+        SchemaCache cache = new SchemaCache(dir.resolve("schema.cache"));
+        // The cached schema does not match the source, so it can only come from the cache.
+        cache.write(schema(), SchemaCache.key(sources));
+
+        assertEquals(describe(schema()), describe(cache.load(sources)));
+    }
+
+    @Test
+    void keyCoversTheContentAndOrderOfTheSources() throws Exception {
+        Path a = Files.writeString(dir.resolve("a.asn"), "A ::= INTEGER\n");
+        Path b = Files.writeString(dir.resolve("b.asn"), "B ::= BOOLEAN\n");
+        byte[] key = SchemaCache.key(List.of(a, b));
+        assertEquals(32, key.length);
+        assertArrayEquals(key, SchemaCache.key(List.of(a, b)));
+        assertFalse(Arrays.equals(key, SchemaCache.key(List.of(b, a))));
+
+        // Moving text from one source to the next keeps the concatenation, but not the key.
+        Path a2 = Files.writeString(dir.resolve("a2.asn"), "A ::= INTEGER\nB ::= ");
+        Path b2 = Files.writeString(dir.resolve("b2.asn"), "BOOLEAN\n");
+        assertFalse(Arrays.equals(key, SchemaCache.key(List.of(a2, b2))));
+
+        Files.writeString(b, "B ::= OCTET STRING\n");
+        assertFalse(Arrays.equals(key, SchemaCache.key(List.of(a, b))));
+    }
+
+    @Test
+    void staleKeyIsAMiss() throws Exception {
+        SchemaCache cache = new SchemaCache(dir.resolve("schema.cache"));
+        cache.write(schema(), key("A ::= INTEGER"));
+
+        assertNull(cache.read(key("A ::= BOOLEAN")));
+    }
+
+    @Test
+    void missingFileIsAMiss() {
+        assertNull(new SchemaCache(dir.resolve("schema.cache")).read(new byte[32]));
+    }
+
+    @Test
+    void otherFormatVersionIsAMiss() throws Exception {
+        Path file = dir.resolve("schema.cache");
+        SchemaCache cache = new SchemaCache(file);
+        byte[] key = key("A ::= INTEGER");
+        cache.write(schema(), key);
+        byte[] data = Files.readAllBytes(file);
+        ByteBuffer.wrap(data).putShort(4, (short) (SchemaCache.FORMAT_VERSION + 1));
+        Files.write(file, data);
+
+        assertNull(cache.read(key));
+    }
+
+    @Test
+    void damagedFilesAreMisses() throws Exception {
+        Path file = dir.resolve("schema.cache");
+        SchemaCache cache = new SchemaCache(file);
+        byte[] key = key("A ::= INTEGER");
+        cache.write(schema(), key);
+        byte[] valid = Files.readAllBytes(file);
+
+        for (int i = 0; i < valid.length; i++) {
+            byte[] corrupt = valid.clone();
+            corrupt[i] ^= 0x04;
+            Files.write(file, corrupt);
+            assertNull(cache.read(key), "bit flipped in byte " + i);
+        }
+        for (int length = 0; length < valid.length; length++) {
+            Files.write(file, Arrays.copyOf(valid, length));
+            assertNull(cache.read(key), "truncated to " + length);
+        }
+        byte[] extended = Arrays.copyOf(valid, valid.length + 1);
+        Files.write(file, extended);
+        assertNull(cache.read(key), "trailing byte");
+    }
+
+    @Test
+    void damagedPayloadWithAValidChecksumIsAMiss() throws Exception {
+        Path file = dir.resolve("schema.cache");
+        SchemaCache cache = new SchemaCache(file);
+        byte[] key = key("A ::= INTEGER");
+        cache.write(schema(), key);
+        byte[] valid = Files.readAllBytes(file);
+
+        // Damage that the CRC cannot catch, e.g. from a buggy writer, must not escape as an exception.
+        Random random = new Random(1);
+        for (int i = 0; i < 2000; i++) {
+            byte[] corrupt = valid.clone();
+            for (int n = 1 + random.nextInt(3); n > 0; n--) {
+                corrupt[HEADER_LENGTH + random.nextInt(valid.length - HEADER_LENGTH)] = (byte) random.nextInt(256);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(corrupt, HEADER_LENGTH, corrupt.length - HEADER_LENGTH);
+            ByteBuffer.wrap(corrupt).putInt(PAYLOAD_LENGTH_OFFSET + 4, (int) crc.getValue());
+            Files.write(file, corrupt);
+            cache.read(key);
+        }
+        // A string table claiming more strings than the payload can hold.
+        byte[] corrupt = valid.clone();
+        ByteBuffer.wrap(corrupt).putInt(HEADER_LENGTH, Integer.MAX_VALUE);
+        CRC32 crc = new CRC32();
+        crc.update(corrupt, HEADER_LENGTH, corrupt.length - HEADER_LENGTH);
+        ByteBuffer.wrap(corrupt).putInt(PAYLOAD_LENGTH_OFFSET + 4, (int) crc.getValue());
+        Files.write(file, corrupt);
+        assertNull(cache.read(key));
+    }
+
+    @Test
+    void rewritingReplacesTheCache() throws Exception {
+        SchemaCache cache = new SchemaCache(dir.resolve("schema.cache"));
+        byte[] oldKey = key("A ::= INTEGER");
+        byte[] newKey = key("A ::= BOOLEAN");
+        cache.write(schema(), oldKey);
+        ASN1Schema smaller = new ASN1Schema();
+        smaller.addTypeDefinition("A", definition("A", ASN1BaseType.BOOLEAN));
+        cache.write(smaller, newKey);
+
+        assertNull(cache.read(oldKey));
+        assertEquals(describe(smaller), describe(cache.read(newKey)));
+    }
+
+    @Test
+    void keyMustHaveTheDigestLength() {
+        SchemaCache cache = new SchemaCache(dir.resolve("schema.cache"));
+        assertThrows(IllegalArgumentException.class, () -> cache.write(schema(), new byte[16]));
+        assertFalse(Files.exists(dir.resolve("schema.cache")));
+    }
+
+    private byte[] key(String source) throws Exception {
+        Path file = Files.writeString(dir.resolve("key.asn"), source);
+        byte[] key = SchemaCache.key(List.of(file));
+        Files.delete(file);
+        assertNotEquals(0, key.length);
+        return key;
+    }
+
+    /**
+     * A schema that uses every part of the format: tags with and without class and tagging mode, constraints,
+     * element types, optional fields, named numbers, a definition without a base type, and non-ASCII text.
+     */
+    private static ASN1Schema schema() {
+        ASN1TypeDefinition record = definition("Record", ASN1BaseType.SEQUENCE);
+        record.setTagInfo(new ASN1TagInfo(TagClass.APPLICATION, 1, TaggingMode.IMPLICIT));
+        ASN1TypeDefinition.ASN1Field id = new ASN1TypeDefinition.ASN1Field("id", "INTEGER", false);
+        id.setTagInfo(new ASN1TagInfo(null, 0, null));
+        record.addField(id);
+        ASN1TypeDefinition.ASN1Field cause = new ASN1TypeDefinition.ASN1Field("cause", "Cause", true);
+        cause.setTagInfo(new ASN1TagInfo(TagClass.PRIVATE, 100_000, TaggingMode.EXPLICIT));
+        record.addField(cause);
+        record.addField(new ASN1TypeDefinition.ASN1Field("names", "Names", true));
+
+        ASN1TypeDefinition causeType = definition("Cause", ASN1BaseType.ENUMERATED);
+        causeType.addNamedNumber(new ASN1TypeDefinition.NamedNumber("normal", 0));
+        causeType.addNamedNumber(new ASN1TypeDefinition.NamedNumber("abnormal", -1));
+
+        ASN1TypeDefinition names = definition("Names", ASN1BaseType.SEQUENCE_OF);
+        names.setElementTypeName("UTF8String");
+        names.setConstraints("SIZE (1..8) -- Gr\u00F6\u00DFe");
+
+        ASN1Schema schema = new ASN1Schema();
+        schema.addTypeDefinition("Record", record);
+        schema.addTypeDefinition("Cause", causeType);
+        schema.addTypeDefinition("Names", names);
+        // Registered under another name than its own, as imported types are.
+        schema.addTypeDefinition("Other.Alias", definition("Alias", null));
+        return schema;
+    }
+
+    private static ASN1TypeDefinition definition(String name, ASN1BaseType baseType) {
+        ASN1TypeDefinition def = new ASN1TypeDefinition(name);
+        def.setBaseType(baseType);
+        return def;
+    }
+
+    private static String describe(ASN1Schema schema) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, ASN1TypeDefinition> entry : new TreeMap<>(schema.getAllTypeDefinitions()).entrySet()) {
+            ASN1TypeDefinition def = entry.getValue();
+            sb.append(entry.getKey()).append(" = ").append(def.getName()).append(' ').append(def.getBaseType())
+                    .append(' ').append(describe(def.getTagInfo())).append(" constraints=").append(def.getConstraints())
+                    .append(" of=").append(def.getElementTypeName()).append('\n');
+            for (ASN1TypeDefinition.ASN1Field field : def.getFields()) {
+                sb.append("  ").append(field.getName()).append(' ').append(field.getTypeName())
+                        .append(field.isOptional() ? " OPTIONAL " : " ").append(describe(field.getTagInfo())).append('\n');
+            }
+            for (ASN1TypeDefinition.NamedNumber number : def.getNamedNumbers()) {
+                sb.append("  ").append(number.getName()).append('(').append(number.getValue()).append(")\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String describe(ASN1TagInfo tag) {
+        return tag == null ? "untagged" : "[" + tag.getTagClass() + " " + tag.getTagNumber() + "] " + tag.getTaggingMode();
+    }
+}